@@ -33,6 +33,9 @@ public interface ServerAPI {
     /** Value - {@value}, Webapp is an UI that is over Grapes server server REST API.*/
     public static final String WEBAPP_RESOURCE = "webapp";
 
+    /** Value - {@value}, Ingestion is a Grapes server resource that gives the status of the modules posted in asynchronous ingestion mode.*/
+    public static final String INGESTION_RESOURCE = "ingestion";
+
     //METHODS
     /** Value - {@value}, GET methods that returns the deliveries of a product. Usually used as /product/{name}/<GET_DELIVERIES>.*/
     public static final String GET_DELIVERIES = "/deliveries";
@@ -46,6 +49,9 @@ public interface ServerAPI {
     /** Value - {@value}, GET methods that returns the list of corporate groupIds. Usually used as /organization/{name}/<GET_CORPORATE_GROUPIDS>.*/
     public static final String GET_CORPORATE_GROUPIDS = "/corporateGroupIds";
 
+    /** Value - {@value}, GET methods that returns the jobs updating the modules of an organization. Usually used as /organization/{name}/<GET_TAGGING_JOBS>.*/
+    public static final String GET_TAGGING_JOBS = "/taggingJobs";
+
     /** Value - {@value}, GET methods that returns the names of the targeted resources. Usually used as /resourceName<GET_NAMES>.*/
     public static final String GET_NAMES = "/names";
 
@@ -97,6 +103,9 @@ public interface ServerAPI {
     /** Value - {@value}, GET methods that retrieve all the elements of a resource type. Usually used as /<RESOURCE><GET_ALL>.*/
     public static final String GET_ALL = "/all";
 
+    /** Value - {@value}, POST methods that handle several elements of a resource type in one request. Usually used as /<RESOURCE><BATCH>.*/
+    public static final String BATCH = "/batch";
+
     //QUERY PARAMETERS
     /** Value - {@value}, boolean query parameter that is used to get the result of the request going till the end of the dependency depth. Override depth parameter if exist.*/
     public static final String RECURSIVE_PARAM = "fullRecursive";
@@ -104,6 +113,12 @@ public interface ServerAPI {
     /** Value - {@value}, integer query parameter that is used to set a depth into the dependency result.*/
     public static final String DEPTH_PARAM = "depth";
 
+    /** Value - {@value}, integer query parameter of the graphs: the elements below this depth are grouped by groupId.*/
+    public static final String COLLAPSE_DEPTH_PARAM = "collapseDepth";
+
+    /** Value - {@value}, String query parameter used to select the format of a graph export: json, dot or graphml.*/
+    public static final String FORMAT_PARAM = "format";
+
     /** Value - {@value}, boolean query parameter used for licenses.*/
     public static final String APPROVED_PARAM = "approved";
 
@@ -3,10 +3,9 @@ package org.axway.grapes.server;
 import org.axway.grapes.server.config.DataBaseConfig;
 import org.axway.grapes.server.db.DBException;
 import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
 import org.axway.grapes.server.db.mongo.MongodbHandler;
 
-import java.net.UnknownHostException;
-
 /**
  * Db Resolver
  * 
@@ -22,9 +21,19 @@ public final class DbResolver {
         // Utility class should never be instanciate
     }
     
-    public static RepositoryHandler getNewRepoHandler(final DataBaseConfig config) throws DBException, UnknownHostException{
-        if(MONGO.equalsIgnoreCase(config.getDbsystem())){
-            return new MongodbHandler(config);
+    /**
+     * Checks if the configured database system is MongoDB, the components that reach MongoDB need a MongoDatastore only in that case
+     *
+     * @param config DataBaseConfig
+     * @return boolean
+     */
+    public static boolean isMongoDb(final DataBaseConfig config) {
+        return MONGO.equalsIgnoreCase(config.getDbsystem());
+    }
+
+    public static RepositoryHandler getNewRepoHandler(final DataBaseConfig config, final MongoDatastore datastore) throws DBException{
+        if(isMongoDb(config)){
+            return new MongodbHandler(datastore);
         }
         
         throw new DBException("Cannot find any matching database system currently implemented.");
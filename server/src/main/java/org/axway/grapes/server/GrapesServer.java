@@ -2,17 +2,37 @@ package org.axway.grapes.server;
 
 import com.yammer.dropwizard.Service;
 import com.yammer.dropwizard.assets.AssetsBundle;
+import com.yammer.dropwizard.auth.CachingAuthenticator;
 import com.yammer.dropwizard.auth.basic.BasicAuthProvider;
+import com.yammer.dropwizard.auth.basic.BasicCredentials;
 import com.yammer.dropwizard.config.Bootstrap;
 import com.yammer.dropwizard.config.Environment;
 import com.yammer.dropwizard.views.ViewBundle;
+import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.IngestionHandler;
+import org.axway.grapes.server.core.LicenseIndex;
+import org.axway.grapes.server.core.concurrent.SingleFlight;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.core.graphs.CompressedDependencyGraph;
+import org.axway.grapes.server.core.graphs.TraversalExecutor;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+import org.axway.grapes.server.core.tagging.OrganizationTagger;
+import org.axway.grapes.server.db.ChangeTrackingRepositoryHandler;
 import org.axway.grapes.server.db.DBException;
+import org.axway.grapes.server.db.RequestScopedRepositoryHandler;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
+import org.axway.grapes.server.db.mongo.IndexRegistry;
+import org.axway.grapes.server.db.mongo.IndexRegistry.IndexDefinition;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
 import org.axway.grapes.server.webapp.auth.GrapesAuthenticator;
+import org.axway.grapes.server.webapp.filters.RequestScopeFilter;
+import org.axway.grapes.server.webapp.filters.ResponseCacheFilter;
 import org.axway.grapes.server.webapp.healthcheck.DataBaseCheck;
 import org.axway.grapes.server.webapp.healthcheck.DataModelVersionCheck;
+import org.axway.grapes.server.webapp.healthcheck.IndexCheck;
 import org.axway.grapes.server.webapp.resources.*;
 import org.axway.grapes.server.webapp.tasks.*;
 import org.axway.grapes.server.webapp.tasks.migrate.MigrationTask;
@@ -38,6 +58,9 @@ public class GrapesServer extends Service<GrapesServerConfig> {
 
 	private static final Logger LOG = LoggerFactory.getLogger(GrapesServer.class);
 
+    // Connection pool shared by all the components reaching the database
+    private MongoDatastore datastore;
+
     protected GrapesServer() {
         super();
     }
@@ -70,40 +93,104 @@ public class GrapesServer extends Service<GrapesServerConfig> {
 	@Override
 	public void run(final GrapesServerConfig config, final Environment env) throws DBException, UnknownHostException {
 
-        // init the repoHandler
-        final RepositoryHandler repoHandler = getRepositoryHandler(config);
+        // init the shared connection pool when the database is a MongoDB, closed when the server stops
+        final boolean mongoDb = DbResolver.isMongoDb(config.getDataBaseConfig());
+        if(mongoDb){
+            datastore = new MongoDatastore(config.getDataBaseConfig());
+            env.manage(datastore);
+            provisionIndexes();
+        }
+
+        // init the repoHandler, its writes make the cached responses stale and its reads are deduplicated within each request
+        final ChangeTrackingRepositoryHandler trackedRepoHandler = new ChangeTrackingRepositoryHandler(getRepositoryHandler(config));
+        final RequestScopedRepositoryHandler repoHandler = new RequestScopedRepositoryHandler(trackedRepoHandler);
+
+        // In-memory dependency graph, loaded in background: the traversals read the database until it is ready
+        final CompressedDependencyGraph dependencyGraph = new CompressedDependencyGraph(repoHandler);
+        env.manage(dependencyGraph);
+        final TraversalExecutor traversalExecutor = new TraversalExecutor().configure(config.getTraversalConfig());
+        env.manage(traversalExecutor);
+        final SingleFlight singleFlight = new SingleFlight().configure(config.getTraversalConfig().getCoalescingTimeout());
+        final ClosureCache closureCache = new ClosureCache(singleFlight).configure(config.getTraversalConfig().getClosureCachePolicy());
+
+        // Organization updates of the modules, in background
+        final OrganizationTagger organizationTagger = new OrganizationTagger(repoHandler, closureCache).configure(config.getTaggingConfig());
+        env.manage(organizationTagger);
+
+        // Collaborators of the core handlers, shared by all the resources
+        final CoreServices services = new CoreServices(repoHandler, new LicenseIndex(repoHandler), dependencyGraph,
+                traversalExecutor, closureCache, singleFlight, organizationTagger);
 
         // Add credential management
-        final GrapesAuthenticator grapesAuthenticator = new GrapesAuthenticator(repoHandler);
+        final CachingAuthenticator<BasicCredentials, DbCredential> grapesAuthenticator =
+                GrapesAuthenticator.cached(new GrapesAuthenticator(repoHandler), config.getAuthenticationCachePolicy());
         final BasicAuthProvider authProvider = new BasicAuthProvider<DbCredential>(grapesAuthenticator, "Grapes Authenticator Provider");
         env.addProvider(authProvider);
 
+        // Asynchronous ingestion of the posted modules, the queue is drained until the server stops
+        IngestionQueue ingestionQueue = null;
+        if(config.getIngestionConfig().isAsync()){
+            ingestionQueue = new IngestionQueue(config.getIngestionConfig(), new IngestionHandler(services));
+            env.manage(ingestionQueue);
+            env.addResource(new IngestionResource(ingestionQueue));
+        }
+
         // Tasks
-        env.addTask(new AddUserTask(repoHandler));
-        env.addTask(new AddRoleTask(repoHandler));
-        env.addTask(new RemoveRoleTask(repoHandler));
+        env.addTask(new AddUserTask(repoHandler, grapesAuthenticator));
+        env.addTask(new AddRoleTask(repoHandler, grapesAuthenticator));
+        env.addTask(new RemoveRoleTask(repoHandler, grapesAuthenticator));
         env.addTask(new MaintenanceModeTask(config));
         env.addTask(new KillTask());
-        env.addTask(new MigrationTask(config.getDataBaseConfig()));
 
-        // Health checks
-        env.addHealthCheck(new DataBaseCheck(config.getDataBaseConfig()));
-        env.addHealthCheck(new DataModelVersionCheck(config.getDataBaseConfig()));
+        // MongoDB tasks and health checks
+        if(mongoDb){
+            env.addTask(new MigrationTask(datastore, trackedRepoHandler));
+            env.addTask(new ExplainTask(datastore));
+            env.addHealthCheck(new DataBaseCheck(datastore));
+            env.addHealthCheck(new DataModelVersionCheck(datastore));
+            env.addHealthCheck(new IndexCheck(datastore));
+        }
+
+        // Identity map of the repository reads of each request
+        final RequestScopeFilter requestScopeFilter = new RequestScopeFilter(repoHandler);
+        env.addFilter(requestScopeFilter, "/*");
+        env.getJerseyResourceConfig().getContainerResponseFilters().add(requestScopeFilter);
+
+        // Cache of the report responses
+        if(config.getResponseCacheConfig().isEnabled()){
+            env.addFilter(new ResponseCacheFilter(trackedRepoHandler, config.getResponseCacheConfig()), "/" + ServerAPI.MODULE_RESOURCE + "/*")
+                    .addUrlPattern("/" + ServerAPI.SEQUOIA_RESOURCE + "/*");
+        }
 
         // Resources
-        env.addResource(new OrganizationResource(repoHandler, config));
-        env.addResource(new ProductResource(repoHandler, config));
-        env.addResource(new ModuleResource(repoHandler, config));
-        env.addResource(new ArtifactResource(repoHandler, config));
-        env.addResource(new LicenseResource(repoHandler, config));
-        env.addResource(new Sequoia(repoHandler, config));
-        env.addResource(new WebAppResource(repoHandler, config));
-        env.addResource(new RootResource(repoHandler, config));
+        env.addResource(new OrganizationResource(services, config));
+        env.addResource(new ProductResource(services, config));
+        env.addResource(new ModuleResource(services, config, ingestionQueue));
+        env.addResource(new ArtifactResource(services, config));
+        env.addResource(new LicenseResource(services, config));
+        env.addResource(new Sequoia(services, config));
+        env.addResource(new WebAppResource(services, config));
+        env.addResource(new RootResource(services, config));
 
 	}
 
+    /**
+     * Creates the indexes of the IndexRegistry that are missing in the database.
+     * A database that cannot be reached does not prevent the server from starting, the index health check reports it.
+     */
+    private void provisionIndexes() {
+        try{
+            for(IndexDefinition index: IndexRegistry.ensureIndexes(datastore.getDb())){
+                LOG.info("Created missing index " + index);
+            }
+        }
+        catch (Exception e){
+            LOG.error("Failed to provision the database indexes: " + e.getMessage());
+        }
+    }
+
     public RepositoryHandler getRepositoryHandler(final GrapesServerConfig config) throws DBException, UnknownHostException {
-        return DbResolver.getNewRepoHandler(config.getDataBaseConfig());
+        return DbResolver.getNewRepoHandler(config.getDataBaseConfig(), datastore);
     }
 
 }
\ No newline at end of file
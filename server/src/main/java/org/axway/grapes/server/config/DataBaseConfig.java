@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.yammer.dropwizard.config.Configuration;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 /**
@@ -45,6 +46,41 @@ public class DataBaseConfig  extends Configuration{
     @JsonProperty
     private String dbsystem;
 
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int connectionsPerHost = 100;
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int threadsAllowedToBlockForConnectionMultiplier = 5;
+
+    @Valid
+    @Min(0)
+    @JsonProperty
+    private int maxWaitTime = 120000;
+
+    @Valid
+    @Min(0)
+    @JsonProperty
+    private int connectTimeout = 10000;
+
+    @Valid
+    @Min(0)
+    @JsonProperty
+    private int socketTimeout = 0;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private String readPreference = "primary";
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private String writeConcern = "ACKNOWLEDGED";
+
 	public String getHost() {
 		return host;
 	}
@@ -67,5 +103,68 @@ public class DataBaseConfig  extends Configuration{
 
     public String getDbsystem() {
         return dbsystem;
-    }    
+    }
+
+    /**
+     * Maximum number of pooled connections the server keeps open on the database host
+     *
+     * @return int
+     */
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    /**
+     * Multiplier of connectionsPerHost giving the number of threads allowed to wait for a pooled connection
+     *
+     * @return int
+     */
+    public int getThreadsAllowedToBlockForConnectionMultiplier() {
+        return threadsAllowedToBlockForConnectionMultiplier;
+    }
+
+    /**
+     * Maximum time (in ms) a thread waits for a pooled connection
+     *
+     * @return int
+     */
+    public int getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    /**
+     * Connection timeout (in ms), 0 means no timeout
+     *
+     * @return int
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Socket read timeout (in ms), 0 means no timeout
+     *
+     * @return int
+     */
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    /**
+     * Read preference name (primary, primaryPreferred, secondary, secondaryPreferred, nearest)
+     *
+     * @return String
+     */
+    public String getReadPreference() {
+        return readPreference;
+    }
+
+    /**
+     * Write concern name (ACKNOWLEDGED, JOURNALED, MAJORITY...)
+     *
+     * @return String
+     */
+    public String getWriteConcern() {
+        return writeConcern;
+    }
 }
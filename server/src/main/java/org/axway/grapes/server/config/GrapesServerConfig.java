@@ -30,6 +30,22 @@ public class GrapesServerConfig extends Configuration{
     @JsonProperty
     private final DataBaseConfig database = new DataBaseConfig();
 	
+    @Valid
+    @JsonProperty
+    private final IngestionConfig ingestion = new IngestionConfig();
+
+    @Valid
+    @JsonProperty
+    private final TraversalConfig traversal = new TraversalConfig();
+
+    @Valid
+    @JsonProperty
+    private final TaggingConfig tagging = new TaggingConfig();
+
+    @Valid
+    @JsonProperty
+    private final ResponseCacheConfig responseCache = new ResponseCacheConfig();
+
 	@Valid
     @JsonProperty
     private final String authenticationCachePolicy = "maximumSize=10000, expireAfterAccess=10m";
@@ -70,4 +86,20 @@ public class GrapesServerConfig extends Configuration{
     public CommunityConfig getCommunityConfiguration() {
         return community;
     }
+
+    public IngestionConfig getIngestionConfig() {
+        return ingestion;
+    }
+
+    public TraversalConfig getTraversalConfig() {
+        return traversal;
+    }
+
+    public TaggingConfig getTaggingConfig() {
+        return tagging;
+    }
+
+    public ResponseCacheConfig getResponseCacheConfig() {
+        return responseCache;
+    }
 }
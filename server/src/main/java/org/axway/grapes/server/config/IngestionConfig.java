@@ -0,0 +1,163 @@
+package org.axway.grapes.server.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.config.Configuration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Ingestion configuration
+ *
+ * <p>Optional configuration of the asynchronous ingestion of the posted modules.
+ * When it is enabled, the posted modules are journaled on disk and stored in the database by a pool of workers.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionConfig extends Configuration{
+
+    @Valid
+    @JsonProperty
+    private boolean async = false;
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int workers = 2;
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int capacity = 10000;
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int batchSize = 20;
+
+    @Valid
+    @Min(0)
+    @JsonProperty
+    private int maxRetries = 5;
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private long retryDelay = 1000;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private String journalDirectory = "ingestion-journal";
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private String ticketCachePolicy = "maximumSize=100000, expireAfterWrite=1h";
+
+    /**
+     * True if the posted modules are queued instead of being stored during the request
+     *
+     * @return boolean
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(final boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Number of threads that drain the queue
+     *
+     * @return int
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(final int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Maximum number of modules waiting in the queue, the posts are rejected above it
+     *
+     * @return int
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Maximum number of modules a worker stores at once
+     *
+     * @return int
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Number of times the store of a module is retried before its ticket is failed.
+     * A module that still fails stays in the journal and is retried at the next start.
+     *
+     * @return int
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(final int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Delay (in ms) before the first retry of a failed store, doubled at each retry
+     *
+     * @return long
+     */
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    public void setRetryDelay(final long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Directory of the journal that keeps the queued modules until they are stored
+     *
+     * @return String
+     */
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public void setJournalDirectory(final String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * Guava cache specification of the ticket statuses
+     *
+     * @return String
+     */
+    public String getTicketCachePolicy() {
+        return ticketCachePolicy;
+    }
+
+    public void setTicketCachePolicy(final String ticketCachePolicy) {
+        this.ticketCachePolicy = ticketCachePolicy;
+    }
+}
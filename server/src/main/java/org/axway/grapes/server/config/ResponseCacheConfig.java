@@ -0,0 +1,72 @@
+package org.axway.grapes.server.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.config.Configuration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+
+/**
+ * Response cache configuration
+ *
+ * <p>Optional configuration of the cache of the report responses.
+ * The cached responses are bounded by their total size in bytes, the least recently used ones are evicted first.
+ * Any write to the repository makes the cached responses stale.</p>
+ *
+ * @author jdcoffre
+ */
+public class ResponseCacheConfig extends Configuration{
+
+    @Valid
+    @JsonProperty
+    private boolean enabled = true;
+
+    @Valid
+    @Min(0)
+    @JsonProperty
+    private long maximumWeight = 64L * 1024 * 1024;
+
+    @Valid
+    @Min(0)
+    @JsonProperty
+    private int maximumEntrySize = 1024 * 1024;
+
+    /**
+     * Checks if the report responses are cached
+     *
+     * @return boolean
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Maximum total size in bytes of the cached responses
+     *
+     * @return long
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public void setMaximumWeight(final long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Maximum size in bytes of a cached response, the bigger responses are not cached
+     *
+     * @return int
+     */
+    public int getMaximumEntrySize() {
+        return maximumEntrySize;
+    }
+
+    public void setMaximumEntrySize(final int maximumEntrySize) {
+        this.maximumEntrySize = maximumEntrySize;
+    }
+}
@@ -0,0 +1,54 @@
+package org.axway.grapes.server.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.config.Configuration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Tagging configuration
+ *
+ * <p>Optional configuration of the jobs that update the organization of the modules when a corporate groupId is added to or removed from an organization.</p>
+ *
+ * @author jdcoffre
+ */
+public class TaggingConfig extends Configuration{
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int batchSize = 500;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private String jobCachePolicy = "maximumSize=1000, expireAfterWrite=1h";
+
+    /**
+     * Maximum number of modules updated at once
+     *
+     * @return int
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Guava cache specification of the job statuses
+     *
+     * @return String
+     */
+    public String getJobCachePolicy() {
+        return jobCachePolicy;
+    }
+
+    public void setJobCachePolicy(final String jobCachePolicy) {
+        this.jobCachePolicy = jobCachePolicy;
+    }
+}
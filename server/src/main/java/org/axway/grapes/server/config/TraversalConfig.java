@@ -0,0 +1,93 @@
+package org.axway.grapes.server.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.config.Configuration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Traversal configuration
+ *
+ * <p>Optional configuration of the dependency traversals.
+ * With a parallelism above 1, each level of the traversals is expanded by a pool of threads, by batches of modules.
+ * The results of the traversals are cached until a module or an artifact they depend on changes,
+ * the concurrent requests of the same traversal share a single computation.</p>
+ *
+ * @author jdcoffre
+ */
+public class TraversalConfig extends Configuration{
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int parallelism = 1;
+
+    @Valid
+    @Min(1)
+    @JsonProperty
+    private int batchSize = 32;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private String closureCachePolicy = "maximumSize=1000";
+
+    @Valid
+    @Min(0)
+    @JsonProperty
+    private long coalescingTimeout = 60000;
+
+    /**
+     * Number of threads that expand the traversal levels, 1 keeps the traversals on the request thread
+     *
+     * @return int
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Minimum number of elements handled by a thread, the smaller levels are expanded on the request thread
+     *
+     * @return int
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Guava cache specification of the traversal results
+     *
+     * @return String
+     */
+    public String getClosureCachePolicy() {
+        return closureCachePolicy;
+    }
+
+    public void setClosureCachePolicy(final String closureCachePolicy) {
+        this.closureCachePolicy = closureCachePolicy;
+    }
+
+    /**
+     * Time (in ms) a request waits for the same traversal computed by a concurrent request before computing it itself, 0 means no timeout
+     *
+     * @return long
+     */
+    public long getCoalescingTimeout() {
+        return coalescingTimeout;
+    }
+
+    public void setCoalescingTimeout(final long coalescingTimeout) {
+        this.coalescingTimeout = coalescingTimeout;
+    }
+}
@@ -13,8 +13,9 @@ import org.slf4j.LoggerFactory;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Artifact Handler
@@ -27,10 +28,12 @@ public class ArtifactHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(ArtifactHandler.class);
 
+    private final CoreServices services;
     private final RepositoryHandler repositoryHandler;
 
-    public ArtifactHandler(final RepositoryHandler repositoryHandler) {
-        this.repositoryHandler = repositoryHandler;
+    public ArtifactHandler(final CoreServices services) {
+        this.services = services;
+        this.repositoryHandler = services.getRepositoryHandler();
     }
 
     /**
@@ -40,6 +43,7 @@ public class ArtifactHandler {
      */
     public void store(final DbArtifact dbArtifact) {
         repositoryHandler.store(dbArtifact);
+        services.getClosureCache().artifactChanged(dbArtifact.getGavc());
     }
 
     /**
@@ -63,8 +67,7 @@ public class ArtifactHandler {
         final DbArtifact dbArtifact = getArtifact(gavc);
 
         // Try to find an existing license that match the new one
-        final LicenseHandler licenseHandler = new LicenseHandler(repositoryHandler);
-        final DbLicense license = licenseHandler.resolve(licenseId);
+        final DbLicense license = services.getLicenseIndex().resolve(licenseId);
 
         // If there is no existing license that match this one let's use the provided value but
         // only if the artifact has no license  yet. Otherwise it could mean that users has already
@@ -73,11 +76,13 @@ public class ArtifactHandler {
             if(dbArtifact.getLicenses().isEmpty()){
                 LOG.warn("Add reference to a non existing license called " + licenseId + " in  artifact " + dbArtifact.getGavc());
                 repositoryHandler.addLicenseToArtifact(dbArtifact, licenseId);
+                services.getClosureCache().artifactChanged(dbArtifact.getGavc());
             }
         }
         // Add only if the license is not already referenced
         else if(!dbArtifact.getLicenses().contains(license.getName())){
             repositoryHandler.addLicenseToArtifact(dbArtifact, license.getName());
+            services.getClosureCache().artifactChanged(dbArtifact.getGavc());
         }
     }
 
@@ -119,16 +124,8 @@ public class ArtifactHandler {
      * @return String
      */
     public String getArtifactLastVersion(final String gavc) {
-        final List<String> versions = getArtifactVersions(gavc);
-
-        try{
-            final VersionsHandler versionHandler = new VersionsHandler(repositoryHandler);
-            return versionHandler.getLastVersion(versions);
-        } catch (Exception e) {
-            // These versions cannot be compared
-            // Let's use the Collection.max() method by default
-            return Collections.max(versions);
-        }
+        final DbArtifact artifact = getArtifact(gavc);
+        return repositoryHandler.getLatestVersion(artifact).getLastVersion();
     }
 
     /**
@@ -204,6 +201,7 @@ public class ArtifactHandler {
     public void deleteArtifact(final String gavc){
         getArtifact(gavc);
         repositoryHandler.deleteArtifact(gavc);
+        services.getClosureCache().artifactChanged(gavc);
     }
 
     /**
@@ -215,6 +213,7 @@ public class ArtifactHandler {
     public void updateDoNotUse(final String gavc, final Boolean doNotUse) {
         final DbArtifact artifact = getArtifact(gavc);
         repositoryHandler.updateDoNotUse(artifact, doNotUse);
+        services.getClosureCache().artifactChanged(gavc);
     }
 
     /**
@@ -229,6 +228,28 @@ public class ArtifactHandler {
         return repositoryHandler.getAncestors(dbArtifact, filters);
     }
 
+    /**
+     * Return the artifacts that match the provided gavcs, the missing ones are ignored
+     *
+     * @param gavcs Collection<String>
+     * @return List<DbArtifact>
+     */
+    public List<DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        return repositoryHandler.getArtifacts(gavcs);
+    }
+
+    /**
+     * Return the modules that use the targeted artifacts
+     * The result maps each gavc to the modules that use it.
+     *
+     * @param gavcs Collection<String>
+     * @param filters FiltersHolder
+     * @return Map<String, List<DbModule>>
+     */
+    public Map<String, List<DbModule>> getAncestors(final Collection<String> gavcs, final FiltersHolder filters) {
+        return repositoryHandler.getAncestorsOf(gavcs, filters);
+    }
+
     /**
      * Return the list of licenses attached to an artifact
      *
@@ -279,6 +300,7 @@ public class ArtifactHandler {
         }
 
         repositoryHandler.addLicenseToArtifact(dbArtifact, dbLicense.getName());
+        services.getClosureCache().artifactChanged(gavc);
     }
 
     /**
@@ -296,7 +318,7 @@ public class ArtifactHandler {
         }
 
         repositoryHandler.removeLicenseFromArtifact(dbArtifact, licenseId);
-
+        services.getClosureCache().artifactChanged(gavc);
     }
 
     /**
@@ -0,0 +1,106 @@
+package org.axway.grapes.server.core;
+
+import org.axway.grapes.server.core.concurrent.SingleFlight;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.core.graphs.CompressedDependencyGraph;
+import org.axway.grapes.server.core.graphs.TraversalExecutor;
+import org.axway.grapes.server.core.tagging.OrganizationTagger;
+import org.axway.grapes.server.db.RepositoryHandler;
+
+/**
+ * Core Services
+ *
+ * <p>Collaborators shared by the core handlers: the repository handler and the process-wide components that work on it.
+ * They are built once by the server, then given to the resources that hand them to the handlers they create.</p>
+ *
+ * @author jdcoffre
+ */
+public final class CoreServices {
+
+    private final RepositoryHandler repositoryHandler;
+    private final LicenseIndex licenseIndex;
+    private final CompressedDependencyGraph dependencyGraph;
+    private final TraversalExecutor traversalExecutor;
+    private final ClosureCache closureCache;
+    private final SingleFlight singleFlight;
+    private final OrganizationTagger organizationTagger;
+
+    public CoreServices(final RepositoryHandler repositoryHandler,
+                        final LicenseIndex licenseIndex,
+                        final CompressedDependencyGraph dependencyGraph,
+                        final TraversalExecutor traversalExecutor,
+                        final ClosureCache closureCache,
+                        final SingleFlight singleFlight,
+                        final OrganizationTagger organizationTagger) {
+        this.repositoryHandler = repositoryHandler;
+        this.licenseIndex = licenseIndex;
+        this.dependencyGraph = dependencyGraph;
+        this.traversalExecutor = traversalExecutor;
+        this.closureCache = closureCache;
+        this.singleFlight = singleFlight;
+        this.organizationTagger = organizationTagger;
+    }
+
+    /**
+     * Returns the repository handler
+     *
+     * @return RepositoryHandler
+     */
+    public RepositoryHandler getRepositoryHandler() {
+        return repositoryHandler;
+    }
+
+    /**
+     * Returns the index that resolves the license ids
+     *
+     * @return LicenseIndex
+     */
+    public LicenseIndex getLicenseIndex() {
+        return licenseIndex;
+    }
+
+    /**
+     * Returns the in-memory dependency graph
+     *
+     * @return CompressedDependencyGraph
+     */
+    public CompressedDependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * Returns the executor that expands the traversal levels
+     *
+     * @return TraversalExecutor
+     */
+    public TraversalExecutor getTraversalExecutor() {
+        return traversalExecutor;
+    }
+
+    /**
+     * Returns the cache of the traversal results
+     *
+     * @return ClosureCache
+     */
+    public ClosureCache getClosureCache() {
+        return closureCache;
+    }
+
+    /**
+     * Returns the coalescing of the concurrent computations
+     *
+     * @return SingleFlight
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Returns the tagger that updates the organization of the modules
+     *
+     * @return OrganizationTagger
+     */
+    public OrganizationTagger getOrganizationTagger() {
+        return organizationTagger;
+    }
+}
@@ -1,7 +1,13 @@
 package org.axway.grapes.server.core;
 
+import com.google.common.base.Function;
 import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.core.graphs.DependencyClosure;
+import org.axway.grapes.server.core.graphs.DependencyGraph;
+import org.axway.grapes.server.core.graphs.DependencyGraphs;
+import org.axway.grapes.server.core.graphs.TraversalExecutor;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
 import org.axway.grapes.server.core.reports.DependencyReport;
@@ -15,9 +21,7 @@ import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
  * Dependency Handler
@@ -31,14 +35,18 @@ public class DependencyHandler {
     private static final Logger LOG = LoggerFactory.getLogger(DependencyHandler.class);
 
 
+    private final CoreServices services;
     private final RepositoryHandler repositoryHandler;
     private final ModelMapper modelMapper;
     private final ModuleHandler moduleHandler;
+    private final TraversalExecutor executor;
 
-    public DependencyHandler(final RepositoryHandler repositoryHandler) {
-        this.repositoryHandler = repositoryHandler;
+    public DependencyHandler(final CoreServices services) {
+        this.services = services;
+        this.repositoryHandler = services.getRepositoryHandler();
         this.modelMapper = new ModelMapper(repositoryHandler);
-        this.moduleHandler = new ModuleHandler(repositoryHandler);
+        this.moduleHandler = new ModuleHandler(services);
+        this.executor = services.getTraversalExecutor();
     }
 
     /**
@@ -53,32 +61,94 @@ public class DependencyHandler {
         final DbOrganization organization = moduleHandler.getOrganization(module);
         filters.setCorporateFilter(new CorporateFilter(organization));
 
-        return getModuleDependencies(module, filters, 1, new ArrayList<String>());
-    }
+        final DependencyClosure closure = services.getClosureCache().get(
+                "dependencies|" + module.getId() + "|" + filters.getTraversalKey(),
+                new ClosureCache.Loader<DependencyClosure>() {
+                    @Override
+                    public DependencyClosure load(final Set<String> walked) {
+                        return getDependencyClosure(module, filters, walked);
+                    }
+                });
 
-    private List<Dependency> getModuleDependencies(final DbModule module, final FiltersHolder filters, final int depth, final List<String> doneModuleIds){
-        // Checks if the module has already been done
-        if(module == null || doneModuleIds.contains(module.getId())){
-            return Collections.<Dependency>emptyList();
-        }
-        else {
-            doneModuleIds.add(module.getId());
+        // The targets are read at each call, the closure only holds the dependencies
+        final Map<String, DbArtifact> targets = DataUtils.getArtifactsByGavc(repositoryHandler.getArtifacts(closure.getTargets()));
+        final List<DbDependency> dependencies = closure.getDependencies();
+        final List<Dependency> moduleDependencies = new ArrayList<Dependency>(dependencies.size());
+        for(int i = 0; i < dependencies.size(); i++){
+            final DbDependency dbDependency = dependencies.get(i);
+            final String sourceId = closure.getSourceId(i);
+            moduleDependencies.add(modelMapper.getDependency(dbDependency, DataUtils.getModuleName(sourceId),
+                    DataUtils.getModuleVersion(sourceId), targets.get(dbDependency.getTarget())));
         }
 
-        final List<Dependency> dependencies = new ArrayList<Dependency>();
-        for(DbDependency dbDependency: DataUtils.getAllDbDependencies(module)){
-            if(filters.shouldBeInReport(dbDependency)){
-                final Dependency dependency = modelMapper.getDependency(dbDependency, module.getName(), module.getVersion());
-                dependencies.add(dependency);
+        return moduleDependencies;
+    }
+
+    /**
+     * Walks the dependencies of a module regarding the filters
+     *
+     * @param module DbModule
+     * @param filters FiltersHolder
+     * @param walked Set<String> filled with the IDs of the walked modules and the gavcs of the resolved targets
+     * @return DependencyClosure
+     */
+    private DependencyClosure getDependencyClosure(final DbModule module, final FiltersHolder filters, final Set<String> walked) {
+        final DependencyGraph graph = DependencyGraphs.get(services.getDependencyGraph(), repositoryHandler, module);
+        final Map<DbDependency, String> dependencies = new LinkedHashMap<DbDependency, String>();
+        final Set<String> doneModuleIds = new HashSet<String>();
+        doneModuleIds.add(module.getId());
+
+        // The graph is walked one level at a time
+        List<String> moduleIds = Collections.singletonList(module.getId());
+        int depth = 1;
+
+        while(!moduleIds.isEmpty()){
+            walked.addAll(moduleIds);
+
+            // the modules of the level are expanded in parallel, then merged in the order of the level
+            final List<List<DbDependency>> moduleDependencies = executor.transform(moduleIds, new Function<String, List<DbDependency>>() {
+                @Override
+                public List<DbDependency> apply(final String levelModuleId) {
+                    final List<DbDependency> filtered = new ArrayList<DbDependency>();
+                    for(DbDependency dbDependency: graph.getDependencies(levelModuleId)){
+                        if(filters.shouldBeInReport(dbDependency)){
+                            filtered.add(dbDependency);
+                        }
+                    }
+                    return filtered;
+                }
+            });
+
+            final Map<DbDependency, String> levelDependencies = new LinkedHashMap<DbDependency, String>();
+            for(int i = 0; i < moduleIds.size(); i++){
+                for(DbDependency dbDependency: moduleDependencies.get(i)){
+                    if(!levelDependencies.containsKey(dbDependency)){
+                        levelDependencies.put(dbDependency, moduleIds.get(i));
+                    }
+                }
+            }
 
-                if(filters.getDepthHandler().shouldGoDeeper(depth)){
-                    final DbModule dependencyModule = repositoryHandler.getRootModuleOf(dbDependency.getTarget());
-                    dependencies.addAll(getModuleDependencies(dependencyModule, filters, depth + 1, doneModuleIds));
+            for(Map.Entry<DbDependency, String> levelDependency: levelDependencies.entrySet()){
+                if(!dependencies.containsKey(levelDependency.getKey())){
+                    dependencies.put(levelDependency.getKey(), levelDependency.getValue());
                 }
             }
+
+            if(levelDependencies.isEmpty() || !filters.getDepthHandler().shouldGoDeeper(depth)){
+                break;
+            }
+
+            walked.addAll(getTargets(levelDependencies.keySet()));
+            moduleIds = getNextModules(graph, levelDependencies.keySet(), doneModuleIds);
+            depth++;
+        }
+
+        final DependencyClosure closure = new DependencyClosure();
+        for(Map.Entry<DbDependency, String> dependency: dependencies.entrySet()){
+            closure.add(dependency.getKey(), dependency.getValue());
         }
 
-        return dependencies;
+        return closure;
     }
 
     /**
@@ -93,58 +163,142 @@ public class DependencyHandler {
         final DbOrganization organization = moduleHandler.getOrganization(module);
         filters.setCorporateFilter(new CorporateFilter(organization));
 
-        final DependencyReport report = new DependencyReport(moduleId);
-        final List<String> done = new ArrayList<String>();
-        for(DbModule submodule: DataUtils.getAllSubmodules(module)){
-            done.add(submodule.getId());
+        final DependencyClosure closure = services.getClosureCache().get(
+                "report|" + module.getId() + "|" + filters.getTraversalKey(),
+                new ClosureCache.Loader<DependencyClosure>() {
+                    @Override
+                    public DependencyClosure load(final Set<String> walked) {
+                        return getReportClosure(module, filters, walked);
+                    }
+                });
+
+        // The targets are read at each call, the closure only holds the dependencies
+        final Map<String, DbArtifact> targets = DataUtils.getArtifactsByGavc(repositoryHandler.getArtifacts(closure.getTargets()));
+        final List<DbDependency> toReport = new ArrayList<DbDependency>();
+        for(DbDependency dbDependency: closure.getDependencies()){
+            if(targets.containsKey(dbDependency.getTarget())){
+                toReport.add(dbDependency);
+            }
         }
 
-        addModuleToReport(report, module, filters, done, 1);
+        // the last releases cost one database access each, they are retrieved in parallel
+        final List<String> lastReleases = executor.transform(toReport, new Function<DbDependency, String>() {
+            @Override
+            public String apply(final DbDependency dbDependency) {
+                return repositoryHandler.getLatestVersion(targets.get(dbDependency.getTarget())).getLastRelease();
+            }
+        });
+
+        final DependencyReport report = new DependencyReport(moduleId);
+        for(int i = 0; i < toReport.size(); i++){
+            final DbDependency dbDependency = toReport.get(i);
+            addDependencyToReport(report, dbDependency, targets.get(dbDependency.getTarget()), lastReleases.get(i));
+        }
 
         return report;
     }
 
-    private void addModuleToReport(final DependencyReport report, final DbModule module, final FiltersHolder filters, final List<String> done, final int depth) {
-        if(module == null || done.contains(module.getId())){
-            return;
+    /**
+     * Walks the dependencies of a module to report, the dependencies to artifacts that are not in the repository are skipped
+     *
+     * @param module DbModule
+     * @param filters FiltersHolder
+     * @param walked Set<String> filled with the IDs of the walked modules and the gavcs of the targets
+     * @return DependencyClosure
+     */
+    private DependencyClosure getReportClosure(final DbModule module, final FiltersHolder filters, final Set<String> walked) {
+        final DependencyGraph graph = DependencyGraphs.get(services.getDependencyGraph(), repositoryHandler, module);
+        final DependencyClosure closure = new DependencyClosure();
+        final Set<String> done = new HashSet<String>();
+        for(DbModule submodule: DataUtils.getAllSubmodules(module)){
+            done.add(submodule.getId());
         }
         done.add(module.getId());
-        for(DbDependency dependency: DataUtils.getAllDbDependencies(module)){
-            addDependenciesToReport(report, dependency, filters, done, depth);
-        }
-    }
 
-    private void  addDependenciesToReport(final DependencyReport report, final DbDependency dbDependency, final FiltersHolder filters, final List<String> done, final int depth) {
-        final DbArtifact artifact = repositoryHandler.getArtifact(dbDependency.getTarget());
-
-        if(artifact == null){
-            return;
-        }
+        // The graph is walked one level at a time, each level costs one access for the artifacts
+        List<String> moduleIds = Collections.singletonList(module.getId());
+        int depth = 1;
 
-        if(filters.shouldBeInReport(dbDependency)){
+        while(!moduleIds.isEmpty()){
+            walked.addAll(moduleIds);
 
-            if(artifact.getDoNotUse()){
-                report.addShouldNotUse(artifact.getGavc());
+            final List<DbDependency> levelDependencies = new ArrayList<DbDependency>();
+            for(String levelModuleId: moduleIds){
+                levelDependencies.addAll(graph.getDependencies(levelModuleId));
             }
 
-            final VersionsHandler versionHandler = new VersionsHandler(repositoryHandler);
-            String lastRelease = null;
+            final Set<String> levelTargets = getTargets(levelDependencies);
+            walked.addAll(levelTargets);
 
-            try{
-                lastRelease = versionHandler.getLastRelease(repositoryHandler.getArtifactVersions(artifact));
-            }catch (Exception e){
-                LOG.info("Failed to find the latest artifact release version: " + artifact.getVersion());
+            final Map<String, DbArtifact> targets = DataUtils.getArtifactsByGavc(repositoryHandler.getArtifacts(levelTargets));
+            final List<DbDependency> toGoDeeper = new ArrayList<DbDependency>();
+
+            for(DbDependency dbDependency: levelDependencies){
+                if(targets.containsKey(dbDependency.getTarget())){
+                    toGoDeeper.add(dbDependency);
+                    if(filters.shouldBeInReport(dbDependency)){
+                        closure.add(dbDependency, dbDependency.getSource());
+                    }
+                }
+            }
+
+            if(toGoDeeper.isEmpty() || !filters.getDepthHandler().shouldGoDeeper(depth)){
+                break;
             }
 
-            final Dependency dependency = DataModelFactory.createDependency(modelMapper.getArtifact(artifact), dbDependency.getScope());
-            dependency.setSourceName(DataUtils.getModuleName(dbDependency.getSource()));
-            dependency.setSourceVersion(DataUtils.getModuleVersion(dbDependency.getSource()));
-            report.addDependency(dependency, lastRelease);
+            moduleIds = getNextModules(graph, toGoDeeper, done);
+            depth++;
+        }
+
+        return closure;
+    }
+
+    private void addDependencyToReport(final DependencyReport report, final DbDependency dbDependency, final DbArtifact artifact, final String lastRelease) {
+        if(artifact.getDoNotUse()){
+            report.addShouldNotUse(artifact.getGavc());
         }
 
-        if(filters.getDepthHandler().shouldGoDeeper(depth)){
-            final DbModule module = repositoryHandler.getRootModuleOf(dbDependency.getTarget());
-            addModuleToReport(report, module, filters, done, depth + 1);
+        final Dependency dependency = DataModelFactory.createDependency(modelMapper.getArtifact(artifact), dbDependency.getScope());
+        dependency.setSourceName(DataUtils.getModuleName(dbDependency.getSource()));
+        dependency.setSourceVersion(DataUtils.getModuleVersion(dbDependency.getSource()));
+        report.addDependency(dependency, lastRelease);
+    }
+
+    /**
+     * Returns the distinct targets of a set of dependencies
+     *
+     * @param dependencies Collection<DbDependency>
+     * @return Set<String>
+     */
+    private Set<String> getTargets(final Collection<DbDependency> dependencies) {
+        final Set<String> targets = new LinkedHashSet<String>();
+        for(DbDependency dependency: dependencies){
+            targets.add(dependency.getTarget());
         }
+        return targets;
+    }
+
+    /**
+     * Retrieves the root modules that produce the targets of the dependencies.
+     * The modules that have already been walked through are skipped and the new ones are flagged as done.
+     *
+     * @param graph DependencyGraph
+     * @param dependencies Collection<DbDependency>
+     * @param done Set<String>
+     * @return List<String> the IDs of the modules
+     */
+    private List<String> getNextModules(final DependencyGraph graph, final Collection<DbDependency> dependencies, final Set<String> done) {
+        final Set<String> targets = getTargets(dependencies);
+        final Map<String, String> rootModuleIds = graph.getRootModuleIds(targets);
+        final List<String> nextModuleIds = new ArrayList<String>();
+
+        for(String target: targets){
+            final String moduleId = rootModuleIds.get(target);
+            if(moduleId != null && done.add(moduleId)){
+                nextModuleIds.add(moduleId);
+            }
+        }
+
+        return nextModuleIds;
     }
 }
@@ -2,7 +2,12 @@ package org.axway.grapes.server.core;
 
 import org.axway.grapes.commons.datamodel.Artifact;
 import org.axway.grapes.server.core.graphs.AbstractGraph;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.core.graphs.DependencyGraph;
+import org.axway.grapes.server.core.graphs.DependencyGraphs;
+import org.axway.grapes.server.core.graphs.GraphWriter;
 import org.axway.grapes.server.core.graphs.ModuleGraph;
+import org.axway.grapes.server.core.graphs.StreamedGraph;
 import org.axway.grapes.server.core.graphs.TreeNode;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
@@ -16,6 +21,9 @@ import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.*;
+
 /**
  * Graphs Handler
  *
@@ -27,11 +35,16 @@ public class GraphsHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(GraphsHandler.class);
 
+    /** Version of the elements that group the modules and the artifacts of a groupId */
+    public static final String COLLAPSED_VERSION = "*";
+
+    private final CoreServices services;
     private final RepositoryHandler repoHandler;
     private final FiltersHolder filters;
 
-    public GraphsHandler(final RepositoryHandler repoHandler, final FiltersHolder filters) {
-        this.repoHandler = repoHandler;
+    public GraphsHandler(final CoreServices services, final FiltersHolder filters) {
+        this.services = services;
+        this.repoHandler = services.getRepositoryHandler();
         this.filters = filters;
     }
 
@@ -43,86 +56,187 @@ public class GraphsHandler {
      * @return AbstractGraph
      */
     public AbstractGraph getModuleGraph(final String moduleId) {
-        final ModuleHandler moduleHandler = new ModuleHandler(repoHandler);
+        final ModuleHandler moduleHandler = new ModuleHandler(services);
         final DbModule module = moduleHandler.getModule(moduleId);
         final DbOrganization organization = moduleHandler.getOrganization(module);
 
         filters.setCorporateFilter(new CorporateFilter(organization));
 
-        final AbstractGraph graph = new ModuleGraph();
-        addModuleToGraph(module, graph, 0);
+        // the built graphs are not modified any more, they are shared between the requests
+        return services.getClosureCache().get(
+                "graph|" + module.getId() + "|" + filters.getTraversalKey(),
+                new ClosureCache.Loader<AbstractGraph>() {
+                    @Override
+                    public AbstractGraph load(final Set<String> walked) {
+                        final AbstractGraph graph = new ModuleGraph();
+                        walkModuleGraph(module, graph, walked);
+                        return graph;
+                    }
+                });
+    }
+
+    /**
+     * Writes a module graph regarding the filters while it is walked, the graph is not kept in memory
+     *
+     * @param module DbModule
+     * @param writer GraphWriter
+     * @throws IOException
+     */
+    public void writeModuleGraph(final DbModule module, final GraphWriter writer) throws IOException {
+        final DbOrganization organization = new ModuleHandler(services).getOrganization(module);
+        filters.setCorporateFilter(new CorporateFilter(organization));
 
-        return graph;
+        final AbstractGraph graph = new StreamedGraph(writer);
+        writer.start(graph.getId(module));
+        walkModuleGraph(module, graph, new HashSet<String>());
+        writer.end();
     }
 
     /**
-     * Manage the artifact add to the Module AbstractGraph
+     * Walks the dependencies of a module and adds them to a graph
      *
-     * @param graph
-     * @param depth
+     * @param module DbModule
+     * @param graph AbstractGraph
+     * @param walked Set<String> filled with the IDs of the walked modules and the gavcs of the targets
      */
-    private void addModuleToGraph(final DbModule module, final AbstractGraph graph, final int depth) {
-        if (graph.isTreated(graph.getId(module))) {
-            return;
+    private void walkModuleGraph(final DbModule module, final AbstractGraph graph, final Set<String> walked) {
+        graph.addElement(graph.getId(module), module.getVersion(), true);
+
+        // The graph is walked one level at a time, each level costs one access for the artifacts
+        final DependencyGraph dependencyGraph = DependencyGraphs.get(services.getDependencyGraph(), repoHandler, module);
+        Map<String, String> elementIds = Collections.singletonMap(module.getId(), graph.getId(module));
+        int depth = 0;
+        int level = 0;
+
+        while(!elementIds.isEmpty() && filters.getDepthHandler().shouldGoDeeper(depth)){
+            walked.addAll(elementIds.keySet());
+            level++;
+            elementIds = addDependenciesToGraph(dependencyGraph, elementIds, filters.getDepthHandler().shouldCollapse(level), graph, walked);
+            depth += 2;
         }
+    }
+
+    /**
+     * Add the dependencies of a level of modules to the graph
+     *
+     * @param dependencyGraph
+     * @param elementIds the IDs of the modules of the level and of their elements
+     * @param collapse true if the targets are grouped by groupId
+     * @param graph
+     * @param walked
+     * @return Map<String, String> the IDs of the modules of the next level and of their elements
+     */
+    private Map<String, String> addDependenciesToGraph(final DependencyGraph dependencyGraph, final Map<String, String> elementIds, final boolean collapse, final AbstractGraph graph, final Set<String> walked) {
+        final List<DbDependency> dependencies = new ArrayList<DbDependency>();
+        final Map<DbDependency, String> parentIds = new HashMap<DbDependency, String>();
+        final Set<String> corporateTargets = new HashSet<String>();
+        final Set<String> thirdPartyTargets = new HashSet<String>();
 
-        final String moduleElementId = graph.getId(module);
-        graph.addElement(moduleElementId, module.getVersion(), depth == 0);
+        for(Map.Entry<String, String> module: elementIds.entrySet()){
+            final String moduleElementId = module.getValue();
 
-        if (filters.getDepthHandler().shouldGoDeeper(depth)) {
-            for (DbDependency dep : DataUtils.getAllDbDependencies(module)) {
-                if(filters.shouldBeInReport(dep)){
-                    addDependencyToGraph(dep, graph, depth + 1, moduleElementId);
+            for (DbDependency dependency : dependencyGraph.getDependencies(module.getKey())) {
+                if(filters.shouldBeInReport(dependency) && !parentIds.containsKey(dependency)){
+                    dependencies.add(dependency);
+                    parentIds.put(dependency, moduleElementId);
+
+                    if (filters.getCorporateFilter().filter(dependency)) {
+                        corporateTargets.add(dependency.getTarget());
+                    }
+                    else {
+                        thirdPartyTargets.add(dependency.getTarget());
+                    }
                 }
             }
         }
+
+        walked.addAll(corporateTargets);
+        walked.addAll(thirdPartyTargets);
+
+        final Map<String, String> rootModuleIds = dependencyGraph.getRootModuleIds(corporateTargets);
+        final Map<String, DbArtifact> artifacts = DataUtils.getArtifactsByGavc(repoHandler.getArtifacts(thirdPartyTargets));
+        final Map<String, String> nextElementIds = new LinkedHashMap<String, String>();
+
+        for(DbDependency dependency: dependencies){
+            final String parentId = parentIds.get(dependency);
+
+            if(corporateTargets.contains(dependency.getTarget())){
+                addCorporateDependencyToGraph(dependency, dependencyGraph, rootModuleIds.containsKey(dependency.getTarget()), collapse, graph, parentId, nextElementIds);
+            }
+            else {
+                addThirdPartyDependencyToGraph(dependency, artifacts.get(dependency.getTarget()), collapse, graph, parentId);
+            }
+        }
+
+        return nextElementIds;
     }
 
     /**
-     * Add a dependency to the graph
+     * Add a corporate dependency to the graph.
+     * In that case of corporate artifact we will add a module to the graph.
      *
      * @param dependency
+     * @param dependencyGraph
+     * @param hasModule true if a module produces the target
+     * @param collapse true if the target is grouped by groupId
      * @param graph
-     * @param depth
      * @param parentId
+     * @param nextElementIds filled with the ID of the targeted module if it has to be walked through
      */
-    private void addDependencyToGraph(final DbDependency dependency, final AbstractGraph graph, final int depth, final String parentId) {
-        // In that case of Axway artifact we will add a module to the graph
-        if (filters.getCorporateFilter().filter(dependency)) {
-            final DbModule dbTarget = repoHandler.getModuleOf(dependency.getTarget());
-
-            // if there is no module, add the artifact to the graph
-            if(dbTarget == null){
-                LOG.error("Got missing reference: " + dependency.getTarget());
-                final DbArtifact dbArtifact = DataUtils.createDbArtifact(dependency.getTarget());
-                final String targetElementId = graph.getId(dbArtifact);
-                graph.addElement(targetElementId, dbArtifact.getVersion(), false);
-                graph.addDependency(parentId, targetElementId, dependency.getScope());
-                return;
-            }
+    private void addCorporateDependencyToGraph(final DbDependency dependency, final DependencyGraph dependencyGraph, final boolean hasModule, final boolean collapse, final AbstractGraph graph, final String parentId, final Map<String, String> nextElementIds) {
+        final DbArtifact dbArtifact = DataUtils.createDbArtifact(dependency.getTarget());
 
-            // Add the element to the graph
-            addModuleToGraph(dbTarget, graph, depth + 1);
+        // if there is no module, add the artifact to the graph
+        if(!hasModule){
+            LOG.error("Got missing reference: " + dependency.getTarget());
+            final String targetElementId = collapse ? dbArtifact.getGroupId() : graph.getId(dbArtifact);
+            graph.addElement(targetElementId, collapse ? COLLAPSED_VERSION : dbArtifact.getVersion(), false);
+            graph.addDependency(parentId, targetElementId, dependency.getScope());
+            return;
+        }
+
+        final String targetId = dependencyGraph.getModuleId(dependency.getTarget());
+        final DbModule dbTarget = DataUtils.createDbModule(targetId);
+        final String moduleElementId = graph.getId(dbTarget);
+        final String targetElementId = collapse ? dbArtifact.getGroupId() : moduleElementId;
 
-            //Add the dependency to the graph
-            final String moduleElementId = graph.getId(dbTarget);
-            graph.addDependency(parentId, moduleElementId, dependency.getScope());
+        // Add the element to the graph
+        if (!graph.isTreated(moduleElementId)) {
+            graph.treated(moduleElementId);
+            graph.addElement(targetElementId, collapse ? COLLAPSED_VERSION : dbTarget.getVersion(), false);
+            nextElementIds.put(targetId, targetElementId);
         }
-        // In case a third-party we will add an artifact
-        else {
-            final DbArtifact dbTarget = repoHandler.getArtifact(dependency.getTarget());
-            if(dbTarget == null){
-                LOG.error("Got missing artifact: " + dependency.getTarget());
-                return;
-            }
 
-            if(!graph.isTreated(graph.getId(dbTarget))){
-                final ModelMapper modelMapper = new ModelMapper(repoHandler);
-                final Artifact target = modelMapper.getArtifact(dbTarget);
-                final String targetElementId = graph.getId(target);
-                graph.addElement(targetElementId, target.getVersion(), false);
-                graph.addDependency(parentId, targetElementId, dependency.getScope());
-            }
+        //Add the dependency to the graph
+        graph.addDependency(parentId, targetElementId, dependency.getScope());
+    }
+
+    /**
+     * Add a third party dependency to the graph.
+     * In case a third-party we will add an artifact
+     *
+     * @param dependency
+     * @param dbTarget
+     * @param collapse true if the target is grouped by groupId
+     * @param graph
+     * @param parentId
+     */
+    private void addThirdPartyDependencyToGraph(final DbDependency dependency, final DbArtifact dbTarget, final boolean collapse, final AbstractGraph graph, final String parentId) {
+        if(dbTarget == null){
+            LOG.error("Got missing artifact: " + dependency.getTarget());
+            return;
+        }
+
+        if(collapse){
+            graph.addElement(dbTarget.getGroupId(), COLLAPSED_VERSION, false);
+            graph.addDependency(parentId, dbTarget.getGroupId(), dependency.getScope());
+        }
+        else if(!graph.isTreated(graph.getId(dbTarget))){
+            final ModelMapper modelMapper = new ModelMapper(repoHandler);
+            final Artifact target = modelMapper.getArtifact(dbTarget);
+            final String targetElementId = graph.getId(target);
+            graph.addElement(targetElementId, target.getVersion(), false);
+            graph.addDependency(parentId, targetElementId, dependency.getScope());
         }
     }
 
@@ -133,7 +247,7 @@ public class GraphsHandler {
      * @return TreeNode
      */
     public TreeNode getModuleTree(final String moduleId) {
-        final ModuleHandler moduleHandler = new ModuleHandler(repoHandler);
+        final ModuleHandler moduleHandler = new ModuleHandler(services);
         final DbModule module = moduleHandler.getModule(moduleId);
 
         final TreeNode tree = new TreeNode();
@@ -0,0 +1,192 @@
+package org.axway.grapes.server.core;
+
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion Handler
+ *
+ * <p>Stores the modules posted by the clients with their artifacts and the targets of their dependencies.
+ * The artifacts of all the modules of a post are gathered to be stored in batch.</p>
+ *
+ * <p>The content hash of each posted module is compared to the one of its previous post:
+ * an unchanged module is not stored again, and only the artifacts and the dependencies that changed since the previous post are written.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionHandler {
+
+    private static final Meter WRITTEN_MODULES = newMeter("written-modules", "modules");
+    private static final Meter SKIPPED_MODULES = newMeter("skipped-modules", "modules");
+    private static final Meter WRITTEN_ARTIFACTS = newMeter("written-artifacts", "artifacts");
+    private static final Meter SKIPPED_ARTIFACTS = newMeter("skipped-artifacts", "artifacts");
+    private static final Meter WRITTEN_DEPENDENCIES = newMeter("written-dependencies", "dependencies");
+    private static final Meter SKIPPED_DEPENDENCIES = newMeter("skipped-dependencies", "dependencies");
+
+    private final CoreServices services;
+    private final RepositoryHandler repositoryHandler;
+
+    public IngestionHandler(final CoreServices services) {
+        this.services = services;
+        this.repositoryHandler = services.getRepositoryHandler();
+    }
+
+    /**
+     * Stores modules, their artifacts and the dependencies that do not already exist.
+     * The modules are supposed to be validated.
+     *
+     * @param modules Collection<Module>
+     */
+    public void ingest(final Collection<Module> modules) {
+        final ModelMapper modelMapper = new ModelMapper(repositoryHandler);
+        final OrganizationHandler organizationHandler = new OrganizationHandler(services);
+        final Map<String, DbModule> previousModules = getPreviousModules(modules);
+
+        final List<DbModule> dbModules = new ArrayList<DbModule>();
+        final Map<String, DbArtifact> artifacts = new LinkedHashMap<String, DbArtifact>();
+        final Set<String> producedGavcs = new HashSet<String>();
+        final Map<String, DbArtifact> dependencies = new LinkedHashMap<String, DbArtifact>();
+        int skippedArtifacts = 0;
+        int skippedDependencies = 0;
+
+        for(Module module: modules){
+            final String contentHash = DataUtils.getContentHash(module);
+            final DbModule previousModule = previousModules.get(DbModule.generateID(module.getName(), module.getVersion()));
+
+            // Same content as the previous post: nothing to write
+            if(previousModule != null && contentHash.equals(previousModule.getContentHash())){
+                SKIPPED_MODULES.mark();
+                continue;
+            }
+
+            // turn it into DbModel
+            final DbModule dbModule = modelMapper.getDbModule(module);
+            final DbOrganization organization = organizationHandler.getMatchingOrganization(dbModule);
+            if(organization != null){
+                dbModule.setOrganization(organization.getName());
+            }
+            dbModule.setContentHash(contentHash);
+            dbModules.add(dbModule);
+
+            // Only the artifacts that changed since the previous post
+            final Set<String> previousArtifactHashes = previousModule == null ?
+                    Collections.<String>emptySet() : new HashSet<String>(previousModule.getArtifactHashes());
+            for(Artifact artifact: DataUtils.getAllArtifacts(module)){
+                final String artifactHash = DataUtils.getContentHash(artifact);
+                dbModule.getArtifactHashes().add(artifactHash);
+                producedGavcs.add(artifact.getGavc());
+
+                if(previousArtifactHashes.contains(artifactHash)){
+                    skippedArtifacts++;
+                }
+                else{
+                    final DbArtifact dbArtifact = modelMapper.getDbArtifact(artifact);
+                    artifacts.put(dbArtifact.getGavc(), dbArtifact);
+                }
+            }
+
+            // Only the dependencies that were not already used by the previous post
+            final Set<String> previousUses = previousModule == null ?
+                    Collections.<String>emptySet() : new HashSet<String>(previousModule.getUses());
+            for(Dependency dependency: DataUtils.getAllDependencies(module)){
+                if(previousUses.contains(dependency.getTarget().getGavc())){
+                    skippedDependencies++;
+                }
+                else{
+                    final DbArtifact dbDependency = modelMapper.getDbArtifact(dependency.getTarget());
+                    dependencies.put(dbDependency.getGavc(), dbDependency);
+                }
+            }
+        }
+
+        // Add the artifacts
+        repositoryHandler.store(artifacts.values());
+
+        // Add dependencies that does not already exist
+        dependencies.keySet().removeAll(producedGavcs);
+        repositoryHandler.storeIfNew(dependencies.values());
+
+        final ClosureCache closureCache = services.getClosureCache();
+        closureCache.invalidate(artifacts.keySet());
+        closureCache.invalidate(dependencies.keySet());
+
+        // Save the modules, once their artifacts are stored: a module hash is recorded only when its content has been written
+        for(DbModule dbModule: dbModules){
+            repositoryHandler.store(dbModule);
+            services.getDependencyGraph().update(dbModule);
+            closureCache.moduleChanged(dbModule);
+        }
+
+        WRITTEN_MODULES.mark(dbModules.size());
+        WRITTEN_ARTIFACTS.mark(artifacts.size());
+        SKIPPED_ARTIFACTS.mark(skippedArtifacts);
+        WRITTEN_DEPENDENCIES.mark(dependencies.size());
+        SKIPPED_DEPENDENCIES.mark(skippedDependencies);
+    }
+
+    /**
+     * Stores artifacts that no posted module produces, i.e. the artifacts of the posts replaced in the ingestion queue.
+     * Their licenses are merged with the stored ones.
+     *
+     * @param artifacts Collection<Artifact>
+     */
+    public void storeArtifacts(final Collection<Artifact> artifacts) {
+        final ModelMapper modelMapper = new ModelMapper(repositoryHandler);
+        final Map<String, DbArtifact> dbArtifacts = new LinkedHashMap<String, DbArtifact>();
+        for(Artifact artifact: artifacts){
+            final DbArtifact dbArtifact = modelMapper.getDbArtifact(artifact);
+            dbArtifacts.put(dbArtifact.getGavc(), dbArtifact);
+        }
+
+        repositoryHandler.store(dbArtifacts.values());
+        services.getClosureCache().invalidate(dbArtifacts.keySet());
+
+        WRITTEN_ARTIFACTS.mark(dbArtifacts.size());
+    }
+
+    /**
+     * Returns the stored version of the posted modules
+     *
+     * @param modules Collection<Module>
+     * @return Map<String, DbModule> by module ID
+     */
+    private Map<String, DbModule> getPreviousModules(final Collection<Module> modules) {
+        final Set<String> moduleIds = new HashSet<String>();
+        for(Module module: modules){
+            moduleIds.add(DbModule.generateID(module.getName(), module.getVersion()));
+        }
+
+        final Map<String, DbModule> previousModules = new HashMap<String, DbModule>();
+        for(DbModule dbModule: repositoryHandler.getModules(moduleIds)){
+            previousModules.put(dbModule.getId(), dbModule);
+        }
+
+        return previousModules;
+    }
+
+    private static Meter newMeter(final String name, final String eventType) {
+        return Metrics.newMeter(new MetricName(IngestionHandler.class, name), eventType, TimeUnit.SECONDS);
+    }
+}
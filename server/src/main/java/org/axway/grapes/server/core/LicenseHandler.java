@@ -7,53 +7,29 @@ import org.axway.grapes.server.db.ModelMapper;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbLicense;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.PatternSyntaxException;
 
 /**
  * License Handler
  *
- * <p>Handles the license resolution. It stores the licenses names and the regexp to avoid db access. It must be updated at license addition / deletion.</p>
+ * <p>Handles the license resolution. The resolution relies on the process-wide LicenseIndex that is rebuilt at license addition / deletion / approval.</p>
  *
  * @author jdcoffre
  */
 public class LicenseHandler {
 
-    private static final Logger LOG = LoggerFactory.getLogger(LicenseHandler.class);
-
-    private final Map<String, DbLicense> licensesRegexp = new HashMap<String, DbLicense>();
+    private final CoreServices services;
     private final RepositoryHandler repoHandler;
+    private final LicenseIndex licenseIndex;
 
-    public LicenseHandler(final RepositoryHandler repoHandler) {
-        this.repoHandler = repoHandler;
-        init(repoHandler.getAllLicenses());
-    }
-
-    /**
-     * Init the licenses cache
-     *
-     * @param licenses
-     */
-    private void init(final List<DbLicense> licenses){
-        licensesRegexp.clear();
-
-        for(DbLicense license: licenses){
-            if(license.getRegexp() == null ||
-                    license.getRegexp().isEmpty()){
-                licensesRegexp.put(license.getName(), license);
-            }
-            else{
-                licensesRegexp.put(license.getRegexp(), license);
-            }
-        }
+    public LicenseHandler(final CoreServices services) {
+        this.services = services;
+        this.repoHandler = services.getRepositoryHandler();
+        this.licenseIndex = services.getLicenseIndex();
     }
 
     /**
@@ -63,6 +39,7 @@ public class LicenseHandler {
      */
     public void store(final DbLicense dbLicense) {
         repoHandler.store(dbLicense);
+        licenseIndex.rebuild();
     }
 
     /**
@@ -108,8 +85,10 @@ public class LicenseHandler {
 
         for(DbArtifact artifact: repoHandler.getArtifacts(filters)){
             repoHandler.removeLicenseFromArtifact(artifact, name);
+            services.getClosureCache().artifactChanged(artifact.getGavc());
         }
 
+        licenseIndex.rebuild();
     }
 
     /**
@@ -121,6 +100,7 @@ public class LicenseHandler {
     public void approveLicense(final String name, final Boolean approved) {
         final DbLicense license = getLicense(name);
         repoHandler.approveLicense(license, approved);
+        licenseIndex.rebuild();
     }
 
 
@@ -132,22 +112,7 @@ public class LicenseHandler {
      * @return DbLicense
      */
     public DbLicense resolve(final String licenseId){
-
-        for(String regexp : licensesRegexp.keySet()){
-            try{
-                if(licenseId.matches(regexp)){
-                    return licensesRegexp.get(regexp);
-                }
-            }
-            catch (PatternSyntaxException e){
-                LOG.error("Wrong pattern for the following license " + licensesRegexp.get(regexp).getName());
-                continue;
-            }
-        }
-
-        LOG.warn("No matching pattern for license " + licenseId);
-        return null;
-
+        return licenseIndex.resolve(licenseId);
     }
 
 
@@ -159,7 +124,7 @@ public class LicenseHandler {
     public List<License> getLicenses(){
         final ModelMapper modelMapper = new ModelMapper(repoHandler);
         final List<License> licenses = new ArrayList<License>();
-        for(DbLicense dbLicense: licensesRegexp.values()){
+        for(DbLicense dbLicense: licenseIndex.getLicenses()){
             licenses.add(modelMapper.getLicense(dbLicense));
         }
 
@@ -0,0 +1,132 @@
+package org.axway.grapes.server.core;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * License Index
+ *
+ * <p>Process-wide index used to resolve license ids into the licenses of the database.
+ * It is built once by the server and shared by the handlers: it holds the precompiled license patterns and remembers the result of each resolution.
+ * The index is rebuilt as a whole each time a license is stored, deleted or approved.</p>
+ *
+ * @author jdcoffre
+ */
+public final class LicenseIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LicenseIndex.class);
+
+    private static final int MAX_RESOLUTIONS = 10000;
+
+    private final RepositoryHandler repoHandler;
+    private volatile Snapshot snapshot;
+
+    public LicenseIndex(final RepositoryHandler repoHandler) {
+        this.repoHandler = repoHandler;
+    }
+
+    /**
+     * Reloads the licenses from the database and replaces the current index
+     */
+    public void rebuild() {
+        snapshot = new Snapshot(repoHandler.getAllLicenses());
+    }
+
+    /**
+     * Resolve the targeted license thanks to the license ID
+     * Return null if no license is matching the licenseId
+     *
+     * @param licenseId String
+     * @return DbLicense
+     */
+    public DbLicense resolve(final String licenseId) {
+        return getSnapshot().resolve(licenseId);
+    }
+
+    /**
+     * Returns the indexed licenses
+     *
+     * @return Collection<DbLicense>
+     */
+    public Collection<DbLicense> getLicenses() {
+        return getSnapshot().licensesRegexp.values();
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if(current == null){
+            synchronized (this){
+                current = snapshot;
+                if(current == null){
+                    current = new Snapshot(repoHandler.getAllLicenses());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Immutable state of the index: replacing the snapshot drops the patterns and the resolutions at once
+     */
+    private static final class Snapshot {
+
+        private final Map<String, DbLicense> licensesRegexp = new HashMap<String, DbLicense>();
+        private final Map<Pattern, DbLicense> patterns = new LinkedHashMap<Pattern, DbLicense>();
+        private final Cache<String, Optional<DbLicense>> resolutions = CacheBuilder.newBuilder()
+                .maximumSize(MAX_RESOLUTIONS)
+                .build();
+
+        private Snapshot(final List<DbLicense> licenses) {
+            for(DbLicense license: licenses){
+                if(license.getRegexp() == null ||
+                        license.getRegexp().isEmpty()){
+                    licensesRegexp.put(license.getName(), license);
+                }
+                else{
+                    licensesRegexp.put(license.getRegexp(), license);
+                }
+            }
+
+            for(Map.Entry<String, DbLicense> entry: licensesRegexp.entrySet()){
+                try{
+                    patterns.put(Pattern.compile(entry.getKey()), entry.getValue());
+                }
+                catch (PatternSyntaxException e){
+                    LOG.error("Wrong pattern for the following license " + entry.getValue().getName());
+                }
+            }
+        }
+
+        private DbLicense resolve(final String licenseId) {
+            Optional<DbLicense> resolution = resolutions.getIfPresent(licenseId);
+
+            if(resolution == null){
+                resolution = Optional.fromNullable(match(licenseId));
+                resolutions.put(licenseId, resolution);
+            }
+
+            return resolution.orNull();
+        }
+
+        private DbLicense match(final String licenseId) {
+            for(Map.Entry<Pattern, DbLicense> entry: patterns.entrySet()){
+                if(entry.getKey().matcher(licenseId).matches()){
+                    return entry.getValue();
+                }
+            }
+
+            LOG.warn("No matching pattern for license " + licenseId);
+            return null;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package org.axway.grapes.server.core;
 
+import com.google.common.base.Function;
+import org.axway.grapes.commons.datamodel.Artifact;
 import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.core.graphs.DependencyGraph;
+import org.axway.grapes.server.core.graphs.DependencyGraphs;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
 import org.axway.grapes.server.core.options.filters.PromotedFilter;
+import org.axway.grapes.server.core.reports.PromotionStatus;
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.ModelMapper;
 import org.axway.grapes.server.db.RepositoryHandler;
@@ -14,7 +20,16 @@ import org.axway.grapes.server.webapp.views.PromotionReportView;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 /**
  * Module Handler
@@ -25,10 +40,12 @@ import java.util.List;
  */
 public class ModuleHandler {
 
+    private final CoreServices services;
     private final RepositoryHandler repositoryHandler;
 
-    public ModuleHandler(final RepositoryHandler repositoryHandler) {
-        this.repositoryHandler = repositoryHandler;
+    public ModuleHandler(final CoreServices services) {
+        this.services = services;
+        this.repositoryHandler = services.getRepositoryHandler();
     }
 
     /**
@@ -38,6 +55,8 @@ public class ModuleHandler {
      */
     public void store(final DbModule dbModule){
         repositoryHandler.store(dbModule);
+        services.getDependencyGraph().update(dbModule);
+        services.getClosureCache().moduleChanged(dbModule);
     }
 
     /**
@@ -93,10 +112,12 @@ public class ModuleHandler {
     public void deleteModule(final String moduleId) {
         final DbModule module = getModule(moduleId);
         repositoryHandler.deleteModule(module.getId());
+        services.getDependencyGraph().remove(module.getId());
 
         for(String gavc: DataUtils.getAllArtifacts(module)){
             repositoryHandler.deleteArtifact(gavc);
         }
+        services.getClosureCache().moduleChanged(module);
     }
 
     /**
@@ -110,7 +131,7 @@ public class ModuleHandler {
 
         final List<DbLicense> licenses = new ArrayList<DbLicense>();
         final FiltersHolder filters = new FiltersHolder();
-        final ArtifactHandler artifactHandler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler artifactHandler = new ArtifactHandler(services);
 
         for(String gavc: DataUtils.getAllArtifacts(module)){
             licenses.addAll(artifactHandler.getArtifactLicenses(gavc, filters));
@@ -134,54 +155,65 @@ public class ModuleHandler {
         }
 
         repositoryHandler.promoteModule(module);
+        services.getDependencyGraph().promote(module.getId());
+        services.getClosureCache().moduleChanged(module);
     }
 
     /**
-     * Provide a report about the promotion feasibility
+     * Provide a report about the promotion feasibility.
+     * The concurrent requests of the report of a module share a single computation.
      *
      * @param moduleId String
      * @return PromotionReportView
      */
     public PromotionReportView getPromotionReport(final String moduleId) {
-        final DependencyHandler depHandler = new DependencyHandler(repositoryHandler);
-        final ModelMapper modelMapper = new ModelMapper(repositoryHandler);
-        final DbModule module = getModule(moduleId);
-        final DbOrganization organization = getOrganization(module);
+        return services.getSingleFlight().execute("promotion-report|" + moduleId,
+                new Callable<PromotionReportView>() {
+                    @Override
+                    public PromotionReportView call() {
+                        return computePromotionReport(moduleId);
+                    }
+                });
+    }
 
+    private PromotionReportView computePromotionReport(final String moduleId) {
+        final DbModule module = getModule(moduleId);
+        final Map<String, PromotionStatus> statuses = new LinkedHashMap<String, PromotionStatus>();
+
+        // The unpromoted dependencies are walked one level at a time: each module is evaluated once,
+        // the modules of a level are evaluated in parallel
+        List<DbModule> modules = Collections.singletonList(module);
+        while(!modules.isEmpty()){
+            final List<PromotionStatus> levelStatuses = services.getTraversalExecutor().transform(modules,
+                    new Function<DbModule, PromotionStatus>() {
+                        @Override
+                        public PromotionStatus apply(final DbModule levelModule) {
+                            return getPromotionStatus(levelModule);
+                        }
+                    });
+
+            for(PromotionStatus status: levelStatuses){
+                statuses.put(status.getModuleId(), status);
+            }
 
-        final PromotionReportView report = new PromotionReportView();
-        report.setRootModule(DataModelFactory.createModule(module.getName(), module.getVersion()));
-
-        if(!report.isSnapshot()) {
-            // filters initialization
-            final FiltersHolder filters = new FiltersHolder();
-            filters.addFilter(new PromotedFilter(false));
-            filters.addFilter(new CorporateFilter(organization));
-
-            // Checks if each dependency module has been promoted
-            for (Dependency dependency : depHandler.getModuleDependencies(moduleId, filters)) {
-                final DbModule depModule = repositoryHandler.getRootModuleOf(dependency.getTarget().getGavc());
-                if (depModule != null && !depModule.getId().equals(moduleId)) {
-                    if (!depModule.isPromoted()) {
-                        report.addUnPromotedDependency(depModule.getId());
-                        report.addDependencyPromotionReport(depModule.getId(), getPromotionReport(depModule.getId()));
+            final Set<String> nextModuleIds = new LinkedHashSet<String>();
+            for(PromotionStatus status: levelStatuses){
+                for(String dependencyId: status.getUnPromotedDependencies()){
+                    if(!statuses.containsKey(dependencyId)){
+                        nextModuleIds.add(dependencyId);
                     }
                 }
             }
 
-            // Checks if the module has dependencies that shouldn't be used
-            final List<String> treatedArtifacts = new ArrayList<String>();
-            for (DbDependency dependency : DataUtils.getAllDbDependencies(module)) {
-                final DbArtifact artifactDep = repositoryHandler.getArtifact(dependency.getTarget());
+            modules = getModules(nextModuleIds);
+        }
 
-                if (artifactDep == null) {
-                    // handle the case of a corporate artifact which is not available in the repository
-                    continue;
-                }
-                if (artifactDep.getDoNotUse() && !treatedArtifacts.contains(artifactDep.getGavc())) {
-                    report.addDoNotUseArtifact(modelMapper.getArtifact(artifactDep));
-                    treatedArtifacts.add(artifactDep.getGavc());
-                }
+        // All the reports of the request share the map of the dependency reports
+        final Map<String, PromotionReportView> dependencyReports = new HashMap<String, PromotionReportView>();
+        final PromotionReportView report = createPromotionReport(statuses.get(module.getId()), dependencyReports);
+        for(PromotionStatus status: statuses.values()){
+            if(!status.getModuleId().equals(module.getId())){
+                dependencyReports.put(status.getModuleId(), createPromotionReport(status, dependencyReports));
             }
         }
 
@@ -190,6 +222,127 @@ public class ModuleHandler {
         return report;
     }
 
+    /**
+     * Checks if a module can be promoted, only the module and its direct dependencies are evaluated
+     *
+     * @param moduleId String
+     * @return boolean
+     */
+    public boolean canBePromoted(final String moduleId) {
+        return getPromotionStatus(getModule(moduleId)).canBePromoted();
+    }
+
+    /**
+     * Returns the promotion status of a module, the statuses are cached until the module or its direct dependencies change
+     *
+     * @param module DbModule
+     * @return PromotionStatus
+     */
+    private PromotionStatus getPromotionStatus(final DbModule module) {
+        final DbOrganization organization = getOrganization(module);
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.addFilter(new PromotedFilter(false));
+        filters.addFilter(new CorporateFilter(organization));
+        filters.setCorporateFilter(new CorporateFilter(organization));
+
+        return services.getClosureCache().get(
+                "promotion|" + module.getId() + "|" + filters.getTraversalKey(),
+                new ClosureCache.Loader<PromotionStatus>() {
+                    @Override
+                    public PromotionStatus load(final Set<String> walked) {
+                        return computePromotionStatus(module, filters, walked);
+                    }
+                });
+    }
+
+    private PromotionStatus computePromotionStatus(final DbModule module, final FiltersHolder filters, final Set<String> walked) {
+        final PromotionStatus status = new PromotionStatus(module.getId(), module.getName(), module.getVersion());
+        walked.add(module.getId());
+
+        if(status.isSnapshot()){
+            return status;
+        }
+
+        // Checks if each dependency module has been promoted
+        final DependencyHandler depHandler = new DependencyHandler(services);
+        final Set<String> targets = new LinkedHashSet<String>();
+        for (Dependency dependency : depHandler.getModuleDependencies(module.getId(), filters)) {
+            targets.add(dependency.getTarget().getGavc());
+        }
+        walked.addAll(targets);
+
+        final DependencyGraph graph = DependencyGraphs.get(services.getDependencyGraph(), repositoryHandler, module);
+        final Map<String, String> depModuleIds = graph.getRootModuleIds(targets);
+        walked.addAll(depModuleIds.values());
+
+        final Set<String> treatedModules = new HashSet<String>();
+        for (String target : targets) {
+            final String depModuleId = depModuleIds.get(target);
+            if (depModuleId != null && !depModuleId.equals(module.getId()) && treatedModules.add(depModuleId)
+                    && !graph.isPromoted(depModuleId)) {
+                status.addUnPromotedDependency(depModuleId);
+            }
+        }
+
+        // Checks if the module has dependencies that shouldn't be used
+        final Set<String> directTargets = new LinkedHashSet<String>();
+        for (DbDependency dependency : DataUtils.getAllDbDependencies(module)) {
+            directTargets.add(dependency.getTarget());
+        }
+        walked.addAll(directTargets);
+
+        // a corporate artifact may not be available in the repository
+        final ModelMapper modelMapper = new ModelMapper(repositoryHandler);
+        for (DbArtifact artifactDep : repositoryHandler.getArtifacts(directTargets)) {
+            if (artifactDep.getDoNotUse()) {
+                status.addDoNotUseArtifact(modelMapper.getArtifact(artifactDep));
+            }
+        }
+
+        return status;
+    }
+
+    private PromotionReportView createPromotionReport(final PromotionStatus status, final Map<String, PromotionReportView> dependencyReports) {
+        final PromotionReportView report = new PromotionReportView();
+        report.setRootModule(DataModelFactory.createModule(status.getName(), status.getVersion()));
+
+        for(String dependencyId: status.getUnPromotedDependencies()){
+            report.addUnPromotedDependency(dependencyId);
+        }
+        for(Artifact artifact: status.getDoNotUseArtifacts()){
+            report.addDoNotUseArtifact(artifact);
+        }
+        report.setDependencyReports(dependencyReports);
+
+        return report;
+    }
+
+    /**
+     * Returns modules in the order of their IDs, the IDs without module are skipped
+     *
+     * @param moduleIds Collection<String>
+     * @return List<DbModule>
+     */
+    private List<DbModule> getModules(final Collection<String> moduleIds) {
+        if(moduleIds.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        final Map<String, DbModule> modules = new HashMap<String, DbModule>();
+        for(DbModule module: repositoryHandler.getModules(moduleIds)){
+            modules.put(module.getId(), module);
+        }
+
+        final List<DbModule> ordered = new ArrayList<DbModule>(modules.size());
+        for(String moduleId: moduleIds){
+            if(modules.containsKey(moduleId)){
+                ordered.add(modules.get(moduleId));
+            }
+        }
+        return ordered;
+    }
+
     public DbOrganization getOrganization(final DbModule module) {
         if(module.getOrganization() == null ||
                 module.getOrganization().isEmpty()){
@@ -198,7 +351,7 @@ public class ModuleHandler {
             return organization;
         }
 
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(services);
         return handler.getOrganization(module.getOrganization());
     }
 
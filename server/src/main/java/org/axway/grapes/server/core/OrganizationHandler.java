@@ -1,6 +1,7 @@
 package org.axway.grapes.server.core;
 
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
+import org.axway.grapes.server.core.tagging.TaggingJob;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
@@ -18,10 +19,12 @@ import java.util.List;
  */
 public class OrganizationHandler {
 
+    private final CoreServices services;
     private final RepositoryHandler repositoryHandler;
 
-    public OrganizationHandler(final RepositoryHandler repositoryHandler) {
-        this.repositoryHandler = repositoryHandler;
+    public OrganizationHandler(final CoreServices services) {
+        this.services = services;
+        this.repositoryHandler = services.getRepositoryHandler();
     }
 
     /**
@@ -82,12 +85,13 @@ public class OrganizationHandler {
     }
 
     /**
-     * Adds a corporate groupId to an organization
+     * Adds a corporate groupId to an organization, the modules of the groupId are tagged with the organization by a background job
      *
      * @param organizationId String
      * @param corporateGroupId String
+     * @return TaggingJob
      */
-    public void addCorporateGroupId(final String organizationId, final String corporateGroupId) {
+    public TaggingJob addCorporateGroupId(final String organizationId, final String corporateGroupId) {
         final DbOrganization dbOrganization = getOrganization(organizationId);
 
         if(!dbOrganization.getCorporateGroupIdPrefixes().contains(corporateGroupId)){
@@ -95,16 +99,17 @@ public class OrganizationHandler {
             repositoryHandler.store(dbOrganization);
         }
 
-        repositoryHandler.addModulesOrganization(corporateGroupId, dbOrganization);
+        return services.getOrganizationTagger().addCorporateGroupId(corporateGroupId, dbOrganization);
     }
 
     /**
-     * Removes a corporate groupId from an Organisation
+     * Removes a corporate groupId from an Organisation, the modules of the groupId are untagged by a background job
      *
      * @param organizationId String
      * @param corporateGroupId String
+     * @return TaggingJob
      */
-    public void removeCorporateGroupId(final String organizationId, final String corporateGroupId) {
+    public TaggingJob removeCorporateGroupId(final String organizationId, final String corporateGroupId) {
         final DbOrganization dbOrganization = getOrganization(organizationId);
 
         if(dbOrganization.getCorporateGroupIdPrefixes().contains(corporateGroupId)){
@@ -112,9 +117,19 @@ public class OrganizationHandler {
             repositoryHandler.store(dbOrganization);
         }
 
-        repositoryHandler.removeModulesOrganization(corporateGroupId, dbOrganization);
+        return services.getOrganizationTagger().removeCorporateGroupId(corporateGroupId, dbOrganization);
     }
 
+    /**
+     * Returns the jobs that update the modules of an organization
+     *
+     * @param organizationId String
+     * @return List<TaggingJob>
+     */
+    public List<TaggingJob> getTaggingJobs(final String organizationId) {
+        final DbOrganization dbOrganization = getOrganization(organizationId);
+        return services.getOrganizationTagger().getJobs(dbOrganization.getName());
+    }
 
     /**
      * Returns an Organization that suits the Module or null if there is none
@@ -3,11 +3,12 @@ package org.axway.grapes.server.core;
 import org.axway.grapes.server.core.version.IncomparableException;
 import org.axway.grapes.server.core.version.NotHandledVersionException;
 import org.axway.grapes.server.core.version.Version;
+import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
 
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Versions Handler
@@ -32,27 +33,26 @@ public class VersionsHandler {
      * @return boolean
      */
     public boolean isUpToDate(final DbArtifact artifact) {
-        final List<String> versions = repoHandler.getArtifactVersions(artifact);
+        final DbLatestVersion latestVersion = repoHandler.getLatestVersion(artifact);
         final String currentVersion = artifact.getVersion();
 
-        try{
-            final String lastDevVersion = getLastVersion(versions);
-            final String lastReleaseVersion = getLastRelease(versions);
-            return currentVersion.equals(lastDevVersion) || currentVersion.equals(lastReleaseVersion);
-        }
-        catch (Exception e){
-            for(String version: versions){
-                if(version.compareTo(currentVersion) > 0){
-                    return false;
-                }
-            }
-
+        if(currentVersion.equals(latestVersion.getLastVersion()) ||
+                currentVersion.equals(latestVersion.getLastRelease())){
             return true;
         }
 
+        try{
+            Version.valueOf(currentVersion);
+            return false;
+        }
+        catch (NotHandledVersionException e){
+            // This version cannot be compared
+            // Let's use the String order by default
+            return latestVersion.getLastVersion() == null ||
+                    currentVersion.compareTo(latestVersion.getLastVersion()) >= 0;
+        }
     }
 
-
     /**
      * Find-out the last release version in a list of version (regarding Axway Conventions)
      *
@@ -62,27 +62,7 @@ public class VersionsHandler {
      * @throws IncomparableException
      */
     public String getLastRelease(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
-        Version lastRelease = null;
-
-        for(String version: versions){
-            final Version testedVersion = new Version(version);
-
-            if(testedVersion.isRelease()){
-                if(lastRelease == null){
-                    lastRelease = testedVersion;
-                }
-                else if(lastRelease.compare(testedVersion) < 0){
-                    lastRelease = testedVersion;
-                }
-            }
-
-        }
-
-        if(lastRelease == null){
-            return null;
-        }
-
-        return lastRelease.toString();
+        return DataUtils.getLastRelease(versions);
     }
 
     /**
@@ -94,24 +74,6 @@ public class VersionsHandler {
      * @throws IncomparableException
      */
     public String getLastVersion(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
-        Version lastVersion = null;
-
-        for(String version: versions){
-            final Version testedVersion = new Version(version);
-
-            if(lastVersion == null){
-                lastVersion = testedVersion;
-            }
-            else if(lastVersion.compare(testedVersion) < 0){
-                lastVersion = testedVersion;
-            }
-
-        }
-
-        if(lastVersion == null){
-            return null;
-        }
-
-        return lastVersion.toString();
+        return DataUtils.getLastVersion(versions);
     }
 }
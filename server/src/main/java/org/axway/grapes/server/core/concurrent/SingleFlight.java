@@ -0,0 +1,172 @@
+package org.axway.grapes.server.core.concurrent;
+
+import com.google.common.base.Throwables;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Histogram;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single Flight
+ *
+ * <p>Coalesces the concurrent computations of the same key: the first caller computes the result on its own thread,
+ * the callers that come while it is in flight wait for it and get the same result, or the same error.
+ * It is built once by the server and shared by the handlers.</p>
+ *
+ * <p>A waiting caller gives up after the timeout of the key and computes the result on its own.
+ * A computation must not ask for its own key, it would wait for itself until the timeout.</p>
+ *
+ * @author jdcoffre
+ */
+public final class SingleFlight {
+
+    /** Default time to wait for a computation in flight, in ms */
+    public static final long DEFAULT_TIMEOUT = 60000;
+
+    private static final Meter FLIGHTS = newMeter("flights");
+    private static final Meter COALESCED = newMeter("coalesced");
+    private static final Meter TIMEOUTS = newMeter("timeouts");
+    private static final Histogram WAITERS = Metrics.newHistogram(new MetricName(SingleFlight.class, "waiters"), true);
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+    private volatile long timeout = DEFAULT_TIMEOUT;
+
+    /**
+     * Sets the default time to wait for a computation in flight
+     *
+     * @param timeout long in ms, 0 means no timeout
+     * @return SingleFlight
+     */
+    public SingleFlight configure(final long timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Returns the result of a computation, shared with the concurrent calls of the same key
+     *
+     * @param key String the normalized key of the computation
+     * @param computation Callable<T>
+     * @return T
+     */
+    public <T> T execute(final String key, final Callable<T> computation) {
+        return execute(key, timeout, computation);
+    }
+
+    /**
+     * Returns the result of a computation, shared with the concurrent calls of the same key
+     *
+     * @param key String the normalized key of the computation
+     * @param timeout long the time to wait for a computation in flight in ms, 0 means no timeout
+     * @param computation Callable<T>
+     * @return T
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final String key, final long timeout, final Callable<T> computation) {
+        final Flight flight = new Flight(computation);
+        final Flight inFlight = flights.putIfAbsent(key, flight);
+
+        if(inFlight == null){
+            FLIGHTS.mark();
+            try{
+                flight.task.run();
+            }
+            finally {
+                flights.remove(key, flight);
+                WAITERS.update(flight.waiters.get());
+            }
+            return (T) getResult(flight);
+        }
+
+        COALESCED.mark();
+        inFlight.waiters.incrementAndGet();
+        if(!await(inFlight, timeout)){
+            TIMEOUTS.mark();
+            return call(computation);
+        }
+        return (T) getResult(inFlight);
+    }
+
+    /**
+     * Returns the number of callers that wait for the computation of a key
+     *
+     * @param key String
+     * @return int
+     */
+    public int getWaiters(final String key) {
+        final Flight flight = flights.get(key);
+        return flight == null ? 0 : flight.waiters.get();
+    }
+
+    /**
+     * Waits for the end of a computation, successful or not
+     *
+     * @return boolean false if the computation is still in flight after the timeout
+     */
+    private static boolean await(final Flight flight, final long timeout) {
+        try{
+            if(timeout > 0){
+                flight.task.get(timeout, TimeUnit.MILLISECONDS);
+            }
+            else{
+                flight.task.get();
+            }
+            return true;
+        }
+        catch (TimeoutException e){
+            return false;
+        }
+        catch (ExecutionException e){
+            return true;
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private static Object getResult(final Flight flight) {
+        try{
+            return flight.task.get();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        }
+        catch (ExecutionException e){
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private static <T> T call(final Callable<T> computation) {
+        try{
+            return computation.call();
+        }
+        catch (Exception e){
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private static Meter newMeter(final String name) {
+        return Metrics.newMeter(new MetricName(SingleFlight.class, name), "requests", TimeUnit.SECONDS);
+    }
+
+    private static final class Flight {
+        private final FutureTask<Object> task;
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        private Flight(final Callable<?> computation) {
+            this.task = new FutureTask<Object>((Callable<Object>) computation);
+        }
+    }
+}
@@ -6,10 +6,15 @@ import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbModule;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public abstract class AbstractGraph {
-	private final List<String> treatedElements = new ArrayList<String>();
+	// the lists keep the order of the graph, the sets index them
+	private final Set<String> treatedElements = new HashSet<String>();
+	private final Set<String> elementIds = new HashSet<String>();
+	private final Set<GraphDependency> dependencyIndex = new HashSet<GraphDependency>();
 	private List<GraphElement> elements = new ArrayList<GraphElement>();
 	private List<GraphDependency> dependencies = new ArrayList<GraphDependency>();
 	
@@ -18,22 +23,27 @@ public abstract class AbstractGraph {
 	}
 	public void setElements(final List<GraphElement> elements) {
 		this.elements = elements;
+		elementIds.clear();
+		for(GraphElement element: elements){
+			elementIds.add(element.getValue());
+		}
 	}
 	public List<GraphDependency> getDependencies() {
 		return dependencies;
 	}
 	public void setDependencies(final List<GraphDependency> dependencies) {
 		this.dependencies = dependencies;
+		dependencyIndex.clear();
+		dependencyIndex.addAll(dependencies);
 	}
 	
 	public void addElement(final String id, final String version, final boolean root){
-		final GraphElement element = new GraphElement();
-		element.setValue(id);
-		element.setVersion(version);
-		element.setRoot(root);
-		
-		if(!elements.contains(element)){
-			elements.add(element);
+		if(elementIds.add(id)){
+			final GraphElement element = new GraphElement();
+			element.setValue(id);
+			element.setVersion(version);
+			element.setRoot(root);
+			elementAdded(element);
 		}
 		
 		treated(id);
@@ -49,7 +59,9 @@ public abstract class AbstractGraph {
 		jsonDep.setTarget(targetId);
 		jsonDep.setType(scope.toString());
 
-		dependencies.add(jsonDep);
+		if(dependencyIndex.add(jsonDep)){
+			dependencyAdded(jsonDep);
+		}
 	}
 	
 	public boolean isTreated(final String elementId){
@@ -60,6 +72,24 @@ public abstract class AbstractGraph {
 		treatedElements.add(id);
 	}
 
+	/**
+	 * Called once for each new element of the graph
+	 *
+	 * @param element GraphElement
+	 */
+	protected void elementAdded(final GraphElement element){
+		elements.add(element);
+	}
+
+	/**
+	 * Called once for each new dependency of the graph
+	 *
+	 * @param dependency GraphDependency
+	 */
+	protected void dependencyAdded(final GraphDependency dependency){
+		dependencies.add(dependency);
+	}
+
 	public abstract String getId(final DbModule module);
 	
 	public abstract String getId(final DbArtifact artifact);
@@ -0,0 +1,238 @@
+package org.axway.grapes.server.core.graphs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import org.axway.grapes.server.core.concurrent.SingleFlight;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closure Cache
+ *
+ * <p>Process-wide cache of the results of the dependency traversals, by root module and filters. It is built once by the server and shared by the handlers.</p>
+ *
+ * <p>Each cached closure records the modules it walked through and the artifacts it targeted.
+ * A reverse index of those keys lets the module and artifact changes invalidate exactly the closures they can alter.
+ * Until the cache is configured, the closures are computed at each call.
+ * In both cases, the concurrent requests of a closure share a single computation.</p>
+ *
+ * @author jdcoffre
+ */
+public final class ClosureCache {
+
+    private static final Meter HITS = newMeter("hits");
+    private static final Meter MISSES = newMeter("misses");
+    private static final Meter INVALIDATIONS = newMeter("invalidations");
+
+    private final SingleFlight flights;
+    private volatile Cache<String, Closure> closures;
+
+    // module ID or gavc -> keys of the closures that depend on it, guarded by itself
+    private final Map<String, Set<String>> index = new HashMap<String, Set<String>>();
+    // number of invalidations, a closure computed across an invalidation is not cached
+    private long invalidations = 0;
+
+    public ClosureCache(final SingleFlight flights) {
+        this.flights = flights;
+    }
+
+    /**
+     * Enables the cache
+     *
+     * @param cachePolicy String Guava cache specification, i.e. "maximumSize=1000"
+     * @return ClosureCache
+     */
+    public ClosureCache configure(final String cachePolicy) {
+        synchronized (index){
+            index.clear();
+            closures = CacheBuilder.from(cachePolicy)
+                    .removalListener(new RemovalListener<String, Closure>() {
+                        @Override
+                        public void onRemoval(final RemovalNotification<String, Closure> notification) {
+                            unindex(notification.getKey(), notification.getValue());
+                        }
+                    })
+                    .build();
+        }
+        return this;
+    }
+
+    /**
+     * Returns a closure, it is computed if it is not in the cache.
+     * The concurrent computations of the same closure are shared.
+     *
+     * @param key String the root module ID and the filters of the traversal
+     * @param loader Loader<T>
+     * @return T
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key, final Loader<T> loader) {
+        final Cache<String, Closure> cache = closures;
+        if(cache != null){
+            final Closure cached = cache.getIfPresent(key);
+            if(cached != null){
+                HITS.mark();
+                return (T) cached.value;
+            }
+            MISSES.mark();
+        }
+
+        return flights.execute(key, new Callable<T>() {
+            @Override
+            public T call() {
+                return load(cache, key, loader);
+            }
+        });
+    }
+
+    private <T> T load(final Cache<String, Closure> cache, final String key, final Loader<T> loader) {
+        if(cache == null){
+            return loader.load(new HashSet<String>());
+        }
+
+        final long generation;
+        synchronized (index){
+            generation = invalidations;
+        }
+
+        final Set<String> dependencies = new HashSet<String>();
+        final T value = loader.load(dependencies);
+
+        synchronized (index){
+            if(generation == invalidations && cache == closures){
+                cache.put(key, new Closure(value, dependencies));
+                for(String dependency: dependencies){
+                    Set<String> keys = index.get(dependency);
+                    if(keys == null){
+                        keys = new HashSet<String>();
+                        index.put(dependency, keys);
+                    }
+                    keys.add(key);
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Invalidates the closures that walked through a module, its submodules or that targeted its artifacts
+     *
+     * @param module DbModule
+     */
+    public void moduleChanged(final DbModule module) {
+        final List<String> keys = new ArrayList<String>();
+        keys.add(module.getId());
+        for(DbModule submodule: DataUtils.getAllSubmodules(module)){
+            keys.add(submodule.getId());
+        }
+        keys.addAll(DataUtils.getAllArtifacts(module));
+
+        invalidate(keys);
+    }
+
+    /**
+     * Invalidates the closures that targeted an artifact
+     *
+     * @param gavc String
+     */
+    public void artifactChanged(final String gavc) {
+        invalidate(Collections.singletonList(gavc));
+    }
+
+    /**
+     * Invalidates the closures that depend on modules or artifacts
+     *
+     * @param dependencies Collection<String> module IDs or gavcs
+     */
+    public void invalidate(final Collection<String> dependencies) {
+        final Set<String> keys = new HashSet<String>();
+        synchronized (index){
+            invalidations++;
+            for(String dependency: dependencies){
+                final Set<String> dependent = index.remove(dependency);
+                if(dependent != null){
+                    keys.addAll(dependent);
+                }
+            }
+        }
+
+        final Cache<String, Closure> cache = closures;
+        if(cache != null && !keys.isEmpty()){
+            INVALIDATIONS.mark(keys.size());
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Removes a closure that is no longer cached from the reverse index
+     */
+    private void unindex(final String key, final Closure closure) {
+        if(closure == null){
+            return;
+        }
+
+        synchronized (index){
+            // the notifications can be delivered late, the key may already hold a new closure
+            final Cache<String, Closure> cache = closures;
+            final Closure current = cache == null ? null : cache.getIfPresent(key);
+
+            for(String dependency: closure.dependencies){
+                if(current != null && current.dependencies.contains(dependency)){
+                    continue;
+                }
+                final Set<String> keys = index.get(dependency);
+                if(keys != null){
+                    keys.remove(key);
+                    if(keys.isEmpty()){
+                        index.remove(dependency);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Meter newMeter(final String name) {
+        return Metrics.newMeter(new MetricName(ClosureCache.class, name), "closures", TimeUnit.SECONDS);
+    }
+
+    /**
+     * Computes a closure
+     */
+    public interface Loader<T> {
+
+        /**
+         * Computes the closure and records what it depends on
+         *
+         * @param dependencies Set<String> to be filled with the IDs of the walked modules and the gavcs of the targeted artifacts
+         * @return T
+         */
+        T load(final Set<String> dependencies);
+    }
+
+    private static final class Closure {
+        private final Object value;
+        private final Set<String> dependencies;
+
+        private Closure(final Object value, final Set<String> dependencies) {
+            this.value = value;
+            this.dependencies = dependencies;
+        }
+    }
+}
@@ -0,0 +1,626 @@
+package org.axway.grapes.server.core.graphs;
+
+import com.yammer.dropwizard.lifecycle.Managed;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.MetricName;
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed Dependency Graph
+ *
+ * <p>Process-wide in-memory copy of the dependency graph of a repository, loaded at startup then updated at each module store, deletion or promotion.
+ * It is built once by the server and shared by the handlers. The traversals use it once it is loaded, they read the database until then.</p>
+ *
+ * <p>The modules and the artifacts are interned into integer indexes. The dependencies of each root module (submodules included) are stored
+ * in primitive arrays in compressed sparse row layout: one int for the target artifact with the scope packed in its low bits, one int for the declaring module.
+ * The root modules updated since the last compaction are kept aside and merged into the arrays once they are numerous enough.</p>
+ *
+ * @author jdcoffre
+ */
+public final class CompressedDependencyGraph implements DependencyGraph, Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompressedDependencyGraph.class);
+
+    private static final int SCOPE_BITS = 3;
+    private static final int SCOPE_MASK = (1 << SCOPE_BITS) - 1;
+    private static final Scope[] SCOPES = Scope.values();
+    private static final int NONE = -1;
+
+    // minimum number of updated root modules before a compaction
+    private static final int MIN_COMPACTION = 256;
+
+    private final RepositoryHandler repositoryHandler;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Dictionary moduleIds = new Dictionary();
+    private final Dictionary gavcs = new Dictionary();
+
+    // by module index: the root module (itself for a root module) and the parent module
+    private final IntArray roots = new IntArray();
+    private final IntArray parents = new IntArray();
+    private final BitSet storedModules = new BitSet();
+    private final BitSet promotedModules = new BitSet();
+
+    // by artifact index: the module or submodule that produces the artifact
+    private final IntArray producers = new IntArray();
+
+    // by root module index: the artifacts produced by the root module and its submodules
+    private final Map<Integer, int[]> producedArtifacts = new HashMap<Integer, int[]>();
+
+    // dependencies of the root modules, by root module index
+    private int[] offsets = new int[1];
+    private int[] targets = new int[0];
+    private int[] sources = new int[0];
+
+    // dependencies of the root modules updated since the last compaction
+    private final Map<Integer, Adjacency> updatedModules = new HashMap<Integer, Adjacency>();
+
+    // changes received while the graph is loading
+    private final List<Change> pendingChanges = new ArrayList<Change>();
+    private volatile boolean loading = false;
+    private volatile boolean loaded = false;
+
+    private final List<MetricName> gauges = new ArrayList<MetricName>();
+
+    public CompressedDependencyGraph(final RepositoryHandler repositoryHandler) {
+        this.repositoryHandler = repositoryHandler;
+    }
+
+    /**
+     * Checks if the graph is loaded and can be walked
+     *
+     * @return boolean
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Loads the graph in background, the server does not wait for it to start
+     */
+    @Override
+    public void start() {
+        addGauge("modules", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getModuleCount();
+            }
+        });
+        addGauge("artifacts", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getArtifactCount();
+            }
+        });
+        addGauge("edges", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getEdgeCount();
+            }
+        });
+
+        loading = true;
+        final Thread loader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        }, "dependency-graph-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Override
+    public void stop() {
+        for(MetricName gauge: gauges){
+            Metrics.defaultRegistry().removeMetric(gauge);
+        }
+        gauges.clear();
+    }
+
+    /**
+     * Loads all the modules of the repository into the graph.
+     * The changes received during the load are applied at its end.
+     */
+    public void load() {
+        loading = true;
+        final long start = System.currentTimeMillis();
+
+        try{
+            // the graph is not read nor written by the other threads until it is loaded, the counts stay at 0 until then
+            for(DbModule module: repositoryHandler.getAllModules()){
+                index(module);
+            }
+            compact();
+
+            lock.writeLock().lock();
+            try{
+                for(Change change: pendingChanges){
+                    change.apply(this);
+                }
+                pendingChanges.clear();
+                loaded = true;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+
+            LOG.info("Dependency graph loaded in " + (System.currentTimeMillis() - start) + "ms: " + getModuleCount() + " modules, "
+                    + getArtifactCount() + " artifacts, " + getEdgeCount() + " dependencies");
+        }
+        catch (Exception e){
+            LOG.error("Failed to load the dependency graph, the traversals keep reading the database.", e);
+        }
+        finally {
+            loading = false;
+            synchronized (pendingChanges){
+                pendingChanges.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a root module in the graph
+     *
+     * @param module DbModule
+     */
+    public void update(final DbModule module) {
+        change(new Change(module, module.getId(), Change.Type.UPDATE));
+    }
+
+    /**
+     * Removes a root module from the graph
+     *
+     * @param moduleId String
+     */
+    public void remove(final String moduleId) {
+        change(new Change(null, moduleId, Change.Type.REMOVE));
+    }
+
+    /**
+     * Flags a root module as promoted
+     *
+     * @param moduleId String
+     */
+    public void promote(final String moduleId) {
+        change(new Change(null, moduleId, Change.Type.PROMOTE));
+    }
+
+    private void change(final Change change) {
+        lock.writeLock().lock();
+        try{
+            if(loaded){
+                change.apply(this);
+                if(updatedModules.size() >= Math.max(MIN_COMPACTION, storedModules.cardinality() / 16)){
+                    compact();
+                }
+            }
+            else if(loading){
+                synchronized (pendingChanges){
+                    pendingChanges.add(change);
+                }
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<DbDependency> getDependencies(final String moduleId) {
+        lock.readLock().lock();
+        try{
+            final int module = moduleIds.get(moduleId);
+            final int root = roots.get(module);
+            if(root == NONE || !storedModules.get(root)){
+                return Collections.emptyList();
+            }
+
+            final Adjacency updated = updatedModules.get(root);
+            final int[] moduleTargets = updated == null ? targets : updated.targets;
+            final int[] moduleSources = updated == null ? sources : updated.sources;
+            final int from = updated == null ? offsets[root] : 0;
+            final int to = updated == null ? offsets[root + 1] : updated.targets.length;
+
+            final List<DbDependency> dependencies = new ArrayList<DbDependency>(to - from);
+            for(int i = from; i < to; i++){
+                if(module == root || isDescendant(moduleSources[i], module)){
+                    dependencies.add(new DbDependency(moduleIds.get(moduleSources[i]),
+                            gavcs.get(moduleTargets[i] >>> SCOPE_BITS),
+                            decodeScope(moduleTargets[i] & SCOPE_MASK)));
+                }
+            }
+
+            return dependencies;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, String> getRootModuleIds(final Collection<String> artifactGavcs) {
+        lock.readLock().lock();
+        try{
+            final Map<String, String> rootModuleIds = new HashMap<String, String>();
+            for(String gavc: artifactGavcs){
+                final int root = roots.get(producers.get(gavcs.get(gavc)));
+                if(root != NONE && storedModules.get(root)){
+                    rootModuleIds.put(gavc, moduleIds.get(root));
+                }
+            }
+            return rootModuleIds;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getModuleId(final String gavc) {
+        lock.readLock().lock();
+        try{
+            final int module = producers.get(gavcs.get(gavc));
+            final int root = roots.get(module);
+            if(root == NONE || !storedModules.get(root)){
+                return null;
+            }
+            return moduleIds.get(module);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isPromoted(final String moduleId) {
+        lock.readLock().lock();
+        try{
+            final int module = moduleIds.get(moduleId);
+            return module != NONE && promotedModules.get(module);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of modules and submodules in the graph, 0 until the graph is loaded
+     *
+     * @return int
+     */
+    public int getModuleCount() {
+        if(!loaded){
+            return 0;
+        }
+
+        lock.readLock().lock();
+        try{
+            return moduleIds.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of artifacts in the graph, 0 until the graph is loaded
+     *
+     * @return int
+     */
+    public int getArtifactCount() {
+        if(!loaded){
+            return 0;
+        }
+
+        lock.readLock().lock();
+        try{
+            return gavcs.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of dependencies in the graph, 0 until the graph is loaded
+     *
+     * @return int
+     */
+    public int getEdgeCount() {
+        if(!loaded){
+            return 0;
+        }
+
+        lock.readLock().lock();
+        try{
+            int count = targets.length;
+            for(Map.Entry<Integer, Adjacency> updated: updatedModules.entrySet()){
+                final int root = updated.getKey();
+                if(root + 1 < offsets.length){
+                    count -= offsets[root + 1] - offsets[root];
+                }
+                count += updated.getValue().targets.length;
+            }
+            return count;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a root module, its submodules and its dependencies. Has to be called with the write lock or during the load.
+     */
+    private void index(final DbModule module) {
+        final int root = moduleIds.intern(module.getId());
+        clearProducers(root);
+
+        final IntArray moduleTargets = new IntArray();
+        final IntArray moduleSources = new IntArray();
+        final IntArray moduleArtifacts = new IntArray();
+        index(module, root, NONE, moduleTargets, moduleSources, moduleArtifacts);
+
+        producedArtifacts.put(root, moduleArtifacts.toArray());
+        updatedModules.put(root, new Adjacency(moduleTargets.toArray(), moduleSources.toArray()));
+        storedModules.set(root);
+        promotedModules.set(root, module.isPromoted());
+    }
+
+    private void index(final DbModule module, final int root, final int parent,
+                       final IntArray moduleTargets, final IntArray moduleSources, final IntArray moduleArtifacts) {
+        final int index = moduleIds.intern(module.getId());
+        roots.set(index, root);
+        parents.set(index, parent);
+
+        for(String gavc: module.getArtifacts()){
+            final int artifact = gavcs.intern(gavc);
+            producers.set(artifact, index);
+            moduleArtifacts.add(artifact);
+        }
+
+        for(DbDependency dependency: module.getDependencies()){
+            if(dependency.getTarget() == null){
+                continue;
+            }
+            final int source = dependency.getSource() == null ? index : moduleIds.intern(dependency.getSource());
+            moduleTargets.add(gavcs.intern(dependency.getTarget()) << SCOPE_BITS | encodeScope(dependency.getScope()));
+            moduleSources.add(source);
+        }
+
+        for(DbModule submodule: module.getSubmodules()){
+            index(submodule, root, index, moduleTargets, moduleSources, moduleArtifacts);
+        }
+    }
+
+    private void unindex(final String moduleId) {
+        final int root = moduleIds.get(moduleId);
+        if(root == NONE){
+            return;
+        }
+
+        clearProducers(root);
+        updatedModules.put(root, Adjacency.EMPTY);
+        storedModules.clear(root);
+        promotedModules.clear(root);
+    }
+
+    private void promoteModule(final String moduleId) {
+        promotedModules.set(moduleIds.intern(moduleId));
+    }
+
+    /**
+     * Releases the artifacts produced by a root module and its submodules, unless an other module produces them since
+     */
+    private void clearProducers(final int root) {
+        final int[] artifacts = producedArtifacts.remove(root);
+        if(artifacts == null){
+            return;
+        }
+
+        for(int artifact: artifacts){
+            final int producer = producers.get(artifact);
+            if(producer != NONE && roots.get(producer) == root){
+                producers.set(artifact, NONE);
+            }
+        }
+    }
+
+    /**
+     * Merges the updated root modules into the compressed arrays
+     */
+    private void compact() {
+        final int moduleCount = moduleIds.size();
+        final int[] newOffsets = new int[moduleCount + 1];
+
+        for(int module = 0; module < moduleCount; module++){
+            final Adjacency updated = updatedModules.get(module);
+            final int size;
+            if(updated != null){
+                size = updated.targets.length;
+            }
+            else if(module + 1 < offsets.length){
+                size = offsets[module + 1] - offsets[module];
+            }
+            else{
+                size = 0;
+            }
+            newOffsets[module + 1] = newOffsets[module] + size;
+        }
+
+        final int[] newTargets = new int[newOffsets[moduleCount]];
+        final int[] newSources = new int[newOffsets[moduleCount]];
+
+        for(int module = 0; module < moduleCount; module++){
+            final Adjacency updated = updatedModules.get(module);
+            final int size = newOffsets[module + 1] - newOffsets[module];
+            if(updated != null){
+                System.arraycopy(updated.targets, 0, newTargets, newOffsets[module], size);
+                System.arraycopy(updated.sources, 0, newSources, newOffsets[module], size);
+            }
+            else if(size > 0){
+                System.arraycopy(targets, offsets[module], newTargets, newOffsets[module], size);
+                System.arraycopy(sources, offsets[module], newSources, newOffsets[module], size);
+            }
+        }
+
+        offsets = newOffsets;
+        targets = newTargets;
+        sources = newSources;
+        updatedModules.clear();
+    }
+
+    private boolean isDescendant(final int module, final int ancestor) {
+        int current = module;
+        while(current != NONE){
+            if(current == ancestor){
+                return true;
+            }
+            current = parents.get(current);
+        }
+        return false;
+    }
+
+    private static int encodeScope(final Scope scope) {
+        return scope == null ? 0 : scope.ordinal() + 1;
+    }
+
+    private static Scope decodeScope(final int code) {
+        return code == 0 ? null : SCOPES[code - 1];
+    }
+
+    private void addGauge(final String name, final Gauge<Integer> gauge) {
+        final MetricName metricName = new MetricName(CompressedDependencyGraph.class, name);
+        gauges.add(metricName);
+        Metrics.newGauge(metricName, gauge);
+    }
+
+    /**
+     * Change of the graph, applied as soon as the graph is loaded
+     */
+    private static final class Change {
+        private enum Type { UPDATE, REMOVE, PROMOTE }
+
+        private final DbModule module;
+        private final String moduleId;
+        private final Type type;
+
+        private Change(final DbModule module, final String moduleId, final Type type) {
+            this.module = module;
+            this.moduleId = moduleId;
+            this.type = type;
+        }
+
+        private void apply(final CompressedDependencyGraph graph) {
+            switch (type){
+                case UPDATE:
+                    graph.index(module);
+                    break;
+                case REMOVE:
+                    graph.unindex(moduleId);
+                    break;
+                default:
+                    graph.promoteModule(moduleId);
+            }
+        }
+    }
+
+    /**
+     * Dependencies of an updated root module
+     */
+    private static final class Adjacency {
+        private static final Adjacency EMPTY = new Adjacency(new int[0], new int[0]);
+
+        private final int[] targets;
+        private final int[] sources;
+
+        private Adjacency(final int[] targets, final int[] sources) {
+            this.targets = targets;
+            this.sources = sources;
+        }
+    }
+
+    /**
+     * Interned strings: each string gets the next index
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        private final List<String> values = new ArrayList<String>();
+
+        private int intern(final String value) {
+            final Integer index = indexes.get(value);
+            if(index != null){
+                return index;
+            }
+            indexes.put(value, values.size());
+            values.add(value);
+            return values.size() - 1;
+        }
+
+        private int get(final String value) {
+            final Integer index = indexes.get(value);
+            return index == null ? NONE : index;
+        }
+
+        private String get(final int index) {
+            return values.get(index);
+        }
+
+        private int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Growable array of ints, NONE out of its bounds
+     */
+    private static final class IntArray {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        private int get(final int index) {
+            return index < 0 || index >= size ? NONE : values[index];
+        }
+
+        private void set(final int index, final int value) {
+            if(index >= values.length){
+                final int oldLength = values.length;
+                values = Arrays.copyOf(values, Math.max(index + 1, oldLength * 2));
+                Arrays.fill(values, oldLength, values.length, NONE);
+            }
+            if(index >= size){
+                Arrays.fill(values, size, index, NONE);
+                size = index + 1;
+            }
+            values[index] = value;
+        }
+
+        private void add(final int value) {
+            set(size, value);
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.server.db.datamodel.DbDependency;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dependency Closure
+ *
+ * <p>Dependencies reached by a traversal, in the order they have been found, with the ID of the module that declares each of them.
+ * Once it has been built, a closure is not modified any more and can be shared between requests.</p>
+ *
+ * @author jdcoffre
+ */
+public final class DependencyClosure {
+
+    private final List<DbDependency> dependencies = new ArrayList<DbDependency>();
+    private final List<String> sourceIds = new ArrayList<String>();
+
+    public void add(final DbDependency dependency, final String sourceId) {
+        dependencies.add(dependency);
+        sourceIds.add(sourceId);
+    }
+
+    public List<DbDependency> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    /**
+     * Returns the ID of the module that declares a dependency of the closure
+     *
+     * @param index int the index of the dependency
+     * @return String
+     */
+    public String getSourceId(final int index) {
+        return sourceIds.get(index);
+    }
+
+    /**
+     * Returns the distinct targets of the dependencies
+     *
+     * @return Set<String>
+     */
+    public Set<String> getTargets() {
+        final Set<String> targets = new LinkedHashSet<String>();
+        for(DbDependency dependency: dependencies){
+            targets.add(dependency.getTarget());
+        }
+        return targets;
+    }
+}
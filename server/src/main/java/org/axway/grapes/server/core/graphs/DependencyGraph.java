@@ -0,0 +1,50 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.server.db.datamodel.DbDependency;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dependency Graph
+ *
+ * <p>Module -> artifact -> module graph walked by the dependency traversals.
+ * The modules are identified by their ID, the artifacts by their gavc.</p>
+ *
+ * @author jdcoffre
+ */
+public interface DependencyGraph {
+
+    /**
+     * Returns the dependencies declared by a module and its submodules
+     *
+     * @param moduleId String
+     * @return List<DbDependency> empty if the module does not exist
+     */
+    List<DbDependency> getDependencies(final String moduleId);
+
+    /**
+     * Returns the root modules that produce artifacts
+     *
+     * @param gavcs Collection<String>
+     * @return Map<String, String> the root module IDs by gavc, the gavcs without module are not in the map
+     */
+    Map<String, String> getRootModuleIds(final Collection<String> gavcs);
+
+    /**
+     * Returns the module or submodule that produces an artifact
+     *
+     * @param gavc String
+     * @return String the module ID or null if no module produces the artifact
+     */
+    String getModuleId(final String gavc);
+
+    /**
+     * Checks if a root module is promoted
+     *
+     * @param moduleId String
+     * @return boolean
+     */
+    boolean isPromoted(final String moduleId);
+}
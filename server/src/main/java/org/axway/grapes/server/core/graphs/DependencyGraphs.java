@@ -0,0 +1,33 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+/**
+ * Dependency Graphs
+ *
+ * <p>Provides the dependency graph to walk for a request.</p>
+ *
+ * @author jdcoffre
+ */
+public final class DependencyGraphs {
+
+    private DependencyGraphs(){
+        // Hide utility class constructor
+    }
+
+    /**
+     * Returns the in-memory graph of the repository if it is loaded, a graph read from the database otherwise
+     *
+     * @param graph CompressedDependencyGraph the in-memory graph of the repository
+     * @param repositoryHandler RepositoryHandler
+     * @param rootModule DbModule the module the traversal starts from
+     * @return DependencyGraph
+     */
+    public static DependencyGraph get(final CompressedDependencyGraph graph, final RepositoryHandler repositoryHandler, final DbModule rootModule) {
+        if(graph.isLoaded()){
+            return graph;
+        }
+        return new RepositoryDependencyGraph(repositoryHandler).withModule(rootModule);
+    }
+}
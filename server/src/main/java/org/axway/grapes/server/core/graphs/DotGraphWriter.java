@@ -0,0 +1,54 @@
+package org.axway.grapes.server.core.graphs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Dot Graph Writer
+ *
+ * <p>Writes a graph in the Graphviz DOT language.</p>
+ *
+ * @author jdcoffre
+ */
+public class DotGraphWriter implements GraphWriter {
+
+    private final Writer writer;
+
+    public DotGraphWriter(final OutputStream output) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(output, "UTF-8"));
+    }
+
+    @Override
+    public void start(final String graphId) throws IOException {
+        writer.write("digraph " + quote(graphId) + " {\n");
+        writer.write("  node [shape=box];\n");
+    }
+
+    @Override
+    public void writeElement(final GraphElement element) throws IOException {
+        writer.write("  " + quote(element.getValue()) + " [label=" + quote(element.getValue() + "\n" + element.getVersion()));
+        if(element.isRoot()){
+            writer.write(", style=filled, fillcolor=\"#ffeebb\"");
+        }
+        writer.write("];\n");
+    }
+
+    @Override
+    public void writeDependency(final GraphDependency dependency) throws IOException {
+        writer.write("  " + quote(dependency.getSource()) + " -> " + quote(dependency.getTarget())
+                + " [label=" + quote(dependency.getType()) + "];\n");
+    }
+
+    @Override
+    public void end() throws IOException {
+        writer.write("}\n");
+        writer.flush();
+    }
+
+    private static String quote(final String id) {
+        return "\"" + String.valueOf(id).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -23,7 +23,19 @@ public class GraphDependency {
 	public void setType(final String type) {
 		this.type = type;
 	}
-	
-	
-	
+
+	@Override
+	public int hashCode(){
+		return (source.hashCode() * 31 + target.hashCode()) * 31 + type.hashCode();
+	}
+
+	@Override
+	public boolean equals(final Object obj){
+		if(!(obj instanceof GraphDependency)){
+			return false;
+		}
+
+		final GraphDependency other = (GraphDependency) obj;
+		return source.equals(other.source) && target.equals(other.target) && type.equals(other.type);
+	}
 }
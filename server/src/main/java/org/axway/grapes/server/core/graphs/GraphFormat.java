@@ -0,0 +1,67 @@
+package org.axway.grapes.server.core.graphs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Graph Format
+ *
+ * <p>Formats of the graph exports.</p>
+ *
+ * @author jdcoffre
+ */
+public enum GraphFormat {
+
+    JSON("application/json") {
+        @Override
+        public GraphWriter newWriter(final OutputStream output) throws IOException {
+            return new JsonGraphWriter(output);
+        }
+    },
+    DOT("text/vnd.graphviz") {
+        @Override
+        public GraphWriter newWriter(final OutputStream output) throws IOException {
+            return new DotGraphWriter(output);
+        }
+    },
+    GRAPHML("application/graphml+xml") {
+        @Override
+        public GraphWriter newWriter(final OutputStream output) throws IOException {
+            return new GraphMLGraphWriter(output);
+        }
+    };
+
+    private final String mediaType;
+
+    private GraphFormat(final String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Creates a writer of this format
+     *
+     * @param output OutputStream
+     * @return GraphWriter
+     * @throws IOException
+     */
+    public abstract GraphWriter newWriter(final OutputStream output) throws IOException;
+
+    /**
+     * Returns the format that has a name, whatever the case
+     *
+     * @param name String
+     * @return GraphFormat or null if there is no such format
+     */
+    public static GraphFormat fromName(final String name) {
+        for(GraphFormat format: values()){
+            if(format.name().equalsIgnoreCase(name)){
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package org.axway.grapes.server.core.graphs;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * GraphML Graph Writer
+ *
+ * <p>Writes a graph in GraphML. The version and the root flag of the elements and the scope of the dependencies are GraphML data.</p>
+ *
+ * @author jdcoffre
+ */
+public class GraphMLGraphWriter implements GraphWriter {
+
+    private static final String GRAPHML_NS = "http://graphml.graphdrawing.org/xmlns";
+
+    private final XMLStreamWriter writer;
+
+    public GraphMLGraphWriter(final OutputStream output) throws IOException {
+        try {
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+        }
+        catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void start(final String graphId) throws IOException {
+        try {
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("graphml");
+            writer.writeDefaultNamespace(GRAPHML_NS);
+            writeKey("version", "node", "string");
+            writeKey("root", "node", "boolean");
+            writeKey("scope", "edge", "string");
+            writer.writeStartElement("graph");
+            writer.writeAttribute("id", graphId);
+            writer.writeAttribute("edgedefault", "directed");
+        }
+        catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeElement(final GraphElement element) throws IOException {
+        try {
+            writer.writeStartElement("node");
+            writer.writeAttribute("id", element.getValue());
+            writeData("version", element.getVersion());
+            writeData("root", String.valueOf(element.isRoot()));
+            writer.writeEndElement();
+        }
+        catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeDependency(final GraphDependency dependency) throws IOException {
+        try {
+            writer.writeStartElement("edge");
+            writer.writeAttribute("source", dependency.getSource());
+            writer.writeAttribute("target", dependency.getTarget());
+            writeData("scope", dependency.getType());
+            writer.writeEndElement();
+        }
+        catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        try {
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        }
+        catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void writeKey(final String id, final String target, final String type) throws XMLStreamException {
+        writer.writeEmptyElement("key");
+        writer.writeAttribute("id", id);
+        writer.writeAttribute("for", target);
+        writer.writeAttribute("attr.name", id);
+        writer.writeAttribute("attr.type", type);
+    }
+
+    private void writeData(final String key, final String value) throws XMLStreamException {
+        if(value == null){
+            return;
+        }
+        writer.writeStartElement("data");
+        writer.writeAttribute("key", key);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+}
@@ -0,0 +1,33 @@
+package org.axway.grapes.server.core.graphs;
+
+import java.io.IOException;
+
+/**
+ * Graph Writer
+ *
+ * <p>Writes the elements and the dependencies of a graph as soon as the graph walk finds them.
+ * Each element and each dependency is written once, a dependency can be written before its target element.</p>
+ *
+ * @author jdcoffre
+ */
+public interface GraphWriter {
+
+    /**
+     * Starts the document of a graph
+     *
+     * @param graphId String the ID of the root element
+     * @throws IOException
+     */
+    void start(final String graphId) throws IOException;
+
+    void writeElement(final GraphElement element) throws IOException;
+
+    void writeDependency(final GraphDependency dependency) throws IOException;
+
+    /**
+     * Ends the document and flushes it
+     *
+     * @throws IOException
+     */
+    void end() throws IOException;
+}
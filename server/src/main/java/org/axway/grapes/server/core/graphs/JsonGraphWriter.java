@@ -0,0 +1,64 @@
+package org.axway.grapes.server.core.graphs;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Json Graph Writer
+ *
+ * <p>Writes a graph with the same fields as the serialized AbstractGraph.
+ * The elements are written as they come, the dependencies are kept until the end because they are in the second array of the document.</p>
+ *
+ * @author jdcoffre
+ */
+public class JsonGraphWriter implements GraphWriter {
+
+    private final JsonGenerator generator;
+    private final List<GraphDependency> dependencies = new ArrayList<GraphDependency>();
+
+    public JsonGraphWriter(final OutputStream output) throws IOException {
+        generator = new JsonFactory().createGenerator(output, JsonEncoding.UTF8);
+    }
+
+    @Override
+    public void start(final String graphId) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("elements");
+    }
+
+    @Override
+    public void writeElement(final GraphElement element) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("value", element.getValue());
+        generator.writeStringField("version", element.getVersion());
+        generator.writeBooleanField("root", element.isRoot());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void writeDependency(final GraphDependency dependency) throws IOException {
+        dependencies.add(dependency);
+    }
+
+    @Override
+    public void end() throws IOException {
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("dependencies");
+        for(GraphDependency dependency: dependencies){
+            generator.writeStartObject();
+            generator.writeStringField("source", dependency.getSource());
+            generator.writeStringField("target", dependency.getTarget());
+            generator.writeStringField("type", dependency.getType());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+}
@@ -0,0 +1,103 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository Dependency Graph
+ *
+ * <p>Dependency graph read from the database as it is walked. The modules are loaded by level with one access per level,
+ * then kept for the rest of the traversal. An instance serves a single request, its modules can be read from several threads.</p>
+ *
+ * @author jdcoffre
+ */
+public class RepositoryDependencyGraph implements DependencyGraph {
+
+    private final RepositoryHandler repositoryHandler;
+
+    // modules and submodules already loaded, by ID
+    private final Map<String, DbModule> modules = new ConcurrentHashMap<String, DbModule>();
+    // root modules already loaded, by produced gavc
+    private final Map<String, DbModule> rootModules = new ConcurrentHashMap<String, DbModule>();
+
+    public RepositoryDependencyGraph(final RepositoryHandler repositoryHandler) {
+        this.repositoryHandler = repositoryHandler;
+    }
+
+    /**
+     * Adds a module that has already been loaded to the graph
+     *
+     * @param rootModule DbModule
+     * @return RepositoryDependencyGraph
+     */
+    public RepositoryDependencyGraph withModule(final DbModule rootModule) {
+        modules.put(rootModule.getId(), rootModule);
+        for(DbModule submodule: DataUtils.getAllSubmodules(rootModule)){
+            modules.put(submodule.getId(), submodule);
+        }
+        return this;
+    }
+
+    @Override
+    public List<DbDependency> getDependencies(final String moduleId) {
+        final DbModule module = getModule(moduleId);
+        if(module == null){
+            return Collections.emptyList();
+        }
+        return DataUtils.getAllDbDependencies(module);
+    }
+
+    @Override
+    public Map<String, String> getRootModuleIds(final Collection<String> gavcs) {
+        final Map<String, String> rootModuleIds = new HashMap<String, String>();
+
+        for(Map.Entry<String, DbModule> rootModule: repositoryHandler.getRootModulesOf(gavcs).entrySet()){
+            withModule(rootModule.getValue());
+            rootModules.put(rootModule.getKey(), rootModule.getValue());
+            rootModuleIds.put(rootModule.getKey(), rootModule.getValue().getId());
+        }
+
+        return rootModuleIds;
+    }
+
+    @Override
+    public String getModuleId(final String gavc) {
+        DbModule rootModule = rootModules.get(gavc);
+        if(rootModule == null){
+            rootModule = repositoryHandler.getRootModuleOf(gavc);
+            if(rootModule == null){
+                return null;
+            }
+            withModule(rootModule);
+            rootModules.put(gavc, rootModule);
+        }
+
+        return DataUtils.getModuleOf(rootModule, gavc).getId();
+    }
+
+    @Override
+    public boolean isPromoted(final String moduleId) {
+        final DbModule module = getModule(moduleId);
+        return module != null && module.isPromoted();
+    }
+
+    private DbModule getModule(final String moduleId) {
+        DbModule module = modules.get(moduleId);
+        if(module == null){
+            module = repositoryHandler.getModule(moduleId);
+            if(module != null){
+                withModule(module);
+            }
+        }
+        return module;
+    }
+}
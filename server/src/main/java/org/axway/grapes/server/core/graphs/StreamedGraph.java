@@ -0,0 +1,42 @@
+package org.axway.grapes.server.core.graphs;
+
+import com.google.common.base.Throwables;
+
+import java.io.IOException;
+
+/**
+ * Streamed Graph
+ *
+ * <p>Module graph that hands its elements and dependencies to a writer instead of keeping them.
+ * Only the IDs needed to avoid the duplicates stay in memory.</p>
+ *
+ * @author jdcoffre
+ */
+public class StreamedGraph extends ModuleGraph {
+
+    private final GraphWriter writer;
+
+    public StreamedGraph(final GraphWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    protected void elementAdded(final GraphElement element) {
+        try {
+            writer.writeElement(element);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Override
+    protected void dependencyAdded(final GraphDependency dependency) {
+        try {
+            writer.writeDependency(dependency);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+}
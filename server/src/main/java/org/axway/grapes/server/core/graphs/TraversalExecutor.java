@@ -0,0 +1,155 @@
+package org.axway.grapes.server.core.graphs;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.lifecycle.Managed;
+import org.axway.grapes.server.config.TraversalConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traversal Executor
+ *
+ * <p>Pool of threads that expands the levels of the dependency traversals. It is built once by the server and shared by the handlers.
+ * A level is split into batches of consecutive elements that are transformed in parallel, the results are put back in the order of the level
+ * so that the reports do not depend on the scheduling of the threads.</p>
+ *
+ * <p>Until the executor is started with a parallelism above 1, the levels are transformed on the calling thread.
+ * A transformation may itself walk a traversal: the nested levels are transformed on the thread of the batch,
+ * and the caller runs the batches that no thread of the pool has started yet instead of waiting for them, so the pool cannot starve.</p>
+ *
+ * @author jdcoffre
+ */
+public final class TraversalExecutor implements Managed {
+
+    // set while a thread transforms a batch of a level
+    private static final ThreadLocal<Boolean> IN_BATCH = new ThreadLocal<Boolean>();
+
+    private TraversalConfig config = new TraversalConfig();
+    private volatile ExecutorService threads;
+
+    /**
+     * Sets the parallelism of the executor, it is taken into account at the next start
+     *
+     * @param config TraversalConfig
+     * @return TraversalExecutor
+     */
+    public TraversalExecutor configure(final TraversalConfig config) {
+        this.config = config;
+        return this;
+    }
+
+    @Override
+    public void start() {
+        if(config.getParallelism() > 1 && threads == null){
+            threads = Executors.newFixedThreadPool(config.getParallelism(),
+                    new ThreadFactoryBuilder().setNameFormat("dependency-traversal-%d").setDaemon(true).build());
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        final ExecutorService stopped = threads;
+        threads = null;
+
+        if(stopped != null){
+            stopped.shutdown();
+            stopped.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Checks if the levels are transformed in parallel
+     *
+     * @return boolean
+     */
+    public boolean isParallel() {
+        return threads != null;
+    }
+
+    /**
+     * Transforms the elements of a traversal level.
+     * The function must be safe to call from several threads at once.
+     *
+     * @param elements List<F>
+     * @param function Function<F, T>
+     * @return List<T> the results in the order of the elements
+     */
+    public <F, T> List<T> transform(final List<F> elements, final Function<F, T> function) {
+        final ExecutorService executor = threads;
+        final int batchSize = config.getBatchSize();
+
+        if(executor == null || elements.size() <= batchSize || IN_BATCH.get() != null){
+            return transformBatch(elements, function);
+        }
+
+        final List<FutureTask<List<T>>> batches = new ArrayList<FutureTask<List<T>>>();
+        for(int start = 0; start < elements.size(); start += batchSize){
+            final List<F> batch = elements.subList(start, Math.min(start + batchSize, elements.size()));
+            final FutureTask<List<T>> task = new FutureTask<List<T>>(new Callable<List<T>>() {
+                @Override
+                public List<T> call() {
+                    IN_BATCH.set(Boolean.TRUE);
+                    try{
+                        return transformBatch(batch, function);
+                    }
+                    finally {
+                        IN_BATCH.remove();
+                    }
+                }
+            });
+            batches.add(task);
+
+            try{
+                executor.execute(task);
+            }
+            catch (RejectedExecutionException e){
+                // the executor is stopping, the caller runs the batch
+            }
+        }
+
+        final List<T> results = new ArrayList<T>(elements.size());
+        try {
+            for(FutureTask<List<T>> batch: batches){
+                // does nothing if a thread of the pool has already started the batch
+                batch.run();
+                results.addAll(batch.get());
+            }
+        }
+        catch (InterruptedException e) {
+            cancel(batches);
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        }
+        catch (ExecutionException e) {
+            cancel(batches);
+            throw Throwables.propagate(e.getCause());
+        }
+
+        return results;
+    }
+
+    private static <F, T> List<T> transformBatch(final List<F> elements, final Function<F, T> function) {
+        final List<T> results = new ArrayList<T>(elements.size());
+        for(F element: elements){
+            results.add(function.apply(element));
+        }
+        return results;
+    }
+
+    private static void cancel(final List<? extends Future<?>> batches) {
+        for(Future<?> batch: batches){
+            batch.cancel(true);
+        }
+    }
+}
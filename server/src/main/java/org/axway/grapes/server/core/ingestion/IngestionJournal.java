@@ -0,0 +1,143 @@
+package org.axway.grapes.server.core.ingestion;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.commons.utils.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingestion Journal
+ *
+ * <p>Keeps the queued modules on disk until they are stored in the database, so that a restart does not lose them.
+ * Each module is written in its own file, named after its sequence number and its ticket: the files are reloaded in the posting order.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionJournal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionJournal.class);
+
+    private static final String EXTENSION = ".json";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final String FAILED_EXTENSION = ".failed";
+    private static final char SEPARATOR = '_';
+
+    private final File directory;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public IngestionJournal(final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a module in the journal. The entry is complete or absent, even if the server stops during the write.
+     *
+     * @param ticket String
+     * @param module Module
+     * @return File the journal entry
+     * @throws IOException
+     */
+    public File write(final String ticket, final Module module) throws IOException {
+        final String name = String.format("%019d", sequence.incrementAndGet()) + SEPARATOR + ticket;
+        final File temporary = new File(directory, name + TEMPORARY_EXTENSION);
+        final File entry = new File(directory, name + EXTENSION);
+
+        Files.write(JsonUtils.serialize(module), temporary, Charsets.UTF_8);
+        if(!temporary.renameTo(entry)){
+            throw new IOException("Failed to write the journal entry " + entry);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Removes an entry once its module is stored
+     *
+     * @param entry File
+     */
+    public void delete(final File entry) {
+        if(entry.exists() && !entry.delete()){
+            LOG.error("Failed to delete the journal entry " + entry);
+        }
+    }
+
+    /**
+     * Reads the entries of the journal in the posting order.
+     * The entries that cannot be read are renamed to be ignored by the next loads.
+     *
+     * @return List<Entry>
+     * @throws IOException
+     */
+    public List<Entry> load() throws IOException {
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("Failed to create the journal directory " + directory);
+        }
+
+        final File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(EXTENSION);
+            }
+        });
+        Arrays.sort(files);
+
+        final List<Entry> entries = new ArrayList<Entry>();
+        for(File file: files){
+            final String name = file.getName().substring(0, file.getName().length() - EXTENSION.length());
+            final int separator = name.indexOf(SEPARATOR);
+
+            try{
+                final long entrySequence = Long.parseLong(name.substring(0, separator));
+                if(entrySequence > sequence.get()){
+                    sequence.set(entrySequence);
+                }
+                entries.add(new Entry(name.substring(separator + 1), JsonUtils.unserializeModule(Files.toString(file, Charsets.UTF_8)), file));
+            }
+            catch (Exception e){
+                LOG.error("Failed to read the journal entry " + file, e);
+                if(!file.renameTo(new File(directory, file.getName() + FAILED_EXTENSION))){
+                    LOG.error("Failed to discard the journal entry " + file);
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Module of the journal with its ticket
+     */
+    public static final class Entry {
+        private final String ticket;
+        private final Module module;
+        private final File file;
+
+        public Entry(final String ticket, final Module module, final File file) {
+            this.ticket = ticket;
+            this.module = module;
+            this.file = file;
+        }
+
+        public String getTicket() {
+            return ticket;
+        }
+
+        public Module getModule() {
+            return module;
+        }
+
+        public File getFile() {
+            return file;
+        }
+    }
+}
@@ -0,0 +1,552 @@
+package org.axway.grapes.server.core.ingestion;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.yammer.dropwizard.lifecycle.Managed;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.config.IngestionConfig;
+import org.axway.grapes.server.core.IngestionHandler;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ingestion Queue
+ *
+ * <p>Write-behind queue of the modules posted in asynchronous ingestion mode.
+ * The modules are journaled on disk before being acknowledged, then a pool of workers stores them in the database by batch.</p>
+ *
+ * <p>A module posted again while it is still waiting replaces the queued one: a single store is done for both posts,
+ * it keeps the artifacts that only the replaced post produces and the licenses of both posts.
+ * The queue is bounded, the posts are rejected when it is full.</p>
+ *
+ * <p>A module that fails to be stored is queued again after a growing delay, up to the maximum number of retries.
+ * Its journal entries are only deleted once it is stored: a module that still fails is retried at the next start.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionQueue implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionQueue.class);
+
+    private static final String METRICS_SCOPE = "ingestion";
+
+    // maximum delay (in ms) between two retries of a module
+    private static final long MAX_RETRY_DELAY = 60000;
+
+    private final IngestionConfig config;
+    private final IngestionHandler ingestionHandler;
+    private final IngestionJournal journal;
+    private final Cache<String, IngestionTicket> tickets;
+
+    // modules waiting to be stored, by module ID in posting order
+    private final Map<String, PendingModule> pending = new LinkedHashMap<String, PendingModule>();
+    // modules being stored by the workers
+    private final Set<String> inFlight = new HashSet<String>();
+    // journal entries of the modules that have no retry left, by module ID
+    private final Map<String, List<File>> failedEntries = new HashMap<String, List<File>>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private final Meter drained;
+    private final Meter coalesced;
+    private final Meter rejected;
+    private final Meter retried;
+    private final List<MetricName> metrics = new ArrayList<MetricName>();
+
+    private ExecutorService workers;
+    private volatile boolean running = false;
+
+    public IngestionQueue(final IngestionConfig config, final IngestionHandler ingestionHandler) {
+        this.config = config;
+        this.ingestionHandler = ingestionHandler;
+        this.journal = new IngestionJournal(new File(config.getJournalDirectory()));
+        this.tickets = CacheBuilder.from(config.getTicketCachePolicy()).build();
+
+        drained = addMeter("drained");
+        coalesced = addMeter("coalesced");
+        rejected = addMeter("rejected");
+        retried = addMeter("retried");
+        addGauge("depth", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getDepth();
+            }
+        });
+        addGauge("lag", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return getLag();
+            }
+        });
+    }
+
+    /**
+     * Journals a module and queues it
+     *
+     * @param module Module a validated module
+     * @return IngestionTicket or null if the queue is full
+     * @throws IOException if the module cannot be journaled
+     */
+    public IngestionTicket submit(final Module module) throws IOException {
+        final String moduleId = DbModule.generateID(module.getName(), module.getVersion());
+        final IngestionTicket ticket = new IngestionTicket(UUID.randomUUID().toString(), moduleId, System.currentTimeMillis());
+
+        if(isFull(moduleId)){
+            rejected.mark();
+            return null;
+        }
+
+        // the journal is written out of the lock, the posts do not wait for each other's disk writes
+        final File entry = journal.write(ticket.getId(), module);
+
+        lock.lock();
+        try{
+            if(isFull(moduleId)){
+                journal.delete(entry);
+                rejected.mark();
+                return null;
+            }
+
+            tickets.put(ticket.getId(), ticket);
+            enqueue(ticket, module, entry);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return ticket;
+    }
+
+    private boolean isFull(final String moduleId) {
+        lock.lock();
+        try{
+            return pending.size() >= config.getCapacity() && !pending.containsKey(moduleId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the status of a posted module
+     *
+     * @param ticketId String
+     * @return IngestionTicket or null if the ticket is unknown or expired
+     */
+    public IngestionTicket getTicket(final String ticketId) {
+        return tickets.getIfPresent(ticketId);
+    }
+
+    /**
+     * Number of modules waiting to be stored
+     *
+     * @return int
+     */
+    public int getDepth() {
+        lock.lock();
+        try{
+            return pending.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Time (in ms) the oldest waiting module has been queued for, 0 if the queue is empty
+     *
+     * @return long
+     */
+    public long getLag() {
+        lock.lock();
+        try{
+            long oldest = Long.MAX_VALUE;
+            for(PendingModule pendingModule: pending.values()){
+                oldest = Math.min(oldest, pendingModule.queued);
+            }
+            return pending.isEmpty() ? 0 : System.currentTimeMillis() - oldest;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() throws IOException {
+        // modules acknowledged before the last stop
+        for(IngestionJournal.Entry entry: journal.load()){
+            if(tickets.getIfPresent(entry.getTicket()) != null){
+                continue;
+            }
+
+            final IngestionTicket ticket = new IngestionTicket(entry.getTicket(),
+                    DbModule.generateID(entry.getModule().getName(), entry.getModule().getVersion()),
+                    entry.getFile().lastModified());
+            tickets.put(ticket.getId(), ticket);
+
+            lock.lock();
+            try{
+                enqueue(ticket, entry.getModule(), entry.getFile());
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        if(getDepth() > 0){
+            LOG.info(getDepth() + " modules reloaded from the ingestion journal");
+        }
+
+        running = true;
+        workers = Executors.newFixedThreadPool(config.getWorkers());
+        for(int i = 0; i < config.getWorkers(); i++){
+            workers.submit(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        running = false;
+        lock.lock();
+        try{
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        // the modules that are still queued stay in the journal for the next start
+        if(workers != null){
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        for(MetricName metric: metrics){
+            Metrics.defaultRegistry().removeMetric(metric);
+        }
+        metrics.clear();
+    }
+
+    /**
+     * Worker loop: stores the queued modules until the queue is stopped
+     */
+    private void drain() {
+        while(running){
+            final List<PendingModule> batch = take();
+            if(!batch.isEmpty()){
+                store(batch);
+            }
+        }
+    }
+
+    /**
+     * Waits for queued modules and takes them, up to the batch size.
+     * A module that is being stored by another worker is left in the queue so that the posts of a module are stored in order,
+     * a module that waits for its retry delay is left in the queue too.
+     *
+     * @return List<PendingModule> empty if the queue is stopped
+     */
+    List<PendingModule> take() {
+        final List<PendingModule> batch = new ArrayList<PendingModule>();
+
+        lock.lock();
+        try{
+            while(running && batch.isEmpty()){
+                final long now = System.currentTimeMillis();
+                long wait = TimeUnit.SECONDS.toMillis(1);
+
+                final Iterator<PendingModule> iterator = pending.values().iterator();
+                while(iterator.hasNext() && batch.size() < config.getBatchSize()){
+                    final PendingModule pendingModule = iterator.next();
+                    if(pendingModule.retryAt > now){
+                        wait = Math.min(wait, pendingModule.retryAt - now);
+                    }
+                    else if(!inFlight.contains(pendingModule.moduleId)){
+                        iterator.remove();
+                        inFlight.add(pendingModule.moduleId);
+                        batch.add(pendingModule);
+                    }
+                }
+
+                if(batch.isEmpty()){
+                    available.await(wait, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return batch;
+    }
+
+    /**
+     * Stores a batch of modules. If the batch fails, the modules are stored one by one to know which one fails.
+     *
+     * @param batch List<PendingModule>
+     */
+    void store(final List<PendingModule> batch) {
+        for(PendingModule pendingModule: batch){
+            pendingModule.processing();
+        }
+
+        try{
+            ingest(batch);
+            for(PendingModule pendingModule: batch){
+                complete(pendingModule);
+            }
+        }
+        catch (Exception batchError){
+            LOG.error("Failed to store a batch of " + batch.size() + " modules, storing them one by one.", batchError);
+
+            for(PendingModule pendingModule: batch){
+                try{
+                    ingest(Collections.singletonList(pendingModule));
+                    complete(pendingModule);
+                }
+                catch (Exception e){
+                    LOG.error("Failed to store the module " + pendingModule.moduleId, e);
+                    fail(pendingModule, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the queued modules and the artifacts of the posts they replaced
+     */
+    private void ingest(final List<PendingModule> batch) {
+        final List<Module> modules = new ArrayList<Module>();
+        final List<Artifact> replacedArtifacts = new ArrayList<Artifact>();
+        for(PendingModule pendingModule: batch){
+            modules.add(pendingModule.module);
+            replacedArtifacts.addAll(pendingModule.replacedArtifacts.values());
+        }
+
+        if(!replacedArtifacts.isEmpty()){
+            ingestionHandler.storeArtifacts(replacedArtifacts);
+        }
+        ingestionHandler.ingest(modules);
+    }
+
+    private void complete(final PendingModule pendingModule) {
+        for(IngestionTicket ticket: pendingModule.tickets){
+            ticket.done();
+        }
+        for(File entry: pendingModule.entries){
+            journal.delete(entry);
+        }
+        drained.mark();
+
+        lock.lock();
+        try{
+            // the failed posts of the module must not overwrite it at the next start
+            final List<File> staleEntries = failedEntries.remove(pendingModule.moduleId);
+            if(staleEntries != null){
+                for(File entry: staleEntries){
+                    journal.delete(entry);
+                }
+            }
+
+            inFlight.remove(pendingModule.moduleId);
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a module that failed to be stored for a retry, or fails its tickets once it has no retry left.
+     * In both cases its journal entries are kept.
+     */
+    private void fail(final PendingModule pendingModule, final Exception error) {
+        if(pendingModule.retries < config.getMaxRetries()){
+            retried.mark();
+            retry(pendingModule);
+            return;
+        }
+
+        LOG.error("The module " + pendingModule.moduleId + " is kept in the ingestion journal after " +
+                pendingModule.retries + " retries, it will be retried at the next start.");
+        for(IngestionTicket ticket: pendingModule.tickets){
+            ticket.failed(error.getMessage() == null ? error.getClass().getName() : error.getMessage());
+        }
+
+        lock.lock();
+        try{
+            List<File> entries = failedEntries.get(pendingModule.moduleId);
+            if(entries == null){
+                entries = new ArrayList<File>();
+                failedEntries.put(pendingModule.moduleId, entries);
+            }
+            entries.addAll(pendingModule.entries);
+
+            inFlight.remove(pendingModule.moduleId);
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void retry(final PendingModule pendingModule) {
+        pendingModule.retries++;
+        final long delay = config.getRetryDelay() << Math.min(pendingModule.retries - 1, 16);
+        pendingModule.retryAt = System.currentTimeMillis() + Math.min(delay, MAX_RETRY_DELAY);
+
+        lock.lock();
+        try{
+            // a post received during the store is more recent than the failed one
+            final PendingModule newerPost = pending.remove(pendingModule.moduleId);
+            if(newerPost != null){
+                pendingModule.replace(newerPost.module, newerPost.replacedArtifacts.values());
+                pendingModule.tickets.addAll(newerPost.tickets);
+                pendingModule.entries.addAll(newerPost.entries);
+            }
+            pending.put(pendingModule.moduleId, pendingModule);
+
+            inFlight.remove(pendingModule.moduleId);
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a module to the queue or merges it with the queued post of the same module. Has to be called with the lock.
+     */
+    private void enqueue(final IngestionTicket ticket, final Module module, final File entry) {
+        PendingModule pendingModule = pending.get(ticket.getModuleId());
+
+        if(pendingModule == null){
+            pendingModule = new PendingModule(ticket.getModuleId(), module, ticket.getSubmitted());
+            pending.put(ticket.getModuleId(), pendingModule);
+        }
+        else{
+            pendingModule.replace(module, Collections.<Artifact>emptyList());
+            coalesced.mark();
+        }
+
+        pendingModule.tickets.add(ticket);
+        pendingModule.entries.add(entry);
+        available.signal();
+    }
+
+    private Meter addMeter(final String name) {
+        final MetricName metricName = new MetricName(IngestionQueue.class, name, METRICS_SCOPE);
+        metrics.add(metricName);
+        return Metrics.newMeter(metricName, "modules", TimeUnit.SECONDS);
+    }
+
+    private <T> void addGauge(final String name, final Gauge<T> gauge) {
+        final MetricName metricName = new MetricName(IngestionQueue.class, name, METRICS_SCOPE);
+        metrics.add(metricName);
+        Metrics.newGauge(metricName, gauge);
+    }
+
+    /**
+     * Queued module with the tickets and the journal entries of all its posts
+     */
+    static final class PendingModule {
+        private final String moduleId;
+        private final long queued;
+        private final List<IngestionTicket> tickets = new ArrayList<IngestionTicket>();
+        private final List<File> entries = new ArrayList<File>();
+        // artifacts of the replaced posts that the queued post does not produce, by gavc
+        private final Map<String, Artifact> replacedArtifacts = new LinkedHashMap<String, Artifact>();
+        private Module module;
+        private int retries = 0;
+        private long retryAt = 0;
+
+        private PendingModule(final String moduleId, final Module module, final long queued) {
+            this.moduleId = moduleId;
+            this.module = module;
+            this.queued = queued;
+        }
+
+        /**
+         * Replaces the queued post by a newer one. The store of the merged post writes what the store of each post would have written:
+         * the module is the newer one, the artifacts that only the replaced posts produce are kept to be stored too,
+         * and the licenses of all the posts of an artifact are merged.
+         *
+         * @param newModule Module
+         * @param newReplacedArtifacts Collection<Artifact> the artifacts of the posts already replaced by the newer one
+         */
+        private void replace(final Module newModule, final Collection<Artifact> newReplacedArtifacts) {
+            final List<Artifact> olderArtifacts = new ArrayList<Artifact>(DataUtils.getAllArtifacts(module));
+            olderArtifacts.addAll(newReplacedArtifacts);
+            for(Artifact artifact: olderArtifacts){
+                final Artifact replacedArtifact = replacedArtifacts.put(artifact.getGavc(), artifact);
+                if(replacedArtifact != null){
+                    mergeLicenses(replacedArtifact, artifact);
+                }
+            }
+
+            for(Artifact artifact: DataUtils.getAllArtifacts(newModule)){
+                final Artifact replacedArtifact = replacedArtifacts.remove(artifact.getGavc());
+                if(replacedArtifact != null){
+                    mergeLicenses(replacedArtifact, artifact);
+                }
+            }
+
+            module = newModule;
+        }
+
+        private static void mergeLicenses(final Artifact from, final Artifact to) {
+            for(String license: from.getLicenses()){
+                if(!to.getLicenses().contains(license)){
+                    to.addLicense(license);
+                }
+            }
+        }
+
+        private void processing() {
+            for(IngestionTicket ticket: tickets){
+                ticket.processing();
+            }
+        }
+
+        String getModuleId() {
+            return moduleId;
+        }
+
+        List<IngestionTicket> getTickets() {
+            return tickets;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.axway.grapes.server.core.ingestion;
+
+/**
+ * Ingestion Ticket
+ *
+ * <p>Status of a module posted in asynchronous ingestion mode. The ticket ID is returned to the client that posted the module.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionTicket {
+
+    public enum Status {
+        QUEUED, PROCESSING, DONE, FAILED
+    }
+
+    private final String id;
+    private final String moduleId;
+    private final long submitted;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+    private volatile long completed;
+
+    public IngestionTicket(final String id, final String moduleId, final long submitted) {
+        this.id = id;
+        this.moduleId = moduleId;
+        this.submitted = submitted;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getModuleId() {
+        return moduleId;
+    }
+
+    /**
+     * Time when the module has been queued (in ms since epoch)
+     *
+     * @return long
+     */
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Cause of the failure if the status is FAILED
+     *
+     * @return String
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Time when the module has been stored or has failed (in ms since epoch), 0 if it is still pending
+     *
+     * @return long
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void processing() {
+        status = Status.PROCESSING;
+    }
+
+    public void done() {
+        completed = System.currentTimeMillis();
+        status = Status.DONE;
+    }
+
+    public void failed(final String error) {
+        this.error = error;
+        completed = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+}
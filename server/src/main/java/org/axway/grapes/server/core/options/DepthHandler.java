@@ -21,6 +21,10 @@ public class DepthHandler {
      * Default value: 1. */
     private Integer depth = 1;
 
+    /** Value - {@value}, integer query parameter of the graphs: the elements below this depth are grouped by groupId.
+     * Default value: null, nothing is grouped. */
+    private Integer collapseDepth = null;
+
     public Boolean getFullRecursive() {
         return fullRecursive;
     }
@@ -53,10 +57,25 @@ public class DepthHandler {
         }
     }
 
+    public Integer getCollapseDepth() {
+        return collapseDepth;
+    }
+
+    public void setCollapseDepth(final Integer collapseDepth) {
+        this.collapseDepth = collapseDepth;
+    }
+
+    private void setCollapseDepth(final String collapseDepth) {
+        if(collapseDepth != null){
+            setCollapseDepth(Integer.valueOf(collapseDepth));
+        }
+    }
+
 
     public void init(final MultivaluedMap<String, String> queryParameters) {
         setFullRecursive(queryParameters.getFirst(ServerAPI.RECURSIVE_PARAM));
         setDepth(queryParameters.getFirst(ServerAPI.DEPTH_PARAM));
+        setCollapseDepth(queryParameters.getFirst(ServerAPI.COLLAPSE_DEPTH_PARAM));
     }
 
 
@@ -70,4 +89,14 @@ public class DepthHandler {
         return fullRecursive || depth < this.depth;
     }
 
+    /**
+     * Check if the elements of a graph level should be grouped by groupId
+     *
+     * @param level int the number of dependencies between the root and the elements
+     * @return boolean true if the elements of the level are grouped
+     */
+    public boolean shouldCollapse(final int level) {
+        return collapseDepth != null && level > collapseDepth;
+    }
+
 }
@@ -1,14 +1,13 @@
 package org.axway.grapes.server.core.options;
 
 
-import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.core.options.filters.*;
 import org.axway.grapes.server.db.datamodel.DbDependency;
 import org.axway.grapes.server.db.datamodel.DbLicense;
 
 import javax.ws.rs.core.MultivaluedMap;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +25,7 @@ public class FiltersHolder {
     private final Decorator decorator = new Decorator();
     private final DepthHandler depthHandler = new DepthHandler();
     private CorporateFilter corporateFilter;
+    private volatile FiltersPlan plan = FiltersPlan.EMPTY;
 
     public ScopeHandler getScopeHandler(){
         return scopeHandler;
@@ -47,6 +47,35 @@ public class FiltersHolder {
         corporateFilter = filter;
     }
 
+    /**
+     * Returns a key of the filters that select the dependencies walked by the traversals:
+     * the scopes, the corporate and third party display, the depths and the corporate groupIds
+     *
+     * @return String
+     */
+    public String getTraversalKey() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(scopeHandler.getScopeComp()).append(',');
+        sb.append(scopeHandler.getScopePro()).append(',');
+        sb.append(scopeHandler.getScopeRun()).append(',');
+        sb.append(scopeHandler.getScopeTest()).append(',');
+        sb.append(decorator.getShowThirdparty()).append(',');
+        sb.append(decorator.getShowCorporate()).append(',');
+        sb.append(depthHandler.getFullRecursive() ? "*" : depthHandler.getDepth());
+
+        if(depthHandler.getCollapseDepth() != null){
+            sb.append(",collapse=").append(depthHandler.getCollapseDepth());
+        }
+
+        if(corporateFilter != null){
+            final List<String> corporateGroupIds = new ArrayList<String>(corporateFilter.getOrganization().getCorporateGroupIdPrefixes());
+            Collections.sort(corporateGroupIds);
+            sb.append(',').append(corporateGroupIds);
+        }
+
+        return sb.toString();
+    }
+
     public void addFilter(final Filter newFilter) {
         Filter toRemove = null;
 
@@ -61,6 +90,7 @@ public class FiltersHolder {
         }
 
         filters.add(newFilter);
+        plan = null;
     }
 
 	public void init(final MultivaluedMap<String, String> queryParameters) {
@@ -68,90 +98,27 @@ public class FiltersHolder {
         decorator.init(queryParameters);
         depthHandler.init(queryParameters);
 
-        final String approved = queryParameters.getFirst(ServerAPI.APPROVED_PARAM);
-        if(approved != null){
-            filters.add(new ApprovedFilter(Boolean.valueOf(approved)));
-        }
-
-        final String promoted = queryParameters.getFirst(ServerAPI.PROMOTED_PARAM);
-        if(promoted != null){
-            filters.add(new PromotedFilter(Boolean.valueOf(promoted)));
-        }
-
-        final String doNotUse = queryParameters.getFirst(ServerAPI.DO_NOT_USE);
-        if(doNotUse != null){
-            filters.add(new DoNotUseFilter(Boolean.valueOf(doNotUse)));
-        }
-
-        final String gavc = queryParameters.getFirst(ServerAPI.GAVC);
-        if(gavc != null){
-            filters.add(new GavcFilter(gavc));
-        }
-
-        final String hasLicense = queryParameters.getFirst(ServerAPI.HAS_LICENSE_PARAM);
-        if(hasLicense != null){
-            filters.add(new HasLicenseFilter(Boolean.valueOf(hasLicense)));
-        }
-
-        final String toBeValidated = queryParameters.getFirst(ServerAPI.TO_BE_VALIDATED_PARAM);
-        if(toBeValidated != null){
-            filters.add(new ToBeValidatedFilter(Boolean.valueOf(toBeValidated)));
-        }
-
-        final String licenseId = queryParameters.getFirst(ServerAPI.LICENSE_ID_PARAM);
-        if(licenseId != null){
-            filters.add(new LicenseIdFilter(licenseId));
-        }
-
-        final String classifier = queryParameters.getFirst(ServerAPI.CLASSIFIER_PARAM);
-        if(classifier != null){
-            filters.add(new ClassifierFilter(classifier));
-        }
-
-        final String extension = queryParameters.getFirst(ServerAPI.EXTENSION_PARAM);
-        if(extension != null){
-            filters.add(new ExtensionFilter(extension));
-        }
-
-        final String type = queryParameters.getFirst(ServerAPI.TYPE_PARAM);
-        if(type != null){
-            filters.add(new TypeFilter(type));
-        }
-
-        final String version = queryParameters.getFirst(ServerAPI.VERSION_PARAM);
-        if(version != null){
-            filters.add(new VersionFilter(version));
-        }
-
-        final String artifactId = queryParameters.getFirst(ServerAPI.ARTIFACTID_PARAM);
-        if(artifactId != null){
-            filters.add(new ArtifactIdFilter(artifactId));
-        }
-
-        final String groupId = queryParameters.getFirst(ServerAPI.GROUPID_PARAM);
-        if(groupId != null){
-            filters.add(new GroupIdFilter(groupId));
-        }
-
-        final String name = queryParameters.getFirst(ServerAPI.NAME_PARAM);
-        if(name != null){
-            filters.add(new ModuleNameFilter(name));
-        }
-
-        final String organization = queryParameters.getFirst(ServerAPI.ORGANIZATION_PARAM);
-        if(organization != null){
-            filters.add(new OrganizationFilter(organization));
-        }
+        final FiltersPlan compiled = FiltersPlan.compile(queryParameters);
+        plan = filters.isEmpty() ? compiled : null;
+        filters.addAll(compiled.getFilters());
 	}
 
-    public boolean shouldBeInReport(final DbLicense license) {
-        for(Filter filter: filters){
-            if(!filter.filter(license)){
-                return false;
-            }
+    /**
+     * Returns the compiled filters, they are compiled again after a change of the filters
+     *
+     * @return FiltersPlan
+     */
+    public FiltersPlan getPlan() {
+        FiltersPlan current = plan;
+        if(current == null){
+            current = FiltersPlan.of(filters);
+            plan = current;
         }
+        return current;
+    }
 
-        return true;
+    public boolean shouldBeInReport(final DbLicense license) {
+        return getPlan().accept(license);
     }
 
     /**
@@ -168,49 +135,31 @@ public class FiltersHolder {
         if(dependency.getTarget() == null){
             return false;
         }
-        if(corporateFilter != null){
-            if(!decorator.getShowThirdparty() && !corporateFilter.filter(dependency)){
-                return false;
-            }
-            if(!decorator.getShowCorporate() && corporateFilter.filter(dependency)){
-                return false;
-            }
-        }
-
         if(!scopeHandler.filter(dependency)){
             return false;
         }
+        if(corporateFilter != null){
+            return corporateFilter.filter(dependency) ? decorator.getShowCorporate() : decorator.getShowThirdparty();
+        }
 
         return true;
     }
 
 	/**
-	 * Generates a Map of query parameters for Artifact regarding the filters
+	 * Returns the read-only Map of query parameters for Artifact regarding the filters
      *
 	 * @return Map<String, Object>
 	 */
 	public Map<String, Object> getArtifactFieldsFilters() {
-		final Map<String, Object> params = new HashMap<String, Object>();
-
-        for(Filter filter: filters){
-            params.putAll(filter.artifactFilterFields());
-        }
-
-		return params;
+		return getPlan().getArtifactFields();
 	}
 
     /**
-     * Generates a Map of query parameters for Module regarding the filters
+     * Returns the read-only Map of query parameters for Module regarding the filters
      *
      * @return Map<String, Object>
      */
     public Map<String, Object> getModuleFieldsFilters() {
-        final Map<String, Object> params = new HashMap<String, Object>();
-
-        for(Filter filter: filters){
-            params.putAll(filter.moduleFilterFields());
-        }
-
-        return params;
+        return getPlan().getModuleFields();
     }
 }
\ No newline at end of file
@@ -0,0 +1,250 @@
+package org.axway.grapes.server.core.options;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.server.core.options.filters.*;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+
+import javax.ws.rs.core.MultivaluedMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Filters Plan
+ *
+ * <p>Immutable compilation of a list of filters: the Mongo query fields of the artifacts and of the modules are computed once
+ * and the in-memory checks walk an array of filters.</p>
+ *
+ * <p>The plans compiled from query parameters are shared by the requests that have the same filter parameters.</p>
+ *
+ * @author jdcoffre
+ */
+public final class FiltersPlan {
+
+    /** Query parameters that are compiled into filters, in the order the filters are applied */
+    private static final List<String> FILTER_PARAMS = Arrays.asList(
+            ServerAPI.APPROVED_PARAM,
+            ServerAPI.PROMOTED_PARAM,
+            ServerAPI.DO_NOT_USE,
+            ServerAPI.GAVC,
+            ServerAPI.HAS_LICENSE_PARAM,
+            ServerAPI.TO_BE_VALIDATED_PARAM,
+            ServerAPI.LICENSE_ID_PARAM,
+            ServerAPI.CLASSIFIER_PARAM,
+            ServerAPI.EXTENSION_PARAM,
+            ServerAPI.TYPE_PARAM,
+            ServerAPI.VERSION_PARAM,
+            ServerAPI.ARTIFACTID_PARAM,
+            ServerAPI.GROUPID_PARAM,
+            ServerAPI.NAME_PARAM,
+            ServerAPI.ORGANIZATION_PARAM);
+
+    private static final Cache<String, FiltersPlan> PLANS = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .build();
+
+    /** Plan without any filter */
+    public static final FiltersPlan EMPTY = of(Collections.<Filter>emptyList());
+
+    private final Filter[] filters;
+    private final Map<String, Object> artifactFields;
+    private final Map<String, Object> moduleFields;
+
+    private FiltersPlan(final List<Filter> filters) {
+        this.filters = filters.toArray(new Filter[filters.size()]);
+
+        final Map<String, Object> artifactParams = new HashMap<String, Object>();
+        final Map<String, Object> moduleParams = new HashMap<String, Object>();
+        for(Filter filter: filters){
+            artifactParams.putAll(filter.artifactFilterFields());
+            moduleParams.putAll(filter.moduleFilterFields());
+        }
+
+        this.artifactFields = Collections.unmodifiableMap(artifactParams);
+        this.moduleFields = Collections.unmodifiableMap(moduleParams);
+    }
+
+    /**
+     * Compiles a list of filters, the plan is not cached
+     *
+     * @param filters List<Filter>
+     * @return FiltersPlan
+     */
+    public static FiltersPlan of(final List<Filter> filters) {
+        return new FiltersPlan(filters);
+    }
+
+    /**
+     * Returns the plan of the filter parameters of a request, it is compiled if it is not in the cache
+     *
+     * @param queryParameters MultivaluedMap<String, String>
+     * @return FiltersPlan
+     */
+    public static FiltersPlan compile(final MultivaluedMap<String, String> queryParameters) {
+        final String key = getCanonicalKey(queryParameters);
+        if(key.isEmpty()){
+            return EMPTY;
+        }
+
+        try {
+            return PLANS.get(key, new Callable<FiltersPlan>() {
+                @Override
+                public FiltersPlan call() {
+                    return new FiltersPlan(createFilters(queryParameters));
+                }
+            });
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the canonical form of the filter parameters of a request: the parameters in the order of the filters,
+     * each value is prefixed by its length so that the values cannot be mixed up
+     *
+     * @param queryParameters MultivaluedMap<String, String>
+     * @return String
+     */
+    public static String getCanonicalKey(final MultivaluedMap<String, String> queryParameters) {
+        final StringBuilder sb = new StringBuilder();
+        for(String param: FILTER_PARAMS){
+            final String value = queryParameters.getFirst(param);
+            if(value != null){
+                sb.append(param).append('=').append(value.length()).append(':').append(value).append('&');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<Filter> createFilters(final MultivaluedMap<String, String> queryParameters) {
+        final List<Filter> filters = new ArrayList<Filter>();
+
+        final String approved = queryParameters.getFirst(ServerAPI.APPROVED_PARAM);
+        if(approved != null){
+            filters.add(new ApprovedFilter(Boolean.valueOf(approved)));
+        }
+
+        final String promoted = queryParameters.getFirst(ServerAPI.PROMOTED_PARAM);
+        if(promoted != null){
+            filters.add(new PromotedFilter(Boolean.valueOf(promoted)));
+        }
+
+        final String doNotUse = queryParameters.getFirst(ServerAPI.DO_NOT_USE);
+        if(doNotUse != null){
+            filters.add(new DoNotUseFilter(Boolean.valueOf(doNotUse)));
+        }
+
+        final String gavc = queryParameters.getFirst(ServerAPI.GAVC);
+        if(gavc != null){
+            filters.add(new GavcFilter(gavc));
+        }
+
+        final String hasLicense = queryParameters.getFirst(ServerAPI.HAS_LICENSE_PARAM);
+        if(hasLicense != null){
+            filters.add(new HasLicenseFilter(Boolean.valueOf(hasLicense)));
+        }
+
+        final String toBeValidated = queryParameters.getFirst(ServerAPI.TO_BE_VALIDATED_PARAM);
+        if(toBeValidated != null){
+            filters.add(new ToBeValidatedFilter(Boolean.valueOf(toBeValidated)));
+        }
+
+        final String licenseId = queryParameters.getFirst(ServerAPI.LICENSE_ID_PARAM);
+        if(licenseId != null){
+            filters.add(new LicenseIdFilter(licenseId));
+        }
+
+        final String classifier = queryParameters.getFirst(ServerAPI.CLASSIFIER_PARAM);
+        if(classifier != null){
+            filters.add(new ClassifierFilter(classifier));
+        }
+
+        final String extension = queryParameters.getFirst(ServerAPI.EXTENSION_PARAM);
+        if(extension != null){
+            filters.add(new ExtensionFilter(extension));
+        }
+
+        final String type = queryParameters.getFirst(ServerAPI.TYPE_PARAM);
+        if(type != null){
+            filters.add(new TypeFilter(type));
+        }
+
+        final String version = queryParameters.getFirst(ServerAPI.VERSION_PARAM);
+        if(version != null){
+            filters.add(new VersionFilter(version));
+        }
+
+        final String artifactId = queryParameters.getFirst(ServerAPI.ARTIFACTID_PARAM);
+        if(artifactId != null){
+            filters.add(new ArtifactIdFilter(artifactId));
+        }
+
+        final String groupId = queryParameters.getFirst(ServerAPI.GROUPID_PARAM);
+        if(groupId != null){
+            filters.add(new GroupIdFilter(groupId));
+        }
+
+        final String name = queryParameters.getFirst(ServerAPI.NAME_PARAM);
+        if(name != null){
+            filters.add(new ModuleNameFilter(name));
+        }
+
+        final String organization = queryParameters.getFirst(ServerAPI.ORGANIZATION_PARAM);
+        if(organization != null){
+            filters.add(new OrganizationFilter(organization));
+        }
+
+        return filters;
+    }
+
+    /**
+     * Returns the filters of the plan
+     *
+     * @return List<Filter>
+     */
+    public List<Filter> getFilters() {
+        return Collections.unmodifiableList(Arrays.asList(filters));
+    }
+
+    /**
+     * Returns the read-only query fields of the artifacts
+     *
+     * @return Map<String, Object>
+     */
+    public Map<String, Object> getArtifactFields() {
+        return artifactFields;
+    }
+
+    /**
+     * Returns the read-only query fields of the modules
+     *
+     * @return Map<String, Object>
+     */
+    public Map<String, Object> getModuleFields() {
+        return moduleFields;
+    }
+
+    /**
+     * Checks if a license matches all the filters
+     *
+     * @param license DbLicense
+     * @return boolean
+     */
+    public boolean accept(final DbLicense license) {
+        for(int i = 0; i < filters.length; i++){
+            if(!filters[i].filter(license)){
+                return false;
+            }
+        }
+        return true;
+    }
+}
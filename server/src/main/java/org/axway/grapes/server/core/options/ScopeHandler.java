@@ -6,23 +6,17 @@ import org.axway.grapes.server.db.datamodel.DbDependency;
 
 import javax.ws.rs.core.MultivaluedMap;
 
+/**
+ * Scope Handler
+ *
+ * <p>Selects the dependencies by scope. The accepted scopes are held in a bit mask indexed by the ordinal of the scopes,
+ * the scopes that have no query parameter are always accepted.</p>
+ */
 public class ScopeHandler {
 
-    /** Value - {@value}, boolean query parameter used to filter dependencies.
-     * Default value: true. */
-    private Boolean scopeComp = true;
-
-    /** Value - {@value}, boolean query parameter used to filter dependencies.
-     * Default value: false. */
-    private Boolean scopeRun = false;
-
-    /** Value - {@value}, boolean query parameter used to filter dependencies.
-     * Default value: true. */
-    private Boolean scopePro = true;
-
-    /** Value - {@value}, boolean query parameter used to filter dependencies.
-     * Default value: false. */
-    private Boolean scopeTest = false;
+    /** One bit per scope ordinal, set if the dependencies of the scope are accepted.
+     * Default value: all but runtime and test. */
+    private int acceptedScopes = ~(mask(Scope.RUNTIME) | mask(Scope.TEST));
 
     public ScopeHandler(){
         // Default value init
@@ -36,68 +30,72 @@ public class ScopeHandler {
     public void init(final MultivaluedMap<String, String> queryParameters) {
         final String scopeCompileParam = queryParameters.getFirst(ServerAPI.SCOPE_COMPILE_PARAM);
         if(scopeCompileParam != null){
-            this.scopeComp = Boolean.valueOf(scopeCompileParam);
+            setAccepted(Scope.COMPILE, Boolean.valueOf(scopeCompileParam));
         }
         final String scopeProvidedParam = queryParameters.getFirst(ServerAPI.SCOPE_PROVIDED_PARAM);
         if(scopeProvidedParam != null){
-            this.scopePro = Boolean.valueOf(scopeProvidedParam);
+            setAccepted(Scope.PROVIDED, Boolean.valueOf(scopeProvidedParam));
         }
         final String scopeRuntimeParam = queryParameters.getFirst(ServerAPI.SCOPE_RUNTIME_PARAM);
         if(scopeRuntimeParam != null){
-            this.scopeRun = Boolean.valueOf(scopeRuntimeParam);
+            setAccepted(Scope.RUNTIME, Boolean.valueOf(scopeRuntimeParam));
         }
         final String scopeTestParam = queryParameters.getFirst(ServerAPI.SCOPE_TEST_PARAM);
         if(scopeTestParam != null){
-            this.scopeTest = Boolean.valueOf(scopeTestParam);
+            setAccepted(Scope.TEST, Boolean.valueOf(scopeTestParam));
         }
     }
 
     public boolean filter(final DbDependency datamodelObj) {
-        if(!scopeComp && ((DbDependency)datamodelObj).getScope().equals(Scope.COMPILE)){
-            return false;
-        }
-        if(!scopePro && ((DbDependency)datamodelObj).getScope().equals(Scope.PROVIDED)){
-            return false;
-        }
-        if(!scopeRun && ((DbDependency)datamodelObj).getScope().equals(Scope.RUNTIME)){
-            return false;
+        return (acceptedScopes & mask(datamodelObj.getScope())) != 0;
+    }
+
+    private static int mask(final Scope scope) {
+        return 1 << scope.ordinal();
+    }
+
+    private boolean isAccepted(final Scope scope) {
+        return (acceptedScopes & mask(scope)) != 0;
+    }
+
+    private void setAccepted(final Scope scope, final Boolean accepted) {
+        if(accepted){
+            acceptedScopes |= mask(scope);
         }
-        if(!scopeTest && ((DbDependency)datamodelObj).getScope().equals(Scope.TEST)){
-            return false;
+        else{
+            acceptedScopes &= ~mask(scope);
         }
-
-        return true;
     }
 
     public Boolean getScopeComp() {
-        return scopeComp;
+        return isAccepted(Scope.COMPILE);
     }
 
     public void setScopeComp(final Boolean scopeComp) {
-        this.scopeComp = scopeComp;
+        setAccepted(Scope.COMPILE, scopeComp);
     }
 
     public Boolean getScopeRun() {
-        return scopeRun;
+        return isAccepted(Scope.RUNTIME);
     }
 
     public void setScopeRun(final Boolean scopeRun) {
-        this.scopeRun = scopeRun;
+        setAccepted(Scope.RUNTIME, scopeRun);
     }
 
     public Boolean getScopePro() {
-        return scopePro;
+        return isAccepted(Scope.PROVIDED);
     }
 
     public void setScopePro(final Boolean scopePro) {
-        this.scopePro = scopePro;
+        setAccepted(Scope.PROVIDED, scopePro);
     }
 
     public Boolean getScopeTest() {
-        return scopeTest;
+        return isAccepted(Scope.TEST);
     }
 
     public void setScopeTest(final Boolean scopeTest) {
-        this.scopeTest = scopeTest;
+        setAccepted(Scope.TEST, scopeTest);
     }
 }
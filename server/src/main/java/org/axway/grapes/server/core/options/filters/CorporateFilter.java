@@ -1,23 +1,30 @@
 package org.axway.grapes.server.core.options.filters;
 
-import org.axway.grapes.server.db.DBRegExp;
+import com.mongodb.BasicDBObject;
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbDependency;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public class CorporateFilter implements Filter {
 
     private DbOrganization organization;
+    private final GroupIdPrefixMatcher matcher;
 
     public CorporateFilter(final DbOrganization organization) {
         this.organization = organization;
+        this.matcher = GroupIdPrefixMatcher.of(organization.getCorporateGroupIdPrefixes());
+    }
+
+    public DbOrganization getOrganization() {
+        return organization;
     }
 
     @Override
@@ -64,50 +71,35 @@ public class CorporateFilter implements Filter {
     @Override
     public Map<String, Object> artifactFilterFields() {
         final Map<String, Object> queryParams = new HashMap<String, Object>();
-        final DBRegExp regExp = getMongoRegExp();
+        final List<Pattern> regExps = getMongoRegExps();
 
-        if(regExp != null){
-            queryParams.put(DbArtifact.GROUPID_DB_FIELD, regExp);
+        // one anchored regexp per prefix, each of them is an index range scan
+        if(regExps.size() == 1){
+            queryParams.put(DbArtifact.GROUPID_DB_FIELD, regExps.get(0));
+        }
+        else if(!regExps.isEmpty()){
+            queryParams.put(DbArtifact.GROUPID_DB_FIELD, new BasicDBObject("$in", regExps));
         }
 
         return queryParams;
     }
 
     private boolean evaluate(final String id){
-        for(String corporateGroupId: organization.getCorporateGroupIdPrefixes()){
-            if(id.startsWith(corporateGroupId)){
-                return true;
-            }
-        }
-        return false;
+        return matcher.matches(id);
     }
 
-    public DBRegExp getMongoRegExp() {
-        final List<String> corporateGroupIds = organization.getCorporateGroupIdPrefixes();
+    /**
+     * Returns the regexps that match the corporate groupIds, they are anchored so that the database can use its indexes
+     *
+     * @return List<Pattern>
+     */
+    public List<Pattern> getMongoRegExps() {
+        final List<Pattern> regExps = new ArrayList<Pattern>();
 
-        if(corporateGroupIds.isEmpty()){
-            return null;
-        }
-
-        final StringBuilder sb = new StringBuilder();
-        final Iterator<String> groupIdsIterator = corporateGroupIds.iterator();
-
-        while(groupIdsIterator.hasNext()){
-            String corporateGroupId = groupIdsIterator.next();
-
-            // If the groupId ends with '.' this loop removes it to avoid to break the regexp
-            if(corporateGroupId.endsWith(".")){
-                corporateGroupId = corporateGroupId.substring(0 , corporateGroupId.length()-1);
-            }
-
-            sb.append(corporateGroupId);
-            sb.append("*");
-
-            if(groupIdsIterator.hasNext()){
-                sb.append("|");
-            }
+        for(String corporateGroupId: organization.getCorporateGroupIdPrefixes()){
+            regExps.add(DataUtils.getPrefixPattern(corporateGroupId));
         }
 
-        return new DBRegExp(sb.toString());
+        return regExps;
     }
 }
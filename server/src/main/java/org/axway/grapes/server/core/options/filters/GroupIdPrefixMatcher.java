@@ -0,0 +1,86 @@
+package org.axway.grapes.server.core.options.filters;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GroupId Prefix Matcher
+ *
+ * <p>Prefix tree of the corporate groupIds of an organization. An ID is matched in one pass over its characters,
+ * whatever the number of prefixes.</p>
+ *
+ * <p>The matchers are immutable and cached by list of prefixes: the organizations that did not change share the same matcher.</p>
+ *
+ * @author jdcoffre
+ */
+public final class GroupIdPrefixMatcher {
+
+    private static final LoadingCache<List<String>, GroupIdPrefixMatcher> MATCHERS = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .build(
+                    new CacheLoader<List<String>, GroupIdPrefixMatcher>() {
+                        public GroupIdPrefixMatcher load(final List<String> prefixes) {
+                            return new GroupIdPrefixMatcher(prefixes);
+                        }
+                    });
+
+    private final Node root = new Node();
+
+    private GroupIdPrefixMatcher(final List<String> prefixes) {
+        for(String prefix: prefixes){
+            Node node = root;
+            for(int i = 0; i < prefix.length(); i++){
+                final Character c = prefix.charAt(i);
+                Node child = node.children.get(c);
+                if(child == null){
+                    child = new Node();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+    }
+
+    /**
+     * Returns the matcher of a list of prefixes
+     *
+     * @param prefixes Collection<String>
+     * @return GroupIdPrefixMatcher
+     */
+    public static GroupIdPrefixMatcher of(final Collection<String> prefixes) {
+        return MATCHERS.getUnchecked(ImmutableList.copyOf(prefixes));
+    }
+
+    /**
+     * Checks if an ID starts with one of the prefixes
+     *
+     * @param id String
+     * @return boolean
+     */
+    public boolean matches(final String id) {
+        Node node = root;
+        for(int i = 0; !node.terminal; i++){
+            if(i == id.length()){
+                return false;
+            }
+            node = node.children.get(id.charAt(i));
+            if(node == null){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<Character, Node>(4);
+        private boolean terminal = false;
+    }
+}
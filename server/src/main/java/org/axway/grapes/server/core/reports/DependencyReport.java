@@ -21,9 +21,28 @@ public class DependencyReport extends View {
 
     private String title;
     private List<Dependency> dependencies = new ArrayList<Dependency>();
-    private List<String> shouldNotBeUsed = new ArrayList<String>();
+    private boolean dependenciesSorted = true;
+    private Set<Dependency> knownDependencies = new HashSet<Dependency>();
+    private Set<String> shouldNotBeUsed = new HashSet<String>();
 
+    // gavc -> version -> sources, filled at each dependency addition and sorted by source name on read
+    private Map<String, Map<String, List<Dependency>>> index = new HashMap<String, Map<String, List<Dependency>>>();
+    private Set<String> unsortedTargets = new HashSet<String>();
+    private Map<String, Artifact> targets = new HashMap<String, Artifact>();
+    private Map<String, Integer> nbEntries = new HashMap<String, Integer>();
+    private List<Artifact> sortedTargets = null;
+
+    /**
+     * Returns the dependencies of the report sorted by source name
+     *
+     * @return List<Dependency>
+     */
     public List<Dependency> getDependencies() {
+        if(!dependenciesSorted){
+            DataUtils.sortBySource(dependencies);
+            dependenciesSorted = true;
+        }
+
         return dependencies;
     }
     private Map<String, String> lastVersion = new HashMap<String,String>();
@@ -41,8 +60,10 @@ public class DependencyReport extends View {
     public void addDependency(final Dependency dependency, final String lastRelease) {
         final String depId = DbArtifact.generateGAVC(dependency.getTarget());
 
-        if(!dependencies.contains(dependency)){
+        if(knownDependencies.add(dependency)){
             dependencies.add(dependency);
+            dependenciesSorted = false;
+            index(depId, dependency);
         }
 
         if(!lastVersion.containsKey(depId)){
@@ -51,35 +72,62 @@ public class DependencyReport extends View {
 
     }
 
-    public List<Artifact> getDependencyTargets(){
-        final List<Artifact> targets = new ArrayList<Artifact>();
-        final List<String> gavcs = new ArrayList<String>();
-
-        for(Dependency dependency: dependencies){
-            final String depGavc = DbArtifact.generateGAVC(dependency.getTarget());
-            if(!gavcs.contains(depGavc)){
-                targets.add(dependency.getTarget());
-                gavcs.add(depGavc);
-            }
+    private void index(final String depId, final Dependency dependency) {
+        Map<String, List<Dependency>> versions = index.get(depId);
+        if(versions == null){
+            versions = new LinkedHashMap<String, List<Dependency>>();
+            index.put(depId, versions);
+            targets.put(depId, dependency.getTarget());
+            nbEntries.put(depId, 0);
+            sortedTargets = null;
         }
 
-        DataUtils.sort(targets);
+        final String version = dependency.getTarget().getVersion();
+        List<Dependency> sources = versions.get(version);
+        if(sources == null){
+            sources = new ArrayList<Dependency>();
+            versions.put(version, sources);
+        }
 
-        return targets;
+        sources.add(dependency);
+        unsortedTargets.add(depId);
+        nbEntries.put(depId, nbEntries.get(depId) + 1);
     }
 
-    public List<String> getVersions(final Artifact target){
-        final List<String> versions = new ArrayList<String>();
+    public List<Artifact> getDependencyTargets(){
+        if(sortedTargets == null){
+            final List<Artifact> targetList = new ArrayList<Artifact>(targets.values());
+            DataUtils.sort(targetList);
+            sortedTargets = Collections.unmodifiableList(targetList);
+        }
 
-        for(Dependency dependency: dependencies){
-            final String depGavc = DbArtifact.generateGAVC(dependency.getTarget());
-            if(depGavc.equals(DbArtifact.generateGAVC(target))
-                    && !versions.contains(dependency.getTarget().getVersion())){
-                versions.add(dependency.getTarget().getVersion());
+        return sortedTargets;
+    }
+
+    /**
+     * Returns the sources of a target grouped by version, each group being sorted by source name
+     *
+     * @param target Artifact
+     * @return Map<String, List<Dependency>>
+     */
+    public Map<String, List<Dependency>> getSources(final Artifact target){
+        final Map<String, List<Dependency>> versions = index.get(target.getGavc());
+
+        if(versions == null){
+            return Collections.emptyMap();
+        }
+
+        if(unsortedTargets.remove(target.getGavc())){
+            for(List<Dependency> sources: versions.values()){
+                DataUtils.sortBySource(sources);
             }
         }
 
-        return versions;
+        return Collections.unmodifiableMap(versions);
+    }
+
+    public List<String> getVersions(final Artifact target){
+        return new ArrayList<String>(getSources(target).keySet());
     }
 
     public String getLastVersion(final Artifact artifact){
@@ -94,43 +142,23 @@ public class DependencyReport extends View {
 
 
     public int getNbEntry(final Artifact artifact){
-        int nbEntries = 0;
-
-        final List<String> versions = getVersions(artifact);
+        final Integer nbEntry = nbEntries.get(artifact.getGavc());
 
-        for(String version: versions){
-			nbEntries += getDependencies(artifact, version).size();
+        if(nbEntry == null){
+            return 0;
         }
 
-
-        return nbEntries;
+        return nbEntry;
     }
 
     public List<Dependency> getDependencies(final Artifact target, final String version) {
-        final List<Dependency> sources = new ArrayList<Dependency>();
-
-        for(Dependency dependency: dependencies){
-            if(target.getGavc().equals(dependency.getTarget().getGavc()) &&
-                    version.equals(dependency.getTarget().getVersion())){
-                sources.add(dependency);
-            }
-        }
-
-        int n = sources.size();
-        while(n != 0){
-            int newn = 0;
-
-            for(int i = 1 ; i <= n-1 ; i++){
-                if (sources.get(i-1).getSourceName().compareTo(sources.get(i).getSourceName()) > 0){
-                    Collections.swap(sources,i-1,i);
-                    newn = i;
-                }
-            }
+        final List<Dependency> sources = getSources(target).get(version);
 
-            n = newn;
+        if(sources == null){
+            return Collections.emptyList();
         }
 
-        return sources;
+        return Collections.unmodifiableList(sources);
     }
 
     public void addShouldNotUse(final String gavc){
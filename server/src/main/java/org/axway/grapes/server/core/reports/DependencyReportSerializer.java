@@ -7,6 +7,8 @@ import org.axway.grapes.commons.datamodel.Artifact;
 import org.axway.grapes.commons.datamodel.Dependency;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 public class DependencyReportSerializer extends JsonSerializer<DependencyReport>{
 
@@ -24,13 +26,13 @@ public class DependencyReportSerializer extends JsonSerializer<DependencyReport>
             json.writeFieldName("occurences");
             json.writeStartArray();
 
-            for(String version: report.getVersions(target)){
+            for(Map.Entry<String, List<Dependency>> occurrence: report.getSources(target).entrySet()){
                 json.writeStartObject();
-                json.writeStringField("version", version);
+                json.writeStringField("version", occurrence.getKey());
 
                 json.writeFieldName("sources");
                 json.writeStartArray();
-                for(Dependency dep: report.getDependencies(target, version)){
+                for(Dependency dep: occurrence.getValue()){
                     json.writeStartObject();
                     json.writeStringField("scope", dep.getScope().toString());
                     json.writeStringField("gavc", dep.getSourceName());
@@ -0,0 +1,72 @@
+package org.axway.grapes.server.core.reports;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Promotion Status
+ *
+ * <p>What prevents a module from being promoted: the corporate modules it depends on that are not promoted yet
+ * and the artifacts it uses that should not be used. It only depends on the module and on its direct dependencies.
+ * Once it has been built, a status is not modified any more and can be shared between requests.</p>
+ *
+ * @author jdcoffre
+ */
+public final class PromotionStatus {
+
+    private final String moduleId;
+    private final String name;
+    private final String version;
+    private final List<String> unPromotedDependencies = new ArrayList<String>();
+    private final List<Artifact> doNotUseArtifacts = new ArrayList<Artifact>();
+
+    public PromotionStatus(final String moduleId, final String name, final String version) {
+        this.moduleId = moduleId;
+        this.name = name;
+        this.version = version;
+    }
+
+    public String getModuleId() {
+        return moduleId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void addUnPromotedDependency(final String dependencyId) {
+        unPromotedDependencies.add(dependencyId);
+    }
+
+    public List<String> getUnPromotedDependencies() {
+        return Collections.unmodifiableList(unPromotedDependencies);
+    }
+
+    public void addDoNotUseArtifact(final Artifact artifact) {
+        doNotUseArtifacts.add(artifact);
+    }
+
+    public List<Artifact> getDoNotUseArtifacts() {
+        return Collections.unmodifiableList(doNotUseArtifacts);
+    }
+
+    public boolean isSnapshot() {
+        return version.contains("SNAPSHOT");
+    }
+
+    /**
+     * Checks if the module can be promoted
+     *
+     * @return boolean
+     */
+    public boolean canBePromoted() {
+        return !isSnapshot() && unPromotedDependencies.isEmpty() && doNotUseArtifacts.isEmpty();
+    }
+}
@@ -0,0 +1,174 @@
+package org.axway.grapes.server.core.tagging;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.lifecycle.Managed;
+import org.axway.grapes.server.config.TaggingConfig;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.core.options.filters.CorporateFilter;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Organization Tagger
+ *
+ * <p>Updates the organization of the modules when a corporate groupId is added to or removed from an organization.
+ * It is built once by the server and shared by the handlers.</p>
+ *
+ * <p>The modules are selected with an anchored regexp on their artifacts, then updated by batches so that the progress of the job can be followed.
+ * A module is untagged only if no other corporate groupId of the organization still matches it.
+ * The jobs run one after the other on a background thread; until the tagger is started, they run on the calling thread.</p>
+ *
+ * @author jdcoffre
+ */
+public final class OrganizationTagger implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrganizationTagger.class);
+
+    private final RepositoryHandler repositoryHandler;
+    private final ClosureCache closureCache;
+    private TaggingConfig config = new TaggingConfig();
+    private Cache<String, TaggingJob> jobs = CacheBuilder.from(config.getJobCachePolicy()).build();
+    private volatile ExecutorService thread;
+
+    public OrganizationTagger(final RepositoryHandler repositoryHandler, final ClosureCache closureCache) {
+        this.repositoryHandler = repositoryHandler;
+        this.closureCache = closureCache;
+    }
+
+    /**
+     * Sets the batch size and the job retention of the tagger
+     *
+     * @param config TaggingConfig
+     * @return OrganizationTagger
+     */
+    public OrganizationTagger configure(final TaggingConfig config) {
+        this.config = config;
+        this.jobs = CacheBuilder.from(config.getJobCachePolicy()).build();
+        return this;
+    }
+
+    @Override
+    public void start() {
+        if(thread == null){
+            thread = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("organization-tagging-%d").setDaemon(true).build());
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        final ExecutorService stopped = thread;
+        thread = null;
+
+        if(stopped != null){
+            stopped.shutdown();
+            stopped.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Tags with the organization the modules that have an artifact of a corporate groupId
+     *
+     * @param corporateGroupId String
+     * @param organization DbOrganization
+     * @return TaggingJob
+     */
+    public TaggingJob addCorporateGroupId(final String corporateGroupId, final DbOrganization organization) {
+        return submit(new TaggingJob(UUID.randomUUID().toString(), organization.getName(), corporateGroupId, TaggingJob.Action.ADD), organization);
+    }
+
+    /**
+     * Untags the modules of the organization that have an artifact of a corporate groupId that has been removed
+     *
+     * @param corporateGroupId String
+     * @param organization DbOrganization without the corporate groupId
+     * @return TaggingJob
+     */
+    public TaggingJob removeCorporateGroupId(final String corporateGroupId, final DbOrganization organization) {
+        return submit(new TaggingJob(UUID.randomUUID().toString(), organization.getName(), corporateGroupId, TaggingJob.Action.REMOVE), organization);
+    }
+
+    /**
+     * Returns the jobs of an organization that are still known
+     *
+     * @param organizationName String
+     * @return List<TaggingJob>
+     */
+    public List<TaggingJob> getJobs(final String organizationName) {
+        final List<TaggingJob> organizationJobs = new ArrayList<TaggingJob>();
+        for(TaggingJob job: jobs.asMap().values()){
+            if(job.getOrganization().equals(organizationName)){
+                organizationJobs.add(job);
+            }
+        }
+        return organizationJobs;
+    }
+
+    private TaggingJob submit(final TaggingJob job, final DbOrganization organization) {
+        jobs.put(job.getId(), job);
+
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                tag(job, organization);
+            }
+        };
+
+        final ExecutorService executor = thread;
+        if(executor == null){
+            task.run();
+        }
+        else {
+            executor.submit(task);
+        }
+
+        return job;
+    }
+
+    private void tag(final TaggingJob job, final DbOrganization organization) {
+        try{
+            final CorporateFilter corporateFilter = new CorporateFilter(organization);
+            final List<String> moduleIds = new ArrayList<String>();
+
+            for(DbModule module: repositoryHandler.getModulesByArtifactPrefix(job.getCorporateGroupId())){
+                final boolean tagged = organization.getName().equals(module.getOrganization());
+
+                if(job.getAction() == TaggingJob.Action.ADD && !tagged){
+                    moduleIds.add(module.getId());
+                }
+                else if(job.getAction() == TaggingJob.Action.REMOVE && tagged && !corporateFilter.matches(module)){
+                    moduleIds.add(module.getId());
+                }
+            }
+
+            job.running(moduleIds.size());
+
+            final String organizationName = job.getAction() == TaggingJob.Action.ADD ? organization.getName() : "";
+            final int batchSize = config.getBatchSize();
+            for(int start = 0; start < moduleIds.size(); start += batchSize){
+                final List<String> batch = moduleIds.subList(start, Math.min(start + batchSize, moduleIds.size()));
+                repositoryHandler.setModulesOrganization(batch, organizationName);
+                closureCache.invalidate(batch);
+                job.progress(batch.size());
+            }
+
+            job.done();
+        }
+        catch (Exception e){
+            LOG.error("Failed to update the modules of organization " + organization.getName(), e);
+            job.failed(e.getMessage());
+        }
+    }
+}
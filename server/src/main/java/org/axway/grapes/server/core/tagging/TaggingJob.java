@@ -0,0 +1,124 @@
+package org.axway.grapes.server.core.tagging;
+
+/**
+ * Tagging Job
+ *
+ * <p>Status of the update of the module organizations that follows the addition or the removal of a corporate groupId.</p>
+ *
+ * @author jdcoffre
+ */
+public class TaggingJob {
+
+    public enum Action {
+        ADD, REMOVE
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id;
+    private final String organization;
+    private final String corporateGroupId;
+    private final Action action;
+    private final long submitted;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile int total;
+    private volatile int updated;
+    private volatile String error;
+    private volatile long completed;
+
+    public TaggingJob(final String id, final String organization, final String corporateGroupId, final Action action) {
+        this.id = id;
+        this.organization = organization;
+        this.corporateGroupId = corporateGroupId;
+        this.action = action;
+        this.submitted = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOrganization() {
+        return organization;
+    }
+
+    public String getCorporateGroupId() {
+        return corporateGroupId;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * Time when the job has been queued (in ms since epoch)
+     *
+     * @return long
+     */
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Number of modules to update, known once the job is running
+     *
+     * @return int
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Number of modules already updated
+     *
+     * @return int
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Cause of the failure if the status is FAILED
+     *
+     * @return String
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Time when the job has ended (in ms since epoch), 0 if it is still pending
+     *
+     * @return long
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void running(final int total) {
+        this.total = total;
+        status = Status.RUNNING;
+    }
+
+    public void progress(final int updated) {
+        this.updated += updated;
+    }
+
+    public void done() {
+        completed = System.currentTimeMillis();
+        status = Status.DONE;
+    }
+
+    public void failed(final String error) {
+        this.error = error;
+        completed = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+}
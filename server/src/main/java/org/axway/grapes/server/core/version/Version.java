@@ -1,173 +1,184 @@
 package org.axway.grapes.server.core.version;
 
 
-
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 
 /**
  * Version Model Class
- * 
+ *
+ * <p>The version string is parsed once at creation, a Version is immutable.
+ * Use {@link #valueOf(String)} to share the parsed versions instead of parsing the same string again.</p>
+ *
  * @author jdcoffre
  */
 public class Version {
 
+	private static final Cache<String, Version> PARSED_VERSIONS = CacheBuilder.newBuilder()
+			.maximumSize(100000)
+			.build();
+
 	private final String stringVersion;
 
+	private final int[] digits;
+	private final boolean snapshot;
+	private final boolean branch;
+	private final Integer branchId;
+	private final int releaseId;
+
 	public Version(final String version) throws NotHandledVersionException {
 		this.stringVersion = version;
-		
+
 		// Checks if the version match the expectations
 		final String[] versionsParts = stringVersion.split("-");
 		if(versionsParts.length > 3){
 			throw new NotHandledVersionException();
 		}
-		
+
 		try {
-			for(String digit: getDigits().split("\\.")){
-				Integer.parseInt(digit);
+			final String[] digitParts = versionsParts[0].split("\\.");
+			digits = new int[digitParts.length];
+			for(int i = 0; i < digitParts.length; i++){
+				digits[i] = Integer.parseInt(digitParts[i]);
 			}
-			
+
 			if (versionsParts.length > 1 && !versionsParts[1].contains("SNAPSHOT")) {
 				Integer.parseInt(versionsParts[1]);
 			}
-			
+
 			if (versionsParts.length > 2 && !versionsParts[2].contains("SNAPSHOT")) {
 				Integer.parseInt(versionsParts[2]);
 			}
-			
+
 		} catch (NumberFormatException e) {
 			throw new NotHandledVersionException(e);
 		}
-		
-	}
 
-	/**
-	 * Check if a version is a snapshot
-	 * 
-	 * @return true if the version is a snapshot
-	 */
-	public Boolean isSnapshot() {
-		return stringVersion.contains("SNAPSHOT");
-	}
+		snapshot = stringVersion.contains("SNAPSHOT");
+		branch = versionsParts.length == 3;
+		branchId = branch ? parseId(versionsParts[1]) : null;
 
-	/**
-	 * Check if a version is a release version
-	 * 
-	 * @return true if the version is a release  
-	 */
-	public Boolean isRelease() {
-		return !isSnapshot();
+		if(snapshot){
+			releaseId = 0;
+		}
+		else if(branch){
+			releaseId = Integer.parseInt(versionsParts[2]);
+		}
+		else if(versionsParts.length == 2){
+			releaseId = Integer.parseInt(versionsParts[1]);
+		}
+		else{
+			releaseId = 0;
+		}
 	}
 
 	/**
-	 * Check if a version is a branch version
-	 * 
-	 * @return true if the version is a branch version
+	 * Returns the parsed version of a version string.
+	 * The parsed versions are cached: the same string is parsed only once.
+	 *
+	 * @param version String
+	 * @return Version
+	 * @throws NotHandledVersionException
 	 */
-	public Boolean isBranch() {
-		return stringVersion.split("-").length == 3;
-	}
+	public static Version valueOf(final String version) throws NotHandledVersionException {
+		Version parsedVersion = PARSED_VERSIONS.getIfPresent(version);
 
-	/**
-	 * Return the digits of a version
-	 * 
-	 * @return digits
-	 */
-	private String getDigits() {
-		return stringVersion.split("-")[0];
+		if(parsedVersion == null){
+			parsedVersion = new Version(version);
+			PARSED_VERSIONS.put(version, parsedVersion);
+		}
+
+		return parsedVersion;
 	}
 
-	/**
-	 * Return the number of digit of the version
-	 * 
-	 * @return number of digit
-	 */
-	private Integer getDigitsSize() {
-		return getDigits().split("\\.").length;
+	private static Integer parseId(final String id) {
+		try{
+			return Integer.valueOf(id);
+		}
+		catch (NumberFormatException e){
+			return null;
+		}
 	}
 
 	/**
-	 * Return the ieme digit of the version 
-	 * 
-	 * @param i digit number
-	 * @return digit
+	 * Check if a version is a snapshot
+	 *
+	 * @return true if the version is a snapshot
 	 */
-	private Integer getDigit(final int i) {
-		return Integer.valueOf(getDigits().split("\\.")[i]);
+	public Boolean isSnapshot() {
+		return snapshot;
 	}
 
 	/**
-	 * Return the releaseId
-	 * 
-	 * @return releaseId
+	 * Check if a version is a release version
+	 *
+	 * @return true if the version is a release
 	 */
-	private Integer getReleaseId() {
-		final String[] versionParts = stringVersion.split("-");
-		
-		if(isBranch() && versionParts.length >= 3){
-			return Integer.valueOf(versionParts[2]);
-		}
-		else if(versionParts.length >= 2){
-			return Integer.valueOf(versionParts[1]);
-		}
-
-		return 0;
+	public Boolean isRelease() {
+		return !snapshot;
 	}
 
 	/**
-	 * Return the branchId
-	 * 
-	 * @return branchId
+	 * Check if a version is a branch version
+	 *
+	 * @return true if the version is a branch version
 	 */
-	private Integer getBranchId() {
-		return Integer.valueOf(stringVersion.split("-")[1]);
+	public Boolean isBranch() {
+		return branch;
 	}
 
 	/**
 	 * Compare two versions
-	 * 
+	 *
 	 * @param other
 	 * @return an integer: 0 if equals, -1 if older, 1 if newer
 	 * @throws IncomparableException is thrown when two versions are not coparable
 	 */
 	public int compare(final Version other) throws IncomparableException{
-		// Cannot compare branch versions and others 
-		if(!isBranch().equals(other.isBranch())){
+		// Cannot compare branch versions and others
+		if(branch != other.branch){
 			throw new IncomparableException();
 		}
-		
+
 		// Compare digits
-		final int minDigitSize = getDigitsSize() < other.getDigitsSize()? getDigitsSize(): other.getDigitsSize();
-		
+		final int minDigitSize = Math.min(digits.length, other.digits.length);
+
 		for(int i = 0; i < minDigitSize ; i++){
-			if(!getDigit(i).equals(other.getDigit(i))){
-				return getDigit(i).compareTo(other.getDigit(i));
+			if(digits[i] != other.digits[i]){
+				return digits[i] < other.digits[i]? -1: 1;
 			}
 		}
-		
+
 		// If not the same number of digits and the first digits are equals, the longest is the newer
-		if(!getDigitsSize().equals(other.getDigitsSize())){
-			return getDigitsSize() > other.getDigitsSize()? 1: -1;
+		if(digits.length != other.digits.length){
+			return digits.length > other.digits.length? 1: -1;
 		}
-		
-		if(isBranch() && !getBranchId().equals(other.getBranchId())){
-			return getBranchId().compareTo(other.getBranchId());
+
+		if(branch){
+			// A branch without numeric id cannot be ordered
+			if(branchId == null || other.branchId == null){
+				throw new IncomparableException();
+			}
+			if(!branchId.equals(other.branchId)){
+				return branchId.compareTo(other.branchId);
+			}
 		}
-		
+
 		// if the digits are the same, a snapshot is newer than a release
-		if(isSnapshot() && other.isRelease()){
+		if(snapshot && !other.snapshot){
 			return 1;
 		}
-		
-		if(isRelease() && other.isSnapshot()){
+
+		if(!snapshot && other.snapshot){
 			return -1;
 		}
-		
+
 		// if both versions are releases, compare the releaseID
-		if(isRelease() && other.isRelease()){
-			return getReleaseId().compareTo(other.getReleaseId());
+		if(!snapshot){
+			return releaseId == other.releaseId? 0: (releaseId < other.releaseId? -1: 1);
 		}
-		
+
 		return 0;
 	}
 
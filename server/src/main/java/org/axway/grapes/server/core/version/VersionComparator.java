@@ -0,0 +1,49 @@
+package org.axway.grapes.server.core.version;
+
+import java.util.Comparator;
+
+/**
+ * Version Comparator
+ *
+ * <p>Orders versions from the oldest to the newest. When two versions cannot be compared (a branch version against
+ * a trunk one for example) the fallback comparator decides instead of throwing an IncomparableException.</p>
+ *
+ * <p>The default fallback puts the trunk versions before the branch versions and orders the remaining incomparable
+ * versions by their string value, which makes the comparator a total order.</p>
+ *
+ * @author jdcoffre
+ */
+public class VersionComparator implements Comparator<Version> {
+
+    /**
+     * Trunk versions first, then string order
+     */
+    public static final Comparator<Version> BRANCH_LAST = new Comparator<Version>() {
+        @Override
+        public int compare(final Version version1, final Version version2) {
+            if(!version1.isBranch().equals(version2.isBranch())){
+                return version1.isBranch()? 1: -1;
+            }
+            return version1.toString().compareTo(version2.toString());
+        }
+    };
+
+    private final Comparator<? super Version> fallback;
+
+    public VersionComparator() {
+        this(BRANCH_LAST);
+    }
+
+    public VersionComparator(final Comparator<? super Version> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int compare(final Version version1, final Version version2) {
+        try {
+            return version1.compare(version2);
+        } catch (IncomparableException e) {
+            return fallback.compare(version1, version2);
+        }
+    }
+}
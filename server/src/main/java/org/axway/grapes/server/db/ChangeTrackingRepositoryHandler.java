@@ -0,0 +1,52 @@
+package org.axway.grapes.server.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change Tracking Repository Handler
+ *
+ * <p>Counts the writes to the repository. Each write increments a generation number after the database call,
+ * so a result computed from the data of a generation can be kept as long as the generation has not changed.</p>
+ *
+ * @author jdcoffre
+ */
+public class ChangeTrackingRepositoryHandler extends ForwardingRepositoryHandler {
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+
+    public ChangeTrackingRepositoryHandler(final RepositoryHandler delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Returns the number of writes to the repository
+     *
+     * @return long
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the time of the last write to the repository, or the creation time of the handler if there is no write yet
+     *
+     * @return long milliseconds since the epoch
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Records a write done to the database without the repository handler, i.e. a migration of the data model
+     */
+    public void externalChange() {
+        changed();
+    }
+
+    @Override
+    protected void changed() {
+        lastModified = System.currentTimeMillis();
+        generation.incrementAndGet();
+    }
+}
@@ -1,14 +1,26 @@
 package org.axway.grapes.server.db;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Strings;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.axway.grapes.commons.datamodel.Artifact;
 import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.commons.datamodel.License;
 import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.core.version.IncomparableException;
+import org.axway.grapes.server.core.version.NotHandledVersionException;
+import org.axway.grapes.server.core.version.Version;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
 import org.axway.grapes.server.db.datamodel.DbModule;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Data Utility
@@ -19,6 +31,8 @@ import java.util.*;
  */
 public final class DataUtils {
 
+    private static final HashFunction CONTENT_HASH = Hashing.sha256();
+
     private DataUtils(){
         // Hide utility class constructor
     }
@@ -30,7 +44,7 @@ public final class DataUtils {
      * @return List<String>
      */
     public static List<String> getAllArtifacts(final DbModule module) {
-        final List<String> gavcs = module.getArtifacts();
+        final List<String> gavcs = new ArrayList<String>(module.getArtifacts());
 
         for(DbModule submodule: module.getSubmodules()){
             gavcs.addAll(getAllArtifacts(submodule));
@@ -129,6 +143,38 @@ public final class DataUtils {
         return gavc.substring(0, splitter);
     }
 
+    /**
+     * Returns a regexp that matches the values starting with a prefix.
+     * The regexp is anchored and the prefix is escaped, MongoDB turns it into an index range scan.
+     *
+     * @param prefix String
+     * @return Pattern
+     */
+    public static Pattern getPrefixPattern(final String prefix) {
+        final StringBuilder sb = new StringBuilder("^");
+        for(int i = 0; i < prefix.length(); i++){
+            final char c = prefix.charAt(i);
+            if("\\^$.|?*+()[]{}".indexOf(c) != -1){
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return Pattern.compile(sb.toString());
+    }
+
+    /**
+     * Generates a module starting from its ID, only its name and version are set
+     *
+     * @param moduleId String
+     * @return DbModule
+     */
+    public static DbModule createDbModule(final String moduleId) {
+        final DbModule module = new DbModule();
+        module.setName(getModuleName(moduleId));
+        module.setVersion(getModuleVersion(moduleId));
+        return module;
+    }
+
     /**
      * Generates an artifact starting from gavc
      *
@@ -217,23 +263,294 @@ public final class DataUtils {
     }
 
     /**
-     * Bubble sort
+     * Index a list of artifacts by gavc
      *
-     * @param targets
+     * @param artifacts
+     * @return Map<String, DbArtifact>
      */
-    public static void sort(final List<Artifact> targets) {
-        int n = targets.size();
-        while(n != 0){
-            int newn = 0;
-
-            for(int i = 1 ; i <= n-1 ; i++){
-                if (targets.get(i-1).toString().compareTo(targets.get(i).toString()) > 0){
-                    Collections.swap(targets, i - 1, i);
-                    newn = i;
+    public static Map<String, DbArtifact> getArtifactsByGavc(final List<DbArtifact> artifacts) {
+        final Map<String, DbArtifact> artifactsByGavc = new HashMap<String, DbArtifact>();
+
+        for(DbArtifact artifact: artifacts){
+            artifactsByGavc.put(artifact.getGavc(), artifact);
+        }
+
+        return artifactsByGavc;
+    }
+
+    /**
+     * Return the module or the submodule of a root module that produces the gavc.
+     * It returns the root module if no submodule matches.
+     *
+     * @param rootModule DbModule
+     * @param gavc String
+     * @return DbModule
+     */
+    public static DbModule getModuleOf(final DbModule rootModule, final String gavc) {
+        if(rootModule.getArtifacts().contains(gavc)){
+            return rootModule;
+        }
+
+        for(DbModule submodule: getAllSubmodules(rootModule)){
+            if(submodule.getArtifacts().contains(gavc)){
+                return submodule;
+            }
+        }
+
+        return rootModule;
+    }
+
+    /**
+     * Compute the content hash of a module: its artifacts, dependencies and submodules with their licenses.
+     * The hash does not depend on the order of the elements in the module, two posts of the same content give the same hash.
+     *
+     * @param module Module
+     * @return String
+     */
+    public static String getContentHash(final Module module) {
+        final List<String> artifactHashes = new ArrayList<String>();
+        for(Artifact artifact: module.getArtifacts()){
+            artifactHashes.add(getContentHash(artifact));
+        }
+
+        final List<String> dependencies = new ArrayList<String>();
+        for(Dependency dependency: module.getDependencies()){
+            dependencies.add(dependency.getTarget().getGavc() + ':' + dependency.getScope());
+        }
+
+        final List<String> submoduleHashes = new ArrayList<String>();
+        for(Module submodule: module.getSubmodules()){
+            submoduleHashes.add(getContentHash(submodule));
+        }
+
+        final Hasher hasher = CONTENT_HASH.newHasher();
+        putFields(hasher, module.getName(), module.getVersion(),
+                String.valueOf(module.isPromoted()), String.valueOf(module.isSubmodule()));
+        putSortedFields(hasher, artifactHashes);
+        putSortedFields(hasher, dependencies);
+        putSortedFields(hasher, submoduleHashes);
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Compute the content hash of an artifact, its licenses included
+     *
+     * @param artifact Artifact
+     * @return String
+     */
+    public static String getContentHash(final Artifact artifact) {
+        final Hasher hasher = CONTENT_HASH.newHasher();
+        putFields(hasher, artifact.getGavc(), artifact.getType(), String.valueOf(artifact.isPromoted()),
+                artifact.getSize(), artifact.getDownloadUrl(), artifact.getProvider());
+        putSortedFields(hasher, artifact.getLicenses());
+
+        return hasher.hash().toString();
+    }
+
+    private static void putSortedFields(final Hasher hasher, final Collection<String> fields) {
+        final List<String> sortedFields = new ArrayList<String>(fields);
+        Collections.sort(sortedFields);
+
+        hasher.putInt(sortedFields.size());
+        putFields(hasher, sortedFields.toArray(new String[sortedFields.size()]));
+    }
+
+    private static void putFields(final Hasher hasher, final String... fields) {
+        for(String field: fields){
+            // the length prefix keeps the fields apart whatever their content
+            final String value = Strings.nullToEmpty(field);
+            hasher.putInt(value.length());
+            hasher.putString(value, Charsets.UTF_8);
+        }
+    }
+
+    /**
+     * Computes the latest version entry of an artifact out of all its available versions
+     *
+     * <p>When the versions do not follow the conventions, there is no last release
+     * and the last version is the greatest one regarding the string order.</p>
+     *
+     * @param artifact DbArtifact
+     * @param versions Collection<String>
+     * @return DbLatestVersion
+     */
+    public static DbLatestVersion getLatestVersion(final DbArtifact artifact, final Collection<String> versions) {
+        final DbLatestVersion latestVersion = new DbLatestVersion();
+        latestVersion.setCoordinates(DbLatestVersion.generateID(artifact));
+
+        try{
+            latestVersion.setLastRelease(getLastRelease(versions));
+            latestVersion.setLastVersion(getLastVersion(versions));
+        }
+        catch (Exception e){
+            latestVersion.setLastRelease(null);
+            latestVersion.setLastVersion(versions.isEmpty() ? null : Collections.max(versions));
+        }
+
+        return latestVersion;
+    }
+
+    /**
+     * Find-out the last release version in a list of version (regarding Axway Conventions)
+     *
+     * @param versions
+     * @return String
+     * @throws NotHandledVersionException
+     * @throws IncomparableException
+     */
+    public static String getLastRelease(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
+        Version lastRelease = null;
+
+        for(String version: versions){
+            final Version testedVersion = Version.valueOf(version);
+
+            if(testedVersion.isRelease()){
+                if(lastRelease == null){
+                    lastRelease = testedVersion;
                 }
+                else if(lastRelease.compare(testedVersion) < 0){
+                    lastRelease = testedVersion;
+                }
+            }
+
+        }
+
+        if(lastRelease == null){
+            return null;
+        }
+
+        return lastRelease.toString();
+    }
+
+    /**
+     * Find-out the last version in a list of version
+     *
+     * @param versions
+     * @return String
+     * @throws NotHandledVersionException
+     * @throws IncomparableException
+     */
+    public static String getLastVersion(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
+        Version lastVersion = null;
+
+        for(String version: versions){
+            final Version testedVersion = Version.valueOf(version);
+
+            if(lastVersion == null){
+                lastVersion = testedVersion;
             }
+            else if(lastVersion.compare(testedVersion) < 0){
+                lastVersion = testedVersion;
+            }
+
+        }
+
+        if(lastVersion == null){
+            return null;
+        }
+
+        return lastVersion.toString();
+    }
+
+    /**
+     * Sort key of the artifacts: their string representation
+     */
+    public static final Function<Artifact, String> ARTIFACT_SORT_KEY = new Function<Artifact, String>() {
+        @Override
+        public String apply(final Artifact artifact) {
+            return artifact.toString();
+        }
+    };
+
+    /**
+     * Sort key of the dependencies: the name of their source
+     */
+    public static final Function<Dependency, String> DEPENDENCY_SORT_KEY = new Function<Dependency, String>() {
+        @Override
+        public String apply(final Dependency dependency) {
+            return dependency.getSourceName();
+        }
+    };
+
+    /**
+     * Sort key of the licenses: their name
+     */
+    public static final Function<License, String> LICENSE_SORT_KEY = new Function<License, String>() {
+        @Override
+        public String apply(final License license) {
+            return license.getName();
+        }
+    };
+
+    /**
+     * Sort artifacts regarding their string representation
+     *
+     * @param targets List<Artifact>
+     */
+    public static void sort(final List<Artifact> targets) {
+        sort(targets, ARTIFACT_SORT_KEY);
+    }
+
+    /**
+     * Sort dependencies regarding the name of their source
+     *
+     * @param dependencies List<Dependency>
+     */
+    public static void sortBySource(final List<Dependency> dependencies) {
+        sort(dependencies, DEPENDENCY_SORT_KEY);
+    }
+
+    /**
+     * Sort licenses regarding their name
+     *
+     * @param licenses List<License>
+     */
+    public static void sortByName(final List<License> licenses) {
+        sort(licenses, LICENSE_SORT_KEY);
+    }
+
+    /**
+     * Stable sort of a list regarding a sort key.
+     * The key of each element is computed only once, then the elements are ordered in O(n log n).
+     *
+     * @param elements List<T>
+     * @param sortKey Function<T, String>
+     */
+    public static <T> void sort(final List<T> elements, final Function<? super T, String> sortKey) {
+        if(elements.size() < 2){
+            return;
+        }
+
+        final List<SortEntry<T>> entries = new ArrayList<SortEntry<T>>(elements.size());
+        for(T element: elements){
+            entries.add(new SortEntry<T>(sortKey.apply(element), element));
+        }
+
+        Collections.sort(entries);
+
+        final ListIterator<T> iterator = elements.listIterator();
+        for(SortEntry<T> entry: entries){
+            iterator.next();
+            iterator.set(entry.element);
+        }
+    }
+
+    /**
+     * Element associated to its precomputed sort key
+     */
+    private static final class SortEntry<T> implements Comparable<SortEntry<T>> {
+        private final String key;
+        private final T element;
+
+        private SortEntry(final String key, final T element) {
+            this.key = key;
+            this.element = element;
+        }
 
-            n = newn;
+        @Override
+        public int compareTo(final SortEntry<T> other) {
+            return key.compareTo(other.key);
         }
     }
 }
@@ -0,0 +1,327 @@
+package org.axway.grapes.server.db;
+
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.datamodel.*;
+import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forwarding Repository Handler
+ *
+ * <p>Repository handler that forwards all its calls to another one.
+ * The decorators of the repository handlers extend it and override only the methods they change,
+ * the decorators that follow the writes override {@link #changed()}.</p>
+ *
+ * @author jdcoffre
+ */
+public abstract class ForwardingRepositoryHandler implements RepositoryHandler {
+
+    private final RepositoryHandler delegate;
+
+    protected ForwardingRepositoryHandler(final RepositoryHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Returns the decorated repository handler
+     *
+     * @return RepositoryHandler
+     */
+    public RepositoryHandler getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Called after each write to the repository
+     */
+    protected void changed() {
+        // Nothing to do by default
+    }
+
+    @Override
+    public void store(final DbCredential credential) {
+        delegate.store(credential);
+        changed();
+    }
+
+    @Override
+    public DbCredential getCredential(final String userId) {
+        return delegate.getCredential(userId);
+    }
+
+    @Override
+    public void addUserRole(final String user, final AvailableRoles role) {
+        delegate.addUserRole(user, role);
+        changed();
+    }
+
+    @Override
+    public void removeUserRole(final String user, final AvailableRoles role) {
+        delegate.removeUserRole(user, role);
+        changed();
+    }
+
+    @Override
+    public void store(final DbLicense license) {
+        delegate.store(license);
+        changed();
+    }
+
+    @Override
+    public List<String> getLicenseNames(final FiltersHolder filters) {
+        return delegate.getLicenseNames(filters);
+    }
+
+    @Override
+    public DbLicense getLicense(final String name) {
+        return delegate.getLicense(name);
+    }
+
+    @Override
+    public List<DbLicense> getAllLicenses() {
+        return delegate.getAllLicenses();
+    }
+
+    @Override
+    public void deleteLicense(final String name) {
+        delegate.deleteLicense(name);
+        changed();
+    }
+
+    @Override
+    public List<DbArtifact> getArtifacts(final FiltersHolder filters) {
+        return delegate.getArtifacts(filters);
+    }
+
+    @Override
+    public void addLicenseToArtifact(final DbArtifact artifact, final String licenseId) {
+        delegate.addLicenseToArtifact(artifact, licenseId);
+        changed();
+    }
+
+    @Override
+    public void removeLicenseFromArtifact(final DbArtifact artifact, final String name) {
+        delegate.removeLicenseFromArtifact(artifact, name);
+        changed();
+    }
+
+    @Override
+    public void approveLicense(final DbLicense license, final Boolean approved) {
+        delegate.approveLicense(license, approved);
+        changed();
+    }
+
+    @Override
+    public void store(final DbArtifact dbArtifact) {
+        delegate.store(dbArtifact);
+        changed();
+    }
+
+    @Override
+    public void store(final Collection<DbArtifact> dbArtifacts) {
+        delegate.store(dbArtifacts);
+        changed();
+    }
+
+    @Override
+    public void storeIfNew(final Collection<DbArtifact> dbArtifacts) {
+        delegate.storeIfNew(dbArtifacts);
+        changed();
+    }
+
+    @Override
+    public List<String> getGavcs(final FiltersHolder filters) {
+        return delegate.getGavcs(filters);
+    }
+
+    @Override
+    public List<String> getGroupIds(final FiltersHolder filters) {
+        return delegate.getGroupIds(filters);
+    }
+
+    @Override
+    public List<String> getArtifactVersions(final DbArtifact artifact) {
+        return delegate.getArtifactVersions(artifact);
+    }
+
+    @Override
+    public DbLatestVersion getLatestVersion(final DbArtifact artifact) {
+        return delegate.getLatestVersion(artifact);
+    }
+
+    @Override
+    public DbArtifact getArtifact(final String gavc) {
+        return delegate.getArtifact(gavc);
+    }
+
+    @Override
+    public List<DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        return delegate.getArtifacts(gavcs);
+    }
+
+    @Override
+    public void deleteArtifact(final String gavc) {
+        delegate.deleteArtifact(gavc);
+        changed();
+    }
+
+    @Override
+    public void updateDoNotUse(final DbArtifact artifact, final Boolean doNotUse) {
+        delegate.updateDoNotUse(artifact, doNotUse);
+        changed();
+    }
+
+    @Override
+    public void updateDownloadUrl(final DbArtifact artifact, final String downLoadUrl) {
+        delegate.updateDownloadUrl(artifact, downLoadUrl);
+        changed();
+    }
+
+    @Override
+    public void updateProvider(final DbArtifact artifact, final String provider) {
+        delegate.updateProvider(artifact, provider);
+        changed();
+    }
+
+    @Override
+    public List<DbModule> getAncestors(final DbArtifact artifact, final FiltersHolder filters) {
+        return delegate.getAncestors(artifact, filters);
+    }
+
+    @Override
+    public Map<String, List<DbModule>> getAncestorsOf(final Collection<String> gavcs, final FiltersHolder filters) {
+        return delegate.getAncestorsOf(gavcs, filters);
+    }
+
+    @Override
+    public void store(final DbModule dbModule) {
+        delegate.store(dbModule);
+        changed();
+    }
+
+    @Override
+    public List<String> getModuleNames(final FiltersHolder filters) {
+        return delegate.getModuleNames(filters);
+    }
+
+    @Override
+    public List<String> getModuleVersions(final String name, final FiltersHolder filters) {
+        return delegate.getModuleVersions(name, filters);
+    }
+
+    @Override
+    public DbModule getModule(final String moduleId) {
+        return delegate.getModule(moduleId);
+    }
+
+    @Override
+    public List<DbModule> getModules(final FiltersHolder filters) {
+        return delegate.getModules(filters);
+    }
+
+    @Override
+    public Iterable<DbModule> getAllModules() {
+        return delegate.getAllModules();
+    }
+
+    @Override
+    public List<DbModule> getModules(final Collection<String> moduleIds) {
+        return delegate.getModules(moduleIds);
+    }
+
+    @Override
+    public void deleteModule(final String moduleId) {
+        delegate.deleteModule(moduleId);
+        changed();
+    }
+
+    @Override
+    public void promoteModule(final DbModule module) {
+        delegate.promoteModule(module);
+        changed();
+    }
+
+    @Override
+    public DbModule getRootModuleOf(final String gavc) {
+        return delegate.getRootModuleOf(gavc);
+    }
+
+    @Override
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs) {
+        return delegate.getRootModulesOf(gavcs);
+    }
+
+    @Override
+    public DbModule getModuleOf(final String gavc) {
+        return delegate.getModuleOf(gavc);
+    }
+
+    @Override
+    public List<String> getOrganizationNames() {
+        return delegate.getOrganizationNames();
+    }
+
+    @Override
+    public DbOrganization getOrganization(final String name) {
+        return delegate.getOrganization(name);
+    }
+
+    @Override
+    public void deleteOrganization(final String organizationId) {
+        delegate.deleteOrganization(organizationId);
+        changed();
+    }
+
+    @Override
+    public void store(final DbOrganization organization) {
+        delegate.store(organization);
+        changed();
+    }
+
+    @Override
+    public List<DbModule> getModulesByArtifactPrefix(final String gavcPrefix) {
+        return delegate.getModulesByArtifactPrefix(gavcPrefix);
+    }
+
+    @Override
+    public void setModulesOrganization(final Collection<String> moduleIds, final String organizationName) {
+        delegate.setModulesOrganization(moduleIds, organizationName);
+        changed();
+    }
+
+    @Override
+    public void removeModulesOrganization(final DbOrganization dbOrganization) {
+        delegate.removeModulesOrganization(dbOrganization);
+        changed();
+    }
+
+    @Override
+    public List<DbOrganization> getAllOrganizations() {
+        return delegate.getAllOrganizations();
+    }
+
+    @Override
+    public void store(final DbProduct dbProduct) {
+        delegate.store(dbProduct);
+        changed();
+    }
+
+    @Override
+    public DbProduct getProduct(final String name) {
+        return delegate.getProduct(name);
+    }
+
+    @Override
+    public List<String> getProductNames() {
+        return delegate.getProductNames();
+    }
+
+    @Override
+    public void deleteProduct(final String name) {
+        delegate.deleteProduct(name);
+        changed();
+    }
+}
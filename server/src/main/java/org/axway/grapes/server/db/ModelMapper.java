@@ -3,6 +3,13 @@ package org.axway.grapes.server.db;
 import org.axway.grapes.commons.datamodel.*;
 import org.axway.grapes.server.db.datamodel.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Model Mapper
  *
@@ -182,32 +189,72 @@ public class ModelMapper {
     /**
      * Transform a module from database model to client/server model
      *
+     * <p>All the artifacts referenced by the module and its submodules are retrieved in one database access.</p>
+     *
      * @param dbModule DbModule
      * @return Module
      */
     public Module getModule(final DbModule dbModule) {
+        final Set<String> gavcs = new HashSet<String>(DataUtils.getAllArtifacts(dbModule));
+        for(DbDependency dbDependency: DataUtils.getAllDbDependencies(dbModule)){
+            gavcs.add(dbDependency.getTarget());
+        }
+
+        final Map<String, DbArtifact> dbArtifacts = DataUtils.getArtifactsByGavc(repositoryHandler.getArtifacts(gavcs));
+        return getModule(dbModule, dbArtifacts);
+    }
+
+    /**
+     * Transform a list of modules from database model to client/server model.
+     * The artifacts of all the modules are retrieved in a single database access.
+     *
+     * @param dbModules Collection<DbModule>
+     * @return List<Module>
+     */
+    public List<Module> getModules(final Collection<DbModule> dbModules) {
+        final Set<String> gavcs = new HashSet<String>();
+        for(DbModule dbModule: dbModules){
+            gavcs.addAll(DataUtils.getAllArtifacts(dbModule));
+            for(DbDependency dbDependency: DataUtils.getAllDbDependencies(dbModule)){
+                gavcs.add(dbDependency.getTarget());
+            }
+        }
+
+        final Map<String, DbArtifact> dbArtifacts = DataUtils.getArtifactsByGavc(repositoryHandler.getArtifacts(gavcs));
+
+        final List<Module> modules = new ArrayList<Module>(dbModules.size());
+        for(DbModule dbModule: dbModules){
+            modules.add(getModule(dbModule, dbArtifacts));
+        }
+
+        return modules;
+    }
+
+    private Module getModule(final DbModule dbModule, final Map<String, DbArtifact> dbArtifacts) {
         final Module module =DataModelFactory.createModule(dbModule.getName(), dbModule.getVersion());
         module.setPromoted(dbModule.isPromoted());
         module.setSubmodule(dbModule.isSubmodule());
 
         //Artifacts
         for(String gavc: dbModule.getArtifacts()){
-            final DbArtifact dbArtifact = repositoryHandler.getArtifact(gavc);
-            final Artifact artifact = getArtifact(dbArtifact);
-            module.addArtifact(artifact);
+            final DbArtifact dbArtifact = dbArtifacts.get(gavc);
+
+            if(dbArtifact == null){
+                module.addArtifact(DataUtils.createArtifact(gavc));
+            } else {
+                module.addArtifact(getArtifact(dbArtifact));
+            }
         }
 
         //Dependencies
         for(DbDependency dbDependency: dbModule.getDependencies()){
-            final Dependency dependency = getDependency(dbDependency, module.getName(), module.getVersion());
-            dependency.setSourceName(module.getName());
-            dependency.setSourceVersion(module.getVersion());
+            final Dependency dependency = getDependency(dbDependency, module.getName(), module.getVersion(), dbArtifacts.get(dbDependency.getTarget()));
             module.addDependency(dependency);
         }
 
         //Submodules
         for(DbModule dbSubmodule: dbModule.getSubmodules()){
-            module.addSubmodule(getModule(dbSubmodule));
+            module.addSubmodule(getModule(dbSubmodule, dbArtifacts));
         }
 
         return module;
@@ -222,6 +269,20 @@ public class ModelMapper {
      */
     public Dependency getDependency(final DbDependency dbDependency, final String sourceName, final String sourceVersion) {
         final DbArtifact dbArtifact = repositoryHandler.getArtifact(dbDependency.getTarget());
+        return getDependency(dbDependency, sourceName, sourceVersion, dbArtifact);
+    }
+
+    /**
+     * Transform a dependency from database model to client/server model using an already retrieved target.
+     * If the target is null, the artifact is generated from the dependency gavc.
+     *
+     * @param dbDependency DbDependency
+     * @param sourceName String
+     * @param sourceVersion String
+     * @param dbArtifact DbArtifact
+     * @return Dependency
+     */
+    public Dependency getDependency(final DbDependency dbDependency, final String sourceName, final String sourceVersion, final DbArtifact dbArtifact) {
         final Artifact artifact;
 
         if(dbArtifact == null){
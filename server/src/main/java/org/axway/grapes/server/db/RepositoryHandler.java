@@ -4,7 +4,9 @@ import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository Handler Interface
@@ -122,6 +124,22 @@ public interface RepositoryHandler {
      */
     public void store(final DbArtifact dbArtifact);
 
+    /**
+     * Create new artifacts or update existing ones in the database.
+     * The artifacts that do not exist yet are inserted in a single batch.
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     */
+    public void store(final Collection<DbArtifact> dbArtifacts);
+
+    /**
+     * Create the artifacts that do not exist yet in the database, in a single batch.
+     * The existing artifacts are left untouched.
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     */
+    public void storeIfNew(final Collection<DbArtifact> dbArtifacts);
+
     /**
      * Return the list of all the artifacts gavcs that match the provided filters
      *
@@ -146,6 +164,15 @@ public interface RepositoryHandler {
      */
     public List<String> getArtifactVersions(final DbArtifact artifact);
 
+    /**
+     * Return the last release and the last version of the targeted artifact (groupId:artifactId:classifier:extension)
+     * The entry is maintained each time an artifact is stored or deleted.
+     *
+     * @param artifact DbArtifact
+     * @return DbLatestVersion
+     */
+    public DbLatestVersion getLatestVersion(final DbArtifact artifact);
+
     /**
      * Return the targeted artifact
      *
@@ -154,6 +181,15 @@ public interface RepositoryHandler {
      */
     public DbArtifact getArtifact(final String gavc);
 
+    /**
+     * Return the artifacts that match the provided gavcs in a single database access.
+     * The gavcs that do not match any artifact are ignored.
+     *
+     * @param gavcs Collection<String>
+     * @return List<DbArtifact>
+     */
+    public List<DbArtifact> getArtifacts(final Collection<String> gavcs);
+
     /**
      * Delete the targeted artifact
      *
@@ -194,6 +230,16 @@ public interface RepositoryHandler {
      */
     public List<DbModule> getAncestors(final DbArtifact artifact, final FiltersHolder filters);
 
+    /**
+     * Retrieve the modules that use the provided gavcs thanks to the reverse dependency index.
+     * The result maps each gavc to the modules that use it, the gavcs that are not used are not in the map.
+     *
+     * @param gavcs Collection<String>
+     * @param filters FiltersHolder
+     * @return Map<String, List<DbModule>>
+     */
+    public Map<String, List<DbModule>> getAncestorsOf(final Collection<String> gavcs, final FiltersHolder filters);
+
     /**
      * Create a new module or update an existing one into the database
      *
@@ -235,6 +281,23 @@ public interface RepositoryHandler {
      */
     public List<DbModule> getModules(final FiltersHolder filters);
 
+    /**
+     * Iterates over all the modules of the database, without loading them all at once.
+     * The fields computed at storage time (has, uses) and the build info are not loaded.
+     *
+     * @return Iterable<DbModule>
+     */
+    public Iterable<DbModule> getAllModules();
+
+    /**
+     * Return the modules that match the provided ids in a single database access.
+     * The ids that do not match any module are ignored.
+     *
+     * @param moduleIds Collection<String>
+     * @return List<DbModule>
+     */
+    public List<DbModule> getModules(final Collection<String> moduleIds);
+
     /**
      * Delete the targeted module
      *
@@ -258,6 +321,15 @@ public interface RepositoryHandler {
      */
     public DbModule getRootModuleOf(final String gavc);
 
+    /**
+     * Return the modules that contain the provided gavcs in a single database access.
+     * The result maps each gavc to its root module, the gavcs that are not produced by any module are not in the map.
+     *
+     * @param gavcs Collection<String>
+     * @return Map<String, DbModule>
+     */
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs);
+
     /**
      * Return the module or the submodule that contains the gavc.
      * It returns null if no module matches.
@@ -297,20 +369,21 @@ public interface RepositoryHandler {
     public void store(final DbOrganization organization);
 
     /**
-     * Updates all module that matches the corporate GID prefix setting the Organization name
+     * Returns the modules that have an artifact whose gavc starts with a prefix.
+     * The modules are returned without their dependencies and their build info.
      *
-     * @param corporateGroupId String
-     * @param dbOrganization DbOrganization
+     * @param gavcPrefix String
+     * @return List<DbModule>
      */
-    public void addModulesOrganization(final String corporateGroupId, final DbOrganization dbOrganization);
+    public List<DbModule> getModulesByArtifactPrefix(final String gavcPrefix);
 
     /**
-     * Updates all module that matches the corporate GID prefix AND that reference to the organization removing the Organization field
+     * Sets the Organization name of modules, an empty name removes the Organization
      *
-     * @param corporateGroupId String
-     * @param dbOrganization DbOrganization
+     * @param moduleIds Collection<String>
+     * @param organizationName String
      */
-    public void removeModulesOrganization(final String corporateGroupId, final DbOrganization dbOrganization);
+    public void setModulesOrganization(final Collection<String> moduleIds, final String organizationName);
 
     /**
      * Updates all module reference to the organization removing the Organization field
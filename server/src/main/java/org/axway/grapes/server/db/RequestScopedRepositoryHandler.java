@@ -0,0 +1,310 @@
+package org.axway.grapes.server.db;
+
+import org.axway.grapes.server.db.datamodel.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request Scoped Repository Handler
+ *
+ * <p>Identity map of the reads of a request: within a request, an artifact, a module, an organization, a license or a product
+ * is read once from the database and the next reads return the same object.
+ * The map belongs to the thread of the request, the reads made out of a request or by other threads are not cached.
+ * Any write of the request empties the map.</p>
+ *
+ * @author jdcoffre
+ */
+public class RequestScopedRepositoryHandler extends ForwardingRepositoryHandler {
+
+    private static final String ARTIFACT = "artifact|";
+    private static final String MODULE = "module|";
+    private static final String ROOT_MODULE = "root-module|";
+    private static final String ORGANIZATION = "organization|";
+    private static final String LICENSE = "license|";
+    private static final String PRODUCT = "product|";
+
+    private final ThreadLocal<Scope> scopes = new ThreadLocal<Scope>();
+
+    public RequestScopedRepositoryHandler(final RepositoryHandler delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Starts an empty identity map for the request of the current thread
+     */
+    public void beginRequest() {
+        scopes.set(new Scope());
+    }
+
+    /**
+     * Returns the number of database reads that have been avoided so far by the request of the current thread
+     *
+     * @return int
+     */
+    public int getAvoidedReads() {
+        final Scope scope = scopes.get();
+        return scope == null ? 0 : scope.avoidedReads;
+    }
+
+    /**
+     * Drops the identity map of the request of the current thread
+     *
+     * @return int the number of database reads that have been avoided during the request
+     */
+    public int endRequest() {
+        final Scope scope = scopes.get();
+        scopes.remove();
+        return scope == null ? 0 : scope.avoidedReads;
+    }
+
+    @Override
+    protected void changed() {
+        final Scope scope = scopes.get();
+        if(scope != null){
+            scope.entries.clear();
+        }
+    }
+
+    @Override
+    public DbLicense getLicense(final String name) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getLicense(name);
+        }
+
+        final Object cached = scope.get(LICENSE + name);
+        if(cached != Scope.MISSING){
+            return (DbLicense) cached;
+        }
+
+        final DbLicense license = super.getLicense(name);
+        scope.entries.put(LICENSE + name, license);
+        return license;
+    }
+
+    @Override
+    public DbArtifact getArtifact(final String gavc) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getArtifact(gavc);
+        }
+
+        final Object cached = scope.get(ARTIFACT + gavc);
+        if(cached != Scope.MISSING){
+            return (DbArtifact) cached;
+        }
+
+        final DbArtifact artifact = super.getArtifact(gavc);
+        scope.entries.put(ARTIFACT + gavc, artifact);
+        return artifact;
+    }
+
+    @Override
+    public List<DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getArtifacts(gavcs);
+        }
+
+        final Set<String> missing = scope.getMissing(ARTIFACT, gavcs);
+        if(!missing.isEmpty()){
+            for(DbArtifact artifact: super.getArtifacts(missing)){
+                scope.entries.put(ARTIFACT + artifact.getGavc(), artifact);
+            }
+            scope.putAbsent(ARTIFACT, missing);
+        }
+
+        final List<DbArtifact> artifacts = new ArrayList<DbArtifact>();
+        for(String gavc: new LinkedHashSet<String>(gavcs)){
+            final DbArtifact artifact = (DbArtifact) scope.entries.get(ARTIFACT + gavc);
+            if(artifact != null){
+                artifacts.add(artifact);
+            }
+        }
+        return artifacts;
+    }
+
+    @Override
+    public DbModule getModule(final String moduleId) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getModule(moduleId);
+        }
+
+        final Object cached = scope.get(MODULE + moduleId);
+        if(cached != Scope.MISSING){
+            return (DbModule) cached;
+        }
+
+        final DbModule module = super.getModule(moduleId);
+        scope.entries.put(MODULE + moduleId, module);
+        return module;
+    }
+
+    @Override
+    public List<DbModule> getModules(final Collection<String> moduleIds) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getModules(moduleIds);
+        }
+
+        final Set<String> missing = scope.getMissing(MODULE, moduleIds);
+        if(!missing.isEmpty()){
+            for(DbModule module: super.getModules(missing)){
+                scope.entries.put(MODULE + module.getId(), module);
+            }
+            scope.putAbsent(MODULE, missing);
+        }
+
+        final List<DbModule> modules = new ArrayList<DbModule>();
+        for(String moduleId: new LinkedHashSet<String>(moduleIds)){
+            final DbModule module = (DbModule) scope.entries.get(MODULE + moduleId);
+            if(module != null){
+                modules.add(module);
+            }
+        }
+        return modules;
+    }
+
+    @Override
+    public DbModule getRootModuleOf(final String gavc) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getRootModuleOf(gavc);
+        }
+
+        final Object cached = scope.get(ROOT_MODULE + gavc);
+        if(cached != Scope.MISSING){
+            return (DbModule) cached;
+        }
+
+        final DbModule module = super.getRootModuleOf(gavc);
+        scope.entries.put(ROOT_MODULE + gavc, module);
+        return module;
+    }
+
+    @Override
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getRootModulesOf(gavcs);
+        }
+
+        final Set<String> missing = scope.getMissing(ROOT_MODULE, gavcs);
+        if(!missing.isEmpty()){
+            for(Map.Entry<String, DbModule> rootModule: super.getRootModulesOf(missing).entrySet()){
+                scope.entries.put(ROOT_MODULE + rootModule.getKey(), rootModule.getValue());
+            }
+            scope.putAbsent(ROOT_MODULE, missing);
+        }
+
+        final Map<String, DbModule> rootModules = new LinkedHashMap<String, DbModule>();
+        for(String gavc: gavcs){
+            final DbModule module = (DbModule) scope.entries.get(ROOT_MODULE + gavc);
+            if(module != null){
+                rootModules.put(gavc, module);
+            }
+        }
+        return rootModules;
+    }
+
+    @Override
+    public DbModule getModuleOf(final String gavc) {
+        if(scopes.get() == null){
+            return super.getModuleOf(gavc);
+        }
+
+        // the submodule is found in the root module, that is read once
+        final DbModule module = getRootModuleOf(gavc);
+        return module == null ? null : DataUtils.getModuleOf(module, gavc);
+    }
+
+    @Override
+    public DbOrganization getOrganization(final String name) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getOrganization(name);
+        }
+
+        final Object cached = scope.get(ORGANIZATION + name);
+        if(cached != Scope.MISSING){
+            return (DbOrganization) cached;
+        }
+
+        final DbOrganization organization = super.getOrganization(name);
+        scope.entries.put(ORGANIZATION + name, organization);
+        return organization;
+    }
+
+    @Override
+    public DbProduct getProduct(final String name) {
+        final Scope scope = scopes.get();
+        if(scope == null){
+            return super.getProduct(name);
+        }
+
+        final Object cached = scope.get(PRODUCT + name);
+        if(cached != Scope.MISSING){
+            return (DbProduct) cached;
+        }
+
+        final DbProduct product = super.getProduct(name);
+        scope.entries.put(PRODUCT + name, product);
+        return product;
+    }
+
+    /**
+     * Identity map of a request, the objects that do not exist are mapped to null
+     */
+    private static final class Scope {
+        private static final Object MISSING = new Object();
+
+        private final Map<String, Object> entries = new HashMap<String, Object>();
+        private int avoidedReads = 0;
+
+        /**
+         * Returns the object of a key, or MISSING if it has not been read yet
+         */
+        private Object get(final String key) {
+            if(!entries.containsKey(key)){
+                return MISSING;
+            }
+            avoidedReads++;
+            return entries.get(key);
+        }
+
+        /**
+         * Returns the IDs that have not been read yet, a read is avoided if there are none
+         */
+        private Set<String> getMissing(final String prefix, final Collection<String> ids) {
+            final Set<String> missing = new LinkedHashSet<String>();
+            for(String id: ids){
+                if(!entries.containsKey(prefix + id)){
+                    missing.add(id);
+                }
+            }
+            if(missing.isEmpty() && !ids.isEmpty()){
+                avoidedReads++;
+            }
+            return missing;
+        }
+
+        /**
+         * Records that the IDs that have not been found do not exist
+         */
+        private void putAbsent(final String prefix, final Collection<String> ids) {
+            for(String id: ids){
+                if(!entries.containsKey(prefix + id)){
+                    entries.put(prefix + id, null);
+                }
+            }
+        }
+    }
+}
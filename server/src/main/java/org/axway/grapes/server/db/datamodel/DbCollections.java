@@ -18,6 +18,8 @@ public interface DbCollections {
     public static final String DB_LICENSES = DbLicense.class.getSimpleName();
     public static final String DB_CREDENTIALS = DbCredential.class.getSimpleName();
     public static final String DB_GRAPES_INFO = DbGrapesInfo.class.getSimpleName();
+    public static final String DB_LATEST_VERSIONS = DbLatestVersion.class.getSimpleName();
+    public static final String DB_REVERSE_DEPENDENCIES = DbReverseDependency.class.getSimpleName();
 
     public static final String DEFAULT_ID = "_id";
 
@@ -0,0 +1,106 @@
+package org.axway.grapes.server.db.datamodel;
+
+import org.jongo.marshall.jackson.oid.Id;
+
+/**
+ * Database Latest Version
+ *
+ * <p>Class that define the representation of the latest versions of an artifact stored in the database.
+ * There is one entry per groupId:artifactId:classifier:extension, the coordinates are used as an ID.
+ * The revision of an entry is incremented each time a version of the artifact is stored or deleted,
+ * the last release and the last version are valid if they have been computed from the current revision.</p>
+ *
+ * @author jdcoffre
+ */
+public class DbLatestVersion {
+
+    public static final String DATA_MODEL_VERSION = "datamodelVersion";
+    private String datamodelVersion = DbCollections.datamodelVersion;
+
+    @Id
+    private String coordinates = "";
+
+    public static final String LAST_RELEASE_DB_FIELD = "lastRelease";
+    private String lastRelease = null;
+
+    public static final String LAST_VERSION_DB_FIELD = "lastVersion";
+    private String lastVersion = null;
+
+    public static final String REVISION_DB_FIELD = "revision";
+    private long revision = 0;
+
+    public static final String COMPUTED_REVISION_DB_FIELD = "computedRevision";
+    private long computedRevision = -1;
+
+    /**
+     * Generates the ID of the latest version entry of an artifact
+     *
+     * @param artifact DbArtifact
+     * @return String
+     */
+    public static String generateID(final DbArtifact artifact) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(artifact.getGroupId());
+        sb.append(":");
+        sb.append(artifact.getArtifactId());
+        sb.append(":");
+        sb.append(artifact.getClassifier());
+        sb.append(":");
+        sb.append(artifact.getExtension());
+
+        return sb.toString();
+    }
+
+    public void setDataModelVersion(final String newVersion){
+        this.datamodelVersion = newVersion;
+    }
+
+    public String getDataModelVersion(){
+        return datamodelVersion;
+    }
+
+    public String getCoordinates() {
+        return coordinates;
+    }
+
+    public void setCoordinates(final String coordinates) {
+        this.coordinates = coordinates;
+    }
+
+    public String getLastRelease() {
+        return lastRelease;
+    }
+
+    public void setLastRelease(final String lastRelease) {
+        this.lastRelease = lastRelease;
+    }
+
+    public String getLastVersion() {
+        return lastVersion;
+    }
+
+    public void setLastVersion(final String lastVersion) {
+        this.lastVersion = lastVersion;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(final long revision) {
+        this.revision = revision;
+    }
+
+    public long getComputedRevision() {
+        return computedRevision;
+    }
+
+    public void setComputedRevision(final long computedRevision) {
+        this.computedRevision = computedRevision;
+    }
+
+    @Override
+    public String toString(){
+        return coordinates;
+    }
+}
@@ -51,6 +51,12 @@ public class DbModule {
     public static final String BUILD_INFO_DB_FIELD = "buildInfo";
     private Map<String, String> buildInfo = new HashMap<String, String>();
 
+    public static final String CONTENT_HASH_DB_FIELD = "contentHash";
+    private String contentHash;
+
+    public static final String ARTIFACT_HASHES_DB_FIELD = "artifactHashes";
+    private List<String> artifactHashes = new ArrayList<String>();
+
     public void setDataModelVersion(final String newVersion){
         this.datamodelVersion = newVersion;
     }
@@ -180,6 +186,32 @@ public class DbModule {
         this.buildInfo = buildInfo;
     }
 
+    /**
+     * Hash of the content of the module as it has been posted, null if the module has been stored before the hashes
+     *
+     * @return String
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(final String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Hashes of the artifacts of the module and its submodules as they have been posted
+     *
+     * @return List<String>
+     */
+    public List<String> getArtifactHashes() {
+        return artifactHashes;
+    }
+
+    public void setArtifactHashes(final List<String> artifactHashes) {
+        this.artifactHashes = artifactHashes;
+    }
+
     @Override
 	public String toString(){
 		final StringBuilder sb = new StringBuilder();
@@ -0,0 +1,56 @@
+package org.axway.grapes.server.db.datamodel;
+
+import org.jongo.marshall.jackson.oid.Id;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Database Reverse Dependency
+ *
+ * <p>Class that define the representation of the reverse dependencies stored in the database.
+ * There is one entry per used artifact: the gavc is used as an ID and the entry holds the ids of the modules that use it.
+ * The entries are maintained each time a module is stored or deleted.</p>
+ *
+ * @author jdcoffre
+ */
+public class DbReverseDependency {
+
+    public static final String DATA_MODEL_VERSION = "datamodelVersion";
+    private String datamodelVersion = DbCollections.datamodelVersion;
+
+    @Id
+    private String gavc = "";
+
+    public static final String USERS_DB_FIELD = "users";
+    private Set<String> users = new HashSet<String>();
+
+    public void setDataModelVersion(final String newVersion){
+        this.datamodelVersion = newVersion;
+    }
+
+    public String getDataModelVersion(){
+        return datamodelVersion;
+    }
+
+    public String getGavc() {
+        return gavc;
+    }
+
+    public void setGavc(final String gavc) {
+        this.gavc = gavc;
+    }
+
+    public Set<String> getUsers() {
+        return users;
+    }
+
+    public void setUsers(final Set<String> users) {
+        this.users = users;
+    }
+
+    @Override
+    public String toString(){
+        return gavc;
+    }
+}
@@ -0,0 +1,168 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Index Registry
+ *
+ * <p>Declares the indexes the queries of the MongodbHandler rely on.
+ * The registry is checked at startup to create the missing indexes, and by the index health check to report the drift.</p>
+ *
+ * @author jdcoffre
+ */
+public final class IndexRegistry {
+
+    public static final List<IndexDefinition> INDEXES = Collections.unmodifiableList(Arrays.asList(
+            // distinct versions of an artifact and artifact field filters
+            new IndexDefinition(DbCollections.DB_ARTIFACTS, "grapes_artifact_coordinates",
+                    DbArtifact.GROUPID_DB_FIELD,
+                    DbArtifact.ARTIFACTID_DB_FIELD,
+                    DbArtifact.CLASSIFIER_DB_FIELD,
+                    DbArtifact.EXTENSION_DB_FIELD,
+                    DbArtifact.VERSION_DB_FIELD),
+            // multikey: artifacts by license
+            new IndexDefinition(DbCollections.DB_ARTIFACTS, "grapes_artifact_licenses", DbArtifact.LICENCES_DB_FIELD),
+            // multikey: module of an artifact
+            new IndexDefinition(DbCollections.DB_MODULES, "grapes_module_artifacts", DbModule.HAS_DB_FIELD),
+            new IndexDefinition(DbCollections.DB_MODULES, "grapes_module_name_version", DbModule.NAME_DB_FIELD, DbModule.VERSION_DB_FIELD),
+            new IndexDefinition(DbCollections.DB_MODULES, "grapes_module_organization", DbModule.ORGANIZATION_DB_FIELD)
+    ));
+
+    private IndexRegistry() {
+        // Hide Utility Class Constructor
+    }
+
+    /**
+     * Returns the declared indexes that do not exist in the database
+     *
+     * @param db DB
+     * @return List<IndexDefinition>
+     */
+    public static List<IndexDefinition> getMissingIndexes(final DB db) {
+        final List<IndexDefinition> missingIndexes = new ArrayList<IndexDefinition>();
+
+        for(IndexDefinition index: INDEXES){
+            if(!index.existsIn(db)){
+                missingIndexes.add(index);
+            }
+        }
+
+        return missingIndexes;
+    }
+
+    /**
+     * Creates the declared indexes that do not exist in the database.
+     * The indexes are built in the background so that the database is not locked while a large collection is indexed.
+     *
+     * @param db DB
+     * @return List<IndexDefinition> the created indexes
+     */
+    public static List<IndexDefinition> ensureIndexes(final DB db) {
+        final List<IndexDefinition> missingIndexes = getMissingIndexes(db);
+
+        for(IndexDefinition index: missingIndexes){
+            db.getCollection(index.getCollection()).ensureIndex(index.getKeys(), index.getOptions());
+        }
+
+        return missingIndexes;
+    }
+
+    /**
+     * Ascending index on one or several fields of a collection
+     */
+    public static final class IndexDefinition {
+
+        private final String collection;
+        private final String name;
+        private final List<String> fields;
+
+        public IndexDefinition(final String collection, final String name, final String... fields) {
+            this.collection = collection;
+            this.name = name;
+            this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+        }
+
+        public String getCollection() {
+            return collection;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getFields() {
+            return fields;
+        }
+
+        /**
+         * Returns the key document of the index
+         *
+         * @return DBObject
+         */
+        public DBObject getKeys() {
+            final BasicDBObject keys = new BasicDBObject();
+            for(String field: fields){
+                keys.append(field, 1);
+            }
+            return keys;
+        }
+
+        /**
+         * Returns the creation options of the index: its name and a background build
+         *
+         * @return DBObject
+         */
+        public DBObject getOptions() {
+            return new BasicDBObject("name", name).append("background", true);
+        }
+
+        /**
+         * Checks if an existing index of the collection has the same keys in the same order
+         *
+         * @param db DB
+         * @return boolean
+         */
+        public boolean existsIn(final DB db) {
+            for(DBObject indexInfo: db.getCollection(collection).getIndexInfo()){
+                if(matches((DBObject) indexInfo.get("key"))){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matches(final DBObject key) {
+            if(key == null || key.keySet().size() != fields.size()){
+                return false;
+            }
+
+            final Iterator<String> expectedFields = fields.iterator();
+            for(String field: key.keySet()){
+                final Object direction = key.get(field);
+                if(!field.equals(expectedFields.next()) ||
+                        !(direction instanceof Number) ||
+                        ((Number) direction).intValue() != 1){
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + collection + " " + getKeys() + ")";
+        }
+    }
+}
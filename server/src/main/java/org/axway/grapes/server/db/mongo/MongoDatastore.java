@@ -0,0 +1,154 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.DB;
+import com.mongodb.DBPortPool;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoCredential;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.yammer.dropwizard.lifecycle.Managed;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.MetricName;
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.jongo.Jongo;
+
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mongo Datastore
+ *
+ * <p>Holds the single pooled MongoClient of Grapes server and the Jongo instance built on top of it.
+ * All the components that need to reach the database (repository handler, health checks, tasks) share this instance.
+ * Its lifecycle is managed by Dropwizard: the pool is closed when the server stops.</p>
+ *
+ * @author jdcoffre
+ */
+public class MongoDatastore implements Managed {
+
+    private static final String POOL_SCOPE = "pool";
+
+    private final MongoClient mongo;
+    private final DB db;
+    private final Jongo jongo;
+
+    private final List<MetricName> gauges = new ArrayList<MetricName>();
+
+    public MongoDatastore(final DataBaseConfig config) throws UnknownHostException {
+        final ServerAddress address = new ServerAddress(config.getHost(), config.getPort());
+        mongo = new MongoClient(address, getCredentials(config), getClientOptions(config));
+        db = mongo.getDB(config.getDatastore());
+        jongo = new Jongo(db);
+    }
+
+    /**
+     * Builds the client options of the connection pool out of the database configuration
+     *
+     * @param config DataBaseConfig
+     * @return MongoClientOptions
+     */
+    public static MongoClientOptions getClientOptions(final DataBaseConfig config) {
+        final WriteConcern writeConcern = WriteConcern.valueOf(config.getWriteConcern());
+        if(writeConcern == null){
+            throw new IllegalArgumentException("Unknown write concern: " + config.getWriteConcern());
+        }
+
+        return MongoClientOptions.builder()
+                .connectionsPerHost(config.getConnectionsPerHost())
+                .threadsAllowedToBlockForConnectionMultiplier(config.getThreadsAllowedToBlockForConnectionMultiplier())
+                .maxWaitTime(config.getMaxWaitTime())
+                .connectTimeout(config.getConnectTimeout())
+                .socketTimeout(config.getSocketTimeout())
+                .readPreference(ReadPreference.valueOf(config.getReadPreference()))
+                .writeConcern(writeConcern)
+                .build();
+    }
+
+    private static List<MongoCredential> getCredentials(final DataBaseConfig config) {
+        if(config.getUser() != null && config.getPwd() != null){
+            return Collections.singletonList(
+                    MongoCredential.createMongoCRCredential(config.getUser(), config.getDatastore(), config.getPwd()));
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the shared pooled client
+     *
+     * @return MongoClient
+     */
+    public MongoClient getMongo() {
+        return mongo;
+    }
+
+    /**
+     * Returns the Grapes database
+     *
+     * @return DB
+     */
+    public DB getDb() {
+        return db;
+    }
+
+    /**
+     * Returns the Jongo instance of Grapes database
+     *
+     * @return Jongo
+     */
+    public Jongo getJongo() {
+        return jongo;
+    }
+
+    @Override
+    public void start() {
+        addGauge("connections-in-use", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getPortPool().getInUse();
+            }
+        });
+        addGauge("connections-available", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getPortPool().getAvailable();
+            }
+        });
+        addGauge("connections-total", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getPortPool().getTotal();
+            }
+        });
+        addGauge("connections-max", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getPortPool().getMaxSize();
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        for(MetricName gauge: gauges){
+            Metrics.defaultRegistry().removeMetric(gauge);
+        }
+        gauges.clear();
+        mongo.close();
+    }
+
+    private void addGauge(final String name, final Gauge<Integer> gauge) {
+        final MetricName metricName = new MetricName(MongoDatastore.class, name, POOL_SCOPE);
+        Metrics.newGauge(metricName, gauge);
+        gauges.add(metricName);
+    }
+
+    private DBPortPool getPortPool() {
+        return mongo.getConnector().getDBPortPool(mongo.getAddress());
+    }
+}
@@ -0,0 +1,121 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Mongo Query
+ *
+ * <p>Typed builder of the queries sent to the database. The query is built as a DBObject and bound as a whole
+ * to the Jongo {@link #TEMPLATE}: Jongo does not have to parse the values, which are sent as they are.
+ * There is no quoting issue and the parsing cost does not depend on the query.</p>
+ *
+ * <p>Usage: collection.find(MongoQuery.TEMPLATE, MongoQuery.byId(gavc))</p>
+ *
+ * @author jdcoffre
+ */
+public final class MongoQuery extends BasicDBObject {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Jongo query template that binds a MongoQuery
+     */
+    public static final String TEMPLATE = "#";
+
+    private MongoQuery() {
+        super();
+    }
+
+    /**
+     * Creates an empty query, it matches all the documents
+     *
+     * @return MongoQuery
+     */
+    public static MongoQuery query() {
+        return new MongoQuery();
+    }
+
+    /**
+     * Creates a query that matches the document of the provided ID
+     *
+     * @param id Object
+     * @return MongoQuery
+     */
+    public static MongoQuery byId(final Object id) {
+        return query().is(DbCollections.DEFAULT_ID, id);
+    }
+
+    /**
+     * Creates a query that matches the documents whose ID is one of the provided values
+     *
+     * @param ids Collection<?>
+     * @return MongoQuery
+     */
+    public static MongoQuery byIds(final Collection<?> ids) {
+        return query().in(DbCollections.DEFAULT_ID, ids);
+    }
+
+    /**
+     * Creates a query that matches all the provided fields
+     *
+     * @param fields Map<String, Object>
+     * @return MongoQuery
+     */
+    public static MongoQuery where(final Map<String, Object> fields) {
+        return query().and(fields);
+    }
+
+    /**
+     * Matches a field value. The value can be a String, a Boolean, a Number, a Pattern or a Collection.
+     *
+     * @param field String
+     * @param value Object
+     * @return MongoQuery
+     */
+    public MongoQuery is(final String field, final Object value) {
+        put(field, value);
+        return this;
+    }
+
+    /**
+     * Matches all the provided fields
+     *
+     * @param fields Map<String, Object>
+     * @return MongoQuery
+     */
+    public MongoQuery and(final Map<String, Object> fields) {
+        for(Map.Entry<String, Object> field: fields.entrySet()){
+            is(field.getKey(), field.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * Matches a field against a list of values
+     *
+     * @param field String
+     * @param values Collection<?>
+     * @return MongoQuery
+     */
+    public MongoQuery in(final String field, final Collection<?> values) {
+        put(field, new BasicDBObject("$in", new ArrayList<Object>(values)));
+        return this;
+    }
+
+    /**
+     * Matches the array fields of the provided size
+     *
+     * @param field String
+     * @param size int
+     * @return MongoQuery
+     */
+    public MongoQuery size(final String field, final int size) {
+        put(field, new BasicDBObject("$size", size));
+        return this;
+    }
+}
@@ -0,0 +1,159 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.jongo.marshall.Marshaller;
+import org.jongo.marshall.jackson.JacksonMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mongo Update
+ *
+ * <p>Typed builder of the update operators sent to the database. Like the {@link MongoQuery}, the update is built
+ * as a DBObject and bound as a whole to the Jongo {@link MongoQuery#TEMPLATE}.</p>
+ *
+ * <p>The builder is meant for atomic upserts: the fields of an entity are set, while the fields that have to be
+ * merged with the stored values (lists, maps) are updated with $addToSet or dotted $set operators.</p>
+ *
+ * <p>Usage: collection.update(MongoQuery.TEMPLATE, MongoQuery.byId(gavc)).upsert().with(MongoQuery.TEMPLATE, MongoUpdate.update().setAll(artifact))</p>
+ *
+ * @author jdcoffre
+ */
+public final class MongoUpdate extends BasicDBObject {
+
+    private static final long serialVersionUID = 1L;
+
+    // Same mapping configuration as the one of the Jongo instance
+    private static final Marshaller MARSHALLER = new JacksonMapper.Builder().build().getMarshaller();
+
+    private MongoUpdate() {
+        super();
+    }
+
+    /**
+     * Creates an empty update
+     *
+     * @return MongoUpdate
+     */
+    public static MongoUpdate update() {
+        return new MongoUpdate();
+    }
+
+    /**
+     * Sets the value of a field
+     *
+     * @param field String
+     * @param value Object
+     * @return MongoUpdate
+     */
+    public MongoUpdate set(final String field, final Object value) {
+        getOperator("$set").put(field, value);
+        return this;
+    }
+
+    /**
+     * Sets all the fields of an entity but the excluded ones. The document ID is never set.
+     *
+     * @param entity Object
+     * @param excludedFields String...
+     * @return MongoUpdate
+     */
+    public MongoUpdate setAll(final Object entity, final String... excludedFields) {
+        final DBObject document = MARSHALLER.marshall(entity).toDBObject();
+        final List<String> excluded = Arrays.asList(excludedFields);
+
+        for(String field: document.keySet()){
+            if(!field.equals(DbCollections.DEFAULT_ID) && !excluded.contains(field)){
+                set(field, document.get(field));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets the entries of a map field one by one, the other entries of the stored map are kept.
+     * If there is no entry, the field is only initialized on insert.
+     *
+     * @param field String
+     * @param entries Map<String, ?>
+     * @return MongoUpdate
+     */
+    public MongoUpdate setEntries(final String field, final Map<String, ?> entries) {
+        if(entries.isEmpty()){
+            return setOnInsert(field, new BasicDBObject());
+        }
+
+        for(Map.Entry<String, ?> entry: entries.entrySet()){
+            set(field + "." + entry.getKey(), entry.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * Sets the value of a field only if the update inserts the document
+     *
+     * @param field String
+     * @param value Object
+     * @return MongoUpdate
+     */
+    public MongoUpdate setOnInsert(final String field, final Object value) {
+        getOperator("$setOnInsert").put(field, value);
+        return this;
+    }
+
+    /**
+     * Increments a numeric field, a missing field is initialized with the increment
+     *
+     * @param field String
+     * @param increment long
+     * @return MongoUpdate
+     */
+    public MongoUpdate inc(final String field, final long increment) {
+        getOperator("$inc").put(field, increment);
+        return this;
+    }
+
+    /**
+     * Adds values to an array field, the values already in the array are not duplicated.
+     * If there is no value, the field is only initialized on insert.
+     *
+     * @param field String
+     * @param values Collection<?>
+     * @return MongoUpdate
+     */
+    public MongoUpdate addToSet(final String field, final Collection<?> values) {
+        if(values.isEmpty()){
+            return setOnInsert(field, new ArrayList<Object>());
+        }
+
+        getOperator("$addToSet").put(field, new BasicDBObject("$each", new ArrayList<Object>(values)));
+        return this;
+    }
+
+    /**
+     * Removes a value from an array field
+     *
+     * @param field String
+     * @param value Object
+     * @return MongoUpdate
+     */
+    public MongoUpdate pull(final String field, final Object value) {
+        getOperator("$pull").put(field, value);
+        return this;
+    }
+
+    private BasicDBObject getOperator(final String operator) {
+        BasicDBObject fields = (BasicDBObject) get(operator);
+        if(fields == null){
+            fields = new BasicDBObject();
+            put(operator, fields);
+        }
+        return fields;
+    }
+}
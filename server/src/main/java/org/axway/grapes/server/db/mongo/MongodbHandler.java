@@ -1,14 +1,15 @@
 package org.axway.grapes.server.db.mongo;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
-import com.mongodb.DB;
-import com.mongodb.MongoClient;
-import com.mongodb.ServerAddress;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+import com.mongodb.WriteResult;
 import com.sun.jersey.api.NotFoundException;
-import org.axway.grapes.server.config.DataBaseConfig;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.RepositoryHandler;
@@ -19,9 +20,7 @@ import org.jongo.MongoCollection;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
-import java.net.UnknownHostException;
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * Mongodb Handler
@@ -31,62 +30,62 @@ import java.util.regex.Pattern;
  * @author jdcoffre
  */
 public class MongodbHandler implements RepositoryHandler {
+    // field of the write results telling if an upsert updated an existing document
+    private static final String UPDATED_EXISTING = "updatedExisting";
+    // error code of the writes that break the unicity of the documents IDs
+    private static final int DUPLICATE_KEY_ERROR = 11000;
     // cache for credentials
-    private LoadingCache<String, DbCredential> credentialCache;
-    // DB connection
-    private final DB db;
-
-    public MongodbHandler(final DataBaseConfig config) throws UnknownHostException {
-        final ServerAddress address = new ServerAddress(config.getHost() , config.getPort());
-        final MongoClient mongo = new MongoClient(address);
-        db = mongo.getDB(config.getDatastore());
-
-        if(config.getUser() != null && config.getPwd() != null){
-            db.authenticate(config.getUser(), config.getPwd());
-        }
+    private LoadingCache<String, Optional<DbCredential>> credentialCache;
+    // cache for the latest versions of the artifacts
+    private final Cache<String, DbLatestVersion> latestVersionCache = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .build();
+    // number of version changes made by this handler, guarded by the latest version cache
+    private volatile long latestVersionChanges = 0;
+    // set once the reverse dependency collection has been checked
+    private volatile boolean reverseDependenciesBuilt = false;
+    // Shared DB connection
+    private final MongoDatastore datastore;
+
+    public MongodbHandler(final MongoDatastore datastore) {
+        this.datastore = datastore;
 
         // Init credentials' cache
         credentialCache = CacheBuilder.newBuilder()
                 .maximumSize(1000)
                 .build(
-                        new CacheLoader<String, DbCredential>() {
-                            public DbCredential load(String user) {
-                                return getCredential(user);
+                        new CacheLoader<String, Optional<DbCredential>>() {
+                            public Optional<DbCredential> load(String user) {
+                                return Optional.fromNullable(loadCredential(user));
                             }
                         });
     }
     
     /**
-	 * Initialize a connection with the database using Jongo.
+	 * Returns the Jongo instance shared by all the repository calls.
 	 * 
-	 * <p>WARNING: The database connection is closed only when Datastore instance is garbage collected!!!!</p>
+	 * <p>The underlying connection pool is owned by the MongoDatastore and closed when the server stops.</p>
 	 * 
 	 * @return Jongo instance
 	 */
 	private Jongo getJongoDataStore() {
-		return new Jongo(db);
+		return datastore.getJongo();
 	}
 
     @Override
 	public void store(final DbCredential credential) {
         final Jongo datastore = getJongoDataStore();
-        final MongoCollection dbCredentials = datastore.getCollection(DbCollections.DB_CREDENTIALS);
-
-		final DbCredential dbCredential = getCredential(credential.getUser());
-
-        if(dbCredential == null){
-            dbCredentials.save(credential);
-        }
-        else{
-            dbCredentials.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbCredential.getUser())).with(credential);
-        }
+        datastore.getCollection(DbCollections.DB_CREDENTIALS)
+                .update(MongoQuery.TEMPLATE, MongoQuery.byId(credential.getUser()))
+                .upsert()
+                .with(credential);
 
         credentialCache.invalidate(credential.getUser());
 	}
 
     @Override
     public void addUserRole(final String user, final AvailableRoles role) {
-        final DbCredential credential = getCredential(user);
+        final DbCredential credential = loadCredential(user);
 
         if(credential == null){
             throw new WebApplicationException(Response.Status.NOT_FOUND);
@@ -95,11 +94,8 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection credentials = datastore.getCollection(DbCollections.DB_CREDENTIALS);
 
-        if(!credential.getRoles().contains(role)){
-            credential.addRole(role);
-            credentials.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, user))
-                    .with("{ $set: { \""+ DbCredential.ROLES_FIELD + "\": #}} " , credential.getRoles());
-        }
+        credentials.update(MongoQuery.TEMPLATE, MongoQuery.byId(user))
+                .with(MongoQuery.TEMPLATE, MongoUpdate.update().addToSet(DbCredential.ROLES_FIELD, Collections.singletonList(role.name())));
 
         credentialCache.invalidate(credential.getUser());
 
@@ -107,7 +103,7 @@ public class MongodbHandler implements RepositoryHandler {
 
     @Override
     public void removeUserRole(final String user, final AvailableRoles role) {
-        final DbCredential credential = getCredential(user);
+        final DbCredential credential = loadCredential(user);
 
         if(credential == null){
             throw new WebApplicationException(Response.Status.NOT_FOUND);
@@ -116,35 +112,36 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection credentials = datastore.getCollection(DbCollections.DB_CREDENTIALS);
 
-        if(credential.getRoles().contains(role)){
-            credential.removeRole(role);
-            credentials.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, user))
-                    .with("{ $set: { \""+ DbCredential.ROLES_FIELD + "\": #}} " , credential.getRoles());
-        }
+        credentials.update(MongoQuery.TEMPLATE, MongoQuery.byId(user))
+                .with(MongoQuery.TEMPLATE, MongoUpdate.update().pull(DbCredential.ROLES_FIELD, role.name()));
         credentialCache.invalidate(credential.getUser());
     }
 
     @Override
     public DbCredential getCredential(final String user) {
+        return credentialCache.getUnchecked(user).orNull();
+    }
+
+    /**
+     * Reads a credential from the database, bypassing the credential cache
+     *
+     * @param user String
+     * @return DbCredential or null if the user does not exist
+     */
+    private DbCredential loadCredential(final String user) {
 		final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_CREDENTIALS)
-				.findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, user))
+				.findOne(MongoQuery.TEMPLATE, MongoQuery.byId(user))
 					.as(DbCredential.class);
 	}
 
     @Override
     public void store(final DbLicense license) {
         final Jongo datastore = getJongoDataStore();
-        final MongoCollection dbLicenses = datastore.getCollection(DbCollections.DB_LICENSES);
-        final DbLicense dbLicense = getLicense(license.getName());
-
-        if(dbLicense == null){
-            dbLicenses.save(license);
-        }
-        else {
-            dbLicenses.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbLicense.getName())).with(license);
-        }
-
+        datastore.getCollection(DbCollections.DB_LICENSES)
+                .update(MongoQuery.TEMPLATE, MongoQuery.byId(license.getName()))
+                .upsert()
+                .with(license);
     }
 
     @Override
@@ -176,7 +173,7 @@ public class MongodbHandler implements RepositoryHandler {
     public DbLicense getLicense(final String name) {
         final Jongo datastore = getJongoDataStore();
         return  datastore.getCollection(DbCollections.DB_LICENSES)
-                .findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, name))
+                .findOne(MongoQuery.TEMPLATE, MongoQuery.byId(name))
                 .as(DbLicense.class);
     }
 
@@ -190,7 +187,7 @@ public class MongodbHandler implements RepositoryHandler {
         else{
             final Jongo datastore = getJongoDataStore();
             datastore.getCollection(DbCollections.DB_LICENSES)
-                    .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, name));
+                    .remove(MongoQuery.TEMPLATE, MongoQuery.byId(name));
         }
     }
 
@@ -200,7 +197,7 @@ public class MongodbHandler implements RepositoryHandler {
         final List<DbArtifact> artifacts = new ArrayList<DbArtifact>();
 
         final Iterable<DbArtifact> dbArtifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS)
-                .find(JongoUtils.generateQuery(filters.getArtifactFieldsFilters()))
+                .find(MongoQuery.TEMPLATE, MongoQuery.where(filters.getArtifactFieldsFilters()))
                 .as(DbArtifact.class);
 
         for(DbArtifact dbArtifact: dbArtifacts){
@@ -214,8 +211,8 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
         artifact.addLicense(licenseId);
-        artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
-                .with("{ $set: { \""+ DbArtifact.LICENCES_DB_FIELD + "\": #}} " , artifact.getLicenses());
+        artifacts.update(MongoQuery.TEMPLATE, MongoQuery.byId(artifact.getGavc()))
+                .with(MongoQuery.TEMPLATE, MongoUpdate.update().addToSet(DbArtifact.LICENCES_DB_FIELD, Collections.singletonList(licenseId)));
 
     }
 
@@ -224,11 +221,9 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
 
-        if(artifact.getLicenses().contains(licenseId)){
-            artifact.removeLicense(licenseId);
-            artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
-                    .with("{ $set: { \""+ DbArtifact.LICENCES_DB_FIELD + "\": #}} " , artifact.getLicenses());
-        }
+        artifact.removeLicense(licenseId);
+        artifacts.update(MongoQuery.TEMPLATE, MongoQuery.byId(artifact.getGavc()))
+                .with(MongoQuery.TEMPLATE, MongoUpdate.update().pull(DbArtifact.LICENCES_DB_FIELD, licenseId));
 
     }
 
@@ -237,7 +232,7 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection licenses = datastore.getCollection(DbCollections.DB_LICENSES);
 
-        licenses.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, license.getName()))
+        licenses.update(MongoQuery.TEMPLATE, MongoQuery.byId(license.getName()))
                 .with("{ $set: { \""+ DbLicense.APPROVED_DB_FIELD + "\": #}} " , approved);
     }
 
@@ -245,29 +240,196 @@ public class MongodbHandler implements RepositoryHandler {
     public void store(final DbArtifact artifact) {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection dbArtifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
-        final DbArtifact dbArtifact = getArtifact(artifact.getGavc());
 
-        if(dbArtifact == null){
-            dbArtifacts.save(artifact);
+        // Important: merge existing license and new ones :
+        //    * because an existing license could have been manually enforce by a user
+        //    * because all Grapes clients are not to send license information
+        final MongoUpdate update = MongoUpdate.update()
+                .setAll(artifact, DbArtifact.LICENCES_DB_FIELD)
+                .addToSet(DbArtifact.LICENCES_DB_FIELD, artifact.getLicenses());
+
+        WriteResult result;
+        try{
+            result = dbArtifacts.update(MongoQuery.TEMPLATE, MongoQuery.byId(artifact.getGavc())).upsert().with(MongoQuery.TEMPLATE, update);
         }
-        else{
+        catch (MongoException e){
+            if(!isDuplicateKey(e)){
+                throw e;
+            }
+            // a concurrent upsert inserted the artifact first, this time the update applies to it
+            result = dbArtifacts.update(MongoQuery.TEMPLATE, MongoQuery.byId(artifact.getGavc())).upsert().with(MongoQuery.TEMPLATE, update);
+        }
+
+        // the version list changes only when the artifact is inserted
+        if(!Boolean.TRUE.equals(result.getField(UPDATED_EXISTING))){
+            invalidateLatestVersions(Collections.singletonList(artifact));
+        }
+    }
+
+    @Override
+    public void store(final Collection<DbArtifact> dbArtifacts) {
+        final Map<String, DbArtifact> storedArtifacts = getStoredArtifacts(dbArtifacts);
+        final Map<String, DbArtifact> newArtifacts = new LinkedHashMap<String, DbArtifact>();
+
+        // the existing artifacts that change are upserted one by one to merge their licenses
+        for(DbArtifact artifact: dbArtifacts){
+            final DbArtifact storedArtifact = storedArtifacts.get(artifact.getGavc());
+            if(storedArtifact == null){
+                newArtifacts.put(artifact.getGavc(), artifact);
+            }
+            else if(isChangedBy(storedArtifact, artifact)){
+                store(artifact);
+            }
+        }
+
+        if(!insertArtifacts(newArtifacts.values())){
+            // some artifacts have been inserted concurrently, the licenses have to be merged
+            for(DbArtifact artifact: newArtifacts.values()){
+                store(artifact);
+            }
+        }
+    }
+
+    @Override
+    public void storeIfNew(final Collection<DbArtifact> dbArtifacts) {
+        // the artifacts inserted concurrently are kept as they are
+        insertArtifacts(getNewArtifacts(dbArtifacts).values());
+    }
+
+    /**
+     * Returns the stored version of artifacts, in a single database access
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     * @return Map<String, DbArtifact> the stored artifacts by gavc
+     */
+    private Map<String, DbArtifact> getStoredArtifacts(final Collection<DbArtifact> dbArtifacts) {
+        final Set<String> gavcs = new HashSet<String>();
+        for(DbArtifact artifact: dbArtifacts){
+            gavcs.add(artifact.getGavc());
+        }
+
+        final Map<String, DbArtifact> storedArtifacts = new HashMap<String, DbArtifact>();
+        if(!gavcs.isEmpty()){
+            final Iterable<DbArtifact> artifacts = getJongoDataStore().getCollection(DbCollections.DB_ARTIFACTS)
+                    .find(MongoQuery.TEMPLATE, MongoQuery.byIds(gavcs))
+                    .as(DbArtifact.class);
+            for(DbArtifact artifact: artifacts){
+                storedArtifacts.put(artifact.getGavc(), artifact);
+            }
+        }
+
+        return storedArtifacts;
+    }
+
+    /**
+     * Checks if the upsert of an artifact would change its stored version:
+     * it brings new licenses or one of its other fields is different.
+     *
+     * @param storedArtifact DbArtifact
+     * @param artifact DbArtifact
+     * @return boolean
+     */
+    private static boolean isChangedBy(final DbArtifact storedArtifact, final DbArtifact artifact) {
+        return !storedArtifact.getLicenses().containsAll(artifact.getLicenses()) ||
+                !MongoUpdate.update().setAll(storedArtifact, DbArtifact.LICENCES_DB_FIELD)
+                        .equals(MongoUpdate.update().setAll(artifact, DbArtifact.LICENCES_DB_FIELD));
+    }
+
+    /**
+     * Returns the artifacts that do not exist in the database, in a single database access
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     * @return Map<String, DbArtifact> the new artifacts by gavc
+     */
+    private Map<String, DbArtifact> getNewArtifacts(final Collection<DbArtifact> dbArtifacts) {
+        final Map<String, DbArtifact> newArtifacts = new LinkedHashMap<String, DbArtifact>();
+        for(DbArtifact artifact: dbArtifacts){
+            newArtifacts.put(artifact.getGavc(), artifact);
+        }
+
+        if(!newArtifacts.isEmpty()){
+            final Jongo datastore = getJongoDataStore();
+            final List<String> existingGavcs = datastore.getCollection(DbCollections.DB_ARTIFACTS)
+                    .distinct(DbCollections.DEFAULT_ID)
+                    .query(MongoQuery.TEMPLATE, MongoQuery.byIds(newArtifacts.keySet()))
+                    .as(String.class);
+            newArtifacts.keySet().removeAll(existingGavcs);
+        }
+
+        return newArtifacts;
+    }
 
-            // Important: merge existing license and new ones :
-            //    * because an existing license could have been manually enforce by a user
-            //    * because all Grapes clients are not to send license information
-            for(String license: dbArtifact.getLicenses()){
-                artifact.addLicense(license);
+    /**
+     * Inserts artifacts in a single batch. The batch goes on if an artifact already exists.
+     * The latest version entries of the artifacts are recomputed on their next access.
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     * @return boolean false if some artifacts already existed
+     */
+    private boolean insertArtifacts(final Collection<DbArtifact> dbArtifacts) {
+        if(dbArtifacts.isEmpty()){
+            return true;
+        }
+
+        final Jongo datastore = getJongoDataStore();
+        final MongoCollection dbArtifactsCollection = datastore.getCollection(DbCollections.DB_ARTIFACTS);
+        final WriteConcern writeConcern = dbArtifactsCollection.getDBCollection().getWriteConcern().continueOnErrorForInsert(true);
+
+        try{
+            dbArtifactsCollection.withWriteConcern(writeConcern).insert(dbArtifacts.toArray());
+            return true;
+        }
+        catch (MongoException e){
+            if(!isDuplicateKey(e)){
+                throw e;
             }
+            return false;
+        }
+        finally {
+            invalidateLatestVersions(dbArtifacts);
+        }
+    }
+
+    /**
+     * Increments the revision of the latest version entries of artifacts whose versions changed.
+     * The entries are recomputed at their next read, the computations started before are not saved.
+     *
+     * @param artifacts Collection<DbArtifact>
+     */
+    private void invalidateLatestVersions(final Collection<DbArtifact> artifacts) {
+        final Set<String> ids = new HashSet<String>();
+        for(DbArtifact artifact: artifacts){
+            ids.add(DbLatestVersion.generateID(artifact));
+        }
+
+        // the missing entries are created, a computation that read no entry must not save one
+        final MongoCollection latestVersions = getJongoDataStore().getCollection(DbCollections.DB_LATEST_VERSIONS);
+        for(String id: ids){
+            latestVersions.update(MongoQuery.TEMPLATE, MongoQuery.byId(id)).upsert()
+                    .with(MongoQuery.TEMPLATE, MongoUpdate.update().inc(DbLatestVersion.REVISION_DB_FIELD, 1));
+        }
 
-            dbArtifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbArtifact.getGavc())).with(artifact);
+        synchronized (latestVersionCache){
+            latestVersionChanges++;
+            latestVersionCache.invalidateAll(ids);
         }
     }
 
+    /**
+     * Checks if a write failed because a concurrent write inserted the same document
+     *
+     * @param e MongoException
+     * @return boolean
+     */
+    private static boolean isDuplicateKey(final MongoException e) {
+        return e.getCode() == DUPLICATE_KEY_ERROR;
+    }
+
     @Override
     public List<String> getGavcs(final FiltersHolder filters) {
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_ARTIFACTS).distinct(DbCollections.DEFAULT_ID)
-                .query(JongoUtils.generateQuery(filters.getArtifactFieldsFilters())).as(String.class);
+                .query(MongoQuery.TEMPLATE, MongoQuery.where(filters.getArtifactFieldsFilters())).as(String.class);
     }
 
     @Override
@@ -286,15 +448,103 @@ public class MongodbHandler implements RepositoryHandler {
         params.put(DbArtifact.EXTENSION_DB_FIELD, artifact.getExtension());
 
         return datastore.getCollection(DbCollections.DB_ARTIFACTS).distinct(DbArtifact.VERSION_DB_FIELD).
-                query(JongoUtils.generateQuery(params)).as(String.class);
+                query(MongoQuery.TEMPLATE, MongoQuery.where(params)).as(String.class);
+    }
+
+    @Override
+    public DbLatestVersion getLatestVersion(final DbArtifact artifact) {
+        final String id = DbLatestVersion.generateID(artifact);
+        final DbLatestVersion cached = latestVersionCache.getIfPresent(id);
+        if(cached != null){
+            return cached;
+        }
+
+        final long changes = latestVersionChanges;
+        final Jongo datastore = getJongoDataStore();
+        final DbLatestVersion latestVersion = datastore.getCollection(DbCollections.DB_LATEST_VERSIONS)
+                .findOne(MongoQuery.TEMPLATE, MongoQuery.byId(id))
+                .as(DbLatestVersion.class);
+
+        if(latestVersion != null && latestVersion.getComputedRevision() == latestVersion.getRevision()){
+            cacheLatestVersion(latestVersion, changes);
+            return latestVersion;
+        }
+
+        // Entries are computed on the fly for the artifacts stored before the index existed or changed since
+        return computeLatestVersion(artifact, latestVersion == null ? 0 : latestVersion.getRevision(), changes);
+    }
+
+    /**
+     * Recomputes the latest version entry of an artifact from its available versions.
+     * The entry is saved only if its revision did not change in between, so that a late computation never overwrites a newer version.
+     *
+     * @param artifact DbArtifact
+     * @param revision long the revision of the entry when the computation started
+     * @param changes long the local version changes when the computation started
+     * @return DbLatestVersion
+     */
+    private DbLatestVersion computeLatestVersion(final DbArtifact artifact, final long revision, final long changes) {
+        final DbLatestVersion latestVersion = DataUtils.getLatestVersion(artifact, getArtifactVersions(artifact));
+        latestVersion.setRevision(revision);
+        latestVersion.setComputedRevision(revision);
+
+        // the entries saved before the revisions existed have no revision field
+        final List<Object> revisions = revision == 0 ? Arrays.<Object>asList(0L, null) : Collections.<Object>singletonList(revision);
+        final MongoUpdate update = MongoUpdate.update()
+                .set(DbLatestVersion.LAST_RELEASE_DB_FIELD, latestVersion.getLastRelease())
+                .set(DbLatestVersion.LAST_VERSION_DB_FIELD, latestVersion.getLastVersion())
+                .set(DbLatestVersion.COMPUTED_REVISION_DB_FIELD, revision)
+                .setOnInsert(DbLatestVersion.DATA_MODEL_VERSION, latestVersion.getDataModelVersion());
+
+        try{
+            final Jongo datastore = getJongoDataStore();
+            datastore.getCollection(DbCollections.DB_LATEST_VERSIONS)
+                    .update(MongoQuery.TEMPLATE, MongoQuery.byId(latestVersion.getCoordinates()).in(DbLatestVersion.REVISION_DB_FIELD, revisions))
+                    .upsert()
+                    .with(MongoQuery.TEMPLATE, update);
+            cacheLatestVersion(latestVersion, changes);
+        }
+        catch (MongoException e){
+            if(!isDuplicateKey(e)){
+                throw e;
+            }
+            // the versions changed during the computation: the entry is left to the next read
+        }
+
+        return latestVersion;
+    }
+
+    /**
+     * Caches a latest version entry unless a version changed since it has been read
+     */
+    private void cacheLatestVersion(final DbLatestVersion latestVersion, final long changes) {
+        synchronized (latestVersionCache){
+            if(latestVersionChanges == changes){
+                latestVersionCache.put(latestVersion.getCoordinates(), latestVersion);
+            }
+        }
     }
 
     @Override
     public DbArtifact getArtifact(final String gavc) {
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_ARTIFACTS)
-                .findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, gavc))
+                .findOne(MongoQuery.TEMPLATE, MongoQuery.byId(gavc))
+                .as(DbArtifact.class);
+    }
+
+    @Override
+    public List<DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        if(gavcs.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        final Jongo datastore = getJongoDataStore();
+        final Iterable<DbArtifact> dbArtifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS)
+                .find(MongoQuery.TEMPLATE, MongoQuery.byIds(gavcs))
                 .as(DbArtifact.class);
+
+        return Lists.newArrayList(dbArtifacts);
     }
 
     @Override
@@ -307,7 +557,8 @@ public class MongodbHandler implements RepositoryHandler {
         else{
             final Jongo datastore = getJongoDataStore();
             datastore.getCollection(DbCollections.DB_ARTIFACTS)
-                    .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, gavc));
+                    .remove(MongoQuery.TEMPLATE, MongoQuery.byId(gavc));
+            invalidateLatestVersions(Collections.singletonList(artifact));
         }
     }
 
@@ -316,7 +567,7 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
 
-        artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
+        artifacts.update(MongoQuery.TEMPLATE, MongoQuery.byId(artifact.getGavc()))
                 .with("{ $set: { \""+ DbArtifact.DO_NOT_USE + "\": #}} " , doNotUse);
     }
 
@@ -325,7 +576,7 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
 
-        artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
+        artifacts.update(MongoQuery.TEMPLATE, MongoQuery.byId(artifact.getGavc()))
                 .with("{ $set: { \""+ DbArtifact.DOWNLOAD_URL_DB_FIELD + "\": #}} " , downLoadUrl);
     }
 
@@ -334,49 +585,254 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
 
-        artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
+        artifacts.update(MongoQuery.TEMPLATE, MongoQuery.byId(artifact.getGavc()))
                 .with("{ $set: { \""+ DbArtifact.PROVIDER + "\": #}} " , provider);
     }
 
     @Override
     public List<DbModule> getAncestors(final DbArtifact artifact, final FiltersHolder filters) {
+        final List<DbModule> ancestors = getAncestorsOf(Collections.singleton(artifact.getGavc()), filters).get(artifact.getGavc());
+
+        if(ancestors == null){
+            return new ArrayList<DbModule>();
+        }
+
+        return ancestors;
+    }
+
+    @Override
+    public Map<String, List<DbModule>> getAncestorsOf(final Collection<String> gavcs, final FiltersHolder filters) {
+        if(gavcs.isEmpty()){
+            return Collections.emptyMap();
+        }
+
         final Jongo datastore = getJongoDataStore();
-        final Map<String, Object> queryParams = filters.getModuleFieldsFilters();
-        queryParams.put(DbModule.USE_DB_FIELD, artifact.getGavc());
+        final Iterable<DbReverseDependency> reverseDependencies = getReverseDependencies()
+                .find(MongoQuery.TEMPLATE, MongoQuery.byIds(gavcs))
+                .as(DbReverseDependency.class);
+
+        final Map<String, Set<String>> usersByGavc = new HashMap<String, Set<String>>();
+        final Set<String> moduleIds = new HashSet<String>();
+        for(DbReverseDependency reverseDependency: reverseDependencies){
+            usersByGavc.put(reverseDependency.getGavc(), reverseDependency.getUsers());
+            moduleIds.addAll(reverseDependency.getUsers());
+        }
+
+        if(moduleIds.isEmpty()){
+            return Collections.emptyMap();
+        }
 
-        final Iterable<DbModule> results = datastore.getCollection(DbCollections.DB_MODULES)
-                .find(JongoUtils.generateQuery(queryParams))
+        final Iterable<DbModule> dbModules = datastore.getCollection(DbCollections.DB_MODULES)
+                .find(MongoQuery.TEMPLATE, MongoQuery.byIds(moduleIds).and(filters.getModuleFieldsFilters()))
                 .as(DbModule.class);
 
-        final List<DbModule> ancestors = new ArrayList<DbModule>();
-        for(DbModule ancestor: results){
-            ancestors.add(ancestor);
+        final Map<String, DbModule> modulesById = new HashMap<String, DbModule>();
+        for(DbModule dbModule: dbModules){
+            modulesById.put(dbModule.getId(), dbModule);
+        }
+
+        final Map<String, List<DbModule>> ancestors = new LinkedHashMap<String, List<DbModule>>();
+        for(String gavc: gavcs){
+            final Set<String> users = usersByGavc.get(gavc);
+            if(users == null){
+                continue;
+            }
+
+            final List<DbModule> gavcAncestors = new ArrayList<DbModule>();
+            for(String moduleId: users){
+                final DbModule dbModule = modulesById.get(moduleId);
+                if(dbModule != null){
+                    gavcAncestors.add(dbModule);
+                }
+            }
+
+            if(!gavcAncestors.isEmpty()){
+                ancestors.put(gavc, gavcAncestors);
+            }
         }
 
         return ancestors;
     }
 
+    /**
+     * Returns the reverse dependency collection.
+     * The collection is built from the modules if it has never been built before.
+     *
+     * @return MongoCollection
+     */
+    private MongoCollection getReverseDependencies() {
+        final MongoCollection reverseDependencies = getJongoDataStore().getCollection(DbCollections.DB_REVERSE_DEPENDENCIES);
+
+        if(!reverseDependenciesBuilt){
+            synchronized (this){
+                if(!reverseDependenciesBuilt){
+                    if(reverseDependencies.count() == 0){
+                        buildReverseDependencies(reverseDependencies);
+                    }
+                    reverseDependenciesBuilt = true;
+                }
+            }
+        }
+
+        return reverseDependencies;
+    }
+
+    /**
+     * Creates the reverse dependency entries out of the "uses" field of all the modules
+     *
+     * @param reverseDependencies MongoCollection
+     */
+    private void buildReverseDependencies(final MongoCollection reverseDependencies) {
+        final Iterable<DbModule> dbModules = getJongoDataStore().getCollection(DbCollections.DB_MODULES)
+                .find()
+                .projection("{" + DbModule.USE_DB_FIELD + ": 1}")
+                .as(DbModule.class);
+
+        final Map<String, DbReverseDependency> entries = new HashMap<String, DbReverseDependency>();
+        for(DbModule dbModule: dbModules){
+            for(String gavc: dbModule.getUses()){
+                DbReverseDependency entry = entries.get(gavc);
+                if(entry == null){
+                    entry = new DbReverseDependency();
+                    entry.setGavc(gavc);
+                    entries.put(gavc, entry);
+                }
+                entry.getUsers().add(dbModule.getId());
+            }
+        }
+
+        for(DbReverseDependency entry: entries.values()){
+            reverseDependencies.save(entry);
+        }
+    }
+
+    /**
+     * Updates the reverse dependency entries of a module
+     *
+     * @param moduleId String
+     * @param previousUses Collection<String> the artifacts used by the module before the change
+     * @param currentUses Collection<String> the artifacts used by the module after the change
+     */
+    private void updateReverseDependencies(final String moduleId, final Collection<String> previousUses, final Collection<String> currentUses) {
+        final MongoCollection reverseDependencies = getReverseDependencies();
+
+        final Set<String> removedUses = new HashSet<String>(previousUses);
+        removedUses.removeAll(currentUses);
+
+        if(!removedUses.isEmpty()){
+            reverseDependencies.update(MongoQuery.TEMPLATE, MongoQuery.byIds(removedUses))
+                    .multi()
+                    .with("{ $pull: { " + DbReverseDependency.USERS_DB_FIELD + ": # }}", moduleId);
+            reverseDependencies.remove(MongoQuery.TEMPLATE, MongoQuery.byIds(removedUses).size(DbReverseDependency.USERS_DB_FIELD, 0));
+        }
+
+        final Set<String> addedUses = new HashSet<String>(currentUses);
+        addedUses.removeAll(previousUses);
+
+        if(!addedUses.isEmpty() && !addUser(reverseDependencies, moduleId, addedUses)){
+            // an entry has been inserted or removed concurrently, the entries are upserted one by one
+            for(String gavc: addedUses){
+                reverseDependencies.update(MongoQuery.TEMPLATE, MongoQuery.byId(gavc))
+                        .upsert()
+                        .with("{ $addToSet: { " + DbReverseDependency.USERS_DB_FIELD + ": # }}", moduleId);
+            }
+        }
+    }
+
+    /**
+     * Adds a module to the reverse dependency entries of artifacts:
+     * the existing entries are updated in a single update and the missing ones are inserted in a single batch.
+     *
+     * @param reverseDependencies MongoCollection
+     * @param moduleId String
+     * @param gavcs Set<String>
+     * @return boolean false if an entry has been inserted or removed since it has been looked up
+     */
+    private boolean addUser(final MongoCollection reverseDependencies, final String moduleId, final Set<String> gavcs) {
+        final List<String> existingGavcs = reverseDependencies.distinct(DbCollections.DEFAULT_ID)
+                .query(MongoQuery.TEMPLATE, MongoQuery.byIds(gavcs))
+                .as(String.class);
+
+        if(!existingGavcs.isEmpty()){
+            final WriteResult result = reverseDependencies.update(MongoQuery.TEMPLATE, MongoQuery.byIds(existingGavcs))
+                    .multi()
+                    .with("{ $addToSet: { " + DbReverseDependency.USERS_DB_FIELD + ": # }}", moduleId);
+            if(result.getN() < existingGavcs.size()){
+                return false;
+            }
+        }
+
+        final List<DbReverseDependency> newEntries = new ArrayList<DbReverseDependency>();
+        for(String gavc: gavcs){
+            if(!existingGavcs.contains(gavc)){
+                final DbReverseDependency entry = new DbReverseDependency();
+                entry.setGavc(gavc);
+                entry.getUsers().add(moduleId);
+                newEntries.add(entry);
+            }
+        }
+
+        if(newEntries.isEmpty()){
+            return true;
+        }
+
+        final WriteConcern writeConcern = reverseDependencies.getDBCollection().getWriteConcern().continueOnErrorForInsert(true);
+        try{
+            reverseDependencies.withWriteConcern(writeConcern).insert(newEntries.toArray());
+            return true;
+        }
+        catch (MongoException e){
+            if(!isDuplicateKey(e)){
+                throw e;
+            }
+            return false;
+        }
+    }
+
     @Override
     public void store(final DbModule module) {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection dbModules = datastore.getCollection(DbCollections.DB_MODULES);
-        final DbModule dbModule = getModule(module.getId());
 
         // has to be done due to mongo limitation: https://jira.mongodb.org/browse/SERVER-267
         module.updateHasAndUse();
 
-        if(dbModule == null){
-            dbModules.save(module);
-        }
-        else{
-            // let's keep the old build info and override with new values if any
-            final Map<String,String> consolidatedBuildInfo = dbModule.getBuildInfo();
-            consolidatedBuildInfo.putAll(module.getBuildInfo());
-            module.setBuildInfo(consolidatedBuildInfo);
+        // let's keep the old build info and override with new values if any
+        // the previous version of the document is returned to update the reverse dependencies
+        final MongoUpdate update = MongoUpdate.update()
+                .setAll(module, DbModule.BUILD_INFO_DB_FIELD)
+                .setEntries(DbModule.BUILD_INFO_DB_FIELD, module.getBuildInfo());
 
-            dbModules.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbModule.getId())).with(module);
+        DbModule dbModule;
+        try{
+            dbModule = upsertModule(dbModules, module.getId(), update);
+        }
+        catch (MongoException e){
+            if(!isDuplicateKey(e)){
+                throw e;
+            }
+            // a concurrent upsert inserted the module first, this time the update applies to it
+            dbModule = upsertModule(dbModules, module.getId(), update);
         }
 
+        final Collection<String> previousUses = dbModule == null ? Collections.<String>emptyList() : dbModule.getUses();
+        updateReverseDependencies(module.getId(), previousUses, module.getUses());
+    }
+
+    /**
+     * Upserts a module and returns the "uses" field of the document before the update
+     *
+     * @param dbModules MongoCollection
+     * @param moduleId String
+     * @param update MongoUpdate
+     * @return DbModule or null if the module has been inserted
+     */
+    private DbModule upsertModule(final MongoCollection dbModules, final String moduleId, final MongoUpdate update) {
+        return dbModules.findAndModify(MongoQuery.TEMPLATE, MongoQuery.byId(moduleId))
+                .upsert()
+                .projection("{" + DbModule.USE_DB_FIELD + ": 1}")
+                .with(MongoQuery.TEMPLATE, update)
+                .as(DbModule.class);
     }
 
     @Override
@@ -384,25 +840,22 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_MODULES)
                 .distinct(DbModule.NAME_DB_FIELD)
-                .query(JongoUtils.generateQuery(filters.getModuleFieldsFilters()))
+                .query(MongoQuery.TEMPLATE, MongoQuery.where(filters.getModuleFieldsFilters()))
                 .as(String.class);
     }
 
     @Override
     public List<String> getModuleVersions(final String name, final FiltersHolder filters) {
-        final Map<String, Object> params = filters.getModuleFieldsFilters();
-        params.put(DbModule.NAME_DB_FIELD, name);
-
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_MODULES).distinct(DbModule.VERSION_DB_FIELD).
-                    query(JongoUtils.generateQuery(params)).as(String.class);
+                    query(MongoQuery.TEMPLATE, MongoQuery.where(filters.getModuleFieldsFilters()).is(DbModule.NAME_DB_FIELD, name)).as(String.class);
     }
 
     @Override
     public DbModule getModule(final String moduleId) {
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_MODULES)
-                .findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, moduleId))
+                .findOne(MongoQuery.TEMPLATE, MongoQuery.byId(moduleId))
                 .as(DbModule.class);
     }
 
@@ -412,7 +865,7 @@ public class MongodbHandler implements RepositoryHandler {
         final List<DbModule> modules = new ArrayList<DbModule>();
 
         final Iterable<DbModule> dbModules = datastore.getCollection(DbCollections.DB_MODULES)
-                .find(JongoUtils.generateQuery(filters.getModuleFieldsFilters()))
+                .find(MongoQuery.TEMPLATE, MongoQuery.where(filters.getModuleFieldsFilters()))
                 .as(DbModule.class);
 
         for(DbModule dbModule: dbModules){
@@ -421,6 +874,29 @@ public class MongodbHandler implements RepositoryHandler {
         return modules;
     }
 
+    @Override
+    public Iterable<DbModule> getAllModules() {
+        final Jongo datastore = getJongoDataStore();
+        return datastore.getCollection(DbCollections.DB_MODULES)
+                .find()
+                .projection("{" + DbModule.HAS_DB_FIELD + ": 0, " + DbModule.USE_DB_FIELD + ": 0, "
+                        + DbModule.BUILD_INFO_DB_FIELD + ": 0, " + DbModule.ARTIFACT_HASHES_DB_FIELD + ": 0}")
+                .as(DbModule.class);
+    }
+
+    @Override
+    public List<DbModule> getModules(final Collection<String> moduleIds) {
+        if(moduleIds.isEmpty()){
+            return Collections.emptyList();
+        }
+
+        final Jongo datastore = getJongoDataStore();
+        final Iterable<DbModule> dbModules = datastore.getCollection(DbCollections.DB_MODULES)
+                .find(MongoQuery.TEMPLATE, MongoQuery.byIds(moduleIds))
+                .as(DbModule.class);
+
+        return Lists.newArrayList(dbModules);
+    }
 
     @Override
     public void deleteModule(final String moduleId) {
@@ -432,7 +908,8 @@ public class MongodbHandler implements RepositoryHandler {
         else{
             final Jongo datastore = getJongoDataStore();
             datastore.getCollection(DbCollections.DB_MODULES)
-                    .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, moduleId));
+                    .remove(MongoQuery.TEMPLATE, MongoQuery.byId(moduleId));
+            updateReverseDependencies(moduleId, module.getUses(), Collections.<String>emptyList());
         }
     }
 
@@ -441,7 +918,7 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection modules = datastore.getCollection(DbCollections.DB_MODULES);
 
-        modules.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, module.getId()))
+        modules.update(MongoQuery.TEMPLATE, MongoQuery.byId(module.getId()))
                 .with("{ $set: { \""+ DbModule.PROMOTION_DB_FIELD + "\": #}} " , Boolean.TRUE);
     }
 
@@ -449,24 +926,44 @@ public class MongodbHandler implements RepositoryHandler {
     public DbModule getRootModuleOf(final String gavc){
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_MODULES)
-                .findOne(JongoUtils.generateQuery(DbModule.HAS_DB_FIELD, gavc))
+                .findOne(MongoQuery.TEMPLATE, MongoQuery.query().is(DbModule.HAS_DB_FIELD, gavc))
                 .as(DbModule.class);
     }
 
+    @Override
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs) {
+        if(gavcs.isEmpty()){
+            return Collections.emptyMap();
+        }
+
+        final Set<String> requestedGavcs = new HashSet<String>(gavcs);
+        final Jongo datastore = getJongoDataStore();
+        final Iterable<DbModule> dbModules = datastore.getCollection(DbCollections.DB_MODULES)
+                .find(MongoQuery.TEMPLATE, MongoQuery.query().in(DbModule.HAS_DB_FIELD, requestedGavcs))
+                .as(DbModule.class);
+
+        final Map<String, DbModule> rootModules = new HashMap<String, DbModule>();
+        for(DbModule dbModule: dbModules){
+            for(String gavc: dbModule.getHas()){
+                if(requestedGavcs.contains(gavc) && !rootModules.containsKey(gavc)){
+                    rootModules.put(gavc, dbModule);
+                }
+            }
+        }
+
+        return rootModules;
+    }
+
     @Override
     public DbModule getModuleOf(final String gavc) {
         final DbModule module = getRootModuleOf(gavc);
 
         // It may be a submodule...
-        if(module != null && !module.getArtifacts().contains(gavc)){
-            for(DbModule submodule: DataUtils.getAllSubmodules(module)){
-                if(submodule.getArtifacts().contains(gavc)){
-                    return submodule;
-                }
-            }
+        if(module != null){
+            return DataUtils.getModuleOf(module, gavc);
         }
 
-        return module;
+        return null;
     }
 
     @Override
@@ -479,7 +976,7 @@ public class MongodbHandler implements RepositoryHandler {
     public DbOrganization getOrganization(String name) {
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_ORGANIZATION)
-                .findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, name))
+                .findOne(MongoQuery.TEMPLATE, MongoQuery.byId(name))
                 .as(DbOrganization.class);
     }
 
@@ -487,50 +984,48 @@ public class MongodbHandler implements RepositoryHandler {
     public void deleteOrganization(String organizationId) {
         final Jongo datastore = getJongoDataStore();
         datastore.getCollection(DbCollections.DB_ORGANIZATION)
-                .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, organizationId));
+                .remove(MongoQuery.TEMPLATE, MongoQuery.byId(organizationId));
     }
 
     @Override
     public void store(DbOrganization organization) {
         final Jongo datastore = getJongoDataStore();
-        final MongoCollection dbOrganizations = datastore.getCollection(DbCollections.DB_ORGANIZATION);
-
-        if(getOrganization(organization.getName()) == null){
-            dbOrganizations.save(organization);
-        }
-        else{
-            dbOrganizations.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, organization.getName())).with(organization);
-        }
+        datastore.getCollection(DbCollections.DB_ORGANIZATION)
+                .update(MongoQuery.TEMPLATE, MongoQuery.byId(organization.getName()))
+                .upsert()
+                .with(organization);
     }
 
     @Override
-    public void addModulesOrganization(final String corporateGidPrefix, final DbOrganization organization){
+    public List<DbModule> getModulesByArtifactPrefix(final String gavcPrefix){
         final Jongo datastore = getJongoDataStore();
+        final Iterable<DbModule> dbModules = datastore.getCollection(DbCollections.DB_MODULES)
+                .find(MongoQuery.TEMPLATE, MongoQuery.query().is(DbModule.HAS_DB_FIELD, DataUtils.getPrefixPattern(gavcPrefix)))
+                .projection("{" + DbModule.USE_DB_FIELD + ": 0, " + DbModule.DEPENDENCIES_DB_FIELD + ": 0, "
+                        + DbModule.BUILD_INFO_DB_FIELD + ": 0, " + DbModule.ARTIFACT_HASHES_DB_FIELD + ": 0}")
+                .as(DbModule.class);
 
-        datastore.getCollection(DbCollections.DB_MODULES)
-                .update("{ "+DbModule.HAS_DB_FIELD+" :#}", Pattern.compile(corporateGidPrefix + "*"))
-                .multi()
-                .with("{$set: " + JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName()) + "}");
+        return Lists.newArrayList(dbModules);
     }
 
     @Override
-    public void removeModulesOrganization(final String corporateGidPrefix, final DbOrganization organization){
-        final Jongo datastore = getJongoDataStore();
+    public void setModulesOrganization(final Collection<String> moduleIds, final String organizationName){
+        if(moduleIds.isEmpty()){
+            return;
+        }
 
+        final Jongo datastore = getJongoDataStore();
         datastore.getCollection(DbCollections.DB_MODULES)
-                .update("{ $and: [" +
-                        "{ " + DbModule.HAS_DB_FIELD + " :#} ," +
-                        JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName()) + "]}"
-                        , Pattern.compile(corporateGidPrefix + "*"))
+                .update(MongoQuery.TEMPLATE, MongoQuery.byIds(moduleIds))
                 .multi()
-                .with("{$set: { " + DbModule.ORGANIZATION_DB_FIELD + " : \"\"}}");
+                .with(MongoQuery.TEMPLATE, MongoUpdate.update().set(DbModule.ORGANIZATION_DB_FIELD, organizationName));
     }
 
     @Override
     public void removeModulesOrganization(final DbOrganization organization){
         final Jongo datastore = getJongoDataStore();
         datastore.getCollection(DbCollections.DB_MODULES)
-                .update(JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName()))
+                .update(MongoQuery.TEMPLATE, MongoQuery.query().is(DbModule.ORGANIZATION_DB_FIELD, organization.getName()))
                 .with("{$set: { "+DbModule.ORGANIZATION_DB_FIELD+" : \"\"}}");
     }
 
@@ -546,21 +1041,17 @@ public class MongodbHandler implements RepositoryHandler {
     @Override
     public void store(final DbProduct dbProduct) {
         final Jongo datastore = getJongoDataStore();
-        final MongoCollection dbProducts = datastore.getCollection(DbCollections.DB_PRODUCT);
-
-        if(getOrganization(dbProduct.getName()) == null){
-            dbProducts.save(dbProduct);
-        }
-        else {
-            dbProducts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbProduct.getName())).with(dbProduct);
-        }
+        datastore.getCollection(DbCollections.DB_PRODUCT)
+                .update(MongoQuery.TEMPLATE, MongoQuery.byId(dbProduct.getName()))
+                .upsert()
+                .with(dbProduct);
     }
 
     @Override
     public DbProduct getProduct(final String name) {
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_PRODUCT)
-                .findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, name))
+                .findOne(MongoQuery.TEMPLATE, MongoQuery.byId(name))
                 .as(DbProduct.class);
     }
 
@@ -574,6 +1065,6 @@ public class MongodbHandler implements RepositoryHandler {
     public void deleteProduct(String name) {
         final Jongo datastore = getJongoDataStore();
         datastore.getCollection(DbCollections.DB_PRODUCT)
-                .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, name));
+                .remove(MongoQuery.TEMPLATE, MongoQuery.byId(name));
     }
 }
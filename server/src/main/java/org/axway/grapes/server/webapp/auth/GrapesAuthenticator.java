@@ -1,9 +1,13 @@
 package org.axway.grapes.server.webapp.auth;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilderSpec;
 import com.yammer.dropwizard.auth.AuthenticationException;
 import com.yammer.dropwizard.auth.Authenticator;
+import com.yammer.dropwizard.auth.CachingAuthenticator;
 import com.yammer.dropwizard.auth.basic.BasicCredentials;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
 import org.apache.commons.codec.binary.Base64;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
@@ -47,6 +51,40 @@ public class GrapesAuthenticator implements Authenticator<BasicCredentials, DbCr
         return Optional.absent();
     }
 
+    /**
+     * Wraps the authenticator into a cache so that the credentials are not looked up and hashed on each request.
+     * The hit and miss counts of the cache are exported as metrics, they follow the last returned authenticator.
+     *
+     * <p>The returned authenticator has to be invalidated each time the credentials or the roles of a user change.</p>
+     *
+     * @param authenticator GrapesAuthenticator
+     * @param cachePolicy String Guava cache specification (ex: maximumSize=10000, expireAfterAccess=10m)
+     * @return CachingAuthenticator
+     */
+    public static CachingAuthenticator<BasicCredentials, DbCredential> cached(final GrapesAuthenticator authenticator, final String cachePolicy) {
+        final CachingAuthenticator<BasicCredentials, DbCredential> cachingAuthenticator =
+                CachingAuthenticator.wrap(authenticator, CacheBuilderSpec.parse(cachePolicy));
+
+        // the gauges of a previous cache would keep on reporting it
+        Metrics.defaultRegistry().removeMetric(GrapesAuthenticator.class, "cache-hit-count");
+        Metrics.defaultRegistry().removeMetric(GrapesAuthenticator.class, "cache-miss-count");
+
+        Metrics.newGauge(GrapesAuthenticator.class, "cache-hit-count", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return cachingAuthenticator.stats().hitCount();
+            }
+        });
+        Metrics.newGauge(GrapesAuthenticator.class, "cache-miss-count", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return cachingAuthenticator.stats().missCount();
+            }
+        });
+
+        return cachingAuthenticator;
+    }
+
     /**
      * Encrypt passwords
      *
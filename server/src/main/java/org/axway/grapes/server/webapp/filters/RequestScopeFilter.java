@@ -0,0 +1,69 @@
+package org.axway.grapes.server.webapp.filters;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Histogram;
+import com.yammer.metrics.core.MetricName;
+import org.axway.grapes.server.db.RequestScopedRepositoryHandler;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+
+/**
+ * Request Scope Filter
+ *
+ * <p>Servlet filter that opens the identity map of the repository reads when a request comes, and drops it once the request is done,
+ * even if it fails, so that no map is left on the threads of the server.
+ * As a Jersey response filter, it sends the number of database reads avoided by the identity map in a response header and records it in a histogram.</p>
+ *
+ * @author jdcoffre
+ */
+public class RequestScopeFilter implements Filter, ContainerResponseFilter {
+
+    /** Value - {@value}, response header that gives the number of database reads avoided during the request */
+    public static final String AVOIDED_READS_HEADER = "X-Grapes-Avoided-Reads";
+
+    private static final Histogram AVOIDED_READS = Metrics.newHistogram(new MetricName(RequestScopeFilter.class, "avoided-reads"), true);
+
+    private final RequestScopedRepositoryHandler repositoryHandler;
+
+    public RequestScopeFilter(final RequestScopedRepositoryHandler repositoryHandler) {
+        this.repositoryHandler = repositoryHandler;
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        // Nothing to initialize
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain) throws IOException, ServletException {
+        repositoryHandler.beginRequest();
+        try{
+            chain.doFilter(request, response);
+        }
+        finally {
+            repositoryHandler.endRequest();
+        }
+    }
+
+    @Override
+    public ContainerResponse filter(final ContainerRequest request, final ContainerResponse response) {
+        final int avoidedReads = repositoryHandler.getAvoidedReads();
+        AVOIDED_READS.update(avoidedReads);
+        response.getHttpHeaders().putSingle(AVOIDED_READS_HEADER, avoidedReads);
+        return response;
+    }
+}
@@ -0,0 +1,368 @@
+package org.axway.grapes.server.webapp.filters;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.server.config.ResponseCacheConfig;
+import org.axway.grapes.server.db.ChangeTrackingRepositoryHandler;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Response Cache Filter
+ *
+ * <p>Read-through cache of the report responses: the dependencies, the dependency reports, the licenses and the promotion reports
+ * of the modules, and the module graphs.
+ * The responses are cached by path, query parameters and accepted media types, along with the repository generation they were computed at.
+ * Any write to the repository increments the generation, the responses of the previous generations are then computed again.</p>
+ *
+ * <p>The responses have an ETag, a hash of their content, and the Last-Modified date of the repository.
+ * A request whose If-None-Match header matches the ETag of a cached response gets a 304 without any computation.</p>
+ *
+ * @author jdcoffre
+ */
+public class ResponseCacheFilter implements Filter {
+
+    /** Paths of the cached reports, relative to the root of the server */
+    private static final List<Pattern> CACHED_PATHS = Arrays.asList(
+            Pattern.compile("/" + ServerAPI.MODULE_RESOURCE + "/[^/]+/[^/]+("
+                    + ServerAPI.GET_DEPENDENCIES + "|"
+                    + ServerAPI.GET_DEPENDENCIES + ServerAPI.GET_REPORT + "|"
+                    + ServerAPI.GET_LICENSES + "|"
+                    + ServerAPI.PROMOTION + ServerAPI.GET_REPORT + ")"),
+            Pattern.compile("/" + ServerAPI.SEQUOIA_RESOURCE + "/graph/[^/]+/[^/]+"));
+
+    private static final Meter HITS = newMeter("hits");
+    private static final Meter MISSES = newMeter("misses");
+    private static final Meter NOT_MODIFIED = newMeter("not-modified");
+
+    private final ChangeTrackingRepositoryHandler repositoryHandler;
+    private final int maximumEntrySize;
+    private final Cache<String, CachedResponse> responses;
+
+    public ResponseCacheFilter(final ChangeTrackingRepositoryHandler repositoryHandler, final ResponseCacheConfig config) {
+        this.repositoryHandler = repositoryHandler;
+        this.maximumEntrySize = config.getMaximumEntrySize();
+        this.responses = CacheBuilder.newBuilder()
+                .maximumWeight(config.getMaximumWeight())
+                .weigher(new Weigher<String, CachedResponse>() {
+                    @Override
+                    public int weigh(final String key, final CachedResponse response) {
+                        return key.length() + response.body.length;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        // Nothing to initialize
+    }
+
+    @Override
+    public void destroy() {
+        responses.invalidateAll();
+    }
+
+    @Override
+    public void doFilter(final ServletRequest servletRequest, final ServletResponse servletResponse, final FilterChain chain) throws IOException, ServletException {
+        if(!(servletRequest instanceof HttpServletRequest) || !(servletResponse instanceof HttpServletResponse)){
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        final HttpServletRequest request = (HttpServletRequest) servletRequest;
+        final HttpServletResponse response = (HttpServletResponse) servletResponse;
+        if(!"GET".equals(request.getMethod()) || !isCached(getPath(request))){
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final String key = getKey(request);
+        final long generation = repositoryHandler.getGeneration();
+        final long lastModified = repositoryHandler.getLastModified();
+
+        final CachedResponse cached = responses.getIfPresent(key);
+        if(cached != null){
+            if(cached.generation == generation){
+                HITS.mark();
+                send(cached, request, response);
+                return;
+            }
+            responses.invalidate(key);
+        }
+
+        MISSES.mark();
+        final CapturingResponse capture = new CapturingResponse(response);
+        chain.doFilter(request, capture);
+
+        if(capture.status != HttpServletResponse.SC_OK){
+            // errors and redirections are not cached
+            capture.sendCaptured();
+            return;
+        }
+
+        final byte[] body = capture.getBody();
+        final CachedResponse computed = new CachedResponse(generation, lastModified, response.getContentType(), body);
+        if(body.length <= maximumEntrySize && repositoryHandler.getGeneration() == generation){
+            responses.put(key, computed);
+        }
+
+        send(computed, request, response);
+    }
+
+    /**
+     * Checks if the responses of a path are cached
+     *
+     * @param path String
+     * @return boolean
+     */
+    public static boolean isCached(final String path) {
+        for(Pattern pattern: CACHED_PATHS){
+            if(pattern.matcher(path).matches()){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getPath(final HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Returns the key of a request: the path, the query parameters sorted by name and the accepted media types.
+     * Each value is prefixed by its length so that the values cannot be mixed up.
+     */
+    @SuppressWarnings("unchecked")
+    private static String getKey(final HttpServletRequest request) {
+        final StringBuilder sb = new StringBuilder(getPath(request));
+        sb.append('?');
+
+        final Map<String, String[]> parameters = new TreeMap<String, String[]>(request.getParameterMap());
+        for(Map.Entry<String, String[]> parameter: parameters.entrySet()){
+            final String[] values = parameter.getValue().clone();
+            Arrays.sort(values);
+            for(String value: values){
+                sb.append(parameter.getKey()).append('=').append(value.length()).append(':').append(value).append('&');
+            }
+        }
+
+        final String accept = request.getHeader(HttpHeaders.ACCEPT);
+        sb.append('|').append(accept == null ? "" : accept.trim());
+
+        return sb.toString();
+    }
+
+    private static void send(final CachedResponse cached, final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, cached.lastModified);
+
+        if(matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag)){
+            NOT_MODIFIED.mark();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        if(cached.contentType != null){
+            response.setContentType(cached.contentType);
+        }
+        response.setContentLength(cached.body.length);
+        response.getOutputStream().write(cached.body);
+    }
+
+    /**
+     * Checks if an If-None-Match header matches an ETag, the weak validators are compared as the strong ones
+     */
+    private static boolean matches(final String ifNoneMatch, final String etag) {
+        if(ifNoneMatch == null){
+            return false;
+        }
+
+        for(String candidate: ifNoneMatch.split(",")){
+            String tag = candidate.trim();
+            if(tag.startsWith("W/")){
+                tag = tag.substring(2);
+            }
+            if("*".equals(tag) || etag.equals(tag)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Meter newMeter(final String name) {
+        return Metrics.newMeter(new MetricName(ResponseCacheFilter.class, name), "responses", TimeUnit.SECONDS);
+    }
+
+    private static final class CachedResponse {
+        private final long generation;
+        private final long lastModified;
+        private final String contentType;
+        private final byte[] body;
+        private final String etag;
+
+        private CachedResponse(final long generation, final long lastModified, final String contentType, final byte[] body) {
+            this.generation = generation;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.body = body;
+            this.etag = '"' + Hashing.murmur3_128().hashBytes(body).toString() + '"';
+        }
+    }
+
+    /**
+     * Keeps the body of a response in memory so that its ETag is known before it is sent
+     */
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private int status = SC_OK;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CapturingResponse(final HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setStatus(final int status) {
+            this.status = status;
+            super.setStatus(status);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void setStatus(final int status, final String message) {
+            this.status = status;
+            super.setStatus(status, message);
+        }
+
+        @Override
+        public void sendError(final int status) throws IOException {
+            this.status = status;
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(final int status, final String message) throws IOException {
+            this.status = status;
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendRedirect(final String location) throws IOException {
+            this.status = SC_FOUND;
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void setContentLength(final int length) {
+            // the length is set when the response is sent
+        }
+
+        @Override
+        public void setHeader(final String name, final String value) {
+            if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)){
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(final String name, final String value) {
+            if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)){
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(final String name, final int value) {
+            if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)){
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(final String name, final int value) {
+            if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)){
+                super.addIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() {
+            // the response is committed when it is sent
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if(outputStream == null){
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(final int b) {
+                        buffer.write(b);
+                    }
+
+                    @Override
+                    public void write(final byte[] bytes, final int offset, final int length) {
+                        buffer.write(bytes, offset, length);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if(writer == null){
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        private byte[] getBody() {
+            if(writer != null){
+                writer.flush();
+            }
+            return buffer.toByteArray();
+        }
+
+        /**
+         * Sends the captured body as is
+         */
+        private void sendCaptured() throws IOException {
+            final byte[] body = getBody();
+            if(body.length > 0 && !getResponse().isCommitted()){
+                getResponse().setContentLength(body.length);
+            }
+            if(body.length > 0){
+                getResponse().getOutputStream().write(body);
+            }
+        }
+    }
+}
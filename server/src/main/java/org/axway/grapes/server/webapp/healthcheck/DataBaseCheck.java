@@ -1,10 +1,8 @@
 package org.axway.grapes.server.webapp.healthcheck;
 
 import com.mongodb.Mongo;
-import com.mongodb.MongoClient;
-import com.mongodb.ServerAddress;
 import com.yammer.metrics.core.HealthCheck;
-import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
 
 /**
  * Database Check
@@ -15,20 +13,17 @@ import org.axway.grapes.server.config.DataBaseConfig;
  */
 public class DataBaseCheck extends HealthCheck{
 
-	private final DataBaseConfig config;
+	private final MongoDatastore datastore;
 
-	public DataBaseCheck(final DataBaseConfig dataBaseConfig) {
+	public DataBaseCheck(final MongoDatastore datastore) {
 		super("database");
-		this.config = dataBaseConfig;
+		this.datastore = datastore;
 	}
 
 	@Override
 	protected Result check() {	
-        Mongo mongo = null;
-        
 		try{
-			final ServerAddress adress = new ServerAddress(config.getHost() , config.getPort());
-            mongo = new MongoClient(adress);
+            final Mongo mongo = datastore.getMongo();
 
             final StringBuilder sb = new StringBuilder();
             sb.append("MogoDb version " + mongo.getVersion() + '\n');
@@ -46,11 +41,6 @@ public class DataBaseCheck extends HealthCheck{
 		catch (Exception e) {
 			return Result.unhealthy(e);
 		}
-        finally{
-            if(mongo != null){
-                mongo.close();
-            }
-        }
 	}
     
 }
@@ -1,14 +1,9 @@
 package org.axway.grapes.server.webapp.healthcheck;
 
-import com.mongodb.DB;
-import com.mongodb.Mongo;
-import com.mongodb.MongoClient;
-import com.mongodb.ServerAddress;
 import com.yammer.metrics.core.HealthCheck;
-import org.axway.grapes.server.config.DataBaseConfig;
 import org.axway.grapes.server.db.datamodel.DbCollections;
 import org.axway.grapes.server.db.datamodel.DbGrapesInfo;
-import org.jongo.Jongo;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
 
 /**
  * Database Check
@@ -19,28 +14,17 @@ import org.jongo.Jongo;
  */
 public class DataModelVersionCheck extends HealthCheck{
 
-	private final DataBaseConfig config;
+	private final MongoDatastore datastore;
 
-	public DataModelVersionCheck(final DataBaseConfig dataBaseConfig) {
+	public DataModelVersionCheck(final MongoDatastore datastore) {
 		super("data-model-version");
-		this.config = dataBaseConfig;
+		this.datastore = datastore;
 	}
 
 	@Override
 	protected Result check() {
-        Mongo mongo = null;
-        
 		try{
-			final ServerAddress adress = new ServerAddress(config.getHost() , config.getPort());
-            mongo = new MongoClient(adress);
-            final DB db = mongo.getDB(config.getDatastore());
-
-            if(config.getUser() != null && config.getPwd() != null){
-                db.authenticate(config.getUser(), config.getPwd());
-            }
-
-            final Jongo jongo = new Jongo(db);
-            final DbGrapesInfo info = jongo.getCollection(DbCollections.DB_GRAPES_INFO).findOne().as(DbGrapesInfo.class);
+            final DbGrapesInfo info = datastore.getJongo().getCollection(DbCollections.DB_GRAPES_INFO).findOne().as(DbGrapesInfo.class);
 
             if(info == null){
                 return Result.healthy("not found\n");
@@ -51,11 +35,6 @@ public class DataModelVersionCheck extends HealthCheck{
 		catch (Exception e) {
 			return Result.unhealthy(e);
 		}
-        finally{
-            if(mongo != null){
-                mongo.close();
-            }
-        }
 	}
     
 }
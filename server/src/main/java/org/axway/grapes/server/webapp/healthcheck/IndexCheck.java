@@ -0,0 +1,51 @@
+package org.axway.grapes.server.webapp.healthcheck;
+
+import com.yammer.metrics.core.HealthCheck;
+import org.axway.grapes.server.db.mongo.IndexRegistry;
+import org.axway.grapes.server.db.mongo.IndexRegistry.IndexDefinition;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
+
+import java.util.List;
+
+/**
+ * Index Check
+ *
+ * <p>Implements Metrics health checks. Thanks to it, it is possible to know via Grapes admin webapp if the indexes declared in the IndexRegistry exist in the database.</p>
+ *
+ * @author jdcoffre
+ */
+public class IndexCheck extends HealthCheck{
+
+    private final MongoDatastore datastore;
+
+    public IndexCheck(final MongoDatastore datastore) {
+        super("database-indexes");
+        this.datastore = datastore;
+    }
+
+    @Override
+    protected Result check() {
+        try{
+            final List<IndexDefinition> missingIndexes = IndexRegistry.getMissingIndexes(datastore.getDb());
+
+            if(missingIndexes.isEmpty()){
+                return Result.healthy(IndexRegistry.INDEXES.size() + " indexes ok\n");
+            }
+
+            final StringBuilder sb = new StringBuilder();
+            sb.append("Missing indexes: ");
+            for(IndexDefinition index: missingIndexes){
+                sb.append('\n');
+                sb.append("  ");
+                sb.append(index);
+            }
+            sb.append('\n');
+
+            return Result.unhealthy(sb.toString());
+        }
+        catch (Exception e) {
+            return Result.unhealthy(e);
+        }
+    }
+
+}
@@ -31,16 +31,18 @@ import java.io.IOException;
  */
 public abstract class AbstractResource extends View {
 
+    private final CoreServices services;
     private final RepositoryHandler repositoryHandler;
     private final GrapesServerConfig grapesConfig;
 
     private final ModelMapper modelMapper;
     
-    protected AbstractResource(final RepositoryHandler repoHandler, final String templateName, final GrapesServerConfig dmConfig) {
+    protected AbstractResource(final CoreServices services, final String templateName, final GrapesServerConfig dmConfig) {
 		super(templateName);
         this.grapesConfig = dmConfig;
-        this.repositoryHandler = repoHandler;
-        this.modelMapper = new ModelMapper(repoHandler);
+        this.services = services;
+        this.repositoryHandler = services.getRepositoryHandler();
+        this.modelMapper = new ModelMapper(repositoryHandler);
 	}
     
     /**
@@ -54,13 +56,23 @@ public abstract class AbstractResource extends View {
 		return Response.ok(this).build();
 	}
 
+    /**
+     * Returns the repository handler given to the core handlers.
+     * On the server, its reads are deduplicated within each request.
+     *
+     * @return RepositoryHandler
+     */
+    protected RepositoryHandler getRepositoryHandler(){
+        return repositoryHandler;
+    }
+
     /**
      * Return a OrganizationHandler
      *
      * @return OrganizationHandler
      */
     protected OrganizationHandler getOrganizationHandler(){
-        return new OrganizationHandler(repositoryHandler);
+        return new OrganizationHandler(services);
     }
 
     /**
@@ -69,7 +81,7 @@ public abstract class AbstractResource extends View {
      * @return ProductHandler
      */
     protected ProductHandler getProductHandler(){
-        return new ProductHandler(repositoryHandler);
+        return new ProductHandler(getRepositoryHandler());
     }
 
     /**
@@ -78,7 +90,7 @@ public abstract class AbstractResource extends View {
      * @return ArtifactHandler
      */
     protected ModuleHandler getModuleHandler(){
-        return new ModuleHandler(repositoryHandler);
+        return new ModuleHandler(services);
     }
 
     /**
@@ -87,7 +99,16 @@ public abstract class AbstractResource extends View {
      * @return ArtifactHandler
      */
     protected ArtifactHandler getArtifactHandler(){
-        return new ArtifactHandler(repositoryHandler);
+        return new ArtifactHandler(services);
+    }
+
+    /**
+     * Return an IngestionHandler
+     *
+     * @return IngestionHandler
+     */
+    protected IngestionHandler getIngestionHandler(){
+        return new IngestionHandler(services);
     }
 
     /**
@@ -96,7 +117,7 @@ public abstract class AbstractResource extends View {
      * @return DependencyHandler
      */
     protected DependencyHandler getDependencyHandler(){
-        return new DependencyHandler(repositoryHandler);
+        return new DependencyHandler(services);
     }
 
     /**
@@ -105,7 +126,7 @@ public abstract class AbstractResource extends View {
      * @return LicenseHandler
      */
     protected LicenseHandler getLicenseHandler(){
-        return new LicenseHandler(repositoryHandler);
+        return new LicenseHandler(services);
     }
 
     /**
@@ -114,7 +135,7 @@ public abstract class AbstractResource extends View {
      * @return LicenseHandler
      */
     protected GraphsHandler getGraphsHandler(final FiltersHolder filtersHolder){
-        return new GraphsHandler(repositoryHandler,filtersHolder);
+        return new GraphsHandler(services,filtersHolder);
     }
 
     /**
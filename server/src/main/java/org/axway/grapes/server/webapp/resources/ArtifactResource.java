@@ -8,9 +8,9 @@ import org.axway.grapes.commons.datamodel.Module;
 import org.axway.grapes.commons.datamodel.Organization;
 import org.axway.grapes.server.config.GrapesServerConfig;
 import org.axway.grapes.server.core.ArtifactHandler;
+import org.axway.grapes.server.core.CoreServices;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.DataUtils;
-import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
 import org.axway.grapes.server.webapp.DataValidator;
@@ -41,8 +41,8 @@ public class ArtifactResource extends AbstractResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(ArtifactResource.class);
 
-    public ArtifactResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig) {
-        super(repoHandler, "ArtifactResourceDocumentation.ftl", dmConfig);
+    public ArtifactResource(final CoreServices services, final GrapesServerConfig dmConfig) {
+        super(services, "ArtifactResourceDocumentation.ftl", dmConfig);
     }
 
     /**
@@ -321,8 +321,7 @@ public class ArtifactResource extends AbstractResource {
         final List<DbModule> dbAncestors = getArtifactHandler().getAncestors(gavc, filters);
         final Artifact artifact = DataUtils.createArtifact(gavc);
 
-        for(DbModule dbAncestor : dbAncestors){
-            final Module ancestor = getModelMapper().getModule(dbAncestor);
+        for(final Module ancestor : getModelMapper().getModules(dbAncestors)){
             view.addAncestor(ancestor, artifact);
         }
 
@@ -0,0 +1,52 @@
+package org.axway.grapes.server.webapp.resources;
+
+import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+import org.axway.grapes.server.core.ingestion.IngestionTicket;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Ingestion Resource
+ *
+ * <p>This server resource gives the status of the modules posted in asynchronous ingestion mode.
+ * It is registered only when the asynchronous ingestion is enabled.</p>
+ *
+ * @author jdcoffre
+ */
+@Path(ServerAPI.INGESTION_RESOURCE)
+public class IngestionResource {
+
+    private final IngestionQueue ingestionQueue;
+
+    public IngestionResource(final IngestionQueue ingestionQueue) {
+        this.ingestionQueue = ingestionQueue;
+    }
+
+    /**
+     * Return the status of a posted module.
+     * This method is call via GET <dm_url>/ingestion/{ticket}
+     *
+     * @param ticketId String
+     * @return Response An IngestionTicket in JSON
+     */
+    @GET
+    @Path("/{ticket}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getTicket(@PathParam("ticket") final String ticketId){
+        final IngestionTicket ticket = ingestionQueue.getTicket(ticketId);
+
+        if(ticket == null){
+            throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND)
+                    .entity("Unknown ingestion ticket " + ticketId).build());
+        }
+
+        return Response.ok(ticket).build();
+    }
+}
@@ -5,8 +5,8 @@ import com.yammer.dropwizard.jersey.params.BooleanParam;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.License;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.CoreServices;
 import org.axway.grapes.server.core.options.FiltersHolder;
-import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
 import org.axway.grapes.server.db.datamodel.DbLicense;
@@ -38,8 +38,8 @@ public class LicenseResource extends AbstractResource{
     
     private static final Logger LOG = LoggerFactory.getLogger(LicenseResource.class);
     
-    public LicenseResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig){
-        super(repoHandler, "LicenseResourceDocumentation.ftl", dmConfig);
+    public LicenseResource(final CoreServices services, final GrapesServerConfig dmConfig){
+        super(services, "LicenseResourceDocumentation.ftl", dmConfig);
     }
     
     /**
@@ -3,20 +3,22 @@ package org.axway.grapes.server.webapp.resources;
 import com.yammer.dropwizard.auth.Auth;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.Artifact;
-import org.axway.grapes.commons.datamodel.Dependency;
 import org.axway.grapes.commons.datamodel.License;
 import org.axway.grapes.commons.datamodel.Module;
 import org.axway.grapes.server.config.GrapesServerConfig;
 import org.axway.grapes.server.core.ArtifactHandler;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+import org.axway.grapes.server.core.ingestion.IngestionTicket;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
 import org.axway.grapes.server.core.reports.DependencyReport;
 import org.axway.grapes.server.db.DataUtils;
-import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
 import org.axway.grapes.server.webapp.DataValidator;
 import org.axway.grapes.server.webapp.views.*;
+import org.eclipse.jetty.http.HttpHeaders;
 import org.eclipse.jetty.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +28,8 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.net.URI;
 import java.net.URL;
 import java.util.*;
 
@@ -42,9 +46,19 @@ public class ModuleResource extends AbstractResource{
 
     private static final Logger LOG = LoggerFactory.getLogger(ModuleResource.class);
 
+    // seconds the clients are asked to wait when the ingestion queue is full
+    private static final String RETRY_AFTER = "30";
 
-    public ModuleResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig) {
-        super(repoHandler, "ModuleResourceDocumentation.ftl", dmConfig);
+    // null if the modules are stored synchronously
+    private final IngestionQueue ingestionQueue;
+
+    public ModuleResource(final CoreServices services, final GrapesServerConfig dmConfig) {
+        this(services, dmConfig, null);
+    }
+
+    public ModuleResource(final CoreServices services, final GrapesServerConfig dmConfig, final IngestionQueue ingestionQueue) {
+        super(services, "ModuleResourceDocumentation.ftl", dmConfig);
+        this.ingestionQueue = ingestionQueue;
     }
 
     /**
@@ -66,30 +80,69 @@ public class ModuleResource extends AbstractResource{
         // Checks if the data is corrupted
         DataValidator.validate(module);
 
-        // turn it into DbModel
-        final DbModule dbModule = getModelMapper().getDbModule(module);
-        final DbOrganization organization = getOrganizationHandler().getMatchingOrganization(dbModule);
-        if(organization != null){
-            dbModule.setOrganization(organization.getName());
+        if(ingestionQueue != null){
+            return queueModule(module);
         }
 
-        // Save the module
-        getModuleHandler().store(dbModule);
+        getIngestionHandler().ingest(Collections.singletonList(module));
 
-        final ArtifactHandler artifactHandler = getArtifactHandler();
+        return Response.ok().status(HttpStatus.CREATED_201).build();
+    }
 
-        // Add the artifacts
-        final Set<Artifact> artifacts = DataUtils.getAllArtifacts(module);
-        for(final Artifact artifact: artifacts){
-            artifactHandler.store(getModelMapper().getDbArtifact(artifact));
+    /**
+     * Queues a module in asynchronous ingestion mode
+     *
+     * @param module Module
+     * @return Response 202 with the ticket of the module, 503 if the queue is full
+     */
+    private Response queueModule(final Module module) {
+        final IngestionTicket ticket;
+        try{
+            ticket = ingestionQueue.submit(module);
+        }
+        catch (IOException e){
+            LOG.error("Failed to journal the module " + module.getName() + " " + module.getVersion(), e);
+            throw new WebApplicationException(Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Failed to queue the module").build());
         }
 
-        // Add dependencies that does not already exist
-        for(final Dependency dep: DataUtils.getAllDependencies(module)){
-            final DbArtifact dbDependency = getModelMapper().getDbArtifact(dep.getTarget());
-            artifactHandler.storeIfNew(dbDependency);
+        if(ticket == null){
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER)
+                    .entity("The ingestion queue is full").build());
         }
 
+        return Response.status(HttpStatus.ACCEPTED_202)
+                .location(URI.create("/" + ServerAPI.INGESTION_RESOURCE + "/" + ticket.getId()))
+                .entity(ticket.getId())
+                .build();
+    }
+
+    /**
+     * Handle the update/addition of several modules in Grapes database in a single request.
+     * This method is call via POST <dm_url>/module/batch
+     *
+     * @param credential DbCredential
+     * @param modules List<Module>
+     * @return Response
+     */
+    @POST
+    @Path(ServerAPI.BATCH)
+    @Produces(MediaType.TEXT_HTML)
+    public Response postModules(@Auth final DbCredential credential, final List<Module> modules){
+        if(!credential.getRoles().contains(AvailableRoles.DEPENDENCY_NOTIFIER)){
+            throw new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+
+        LOG.info("Got a post Modules request.");
+
+        // Checks if the data is corrupted before storing anything
+        for(Module module: modules){
+            DataValidator.validate(module);
+        }
+
+        getIngestionHandler().ingest(modules);
+
         return Response.ok().status(HttpStatus.CREATED_201).build();
     }
 
@@ -255,13 +308,34 @@ public class ModuleResource extends AbstractResource{
 
         final AncestorsView view = new AncestorsView("Ancestor List Of " + name +" in version " + version , getLicenseHandler().getLicenses(), filters.getDecorator());
 
-        for(final String artifactId: DataUtils.getAllArtifacts(dbModule)){
-            final DbArtifact dbArtifact = artifactHandler.getArtifact(artifactId);
-            final Artifact artifact = getModelMapper().getArtifact(dbArtifact);
+        final List<String> artifactIds = DataUtils.getAllArtifacts(dbModule);
+        final Map<String, List<DbModule>> dbAncestors = artifactHandler.getAncestors(artifactIds, filters);
 
-            for(final DbModule dbAncestor: artifactHandler.getAncestors(artifactId, filters)){
+        // Each ancestor is mapped once whatever the number of artifacts it uses
+        final Map<String, DbModule> distinctDbAncestors = new LinkedHashMap<String, DbModule>();
+        for(final List<DbModule> artifactAncestors: dbAncestors.values()){
+            for(final DbModule dbAncestor: artifactAncestors){
                 if(!dbAncestor.getId().equals(dbModule.getId())){
-                    final Module ancestor = getModelMapper().getModule(dbAncestor);
+                    distinctDbAncestors.put(dbAncestor.getId(), dbAncestor);
+                }
+            }
+        }
+
+        final Map<String, Module> ancestors = new HashMap<String, Module>();
+        final Iterator<Module> mappedAncestors = getModelMapper().getModules(distinctDbAncestors.values()).iterator();
+        for(final String ancestorId: distinctDbAncestors.keySet()){
+            ancestors.put(ancestorId, mappedAncestors.next());
+        }
+
+        final Map<String, DbArtifact> dbArtifacts = DataUtils.getArtifactsByGavc(artifactHandler.getArtifacts(dbAncestors.keySet()));
+
+        for(final Map.Entry<String, List<DbModule>> entry: dbAncestors.entrySet()){
+            final DbArtifact dbArtifact = dbArtifacts.get(entry.getKey());
+            final Artifact artifact = dbArtifact == null ? DataUtils.createArtifact(entry.getKey()) : getModelMapper().getArtifact(dbArtifact);
+
+            for(final DbModule dbAncestor: entry.getValue()){
+                final Module ancestor = ancestors.get(dbAncestor.getId());
+                if(ancestor != null){
                     view.addAncestor(ancestor, artifact);
                 }
             }
@@ -392,9 +466,7 @@ public class ModuleResource extends AbstractResource{
     public Response canBePromoted(@PathParam("name") final String name, @PathParam("version") final String version){
         LOG.info("Got a is the module promotable request.");
         final String moduleId = DbModule.generateID(name,version);
-        final PromotionReportView promotionReportView = getModuleHandler().getPromotionReport(moduleId);
-
-        return Response.ok(promotionReportView.canBePromoted()).build();
+        return Response.ok(getModuleHandler().canBePromoted(moduleId)).build();
     }
 
     /**
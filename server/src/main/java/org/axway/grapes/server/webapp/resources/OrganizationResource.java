@@ -4,7 +4,8 @@ import com.yammer.dropwizard.auth.Auth;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.Organization;
 import org.axway.grapes.server.config.GrapesServerConfig;
-import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.tagging.TaggingJob;
 import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.axway.grapes.server.webapp.DataValidator;
@@ -32,8 +33,8 @@ public class OrganizationResource extends AbstractResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrganizationResource.class);
 
-    public OrganizationResource(final RepositoryHandler repositoryHandler, final GrapesServerConfig configuration) {
-        super(repositoryHandler, "OrganizationResourceDocumentation.ftl", configuration);
+    public OrganizationResource(final CoreServices services, final GrapesServerConfig configuration) {
+        super(services, "OrganizationResourceDocumentation.ftl", configuration);
     }
 
 
@@ -187,5 +188,20 @@ public class OrganizationResource extends AbstractResource {
         return Response.ok("done").build();
     }
 
+    /**
+     * Return the progress of the jobs that update the modules after a change of the corporate GroupIds of an organization.
+     *
+     * @param organizationId String Organization name
+     * @return Response A list of TaggingJob in JSON
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{name}" + ServerAPI.GET_TAGGING_JOBS)
+    public Response getTaggingJobs(@PathParam("name") final String organizationId){
+        LOG.info("Got a get tagging jobs request for organization " + organizationId +".");
+
+        final List<TaggingJob> jobs = getOrganizationHandler().getTaggingJobs(organizationId);
+        return Response.ok(jobs).build();
+    }
 
 }
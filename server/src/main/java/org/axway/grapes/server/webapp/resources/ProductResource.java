@@ -4,8 +4,8 @@ import com.google.common.collect.Lists;
 import com.yammer.dropwizard.auth.Auth;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.CoreServices;
 import org.axway.grapes.server.core.ModuleHandler;
-import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.axway.grapes.server.db.datamodel.DbProduct;
 import org.axway.grapes.server.webapp.views.ListView;
@@ -34,8 +34,8 @@ public class ProductResource extends AbstractResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProductResource.class);
 
-    public ProductResource(final RepositoryHandler repositoryHandler, final GrapesServerConfig configuration) {
-        super(repositoryHandler, "ProductResourceDocumentation.ftl", configuration);
+    public ProductResource(final CoreServices services, final GrapesServerConfig configuration) {
+        super(services, "ProductResourceDocumentation.ftl", configuration);
     }
 
     /**
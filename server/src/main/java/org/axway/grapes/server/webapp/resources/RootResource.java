@@ -1,15 +1,15 @@
 package org.axway.grapes.server.webapp.resources;
 
 import org.axway.grapes.server.config.GrapesServerConfig;
-import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.core.CoreServices;
 
 import javax.ws.rs.Path;
 
 @Path("")
 public class RootResource extends AbstractResource {
 
-    public RootResource(final RepositoryHandler repoHandler, final GrapesServerConfig config) {
-        super(repoHandler, "RootResource.ftl", config);
+    public RootResource(final CoreServices services, final GrapesServerConfig config) {
+        super(services, "RootResource.ftl", config);
     }
 
 }
\ No newline at end of file
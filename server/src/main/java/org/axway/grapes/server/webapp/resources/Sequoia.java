@@ -2,10 +2,12 @@ package org.axway.grapes.server.webapp.resources;
 
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.GraphsHandler;
 import org.axway.grapes.server.core.graphs.AbstractGraph;
+import org.axway.grapes.server.core.graphs.GraphFormat;
 import org.axway.grapes.server.core.graphs.TreeNode;
 import org.axway.grapes.server.core.options.FiltersHolder;
-import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.eclipse.jetty.http.HttpStatus;
 import org.slf4j.Logger;
@@ -18,7 +20,10 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Sequoia
@@ -31,8 +36,8 @@ public class Sequoia extends AbstractResource{
     private static final Logger LOG = LoggerFactory.getLogger(Sequoia.class);
 
 
-    public Sequoia(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig) {
-        super(repoHandler, "Sequoia.ftl",dmConfig);
+    public Sequoia(final CoreServices services, final GrapesServerConfig dmConfig) {
+        super(services, "Sequoia.ftl",dmConfig);
     }
 
 
@@ -66,6 +71,50 @@ public class Sequoia extends AbstractResource{
         return Response.ok(moduleGraph).build();
     }
 
+    /**
+     * Export a module dependency graph of the target in the requested format: json (default), dot or graphml.
+     * The graph is written to the response while it is walked.
+     *
+     * @param moduleName
+     * @param moduleVersion
+     * @param uriInfo
+     * @return Response
+     */
+    @GET
+    @Path("/export/{name}/{version}")
+    public Response exportModuleGraph(@PathParam("name") final String moduleName,
+                                      @PathParam("version") final String moduleVersion,
+                                      @Context final UriInfo uriInfo){
+
+        LOG.info("Dependency Checker got a module graph streaming export request.");
+
+        if(moduleName == null || moduleVersion == null){
+            return Response.serverError().status(HttpStatus.NOT_ACCEPTABLE_406).build();
+        }
+
+        final String formatName = uriInfo.getQueryParameters().getFirst(ServerAPI.FORMAT_PARAM);
+        final GraphFormat format = formatName == null ? GraphFormat.JSON : GraphFormat.fromName(formatName);
+        if(format == null){
+            return Response.serverError().status(HttpStatus.NOT_ACCEPTABLE_406).build();
+        }
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.init(uriInfo.getQueryParameters());
+
+        // the module is checked before the response starts
+        final DbModule module = getModuleHandler().getModule(DbModule.generateID(moduleName, moduleVersion));
+        final GraphsHandler graphsHandler = getGraphsHandler(filters);
+
+        final StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(final OutputStream outputStream) throws IOException {
+                graphsHandler.writeModuleGraph(module, format.newWriter(outputStream));
+            }
+        };
+
+        return Response.ok(output, format.getMediaType()).build();
+    }
+
 
     /**
      * Provide a module dependency tree
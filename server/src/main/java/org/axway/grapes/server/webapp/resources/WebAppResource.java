@@ -2,7 +2,7 @@ package org.axway.grapes.server.webapp.resources;
 
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.config.GrapesServerConfig;
-import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.core.CoreServices;
 
 import javax.ws.rs.Path;
 
@@ -16,7 +16,7 @@ import javax.ws.rs.Path;
 @Path(ServerAPI.WEBAPP_RESOURCE)
 public class WebAppResource extends AbstractResource{
 
-    public WebAppResource(final RepositoryHandler repoHandler, final GrapesServerConfig config) {
-        super(repoHandler, "WebApp.ftl", config);
+    public WebAppResource(final CoreServices services, final GrapesServerConfig config) {
+        super(services, "WebApp.ftl", config);
     }
 }
@@ -2,6 +2,8 @@ package org.axway.grapes.server.webapp.tasks;
 
 import com.google.common.collect.ImmutableMultimap;
 import com.yammer.dropwizard.auth.AuthenticationException;
+import com.yammer.dropwizard.auth.CachingAuthenticator;
+import com.yammer.dropwizard.auth.basic.BasicCredentials;
 import com.yammer.dropwizard.tasks.Task;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.db.RepositoryHandler;
@@ -21,10 +23,12 @@ import java.io.PrintWriter;
 public class AddUserTask extends Task{
 
 	private final RepositoryHandler repoHandler;
+	private final CachingAuthenticator<BasicCredentials, DbCredential> authenticator;
 
-	public AddUserTask(final RepositoryHandler repoHandler) {
+	public AddUserTask(final RepositoryHandler repoHandler, final CachingAuthenticator<BasicCredentials, DbCredential> authenticator) {
 		super("addUser");
 		this.repoHandler = repoHandler;
+		this.authenticator = authenticator;
 	}
 
 	@Override
@@ -41,6 +45,9 @@ public class AddUserTask extends Task{
         
 		repoHandler.store(credential);
 
+		// authentications are cached per user/password: drop them all to forget this user
+		authenticator.invalidateAll();
+
 		printer.println("Task performed successfully.");
 	}
 
@@ -0,0 +1,132 @@
+package org.axway.grapes.server.webapp.tasks;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import com.yammer.dropwizard.tasks.Task;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
+
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Explain Task
+ *
+ * <p>Prints the explain plan of each kind of query issued by the MongodbHandler.
+ * The queries are run with sample values: the plans show which index is used, not the results.</p>
+ *
+ * @author jdcoffre
+ */
+public class ExplainTask extends Task {
+
+    private static final String SAMPLE = "explain";
+
+    private final MongoDatastore datastore;
+
+    public ExplainTask(final MongoDatastore datastore) {
+        super("explain");
+        this.datastore = datastore;
+    }
+
+    @Override
+    public void execute(final ImmutableMultimap<String, String> args, final PrintWriter printWriter) {
+        final DB db = datastore.getDb();
+
+        for(Map.Entry<String, Query> entry: getQueries().entrySet()){
+            final Query query = entry.getValue();
+            printWriter.println(entry.getKey() + ": " + query.collection + " " + query.filter +
+                    (query.projection == null ? "" : " " + query.projection));
+            printWriter.println("  " + db.getCollection(query.collection).find(query.filter, query.projection).explain());
+            printWriter.println();
+        }
+
+        printWriter.flush();
+    }
+
+    /**
+     * Returns the queries of the MongodbHandler, distinct operations are explained with their filter
+     *
+     * @return Map<String, Query>
+     */
+    public static Map<String, Query> getQueries() {
+        final Map<String, Query> queries = new LinkedHashMap<String, Query>();
+
+        queries.put("getArtifact", new Query(DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbCollections.DEFAULT_ID, SAMPLE)));
+        queries.put("getArtifacts", new Query(DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbCollections.DEFAULT_ID, new BasicDBObject("$in", Collections.singletonList(SAMPLE)))));
+        queries.put("getArtifactVersions", new Query(DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.GROUPID_DB_FIELD, SAMPLE)
+                        .append(DbArtifact.ARTIFACTID_DB_FIELD, SAMPLE)
+                        .append(DbArtifact.CLASSIFIER_DB_FIELD, SAMPLE)
+                        .append(DbArtifact.EXTENSION_DB_FIELD, SAMPLE)));
+        queries.put("getArtifacts (license filter)", new Query(DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.LICENCES_DB_FIELD, SAMPLE)));
+        queries.put("getArtifacts (groupId filter)", new Query(DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.GROUPID_DB_FIELD, SAMPLE)));
+        queries.put("getModule", new Query(DbCollections.DB_MODULES,
+                new BasicDBObject(DbCollections.DEFAULT_ID, SAMPLE)));
+        queries.put("getModuleVersions", new Query(DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.NAME_DB_FIELD, SAMPLE)));
+        queries.put("getModules (organization filter)", new Query(DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.ORGANIZATION_DB_FIELD, SAMPLE)));
+        queries.put("getRootModuleOf", new Query(DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.HAS_DB_FIELD, SAMPLE)));
+        queries.put("getRootModulesOf", new Query(DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.HAS_DB_FIELD, new BasicDBObject("$in", Collections.singletonList(SAMPLE)))));
+        queries.put("getAncestorsOf", new Query(DbCollections.DB_REVERSE_DEPENDENCIES,
+                new BasicDBObject(DbCollections.DEFAULT_ID, new BasicDBObject("$in", Collections.singletonList(SAMPLE)))));
+        // a single scan of all the modules, when the reverse dependency collection is empty
+        queries.put("buildReverseDependencies", new Query(DbCollections.DB_MODULES,
+                new BasicDBObject(), new BasicDBObject(DbModule.USE_DB_FIELD, 1)));
+        queries.put("getLatestVersion", new Query(DbCollections.DB_LATEST_VERSIONS,
+                new BasicDBObject(DbCollections.DEFAULT_ID, SAMPLE)));
+        queries.put("getOrganization", new Query(DbCollections.DB_ORGANIZATION,
+                new BasicDBObject(DbCollections.DEFAULT_ID, SAMPLE)));
+        queries.put("getLicense", new Query(DbCollections.DB_LICENSES,
+                new BasicDBObject(DbCollections.DEFAULT_ID, SAMPLE)));
+        queries.put("getCredential", new Query(DbCollections.DB_CREDENTIALS,
+                new BasicDBObject(DbCollections.DEFAULT_ID, SAMPLE)));
+        queries.put("getProduct", new Query(DbCollections.DB_PRODUCT,
+                new BasicDBObject(DbCollections.DEFAULT_ID, SAMPLE)));
+
+        return queries;
+    }
+
+    /**
+     * Collection, filter and projection of a query
+     */
+    public static final class Query {
+        private final String collection;
+        private final DBObject filter;
+        private final DBObject projection;
+
+        public Query(final String collection, final DBObject filter) {
+            this(collection, filter, null);
+        }
+
+        public Query(final String collection, final DBObject filter, final DBObject projection) {
+            this.collection = collection;
+            this.filter = filter;
+            this.projection = projection;
+        }
+
+        public String getCollection() {
+            return collection;
+        }
+
+        public DBObject getFilter() {
+            return filter;
+        }
+
+        public DBObject getProjection() {
+            return projection;
+        }
+    }
+}
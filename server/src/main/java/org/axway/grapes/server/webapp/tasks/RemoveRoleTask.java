@@ -2,6 +2,8 @@ package org.axway.grapes.server.webapp.tasks;
 
 import com.google.common.collect.ImmutableMultimap;
 import com.yammer.dropwizard.auth.AuthenticationException;
+import com.yammer.dropwizard.auth.CachingAuthenticator;
+import com.yammer.dropwizard.auth.basic.BasicCredentials;
 import com.yammer.dropwizard.tasks.Task;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.db.RepositoryHandler;
@@ -22,10 +24,12 @@ import java.net.UnknownHostException;
 public class RemoveRoleTask extends Task{
 
 	private final RepositoryHandler repoHandler;
+	private final CachingAuthenticator<BasicCredentials, DbCredential> authenticator;
 
-	public RemoveRoleTask(final RepositoryHandler repoHandler) {
+	public RemoveRoleTask(final RepositoryHandler repoHandler, final CachingAuthenticator<BasicCredentials, DbCredential> authenticator) {
 		super("removeRole");
 		this.repoHandler = repoHandler;
+		this.authenticator = authenticator;
 	}
 
 	@Override
@@ -42,6 +46,9 @@ public class RemoveRoleTask extends Task{
         
 		repoHandler.removeUserRole(user, role);
 
+		// authentications are cached per user/password: drop them all to forget this user
+		authenticator.invalidateAll();
+
 		printer.println("Task performed successfully.");
 	}
 
@@ -2,6 +2,7 @@ package org.axway.grapes.server.webapp.tasks.migrate;
 
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.datamodel.*;
+import org.axway.grapes.server.db.mongo.MongoQuery;
 import org.jongo.FindOne;
 import org.jongo.Jongo;
 
@@ -43,7 +44,7 @@ public final class Migration220 {
                 final DbModule newModule = getNewModule(oldModule, printer);
 
                 if(newModule != null ){
-                    db.getCollection(DbCollections.DB_MODULES).update("{ _id : \""+oldModule.getId()+"\"}").with(newModule);
+                    db.getCollection(DbCollections.DB_MODULES).update(MongoQuery.TEMPLATE, MongoQuery.byId(oldModule.getId())).with(newModule);
                     migrated ++;
                 }
                 else{
@@ -2,55 +2,45 @@ package org.axway.grapes.server.webapp.tasks.migrate;
 
 
 import com.google.common.collect.ImmutableMultimap;
-import com.mongodb.DB;
-import com.mongodb.MongoClient;
-import com.mongodb.ServerAddress;
 import com.yammer.dropwizard.tasks.Task;
-import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.db.ChangeTrackingRepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCollections;
 import org.axway.grapes.server.db.datamodel.DbGrapesInfo;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
 import org.jongo.Jongo;
 
 import java.io.PrintWriter;
 
 public class MigrationTask extends Task{
 
-    private final DataBaseConfig config;
-    private MongoClient mongo;
+    private final MongoDatastore datastore;
+    private final ChangeTrackingRepositoryHandler repoHandler;
 
-    public MigrationTask(final DataBaseConfig configuration) {
+    public MigrationTask(final MongoDatastore datastore, final ChangeTrackingRepositoryHandler repoHandler) {
         super("migrate");
-        this.config = configuration;
+        this.datastore = datastore;
+        this.repoHandler = repoHandler;
     }
 
     @Override
     public void execute(final ImmutableMultimap<String, String> stringStringImmutableMultimap, final PrintWriter printWriter) throws Exception {
-        final Jongo db = initDBConnection();
+        final Jongo db = datastore.getJongo();
 
         final DbGrapesInfo info = db.getCollection(DbCollections.DB_GRAPES_INFO).findOne().as(DbGrapesInfo.class);
 
         if(info == null){
-            Migration220.perform(db, printWriter);
+            try{
+                Migration220.perform(db, printWriter);
+            }
+            finally {
+                // the migration writes to the database directly, the results computed before are stale
+                repoHandler.externalChange();
+            }
             return;
         }
 
-        mongo.close();
         printWriter.println("Your database is up-to-date.");
         printWriter.flush();
 
     }
-
-
-    private Jongo initDBConnection() throws Exception {
-        final ServerAddress address = new ServerAddress(config.getHost() , config.getPort());
-        mongo = new MongoClient(address);
-        final DB db = mongo.getDB(config.getDatastore());
-
-        if(config.getUser() != null && config.getPwd() != null){
-            db.authenticate(config.getUser(), config.getPwd());
-        }
-
-        return new Jongo(db);
-
-    }
 }
@@ -6,6 +6,7 @@ import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Dependency;
 import org.axway.grapes.commons.datamodel.License;
 import org.axway.grapes.server.core.options.Decorator;
+import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.webapp.views.serialization.DependencyListSerializer;
 import org.axway.grapes.server.webapp.views.utils.Table;
 
@@ -63,6 +64,7 @@ public class DependencyListView extends View {
 
     // The dependency list to display
     private final List<Dependency> dependencies = new ArrayList<Dependency>();
+    private boolean sorted = true;
 
     // The available licenses to complete dependencies' information
     private Map<String, License> licenseDictionary = new HashMap<String, License>();
@@ -91,6 +93,7 @@ public class DependencyListView extends View {
     public void addDependency(final Dependency dependency) {
         if(!dependencies.contains(dependency)){
             dependencies.add(dependency);
+            sorted = false;
         }
     }
 
@@ -106,11 +109,16 @@ public class DependencyListView extends View {
     }
 
     /**
-     * Get the dependencies of the view
+     * Get the dependencies of the view sorted by source name
      *
      * @return List<Dependency>
      */
     public List<Dependency> getDependencies() {
+        if(!sorted){
+            DataUtils.sortBySource(dependencies);
+            sorted = true;
+        }
+
         return dependencies;
     }
 
@@ -123,7 +131,7 @@ public class DependencyListView extends View {
         final Table table = new Table(getHeaders());
 
         // Create row(s) per dependency
-        for(Dependency dependency: dependencies){
+        for(Dependency dependency: getDependencies()){
             final List<String> licenseIds = dependency.getTarget().getLicenses();
 
             // A dependency can have many rows if it has many licenses
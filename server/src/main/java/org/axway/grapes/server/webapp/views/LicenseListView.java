@@ -3,6 +3,7 @@ package org.axway.grapes.server.webapp.views;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.yammer.dropwizard.views.View;
 import org.axway.grapes.commons.datamodel.License;
+import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.webapp.views.serialization.LicenseLisSerializer;
 import org.axway.grapes.server.webapp.views.utils.Table;
 
@@ -23,6 +24,7 @@ public class LicenseListView extends View {
     private final String title;
 
     private final List<License> licenses = new ArrayList<License>();
+    private boolean sorted = true;
 
 
     public LicenseListView(final String title) {
@@ -37,6 +39,7 @@ public class LicenseListView extends View {
     public void add(final License license) {
         if(!licenses.contains(license)){
             licenses.add(license);
+            sorted = false;
         }
     }
 
@@ -47,6 +50,11 @@ public class LicenseListView extends View {
     }
 
     public List<License> getLicenses() {
+        if(!sorted){
+            DataUtils.sortByName(licenses);
+            sorted = true;
+        }
+
         return licenses;
     }
 
@@ -59,7 +67,7 @@ public class LicenseListView extends View {
         final Table table = new Table("Name", "Long Name", "URL", "Comment");
 
         // Create row(s) per dependency
-        for(License license: licenses){
+        for(License license: getLicenses()){
             table.addRow(license.getName(), license.getLongName(), license.getUrl(), license.getComments());
         }
 
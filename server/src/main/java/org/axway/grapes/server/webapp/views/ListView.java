@@ -1,11 +1,12 @@
 package org.axway.grapes.server.webapp.views;
 
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Functions;
 import com.yammer.dropwizard.views.View;
+import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.webapp.views.serialization.ListSerializer;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -39,7 +40,7 @@ public class ListView extends View{
 	}
 
 	public List<String> getItems() {
-		Collections.sort(list);
+		DataUtils.sort(list, Functions.<String>identity());
 		return list;
 	}
 
@@ -1,9 +1,12 @@
 package org.axway.grapes.server.webapp.views;
 
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.collect.Lists;
 import com.yammer.dropwizard.views.View;
 import org.axway.grapes.commons.datamodel.Artifact;
 import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.db.DataUtils;
 
 import java.util.*;
 
@@ -15,6 +18,14 @@ import java.util.*;
  */
 public class PromotionReportView extends View {
 
+    // Sort key of the reports: the name and the version of their root module
+    private static final Function<PromotionReportView, String> REPORT_SORT_KEY = new Function<PromotionReportView, String>() {
+        @Override
+        public String apply(final PromotionReportView report) {
+            return report.getRootModule().getName() + ":" + report.getRootModule().getVersion();
+        }
+    };
+
     private Module rootModule;
     private List<String> unPromotedDependencies = new ArrayList<String>();
     private Map<String, PromotionReportView> dependencyReports = new HashMap<String, PromotionReportView>();
@@ -43,13 +54,14 @@ public class PromotionReportView extends View {
         return unPromotedDependencies;
     }
 
-    public void addDependencyPromotionReport(final String moduleId, final PromotionReportView report) {
-        if(moduleId != null && report != null){
-            dependencyReports.put(moduleId, report);
-
-            // Add children reports
-            dependencyReports.putAll(report.dependencyReports);
-        }
+    /**
+     * Sets the reports of the modules to promote before this one.
+     * The map is shared by all the reports of a promotion check: it contains the reports of all the unpromoted modules of the check.
+     *
+     * @param dependencyReports Map<String, PromotionReportView> the reports by module ID
+     */
+    public void setDependencyReports(final Map<String, PromotionReportView> dependencyReports) {
+        this.dependencyReports = dependencyReports;
     }
 
     public PromotionReportView getTargetedDependencyReport(final String moduleId) {
@@ -57,6 +69,7 @@ public class PromotionReportView extends View {
     }
 
     private List<Artifact> getDoNotUseArtifacts() {
+        DataUtils.sort(doNotUseArtifacts);
         return doNotUseArtifacts;
     }
 
@@ -64,18 +77,24 @@ public class PromotionReportView extends View {
         doNotUseArtifacts.add(doNotUseArtifact);
     }
 
+    /**
+     * Returns the reports that contain DO_NOT_USE artifacts: this report first, then the dependency reports sorted by module
+     *
+     * @return List<PromotionReportView>
+     */
     public List<PromotionReportView> getReportsWithDoNotUseArtifacts() {
         final List<PromotionReportView> reports = new ArrayList<PromotionReportView>();
 
-        if(!getDoNotUseArtifacts().isEmpty()){
-            reports.add(this);
-        }
-
         for(PromotionReportView report: dependencyReports.values()){
             if(!report.getDoNotUseArtifacts().isEmpty()){
                 reports.add(report);
             }
         }
+        DataUtils.sort(reports, REPORT_SORT_KEY);
+
+        if(!getDoNotUseArtifacts().isEmpty()){
+            reports.add(0, this);
+        }
 
         return reports;
     }
@@ -92,8 +111,10 @@ public class PromotionReportView extends View {
         return getRootModule().getVersion().contains("SNAPSHOT");
     }
 
-    public Set<String> getMisMatchModules(){
-        return mismatchVersions.keySet();
+    public List<String> getMisMatchModules(){
+        final List<String> modules = new ArrayList<String>(mismatchVersions.keySet());
+        DataUtils.sort(modules, Functions.<String>identity());
+        return modules;
     }
 
     public List<String> getMisMatchVersions(final String moduleName){
@@ -101,9 +122,14 @@ public class PromotionReportView extends View {
     }
 
     public void compute() {
-        /* Order the module to promote */
-         final Comparator<String> promotionPlanComparator = new PromotionPlanComparator(dependencyReports);
-        Collections.sort(unPromotedDependencies, promotionPlanComparator);
+        /* Order the module to promote: each module comes after the unpromoted modules it depends on */
+        final Set<String> toPromote = new HashSet<String>(unPromotedDependencies);
+        final List<String> promotionPlan = new ArrayList<String>(unPromotedDependencies.size());
+        final Set<String> visited = new HashSet<String>();
+        for(String dependency: unPromotedDependencies){
+            addToPromotionPlan(dependency, toPromote, visited, promotionPlan);
+        }
+        unPromotedDependencies = promotionPlan;
 
         /* Identify the mismatch versions */
         // Collect all the modules names and versions
@@ -131,43 +157,33 @@ public class PromotionReportView extends View {
     }
 
     private List<PromotionReportView> getAllDependencyReport() {
-        final List<PromotionReportView> reports = new ArrayList<PromotionReportView>();
-        for(PromotionReportView report: dependencyReports.values()){
-            reports.addAll(report.getAllDependencyReport());
-        }
+        final List<PromotionReportView> reports = new ArrayList<PromotionReportView>(dependencyReports.values());
         reports.add(this);
 
         return reports;
     }
 
-    public List<String> getPromotionPlan(){
-        return unPromotedDependencies;
-    }
-
-
-    private class PromotionPlanComparator implements Comparator<String> {
-        private final Map<String, PromotionReportView> dependencyReports;
-
-        public PromotionPlanComparator(final Map<String, PromotionReportView> dependencyReports) {
-            this.dependencyReports = dependencyReports;
+    /**
+     * Adds a module to the promotion plan after its own unpromoted dependencies (depth-first post-order)
+     */
+    private void addToPromotionPlan(final String moduleId, final Set<String> toPromote, final Set<String> visited, final List<String> promotionPlan) {
+        if(!visited.add(moduleId)){
+            return;
         }
 
-
-        @Override
-        public int compare(final String module1, final String module2) {
-            final PromotionReportView report1 = dependencyReports.get(module1);
-            final PromotionReportView report2 = dependencyReports.get(module2);
-
-            if(report1.canBePromoted() ||
-                    report2.getUnPromotedDependencies().contains(module1)){
-                return -1;
-            }
-            else if(report2.canBePromoted() ||
-                    report1.getUnPromotedDependencies().contains(module2)){
-                return 1;
+        final PromotionReportView report = dependencyReports.get(moduleId);
+        if(report != null){
+            for(String dependency: report.getUnPromotedDependencies()){
+                addToPromotionPlan(dependency, toPromote, visited, promotionPlan);
             }
+        }
 
-            return 0;
+        if(toPromote.contains(moduleId)){
+            promotionPlan.add(moduleId);
         }
     }
+
+    public List<String> getPromotionPlan(){
+        return unPromotedDependencies;
+    }
 }
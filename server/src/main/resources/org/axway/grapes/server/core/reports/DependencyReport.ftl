@@ -27,11 +27,12 @@
 				<#list dependencyTargets as target>
 					<#assign firstVersion = 1>
 					<#assign nbEntries = getNbEntry(target)>
+					<#assign doNotUse = shouldNotBeUsed(target.getGavc())>
 					<#list getVersions(target) as version>
 						<#assign firstDep = 1>
-						<#assign nbDeps = getDependencies(target, version)?size>
-						<#list getDependencies(target, version) as dependency>
-						<#assign doNotUse = shouldNotBeUsed(target.getGavc())>
+						<#assign dependencies = getDependencies(target, version)>
+						<#assign nbDeps = dependencies?size>
+						<#list dependencies as dependency>
 		    				<tr>
 		    					<#if firstVersion == 1 && firstDep == 1>
 								<td rowspan="${nbEntries}"><#if doNotUse == 1><strong></#if>${target.getGroupId()}<#if doNotUse == 1>*</strong></#if></td>
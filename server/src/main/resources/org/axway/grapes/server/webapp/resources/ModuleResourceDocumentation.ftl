@@ -80,6 +80,7 @@
                         <li class=""><a data-toggle="collapse" data-target="#accordion9" href="#module-promotion"><i class="icon-chevron-right"></i> Promote a module</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion10" href="#module-promotion-doable"><i class="icon-chevron-right"></i> Can it be promoted?</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion11" href="#module-buildinfo"><i class="icon-chevron-right"></i> Get/Update build info</a></li>
+                        <li class=""><a data-toggle="collapse" data-target="#accordion12" href="#module-batch"><i class="icon-chevron-right"></i> Add/update several modules</a></li>
                     </ul>
                 </div>
                 <div class="span8">
@@ -119,6 +120,23 @@
                             </ul>
                         </div>
                     </section>
+                    <section id="module-batch">
+                        <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion12">
+                            <h2>@ /module/batch</h2>
+                        </a>
+                        <div id="accordion12" class="collapse">
+                            <ul>
+                                <li>
+                                    <h3>POST</h3>
+                                    <ul>
+                                        <li>Add/update several modules in one request</li>
+                                        <li>Expects a JSON list of modules in the request content</li>
+                                        <li>Return status 201 if ok 400 if one of the modules does not suit the model, nothing is stored in this case</li>
+                                    </ul>
+                                </li>
+                            </ul>
+                        </div>
+                    </section>
                     <section id="module-names">
                         <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion2">
                             <h2>@ /module/names</h2>
@@ -1,12 +1,31 @@
 package org.axway.grapes.server;
 
 import com.google.common.collect.Lists;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.LicenseIndex;
+import org.axway.grapes.server.core.concurrent.SingleFlight;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.core.graphs.CompressedDependencyGraph;
+import org.axway.grapes.server.core.graphs.TraversalExecutor;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.tagging.OrganizationTagger;
+import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
+import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.axway.grapes.server.webapp.auth.GrapesAuthenticator;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -46,7 +65,7 @@ public class GrapesTestUtils {
             when(repositoryHandler.getOrganization(ORGANIZATION_NAME_4TEST)).thenReturn(organization);
             when(repositoryHandler.getAllOrganizations()).thenReturn(Lists.newArrayList(organization));
 
-            return repositoryHandler;
+            return mockBulkLookups(repositoryHandler);
 
         }catch (Exception e){
             System.err.println("Failed to mock Grapes configuration due to password encryption error.");
@@ -54,4 +73,115 @@ public class GrapesTestUtils {
 
         return mock(RepositoryHandler.class);
     }
+
+    /**
+     * Builds the collaborators of the core handlers around a repository handler, as the server does, with their default configuration
+     *
+     * @param repositoryHandler RepositoryHandler
+     * @return CoreServices
+     */
+    public static CoreServices getServices(final RepositoryHandler repositoryHandler) {
+        final SingleFlight singleFlight = new SingleFlight();
+        final ClosureCache closureCache = new ClosureCache(singleFlight);
+
+        return new CoreServices(repositoryHandler, new LicenseIndex(repositoryHandler), new CompressedDependencyGraph(repositoryHandler),
+                new TraversalExecutor(), closureCache, singleFlight, new OrganizationTagger(repositoryHandler, closureCache));
+    }
+
+    /**
+     * Makes the bulk lookups of a RepositoryHandler mock answer with the single lookups stubbed in the tests
+     * and computes the latest versions out of the stubbed artifact versions
+     *
+     * @param repositoryHandler RepositoryHandler
+     * @return RepositoryHandler
+     */
+    public static RepositoryHandler mockBulkLookups(final RepositoryHandler repositoryHandler) {
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenAnswer(new Answer<List<DbArtifact>>() {
+            @Override
+            public List<DbArtifact> answer(final InvocationOnMock invocation) {
+                final List<DbArtifact> artifacts = new ArrayList<DbArtifact>();
+                for(Object gavc: (Collection<?>) invocation.getArguments()[0]){
+                    final DbArtifact artifact = repositoryHandler.getArtifact((String) gavc);
+                    if(artifact != null){
+                        artifacts.add(artifact);
+                    }
+                }
+                return artifacts;
+            }
+        });
+        when(repositoryHandler.getModules(anyCollectionOf(String.class))).thenAnswer(new Answer<List<DbModule>>() {
+            @Override
+            public List<DbModule> answer(final InvocationOnMock invocation) {
+                final List<DbModule> modules = new ArrayList<DbModule>();
+                for(Object moduleId: (Collection<?>) invocation.getArguments()[0]){
+                    final DbModule module = repositoryHandler.getModule((String) moduleId);
+                    if(module != null){
+                        modules.add(module);
+                    }
+                }
+                return modules;
+            }
+        });
+        when(repositoryHandler.getRootModulesOf(anyCollectionOf(String.class))).thenAnswer(new Answer<Map<String, DbModule>>() {
+            @Override
+            public Map<String, DbModule> answer(final InvocationOnMock invocation) {
+                final Map<String, DbModule> modules = new HashMap<String, DbModule>();
+                for(Object gavc: (Collection<?>) invocation.getArguments()[0]){
+                    final DbModule module = repositoryHandler.getRootModuleOf((String) gavc);
+                    if(module != null){
+                        modules.put((String) gavc, module);
+                    }
+                }
+                return modules;
+            }
+        });
+        when(repositoryHandler.getAncestorsOf(anyCollectionOf(String.class), any(FiltersHolder.class))).thenAnswer(new Answer<Map<String, List<DbModule>>>() {
+            @Override
+            public Map<String, List<DbModule>> answer(final InvocationOnMock invocation) {
+                final Map<String, List<DbModule>> ancestors = new HashMap<String, List<DbModule>>();
+                for(Object gavc: (Collection<?>) invocation.getArguments()[0]){
+                    final DbArtifact artifact = repositoryHandler.getArtifact((String) gavc);
+                    if(artifact == null){
+                        continue;
+                    }
+                    final List<DbModule> modules = repositoryHandler.getAncestors(artifact, (FiltersHolder) invocation.getArguments()[1]);
+                    if(modules != null && !modules.isEmpty()){
+                        ancestors.put((String) gavc, modules);
+                    }
+                }
+                return ancestors;
+            }
+        });
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                for(Object artifact: (Collection<?>) invocation.getArguments()[0]){
+                    repositoryHandler.store((DbArtifact) artifact);
+                }
+                return null;
+            }
+        }).when(repositoryHandler).store(anyCollectionOf(DbArtifact.class));
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                for(Object artifact: (Collection<?>) invocation.getArguments()[0]){
+                    if(repositoryHandler.getArtifact(((DbArtifact) artifact).getGavc()) == null){
+                        repositoryHandler.store((DbArtifact) artifact);
+                    }
+                }
+                return null;
+            }
+        }).when(repositoryHandler).storeIfNew(anyCollectionOf(DbArtifact.class));
+        when(repositoryHandler.getLatestVersion(any(DbArtifact.class))).thenAnswer(new Answer<DbLatestVersion>() {
+            @Override
+            public DbLatestVersion answer(final InvocationOnMock invocation) {
+                final DbArtifact artifact = (DbArtifact) invocation.getArguments()[0];
+                final List<String> versions = repositoryHandler.getArtifactVersions(artifact);
+                return DataUtils.getLatestVersion(artifact,
+                        versions == null ? Collections.<String>emptyList() : versions);
+            }
+        });
+
+        return repositoryHandler;
+    }
 }
@@ -0,0 +1,79 @@
+package org.axway.grapes.server.benchmarks;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.server.db.DataUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former bubble sort of the report rows with DataUtils.sort.
+ *
+ * <p>Run with: mvn -Pbenchmarks test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.axway.grapes.server.benchmarks.ArtifactSortBenchmark</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArtifactSortBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private List<Artifact> artifacts;
+
+    @Setup
+    public void createArtifacts() {
+        final Random random = new Random(42);
+        artifacts = new ArrayList<Artifact>(size);
+
+        for(int i = 0; i < size; i++){
+            artifacts.add(DataModelFactory.createArtifact(
+                    "org.group" + random.nextInt(100), "artifact" + random.nextInt(size), "1." + random.nextInt(50), "", "jar", ""));
+        }
+    }
+
+    @Benchmark
+    public List<Artifact> bubbleSort() {
+        final List<Artifact> targets = new ArrayList<Artifact>(artifacts);
+        int n = targets.size();
+        while(n != 0){
+            int newn = 0;
+
+            for(int i = 1 ; i <= n-1 ; i++){
+                if (targets.get(i-1).toString().compareTo(targets.get(i).toString()) > 0){
+                    Collections.swap(targets, i - 1, i);
+                    newn = i;
+                }
+            }
+
+            n = newn;
+        }
+        return targets;
+    }
+
+    @Benchmark
+    public List<Artifact> keyedSort() {
+        final List<Artifact> targets = new ArrayList<Artifact>(artifacts);
+        DataUtils.sort(targets);
+        return targets;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(ArtifactSortBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,120 @@
+package org.axway.grapes.server.benchmarks;
+
+import com.mongodb.DBObject;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.mongo.MongoQuery;
+import org.jongo.marshall.jackson.JacksonMapper;
+import org.jongo.query.BsonQueryFactory;
+import org.jongo.query.QueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former string concatenation of the queries, parsed back by Jongo on each call, with MongoQuery.
+ * Both measure what a repository call pays before reaching the driver: building the query and turning it into a DBObject.
+ *
+ * <p>Run with: mvn -Pbenchmarks test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.axway.grapes.server.benchmarks.QueryBuildingBenchmark
+ * The GC profiler reports the allocation per call (gc.alloc.rate.norm).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QueryBuildingBenchmark {
+
+    private final QueryFactory queryFactory = new BsonQueryFactory(new JacksonMapper.Builder().build().getMarshaller());
+
+    private final String gavc = "org.axway.grapes:grapes-server:1.2.0:jar:";
+
+    private final Map<String, Object> versionParams = new LinkedHashMap<String, Object>();
+
+    @Setup
+    public void createParams() {
+        versionParams.put(DbArtifact.GROUPID_DB_FIELD, "org.axway.grapes");
+        versionParams.put(DbArtifact.ARTIFACTID_DB_FIELD, "grapes-server");
+        versionParams.put(DbArtifact.CLASSIFIER_DB_FIELD, "");
+        versionParams.put(DbArtifact.EXTENSION_DB_FIELD, "jar");
+    }
+
+    @Benchmark
+    public DBObject concatenatedById() {
+        return queryFactory.createQuery(generateQuery("_id", gavc)).toDBObject();
+    }
+
+    @Benchmark
+    public DBObject mongoQueryById() {
+        return queryFactory.createQuery(MongoQuery.TEMPLATE, MongoQuery.byId(gavc)).toDBObject();
+    }
+
+    @Benchmark
+    public DBObject concatenatedVersions() {
+        return queryFactory.createQuery(generateQuery(versionParams)).toDBObject();
+    }
+
+    @Benchmark
+    public DBObject mongoQueryVersions() {
+        return queryFactory.createQuery(MongoQuery.TEMPLATE, MongoQuery.where(versionParams)).toDBObject();
+    }
+
+    // Former JongoUtils implementation
+    private static String generateQuery(final String key, final Object value) {
+        final Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put(key, value);
+        return generateQuery(params);
+    }
+
+    private static String generateQuery(final Map<String, Object> params) {
+        final StringBuilder sb = new StringBuilder();
+        boolean newEntry = false;
+
+        sb.append("{");
+        for(Map.Entry<String, Object> param: params.entrySet()){
+            if(newEntry){
+                sb.append(", ");
+                newEntry = false;
+            }
+            sb.append(param.getKey());
+            sb.append(": ");
+            sb.append(getParam(param.getValue()));
+            newEntry = true;
+        }
+        sb.append("}");
+
+        return sb.toString();
+    }
+
+    private static Object getParam(final Object param) {
+        final StringBuilder sb = new StringBuilder();
+        if(param instanceof String){
+            sb.append("'");
+            sb.append((String) param);
+            sb.append("'");
+        }
+        else if(param instanceof Boolean){
+            sb.append(String.valueOf((Boolean) param));
+        }
+        else if(param instanceof Integer){
+            sb.append(String.valueOf((Integer) param));
+        }
+
+        return sb.toString();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(QueryBuildingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,6 +1,7 @@
 package org.axway.grapes.server.core;
 
 
+import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
@@ -25,7 +26,7 @@ public class ArtifactHandlerTest {
     @Test
     public void checkStoreArtifact(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbArtifact artifact = new DbArtifact();
         handler.store(artifact);
@@ -40,7 +41,7 @@ public class ArtifactHandlerTest {
         artifact.setVersion("1.0.0-SNAPSHOT");
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         handler.storeIfNew(artifact);
 
@@ -55,7 +56,7 @@ public class ArtifactHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         handler.storeIfNew(artifact);
 
@@ -73,7 +74,7 @@ public class ArtifactHandlerTest {
         when(repositoryHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addLicense(artifact.getGavc(), license.getName());
 
         verify(repositoryHandler, times(1)).addLicenseToArtifact(artifact, license.getName());
@@ -91,7 +92,7 @@ public class ArtifactHandlerTest {
         when(repositoryHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addLicense(artifact.getGavc(), license.getName());
 
         verify(repositoryHandler, times(1)).addLicenseToArtifact(artifact, license.getName());
@@ -104,7 +105,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addLicense(artifact.getGavc(), "testLicense");
 
         verify(repositoryHandler, times(1)).addLicenseToArtifact(artifact, "testLicense");
@@ -118,7 +119,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addLicense(artifact.getGavc(), "testLicense");
 
         verify(repositoryHandler, never()).addLicenseToArtifact(artifact, "testLicense");
@@ -136,7 +137,7 @@ public class ArtifactHandlerTest {
         when(repositoryHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addLicense(artifact.getGavc(), license.getName());
 
         verify(repositoryHandler, never()).addLicenseToArtifact(artifact, license.getName());
@@ -152,7 +153,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try{
@@ -168,7 +169,7 @@ public class ArtifactHandlerTest {
     @Test
     public void checkGetGavcs(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.getArtifactGavcs(mock(FiltersHolder.class));
 
         verify(repositoryHandler, times(1)).getGavcs(any(FiltersHolder.class));
@@ -177,7 +178,7 @@ public class ArtifactHandlerTest {
     @Test
     public void checkGetGroupIds(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.getArtifactGroupIds(mock(FiltersHolder.class));
 
         verify(repositoryHandler, times(1)).getGroupIds(any(FiltersHolder.class));
@@ -193,7 +194,7 @@ public class ArtifactHandlerTest {
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
         when(repositoryHandler.getArtifactVersions(artifact)).thenReturn(Collections.singletonList(artifact.getVersion()));
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         final List<String> versions = handler.getArtifactVersions(artifact.getGavc());
 
         verify(repositoryHandler, times(1)).getArtifact(artifact.getGavc());
@@ -210,7 +211,7 @@ public class ArtifactHandlerTest {
         artifact.setVersion("1.0.0-SNAPSHOT");
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -234,11 +235,11 @@ public class ArtifactHandlerTest {
         versions.add("2.0.0-SNAPSHOT");
         versions.add("3.0.0");
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
         when(repositoryHandler.getArtifactVersions(artifact)).thenReturn(versions);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         final String lastVersion = handler.getArtifactLastVersion(artifact.getGavc());
 
         assertEquals("3.0.0", lastVersion);
@@ -255,11 +256,11 @@ public class ArtifactHandlerTest {
         versions.add("ZZZZZ");
         versions.add("EEEEE");
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
         when(repositoryHandler.getArtifactVersions(artifact)).thenReturn(versions);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         final String lastVersion = handler.getArtifactLastVersion(artifact.getGavc());
 
         assertEquals("ZZZZZ", lastVersion);
@@ -268,7 +269,7 @@ public class ArtifactHandlerTest {
     @Test
     public void getTheLastVersionOfAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try{
@@ -289,7 +290,7 @@ public class ArtifactHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbArtifact gotArtifact = handler.getArtifact(artifact.getGavc());
 
@@ -301,7 +302,7 @@ public class ArtifactHandlerTest {
     @Test
     public void getAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -321,7 +322,7 @@ public class ArtifactHandlerTest {
         artifact.setVersion("1.0.0-SNAPSHOT");
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization organization = handler.getOrganization(artifact);
 
@@ -336,7 +337,7 @@ public class ArtifactHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getRootModuleOf(artifact.getGavc())).thenReturn(new DbModule());
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization organization = handler.getOrganization(artifact);
 
@@ -358,7 +359,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getRootModuleOf(artifact.getGavc())).thenReturn(module);
         when(repositoryHandler.getOrganization(organization.getName())).thenReturn(organization);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization gotOrganization = handler.getOrganization(artifact);
 
@@ -375,7 +376,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.updateProvider(artifact.getGavc(), "me");
 
         verify(repositoryHandler, times(1)).updateProvider(artifact, "me");
@@ -384,7 +385,7 @@ public class ArtifactHandlerTest {
     @Test
     public void updateTheProviderOfAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -407,7 +408,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.updateDownLoadUrl(artifact.getGavc(), "http://download.url");
 
         verify(repositoryHandler, times(1)).updateDownloadUrl(artifact, "http://download.url");
@@ -416,7 +417,7 @@ public class ArtifactHandlerTest {
     @Test
     public void updateTheDownloadUrlOfAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -439,7 +440,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.deleteArtifact(artifact.getGavc());
 
         verify(repositoryHandler, times(1)).deleteArtifact(artifact.getGavc());
@@ -448,7 +449,7 @@ public class ArtifactHandlerTest {
     @Test
     public void deleteAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -471,7 +472,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.updateDoNotUse(artifact.getGavc(), true);
 
         verify(repositoryHandler, times(1)).updateDoNotUse(artifact, true);
@@ -480,7 +481,7 @@ public class ArtifactHandlerTest {
     @Test
     public void updateDoNotUseFlagOfAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -505,7 +506,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.getAncestors(artifact.getGavc(), filters);
 
         verify(repositoryHandler, times(1)).getAncestors(artifact, filters);
@@ -514,7 +515,7 @@ public class ArtifactHandlerTest {
     @Test
     public void getAncestorsOfAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -541,7 +542,7 @@ public class ArtifactHandlerTest {
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
         when(repositoryHandler.getLicense(license.getName())).thenReturn(license);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addLicenseToArtifact(artifact.getGavc(), license.getName());
 
         verify(repositoryHandler, times(1)).addLicenseToArtifact(artifact, license.getName());
@@ -561,7 +562,7 @@ public class ArtifactHandlerTest {
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
         when(repositoryHandler.getLicense(license.getName())).thenReturn(license);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addLicenseToArtifact(artifact.getGavc(), license.getName());
 
         verify(repositoryHandler, never()).addLicenseToArtifact(artifact, license.getName());
@@ -575,7 +576,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getLicense(license.getName())).thenReturn(license);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -597,7 +598,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -620,7 +621,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.removeLicenseFromArtifact(artifact.getGavc(), "licenseTest");
 
         verify(repositoryHandler, times(1)).removeLicenseFromArtifact(artifact, "licenseTest");
@@ -635,7 +636,7 @@ public class ArtifactHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
 
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.removeLicenseFromArtifact(artifact.getGavc(), "licenseTest");
 
         verify(repositoryHandler, never()).removeLicenseFromArtifact(artifact, "licenseTest");
@@ -644,7 +645,7 @@ public class ArtifactHandlerTest {
     @Test
     public void removeALicenseFromAnArtifactThatDoeNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -661,7 +662,7 @@ public class ArtifactHandlerTest {
     @Test
     public void checkGetAllArtifact(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+        final ArtifactHandler handler = new ArtifactHandler(GrapesTestUtils.getServices(repositoryHandler));
         final FiltersHolder filtersHolder = mock(FiltersHolder.class);
 
         final DbArtifact artifact = new DbArtifact();
@@ -3,6 +3,7 @@ package org.axway.grapes.server.core;
 
 import org.axway.grapes.commons.datamodel.Dependency;
 import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
@@ -21,8 +22,8 @@ public class DependencyHandlerTest {
 
     @Test
     public void getModuleDependenciesOnAModuleThatDoesNotExist(){
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
         try{
@@ -43,10 +44,10 @@ public class DependencyHandlerTest {
         module.setName("module");
         module.setVersion("1.0.0");
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
 
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module.getId(), mock(FiltersHolder.class));
 
@@ -85,7 +86,7 @@ public class DependencyHandlerTest {
         dependency4.setVersion("101");
         module.addDependency(dependency4.getGavc(), Scope.PROVIDED);
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
         when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
         when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
@@ -99,7 +100,7 @@ public class DependencyHandlerTest {
         filters.getScopeHandler().setScopeTest(true);
         filters.getDecorator().setShowThirdparty(true);
 
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module.getId(), filters);
 
@@ -146,7 +147,7 @@ public class DependencyHandlerTest {
         dependency4.setVersion("101");
         subModule.addDependency(dependency4.getGavc(), Scope.PROVIDED);
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
         when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
         when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
@@ -160,7 +161,7 @@ public class DependencyHandlerTest {
         filters.getScopeHandler().setScopeTest(true);
         filters.getDecorator().setShowThirdparty(true);
 
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module.getId(), filters);
 
@@ -200,7 +201,7 @@ public class DependencyHandlerTest {
         dependency3.setVersion("123");
         module3.addDependency(dependency3.getGavc(), Scope.COMPILE);
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
         when(repositoryHandler.getModule(module2.getId())).thenReturn(module2);
         when(repositoryHandler.getModule(module3.getId())).thenReturn(module3);
@@ -219,7 +220,7 @@ public class DependencyHandlerTest {
         filters.getDecorator().setShowThirdparty(true);
         filters.getDepthHandler().setDepth(1);
 
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module1.getId(), filters);
         assertEquals(1, dependencies.size());
@@ -265,7 +266,7 @@ public class DependencyHandlerTest {
         dependency3.setVersion("123");
         module3.addDependency(dependency3.getGavc(), Scope.COMPILE);
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
         when(repositoryHandler.getModule(module2.getId())).thenReturn(module2);
         when(repositoryHandler.getModule(module3.getId())).thenReturn(module3);
@@ -284,7 +285,7 @@ public class DependencyHandlerTest {
         filters.getDecorator().setShowThirdparty(true);
         filters.getDepthHandler().setFullRecursive(true);
 
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module1.getId(), filters);
         assertEquals(3, dependencies.size());
@@ -326,7 +327,7 @@ public class DependencyHandlerTest {
         dependency3.setVersion("1.0.0");
         module3.addDependency(dependency3.getGavc(), Scope.COMPILE);
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
         when(repositoryHandler.getModule(module2.getId())).thenReturn(module2);
         when(repositoryHandler.getModule(module3.getId())).thenReturn(module3);
@@ -346,7 +347,7 @@ public class DependencyHandlerTest {
         filters.getDecorator().setShowThirdparty(true);
         filters.getDepthHandler().setFullRecursive(true);
 
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module1.getId(), filters);
         assertEquals(3, dependencies.size());
@@ -382,7 +383,7 @@ public class DependencyHandlerTest {
         dependency4.setVersion("101");
         module.addDependency(dependency4.getGavc(), Scope.TEST);
 
-        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
         when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
         when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
@@ -396,7 +397,7 @@ public class DependencyHandlerTest {
         filters.getScopeHandler().setScopeTest(false);
         filters.getDecorator().setShowThirdparty(true);
 
-        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final DependencyHandler dependencyHandler = new DependencyHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module.getId(), filters);
         assertEquals(1, dependencies.size());
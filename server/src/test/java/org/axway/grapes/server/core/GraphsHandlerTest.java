@@ -1,10 +1,14 @@
 package org.axway.grapes.server.core;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.core.graphs.AbstractGraph;
 import org.axway.grapes.server.core.graphs.GraphDependency;
 import org.axway.grapes.server.core.graphs.GraphElement;
+import org.axway.grapes.server.core.graphs.GraphFormat;
+import org.axway.grapes.server.core.graphs.ModuleGraph;
 import org.axway.grapes.server.core.graphs.TreeNode;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.datamodel.DbModule;
@@ -12,6 +16,11 @@ import org.axway.grapes.server.materials.TestingRepositoryHandler;
 import org.axway.grapes.server.materials.cases.*;
 import org.junit.Before;
 import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 
 import static org.junit.Assert.*;
 
@@ -33,7 +42,7 @@ public class GraphsHandlerTest {
         filters.getDepthHandler().setFullRecursive(true);
 
         repoHandler = new TestingRepositoryHandler();
-        graphHandler = new GraphsHandler(repoHandler, filters);
+        graphHandler = new GraphsHandler(GrapesTestUtils.getServices(repoHandler), filters);
     }
 
     @Test
@@ -160,6 +169,88 @@ public class GraphsHandlerTest {
         assertEquals(2, graph.getDependencies().size());
     }
 
+    @Test
+    public void theDuplicatedElementsAndDependenciesAreIgnored(){
+        final AbstractGraph graph = new ModuleGraph();
+        graph.addElement("a", "1", true);
+        graph.addElement("b", "1", false);
+        graph.addElement("b", "2", false);
+        graph.addDependency("a", "b", Scope.COMPILE);
+        graph.addDependency("a", "b", Scope.COMPILE);
+        graph.addDependency("a", "b", Scope.TEST);
+        graph.addDependency("b", "b", Scope.TEST);
+
+        assertEquals(2, graph.getElements().size());
+        assertEquals("1", graph.getElements().get(1).getVersion());
+        assertEquals(2, graph.getDependencies().size());
+        assertTrue(graph.isTreated("b"));
+    }
+
+    @Test
+    public void getCollapsedGraphOfModuleWithOneArtifactWithTransitiveDependencies(){
+        repoHandler.loadTestCase(new TC06_ModuleWithOneArtifactWithTransitiveDependencies());
+        filters.getDepthHandler().setCollapseDepth(1);
+
+        final String moduleId = DbModule.generateID(TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_NAME, TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_VERSION);
+        AbstractGraph graph = graphHandler.getModuleGraph(moduleId);
+
+        assertEquals(3, graph.getElements().size());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.DEPENDENCY_MODULE, graph.getElements().get(1).getValue());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.TRANSITIVE_DEPENDENCY_GROUPID, graph.getElements().get(2).getValue());
+        assertEquals(GraphsHandler.COLLAPSED_VERSION, graph.getElements().get(2).getVersion());
+
+        assertEquals(2, graph.getDependencies().size());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.DEPENDENCY_MODULE, graph.getDependencies().get(1).getSource());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.TRANSITIVE_DEPENDENCY_GROUPID, graph.getDependencies().get(1).getTarget());
+
+        // everything but the root
+        filters.getDepthHandler().setCollapseDepth(0);
+        graph = graphHandler.getModuleGraph(moduleId);
+
+        assertEquals(3, graph.getElements().size());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.DEPENDENCY_GROUPID, graph.getElements().get(1).getValue());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.DEPENDENCY_GROUPID, graph.getDependencies().get(1).getSource());
+    }
+
+    @Test
+    public void theStreamedGraphIsTheBuiltGraph() throws Exception {
+        repoHandler.loadTestCase(new TC02_ModuleWithOneArtifactAndDependencyOfEachType());
+        final DbModule module = repoHandler.getModule(DbModule.generateID(TC02_ModuleWithOneArtifactAndDependencyOfEachType.MODULE_NAME, TC02_ModuleWithOneArtifactAndDependencyOfEachType.MODULE_VERSION));
+        final AbstractGraph graph = graphHandler.getModuleGraph(module.getId());
+
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        graphHandler.writeModuleGraph(module, GraphFormat.JSON.newWriter(json));
+        final AbstractGraph streamed = new ObjectMapper().readValue(json.toByteArray(), ModuleGraph.class);
+
+        assertEquals(toString(graph), toString(streamed));
+
+        final ByteArrayOutputStream dot = new ByteArrayOutputStream();
+        graphHandler.writeModuleGraph(module, GraphFormat.DOT.newWriter(dot));
+        final String dotGraph = dot.toString("UTF-8");
+
+        assertTrue(dotGraph.startsWith("digraph \"" + TC02_ModuleWithOneArtifactAndDependencyOfEachType.MODULE_NAME + "\" {"));
+        assertTrue(dotGraph.contains("\"" + TC02_ModuleWithOneArtifactAndDependencyOfEachType.MODULE_NAME + "\" -> \""
+                + TC02_ModuleWithOneArtifactAndDependencyOfEachType.COMPILE_DEPENDENCY_MODULE + "\" [label=\"COMPILE\"];"));
+
+        final ByteArrayOutputStream graphml = new ByteArrayOutputStream();
+        graphHandler.writeModuleGraph(module, GraphFormat.GRAPHML.newWriter(graphml));
+        final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(graphml.toByteArray()));
+
+        assertEquals(graph.getElements().size(), document.getElementsByTagName("node").getLength());
+        assertEquals(graph.getDependencies().size(), document.getElementsByTagName("edge").getLength());
+    }
+
+    private String toString(final AbstractGraph graph) {
+        final StringBuilder sb = new StringBuilder();
+        for(GraphElement element: graph.getElements()){
+            sb.append(element.getValue()).append(':').append(element.getVersion()).append(':').append(element.isRoot()).append('\n');
+        }
+        for(GraphDependency dependency: graph.getDependencies()){
+            sb.append(dependency.getSource()).append(" -> ").append(dependency.getTarget()).append(' ').append(dependency.getType()).append('\n');
+        }
+        return sb.toString();
+    }
+
     @Test
     public void getTreeOfModuleWithOneArtifactWithoutDependency(){
         repoHandler.loadTestCase(new TC01_ModuleWithOneArtifactWithoutDependency());
@@ -0,0 +1,134 @@
+package org.axway.grapes.server.core;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class IngestionHandlerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void artifactsAndDependenciesOfAllTheModulesAreStoredInBatch(){
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final IngestionHandler handler = new IngestionHandler(GrapesTestUtils.getServices(repositoryHandler));
+
+        final Artifact shared = DataModelFactory.createArtifact("org.test", "shared", "1.0.0", "", "jar", "jar");
+        final Artifact external = DataModelFactory.createArtifact("org.external", "lib", "2.0.0", "", "jar", "jar");
+
+        final Module module1 = DataModelFactory.createModule("module1", "1.0.0");
+        module1.addArtifact(DataModelFactory.createArtifact("org.test", "artifact1", "1.0.0", "", "jar", "jar"));
+        module1.addArtifact(shared);
+        module1.addDependency(DataModelFactory.createDependency(external, Scope.COMPILE));
+
+        final Module module2 = DataModelFactory.createModule("module2", "1.0.0");
+        module2.addArtifact(DataModelFactory.createArtifact("org.test", "artifact2", "1.0.0", "", "jar", "jar"));
+        // dependency on an artifact of the batch and on an external one already targeted by module1
+        module2.addDependency(DataModelFactory.createDependency(shared, Scope.COMPILE));
+        module2.addDependency(DataModelFactory.createDependency(external, Scope.RUNTIME));
+
+        handler.ingest(Arrays.asList(module1, module2));
+
+        verify(repositoryHandler, times(2)).store(any(DbModule.class));
+        verify(repositoryHandler, never()).store(any(DbArtifact.class));
+        verify(repositoryHandler, never()).getArtifact(anyString());
+
+        final ArgumentCaptor<Collection> artifacts = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler, times(1)).store(artifacts.capture());
+        assertEquals(3, artifacts.getValue().size());
+
+        final ArgumentCaptor<Collection> dependencies = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler, times(1)).storeIfNew(dependencies.capture());
+        final List<DbArtifact> newDependencies = new ArrayList<DbArtifact>(dependencies.getValue());
+        assertEquals(1, newDependencies.size());
+        assertEquals("org.external", newDependencies.get(0).getGroupId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void unchangedModulesAreNotStoredAgain(){
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final IngestionHandler handler = new IngestionHandler(GrapesTestUtils.getServices(repositoryHandler));
+        final Module module = createModule();
+
+        handler.ingest(Collections.singletonList(module));
+        final ArgumentCaptor<DbModule> stored = ArgumentCaptor.forClass(DbModule.class);
+        verify(repositoryHandler).store(stored.capture());
+        assertNotNull(stored.getValue().getContentHash());
+        assertEquals(2, stored.getValue().getArtifactHashes().size());
+
+        reset(repositoryHandler);
+        when(repositoryHandler.getModules(any(Collection.class))).thenReturn(Collections.singletonList(stored.getValue()));
+
+        handler.ingest(Collections.singletonList(createModule()));
+        verify(repositoryHandler, never()).store(any(DbModule.class));
+
+        final ArgumentCaptor<Collection> artifacts = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler).store(artifacts.capture());
+        assertEquals(0, artifacts.getValue().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void onlyTheChangesOfAModuleAreStored(){
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final IngestionHandler handler = new IngestionHandler(GrapesTestUtils.getServices(repositoryHandler));
+
+        final DbModule previousModule = new DbModule();
+        previousModule.setName("module");
+        previousModule.setVersion("1.0.0");
+        previousModule.setContentHash(DataUtils.getContentHash(createModule()));
+        for(Artifact artifact: createModule().getArtifacts()){
+            previousModule.getArtifactHashes().add(DataUtils.getContentHash(artifact));
+        }
+        previousModule.addDependency("org.external:lib:2.0.0::jar", Scope.COMPILE);
+        previousModule.updateHasAndUse();
+        when(repositoryHandler.getModules(any(Collection.class))).thenReturn(Collections.singletonList(previousModule));
+
+        final Module module = createModule();
+        module.getArtifacts().iterator().next().addLicense("MIT");
+        module.addDependency(DataModelFactory.createDependency(
+                DataModelFactory.createArtifact("org.external", "other", "1.0.0", "", "jar", "jar"), Scope.COMPILE));
+        handler.ingest(Collections.singletonList(module));
+
+        verify(repositoryHandler).store(any(DbModule.class));
+
+        final ArgumentCaptor<Collection> artifacts = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler).store(artifacts.capture());
+        assertEquals(1, artifacts.getValue().size());
+
+        final ArgumentCaptor<Collection> dependencies = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler).storeIfNew(dependencies.capture());
+        final List<DbArtifact> newDependencies = new ArrayList<DbArtifact>(dependencies.getValue());
+        assertEquals(1, newDependencies.size());
+        assertEquals("other", newDependencies.get(0).getArtifactId());
+    }
+
+    private Module createModule(){
+        final Module module = DataModelFactory.createModule("module", "1.0.0");
+        module.addArtifact(DataModelFactory.createArtifact("org.test", "artifact1", "1.0.0", "", "jar", "jar"));
+        module.addArtifact(DataModelFactory.createArtifact("org.test", "artifact2", "1.0.0", "", "jar", "jar"));
+        module.addDependency(DataModelFactory.createDependency(
+                DataModelFactory.createArtifact("org.external", "lib", "2.0.0", "", "jar", "jar"), Scope.COMPILE));
+        return module;
+    }
+}
@@ -1,6 +1,7 @@
 package org.axway.grapes.server.core;
 
 
+import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
@@ -21,7 +22,7 @@ public class LicenseHandlerTest {
     @Test
     public void checkStoreLicense(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbLicense dbLicense = new DbLicense();
         handler.store(dbLicense);
@@ -32,7 +33,7 @@ public class LicenseHandlerTest {
     @Test
     public void getLicenseNames(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
         final FiltersHolder filters = mock(FiltersHolder.class);
 
         handler.getLicensesNames(filters);
@@ -48,7 +49,7 @@ public class LicenseHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getLicense(license.getName())).thenReturn(license);
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbLicense gotLicense = handler.getLicense(license.getName());
 
@@ -60,7 +61,7 @@ public class LicenseHandlerTest {
     @Test
     public void getALicenseThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -88,7 +89,7 @@ public class LicenseHandlerTest {
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getLicense(license.getName())).thenReturn(license);
         when(repositoryHandler.getArtifacts(any(FiltersHolder.class))).thenReturn(Collections.singletonList(artifact));
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         handler.deleteLicense(license.getName());
 
@@ -99,7 +100,7 @@ public class LicenseHandlerTest {
     @Test
     public void deleteAnArtifactThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -120,7 +121,7 @@ public class LicenseHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getLicense(license.getName())).thenReturn(license);
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         handler.approveLicense(license.getName(), true);
         verify(repositoryHandler, times(1)).approveLicense(license, true);
@@ -132,7 +133,7 @@ public class LicenseHandlerTest {
     @Test
     public void approveALicenseThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final LicenseHandler handler = new LicenseHandler(repositoryHandler);
+        final LicenseHandler handler = new LicenseHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -154,7 +155,7 @@ public class LicenseHandlerTest {
         final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
         when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
 
-        final LicenseHandler licenseHandler = new LicenseHandler(repoHandler);
+        final LicenseHandler licenseHandler = new LicenseHandler(GrapesTestUtils.getServices(repoHandler));
 
         assertEquals(license, licenseHandler.resolve(license.getName()));
     }
@@ -167,7 +168,7 @@ public class LicenseHandlerTest {
         final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
         when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
 
-        final LicenseHandler licenseHandler = new LicenseHandler(repoHandler);
+        final LicenseHandler licenseHandler = new LicenseHandler(GrapesTestUtils.getServices(repoHandler));
 
         assertEquals(license, licenseHandler.resolve(license.getName()));
         assertEquals(null, licenseHandler.resolve("Test2"));
@@ -182,7 +183,7 @@ public class LicenseHandlerTest {
         final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
         when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
 
-        final LicenseHandler licenseHandler = new LicenseHandler(repoHandler);
+        final LicenseHandler licenseHandler = new LicenseHandler(GrapesTestUtils.getServices(repoHandler));
 
         Exception exception = null;
         DbLicense resolvedLicense = null;
@@ -206,8 +207,44 @@ public class LicenseHandlerTest {
         final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
         when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
 
-        final LicenseHandler licenseHandler = new LicenseHandler(repoHandler);
+        final LicenseHandler licenseHandler = new LicenseHandler(GrapesTestUtils.getServices(repoHandler));
 
         assertEquals(1, licenseHandler.getLicenses().size());
     }
+
+    @Test
+    public void licensesAreLoadedOnceForTheSharedIndex(){
+        final DbLicense license = new DbLicense();
+        license.setName("Test");
+        license.setRegexp("Test.*");
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
+        final CoreServices services = GrapesTestUtils.getServices(repoHandler);
+
+        assertEquals(license, new LicenseHandler(services).resolve("Test 1.0"));
+        assertEquals(license, new LicenseHandler(services).resolve("Test 1.0"));
+        assertEquals(license, new LicenseHandler(services).resolve("Test 2.0"));
+
+        verify(repoHandler, times(1)).getAllLicenses();
+    }
+
+    @Test
+    public void storingALicenseRebuildsTheIndex(){
+        final DbLicense license = new DbLicense();
+        license.setName("Test");
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getAllLicenses()).thenReturn(Collections.<DbLicense>emptyList());
+
+        final CoreServices services = GrapesTestUtils.getServices(repoHandler);
+        final LicenseHandler licenseHandler = new LicenseHandler(services);
+        assertEquals(null, licenseHandler.resolve("Test"));
+
+        when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
+        licenseHandler.store(license);
+
+        assertEquals(license, licenseHandler.resolve("Test"));
+        assertEquals(license, new LicenseHandler(services).resolve("Test"));
+    }
 }
@@ -2,11 +2,17 @@ package org.axway.grapes.server.core;
 
 
 import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.config.TraversalConfig;
+import org.axway.grapes.server.core.graphs.TraversalExecutor;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbLicense;
 import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.axway.grapes.server.webapp.views.PromotionReportView;
 import org.junit.Test;
 
 import javax.ws.rs.WebApplicationException;
@@ -15,7 +21,9 @@ import java.util.Collections;
 import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class ModuleHandlerTest {
@@ -23,7 +31,7 @@ public class ModuleHandlerTest {
     @Test
     public void checkStoreModule(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbModule module = new DbModule();
         handler.store(module);
@@ -34,7 +42,7 @@ public class ModuleHandlerTest {
     @Test
     public void checkGetAllModuleNames(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final FiltersHolder filters = mock(FiltersHolder.class);
         handler.getModuleNames(filters);
@@ -52,7 +60,7 @@ public class ModuleHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getModuleVersions(module.getName(), filters)).thenReturn(Collections.singletonList("1.0.0-SNAPSHOT"));
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final List<String> versions = handler.getModuleVersions(module.getName(), filters);
 
@@ -69,7 +77,7 @@ public class ModuleHandlerTest {
         final FiltersHolder filters = mock(FiltersHolder.class);
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getModuleVersions("doesNotExist", filters)).thenReturn(new ArrayList<String>());
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -92,7 +100,7 @@ public class ModuleHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbModule gotModule = handler.getModule(module.getId());
 
@@ -106,7 +114,7 @@ public class ModuleHandlerTest {
     @Test
     public void getAModuleThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -154,7 +162,7 @@ public class ModuleHandlerTest {
         when(repositoryHandler.getArtifact(artifact2.getGavc())).thenReturn(artifact2);
         when(repositoryHandler.getArtifact(dependency.getGavc())).thenReturn(dependency);
 
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.deleteModule(module.getId());
 
         verify(repositoryHandler, times(1)).deleteModule(module.getId());
@@ -169,7 +177,7 @@ public class ModuleHandlerTest {
     @Test
     public void deleteAModuleThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -199,7 +207,7 @@ public class ModuleHandlerTest {
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
         when(repositoryHandler.getArtifact(artifact1.getGavc())).thenReturn(artifact1);
 
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.promoteModule(module.getId());
 
         verify(repositoryHandler, times(1)).promoteModule(module);
@@ -209,7 +217,7 @@ public class ModuleHandlerTest {
     @Test
     public void promoteAModuleThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         WebApplicationException exception = null;
 
@@ -245,7 +253,7 @@ public class ModuleHandlerTest {
         when(repositoryHandler.getArtifact(artifact1.getGavc())).thenReturn(artifact1);
         when(repositoryHandler.getLicense(license.getName())).thenReturn(license);
 
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
         final List<DbLicense> licenses = handler.getModuleLicenses(module.getId());
 
         assertNotNull(licenses);
@@ -257,11 +265,149 @@ public class ModuleHandlerTest {
     @Test
     public void getModule(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
         final FiltersHolder filters = mock(FiltersHolder.class);
 
         handler.getModules(filters);
 
         verify(repositoryHandler, times(1)).getModules(filters);
     }
+
+    @Test
+    public void promotionReportOfADiamond(){
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        organization.getCorporateGroupIdPrefixes().add(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        repositoryHandler.store(organization);
+
+        // root -> a -> c, root -> b -> c, root -> c
+        final DbModule root = createCorporateModule(repositoryHandler, "root", "a", "b", "c");
+        createCorporateModule(repositoryHandler, "a", "c");
+        createCorporateModule(repositoryHandler, "b", "c");
+        final DbModule c = createCorporateModule(repositoryHandler, "c");
+
+        final ModuleHandler handler = new ModuleHandler(GrapesTestUtils.getServices(repositoryHandler));
+        final PromotionReportView report = handler.getPromotionReport(root.getId());
+
+        assertFalse(report.canBePromoted());
+        assertEquals(3, report.getUnPromotedDependencies().size());
+        // the modules come after their own dependencies
+        assertEquals(c.getId(), report.getPromotionPlan().get(0));
+
+        assertNotNull(report.getTargetedDependencyReport(c.getId()));
+        assertTrue(report.getTargetedDependencyReport(c.getId()).canBePromoted());
+        assertEquals(Collections.singletonList(c.getId()),
+                report.getTargetedDependencyReport(DbModule.generateID("a", "1.0.0")).getUnPromotedDependencies());
+
+        assertTrue(handler.canBePromoted(c.getId()));
+        assertFalse(handler.canBePromoted(root.getId()));
+    }
+
+    @Test
+    public void theCachedPromotionStatusFollowsThePromotions(){
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+        final CoreServices services = GrapesTestUtils.getServices(repositoryHandler);
+        services.getClosureCache().configure("maximumSize=100");
+
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        organization.getCorporateGroupIdPrefixes().add(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        repositoryHandler.store(organization);
+
+        final DbModule root = createCorporateModule(repositoryHandler, "root", "a");
+        final DbModule a = createCorporateModule(repositoryHandler, "a");
+
+        final ModuleHandler handler = new ModuleHandler(services);
+        assertFalse(handler.canBePromoted(root.getId()));
+        assertFalse(handler.canBePromoted(root.getId()));
+
+        a.setPromoted(true);
+        handler.promoteModule(a.getId());
+
+        assertTrue(handler.canBePromoted(root.getId()));
+    }
+
+    @Test(timeout = 30000)
+    public void promotionReportOfLevelsLargerThanTheBatches() throws Exception {
+        final PromotionReportView sequentialReport = new ModuleHandler(GrapesTestUtils.getServices(createLayeredRepository())).getPromotionReport("root:1.0.0");
+
+        final CoreServices services = GrapesTestUtils.getServices(createLayeredRepository());
+        final TraversalConfig config = new TraversalConfig();
+        config.setParallelism(2);
+        config.setBatchSize(2);
+        final TraversalExecutor executor = services.getTraversalExecutor().configure(config);
+        executor.start();
+
+        try{
+            // each status of a level walks the dependencies of its module with the same executor
+            final PromotionReportView report = new ModuleHandler(services).getPromotionReport("root:1.0.0");
+
+            assertFalse(report.canBePromoted());
+            assertEquals(6, report.getUnPromotedDependencies().size());
+            for(int i = 0; i < 12; i++){
+                assertNotNull(report.getTargetedDependencyReport("level2-" + i + ":1.0.0"));
+            }
+            assertEquals(sequentialReport.getUnPromotedDependencies(), report.getUnPromotedDependencies());
+            assertEquals(sequentialReport.getPromotionPlan(), report.getPromotionPlan());
+        }
+        finally {
+            executor.stop();
+        }
+    }
+
+    /**
+     * root -> 6 modules -> 12 modules, the modules of a level depend on several modules of the next one
+     */
+    private TestingRepositoryHandler createLayeredRepository() {
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        organization.getCorporateGroupIdPrefixes().add(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        repositoryHandler.store(organization);
+
+        final String[] level1 = new String[6];
+        for(int i = 0; i < level1.length; i++){
+            level1[i] = "level1-" + i;
+            final String[] dependencies = new String[3];
+            for(int j = 0; j < dependencies.length; j++){
+                dependencies[j] = "level2-" + ((i * 2 + j) % 12);
+            }
+            createCorporateModule(repositoryHandler, level1[i], dependencies);
+        }
+        for(int i = 0; i < 12; i++){
+            createCorporateModule(repositoryHandler, "level2-" + i);
+        }
+        createCorporateModule(repositoryHandler, "root", level1);
+
+        return repositoryHandler;
+    }
+
+    private DbModule createCorporateModule(final TestingRepositoryHandler repositoryHandler, final String name, final String... dependencies) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion("1.0.0");
+        module.setOrganization(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+
+        final DbArtifact artifact = createCorporateArtifact(name);
+        module.addArtifact(artifact);
+        repositoryHandler.store(artifact);
+
+        for(String dependency: dependencies){
+            module.addDependency(createCorporateArtifact(dependency).getGavc(), Scope.COMPILE);
+        }
+
+        repositoryHandler.store(module);
+        return module;
+    }
+
+    private DbArtifact createCorporateArtifact(final String artifactId) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        artifact.setType("jar");
+        artifact.setExtension("jar");
+        return artifact;
+    }
 }
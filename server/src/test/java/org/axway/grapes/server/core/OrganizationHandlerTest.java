@@ -24,7 +24,7 @@ public class OrganizationHandlerTest {
     @Test
     public void checkStoreOrganization(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization dbOrganization = new DbOrganization();
         handler.store(dbOrganization);
@@ -36,7 +36,7 @@ public class OrganizationHandlerTest {
     @Test
     public void getAllOrganizationNames(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         handler.getOrganizationNames();
 
@@ -50,7 +50,7 @@ public class OrganizationHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getOrganization(organization.getName())).thenReturn(organization);
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization gotOrganization = handler.getOrganization(organization.getName());
 
@@ -62,7 +62,7 @@ public class OrganizationHandlerTest {
     @Test
     public void getAnOrganizationThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -82,7 +82,7 @@ public class OrganizationHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getOrganization(organization.getName())).thenReturn(organization);
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         handler.deleteOrganization(organization.getName());
 
@@ -92,7 +92,7 @@ public class OrganizationHandlerTest {
     @Test
     public void deleteAnOrganizationThatDoesNotExist(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
         WebApplicationException exception = null;
 
         try {
@@ -115,13 +115,13 @@ public class OrganizationHandlerTest {
         ArgumentCaptor<DbOrganization> captor = ArgumentCaptor.forClass(DbOrganization.class);
         when(repositoryHandler.getOrganization(dbOrganization.getName())).thenReturn(dbOrganization);
 
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addCorporateGroupId(dbOrganization.getName(), "com.test");
 
         verify(repositoryHandler, times(1)).store(captor.capture());
         assertTrue(captor.getValue().getCorporateGroupIdPrefixes().contains("com.test"));
 
-        verify(repositoryHandler, times(1)).addModulesOrganization("com.test", dbOrganization);
+        verify(repositoryHandler, times(1)).getModulesByArtifactPrefix("com.test");
     }
 
     @Test
@@ -134,7 +134,7 @@ public class OrganizationHandlerTest {
         ArgumentCaptor<DbOrganization> captor = ArgumentCaptor.forClass(DbOrganization.class);
         when(repositoryHandler.getOrganization(dbOrganization.getName())).thenReturn(dbOrganization);
 
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.addCorporateGroupId(dbOrganization.getName(), "org.test");
 
         verify(repositoryHandler, never()).store(captor.capture());
@@ -150,13 +150,13 @@ public class OrganizationHandlerTest {
         ArgumentCaptor<DbOrganization> captor = ArgumentCaptor.forClass(DbOrganization.class);
         when(repositoryHandler.getOrganization(dbOrganization.getName())).thenReturn(dbOrganization);
 
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.removeCorporateGroupId(dbOrganization.getName(), "org.test");
 
         verify(repositoryHandler, times(1)).store((DbOrganization)captor.capture());
         assertFalse(captor.getValue().getCorporateGroupIdPrefixes().contains("org.test"));
 
-        verify(repositoryHandler, times(1)).removeModulesOrganization("org.test", dbOrganization);
+        verify(repositoryHandler, times(1)).getModulesByArtifactPrefix("org.test");
     }
 
     @Test
@@ -169,7 +169,7 @@ public class OrganizationHandlerTest {
         ArgumentCaptor<DbOrganization> captor = ArgumentCaptor.forClass(DbOrganization.class);
         when(repositoryHandler.getOrganization(dbOrganization.getName())).thenReturn(dbOrganization);
 
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
         handler.removeCorporateGroupId(dbOrganization.getName(), "com.test");
 
         verify(repositoryHandler, never()).store(captor.capture());
@@ -185,7 +185,7 @@ public class OrganizationHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getOrganization(organization.getName())).thenReturn(organization);
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization gotOrganization = handler.getMatchingOrganization(module);
 
@@ -202,7 +202,7 @@ public class OrganizationHandlerTest {
         module.addArtifact(artifact);
 
         final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization gotOrganization = handler.getMatchingOrganization(module);
 
@@ -218,7 +218,7 @@ public class OrganizationHandlerTest {
         module.addArtifact(artifact);
 
         final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
-        final OrganizationHandler handler = new OrganizationHandler(repositoryHandler);
+        final OrganizationHandler handler = new OrganizationHandler(GrapesTestUtils.getServices(repositoryHandler));
 
         final DbOrganization organization = handler.getMatchingOrganization(new DbModule());
 
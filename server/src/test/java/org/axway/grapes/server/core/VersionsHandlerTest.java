@@ -1,5 +1,6 @@
 package org.axway.grapes.server.core;
 
+import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.core.version.IncomparableException;
 import org.axway.grapes.server.core.version.NotHandledVersionException;
 import org.axway.grapes.server.db.RepositoryHandler;
@@ -22,7 +23,7 @@ public class VersionsHandlerTest {
     private final VersionsHandler versionsHandler;
 
     public VersionsHandlerTest(){
-        repositoryHandler = mock(RepositoryHandler.class);
+        repositoryHandler = GrapesTestUtils.mockBulkLookups(mock(RepositoryHandler.class));
         versionsHandler = new VersionsHandler(repositoryHandler);
     }
 
@@ -0,0 +1,157 @@
+package org.axway.grapes.server.core.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void theConcurrentCallsShareTheComputation() throws Exception {
+        final SingleFlight singleFlight = new SingleFlight();
+        final BlockedComputation computation = new BlockedComputation("result");
+        final ExecutorService threads = Executors.newFixedThreadPool(5);
+
+        try{
+            final List<Future<String>> results = new ArrayList<Future<String>>();
+            results.add(threads.submit(execute(singleFlight, "key", 0, computation)));
+            assertTrue(computation.started.await(10, TimeUnit.SECONDS));
+
+            for(int i = 0; i < 4; i++){
+                results.add(threads.submit(execute(singleFlight, "key", 0, computation)));
+            }
+            waitForWaiters(singleFlight, "key", 4);
+
+            // an other key is not coalesced
+            assertEquals("other", singleFlight.execute("other", new Callable<String>() {
+                @Override
+                public String call() {
+                    return "other";
+                }
+            }));
+
+            computation.release.countDown();
+            for(Future<String> result: results){
+                assertEquals("result", result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computation.calls.get());
+            assertEquals(0, singleFlight.getWaiters("key"));
+
+            // the next call is a new computation
+            assertEquals("result", singleFlight.execute("key", computation));
+            assertEquals(2, computation.calls.get());
+        }
+        finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void theWaitersComputeTheResultAfterTheTimeout() throws Exception {
+        final SingleFlight singleFlight = new SingleFlight();
+        final BlockedComputation computation = new BlockedComputation("result");
+        final ExecutorService threads = Executors.newSingleThreadExecutor();
+
+        try{
+            final Future<String> leader = threads.submit(execute(singleFlight, "key", 0, computation));
+            assertTrue(computation.started.await(10, TimeUnit.SECONDS));
+
+            assertEquals("own result", singleFlight.execute("key", 10, new Callable<String>() {
+                @Override
+                public String call() {
+                    return "own result";
+                }
+            }));
+
+            computation.release.countDown();
+            assertEquals("result", leader.get(10, TimeUnit.SECONDS));
+        }
+        finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void theErrorsAreSharedWithTheWaiters() throws Exception {
+        final SingleFlight singleFlight = new SingleFlight();
+        final BlockedComputation computation = new BlockedComputation(null);
+        final ExecutorService threads = Executors.newFixedThreadPool(2);
+
+        try{
+            final Future<String> leader = threads.submit(execute(singleFlight, "key", 0, computation));
+            assertTrue(computation.started.await(10, TimeUnit.SECONDS));
+            final Future<String> waiter = threads.submit(execute(singleFlight, "key", 0, computation));
+            waitForWaiters(singleFlight, "key", 1);
+
+            computation.release.countDown();
+            final List<Future<String>> results = new ArrayList<Future<String>>();
+            results.add(leader);
+            results.add(waiter);
+            for(Future<String> result: results){
+                try{
+                    result.get(10, TimeUnit.SECONDS);
+                    fail("The error should have been rethrown");
+                }
+                catch (ExecutionException e){
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+            assertEquals(1, computation.calls.get());
+        }
+        finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private Callable<String> execute(final SingleFlight singleFlight, final String key, final long timeout, final Callable<String> computation) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                return singleFlight.execute(key, timeout, computation);
+            }
+        };
+    }
+
+    private void waitForWaiters(final SingleFlight singleFlight, final String key, final int waiters) throws InterruptedException {
+        for(int i = 0; i < 1000 && singleFlight.getWaiters(key) < waiters; i++){
+            Thread.sleep(10);
+        }
+        assertEquals(waiters, singleFlight.getWaiters(key));
+    }
+
+    /**
+     * Computation that waits to be released, it fails if it has no result
+     */
+    private static class BlockedComputation implements Callable<String> {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private final String result;
+
+        private BlockedComputation(final String result) {
+            this.result = result;
+        }
+
+        @Override
+        public String call() throws InterruptedException {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            if(result == null){
+                throw new IllegalStateException("no result");
+            }
+            return result;
+        }
+    }
+}
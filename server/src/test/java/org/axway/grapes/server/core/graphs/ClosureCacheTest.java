@@ -0,0 +1,173 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.DependencyHandler;
+import org.axway.grapes.server.core.ModuleHandler;
+import org.axway.grapes.server.core.concurrent.SingleFlight;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ClosureCacheTest {
+
+    @Test
+    public void theClosuresAreComputedAtEachCallWhenTheCacheIsNotConfigured(){
+        final ClosureCache cache = new ClosureCache(new SingleFlight());
+        final CountingLoader loader = new CountingLoader("key", "module:1");
+
+        cache.get("key", loader);
+        cache.get("key", loader);
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    public void theClosuresAreInvalidatedByTheirDependencies(){
+        final ClosureCache cache = new ClosureCache(new SingleFlight()).configure("maximumSize=10");
+        final CountingLoader loader1 = new CountingLoader("key1", "module:1", "org.test:artifact:1::jar");
+        final CountingLoader loader2 = new CountingLoader("key2", "module:2");
+
+        assertEquals("key1", cache.get("key1", loader1));
+        assertEquals("key1", cache.get("key1", loader1));
+        assertEquals("key2", cache.get("key2", loader2));
+        assertEquals(1, loader1.calls.get());
+        assertEquals(1, loader2.calls.get());
+
+        // an unrelated change
+        cache.artifactChanged("org.test:other:1::jar");
+        cache.get("key1", loader1);
+        cache.get("key2", loader2);
+        assertEquals(1, loader1.calls.get());
+        assertEquals(1, loader2.calls.get());
+
+        // a change of a targeted artifact
+        cache.artifactChanged("org.test:artifact:1::jar");
+        cache.get("key1", loader1);
+        cache.get("key2", loader2);
+        assertEquals(2, loader1.calls.get());
+        assertEquals(1, loader2.calls.get());
+
+        // a change of a walked module
+        cache.invalidate(Collections.singletonList("module:2"));
+        cache.get("key1", loader1);
+        cache.get("key2", loader2);
+        assertEquals(2, loader1.calls.get());
+        assertEquals(2, loader2.calls.get());
+    }
+
+    @Test
+    public void theEvictedClosuresAreRecomputed(){
+        final ClosureCache cache = new ClosureCache(new SingleFlight()).configure("maximumSize=1");
+        final CountingLoader loader1 = new CountingLoader("key1", "module:1");
+        final CountingLoader loader2 = new CountingLoader("key2", "module:1");
+
+        cache.get("key1", loader1);
+        cache.get("key2", loader2);
+        cache.get("key1", loader1);
+        assertEquals(2, loader1.calls.get());
+
+        // the closure put back in the cache is still indexed
+        cache.invalidate(Collections.singletonList("module:1"));
+        cache.get("key1", loader1);
+        assertEquals(3, loader1.calls.get());
+    }
+
+    @Test
+    public void theCachedDependenciesFollowTheModuleStores(){
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+        final CoreServices services = GrapesTestUtils.getServices(repositoryHandler);
+        services.getClosureCache().configure("maximumSize=100");
+
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        organization.getCorporateGroupIdPrefixes().add(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        repositoryHandler.store(organization);
+
+        final DbArtifact artifactA = createArtifact("a");
+        final DbArtifact artifactB = createArtifact("b");
+        final DbArtifact artifactC = createArtifact("c");
+        repositoryHandler.store(artifactA);
+        repositoryHandler.store(artifactB);
+        repositoryHandler.store(artifactC);
+
+        final DbModule moduleA = createModule("a", artifactA);
+        moduleA.addDependency(artifactB.getGavc(), Scope.COMPILE);
+        final ModuleHandler moduleHandler = new ModuleHandler(services);
+        moduleHandler.store(moduleA);
+
+        // nothing produces b yet
+        final DependencyHandler dependencyHandler = new DependencyHandler(services);
+        assertEquals(Arrays.asList("a -> " + artifactB.getGavc()), getDependencies(dependencyHandler, moduleA.getId()));
+        assertEquals(Arrays.asList("a -> " + artifactB.getGavc()), getDependencies(dependencyHandler, moduleA.getId()));
+
+        // b is now produced by a module that uses c
+        final DbModule moduleB = createModule("b", artifactB);
+        moduleB.addDependency(artifactC.getGavc(), Scope.COMPILE);
+        moduleHandler.store(moduleB);
+
+        assertEquals(Arrays.asList("a -> " + artifactB.getGavc(), "b -> " + artifactC.getGavc()),
+                getDependencies(dependencyHandler, moduleA.getId()));
+    }
+
+    private List<String> getDependencies(final DependencyHandler dependencyHandler, final String moduleId) {
+        final FiltersHolder filters = new FiltersHolder();
+        filters.getDepthHandler().setFullRecursive(true);
+
+        final List<String> dependencies = new ArrayList<String>();
+        for(Dependency dependency: dependencyHandler.getModuleDependencies(moduleId, filters)){
+            dependencies.add(dependency.getSourceName() + " -> " + dependency.getTarget().getGavc());
+        }
+        return dependencies;
+    }
+
+    private DbModule createModule(final String name, final DbArtifact artifact) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion("1.0.0");
+        module.setOrganization(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        module.addArtifact(artifact);
+        return module;
+    }
+
+    private DbArtifact createArtifact(final String artifactId) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        artifact.setType("jar");
+        artifact.setExtension("jar");
+        return artifact;
+    }
+
+    private static class CountingLoader implements ClosureCache.Loader<String> {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final String value;
+        private final List<String> dependencies;
+
+        private CountingLoader(final String value, final String... dependencies) {
+            this.value = value;
+            this.dependencies = Arrays.asList(dependencies);
+        }
+
+        @Override
+        public String load(final Set<String> walked) {
+            calls.incrementAndGet();
+            walked.addAll(dependencies);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.DependencyHandler;
+import org.axway.grapes.server.core.GraphsHandler;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.axway.grapes.server.materials.cases.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CompressedDependencyGraphTest {
+
+    @Test
+    public void theGraphIsNotUsedBeforeItIsLoaded(){
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final DbModule module = createModule("module", "1.0.0", "org.test:artifact:1.0.0::jar");
+
+        final CompressedDependencyGraph graph = new CompressedDependencyGraph(repositoryHandler);
+        assertFalse(graph.isLoaded());
+        assertTrue(DependencyGraphs.get(graph, repositoryHandler, module) instanceof RepositoryDependencyGraph);
+
+        when(repositoryHandler.getAllModules()).thenReturn(Collections.<DbModule>emptyList());
+        graph.load();
+        assertTrue(graph.isLoaded());
+        assertSame(graph, DependencyGraphs.get(graph, repositoryHandler, module));
+    }
+
+    @Test
+    public void theCountsAreNotReadWhileTheGraphIsLoading(){
+        final DbModule module = createModule("module", "1.0.0", "org.test:module:1.0.0::jar");
+        module.addDependency("org.test:other:1.0.0::jar", Scope.COMPILE);
+        final DbModule other = createModule("other", "1.0.0", "org.test:other:1.0.0::jar");
+
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final CompressedDependencyGraph graph = new CompressedDependencyGraph(repositoryHandler);
+        final List<Integer> countsDuringTheLoad = new ArrayList<Integer>();
+
+        // the counts are read by the metrics while the modules are indexed
+        when(repositoryHandler.getAllModules()).thenReturn(new Iterable<DbModule>() {
+            @Override
+            public Iterator<DbModule> iterator() {
+                final Iterator<DbModule> modules = Arrays.asList(module, other).iterator();
+                return new Iterator<DbModule>() {
+                    @Override
+                    public boolean hasNext() {
+                        countsDuringTheLoad.add(graph.getModuleCount());
+                        countsDuringTheLoad.add(graph.getArtifactCount());
+                        countsDuringTheLoad.add(graph.getEdgeCount());
+                        return modules.hasNext();
+                    }
+
+                    @Override
+                    public DbModule next() {
+                        return modules.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        });
+
+        graph.load();
+
+        assertEquals(Collections.nCopies(9, 0), countsDuringTheLoad);
+        assertEquals(2, graph.getModuleCount());
+        assertEquals(2, graph.getArtifactCount());
+        assertEquals(1, graph.getEdgeCount());
+    }
+
+    @Test
+    public void walkTheLoadedModules(){
+        final DbModule module = createModule("module", "1.0.0", "org.test:module:1.0.0::jar");
+        module.addDependency("org.test:other:1.0.0::jar", Scope.COMPILE);
+        module.addDependency("org.thirdparty:lib:2.0.0::jar", Scope.TEST);
+
+        final DbModule submodule = createModule("submodule", "1.0.0", "org.test:submodule:1.0.0::jar");
+        submodule.addDependency("org.thirdparty:lib2:2.0.0::jar", Scope.RUNTIME);
+        module.addSubmodule(submodule);
+
+        final DbModule other = createModule("other", "1.0.0", "org.test:other:1.0.0::jar");
+        other.setPromoted(true);
+
+        final CompressedDependencyGraph graph = loadGraph(module, other);
+
+        final List<DbDependency> dependencies = graph.getDependencies(module.getId());
+        assertEquals(3, dependencies.size());
+        assertEquals(module.getId(), dependencies.get(0).getSource());
+        assertEquals("org.test:other:1.0.0::jar", dependencies.get(0).getTarget());
+        assertEquals(Scope.COMPILE, dependencies.get(0).getScope());
+        assertEquals(Scope.TEST, dependencies.get(1).getScope());
+        assertEquals(submodule.getId(), dependencies.get(2).getSource());
+        assertEquals(Scope.RUNTIME, dependencies.get(2).getScope());
+
+        // the dependencies of a submodule only
+        final List<DbDependency> submoduleDependencies = graph.getDependencies(submodule.getId());
+        assertEquals(1, submoduleDependencies.size());
+        assertEquals("org.thirdparty:lib2:2.0.0::jar", submoduleDependencies.get(0).getTarget());
+
+        final Map<String, String> rootModuleIds = graph.getRootModuleIds(Arrays.asList(
+                "org.test:submodule:1.0.0::jar", "org.test:other:1.0.0::jar", "org.thirdparty:lib:2.0.0::jar", "unknown"));
+        assertEquals(2, rootModuleIds.size());
+        assertEquals(module.getId(), rootModuleIds.get("org.test:submodule:1.0.0::jar"));
+        assertEquals(other.getId(), rootModuleIds.get("org.test:other:1.0.0::jar"));
+
+        assertEquals(submodule.getId(), graph.getModuleId("org.test:submodule:1.0.0::jar"));
+        assertNull(graph.getModuleId("org.thirdparty:lib:2.0.0::jar"));
+
+        assertTrue(graph.isPromoted(other.getId()));
+        assertFalse(graph.isPromoted(module.getId()));
+        assertEquals(3, graph.getEdgeCount());
+    }
+
+    @Test
+    public void theGraphFollowsTheModuleChanges(){
+        final DbModule module = createModule("module", "1.0.0", "org.test:module:1.0.0::jar");
+        module.addDependency("org.test:other:1.0.0::jar", Scope.COMPILE);
+        final DbModule other = createModule("other", "1.0.0", "org.test:other:1.0.0::jar");
+
+        final CompressedDependencyGraph graph = loadGraph(module, other);
+
+        // new version of the module: new artifact, new dependency
+        final DbModule newModule = createModule("module", "1.0.0", "org.test:module-api:1.0.0::jar");
+        newModule.addDependency("org.test:new:1.0.0::jar", Scope.PROVIDED);
+        graph.update(newModule);
+
+        assertEquals(1, graph.getDependencies(module.getId()).size());
+        assertEquals("org.test:new:1.0.0::jar", graph.getDependencies(module.getId()).get(0).getTarget());
+        assertNull(graph.getModuleId("org.test:module:1.0.0::jar"));
+        assertEquals(module.getId(), graph.getModuleId("org.test:module-api:1.0.0::jar"));
+
+        graph.promote(other.getId());
+        assertTrue(graph.isPromoted(other.getId()));
+
+        graph.remove(other.getId());
+        assertTrue(graph.getRootModuleIds(Collections.singletonList("org.test:other:1.0.0::jar")).isEmpty());
+        assertTrue(graph.getDependencies(other.getId()).isEmpty());
+        assertFalse(graph.isPromoted(other.getId()));
+    }
+
+    @Test
+    public void onlyTheArtifactsStillProducedByAModuleAreReleased(){
+        final DbModule module = createModule("module", "1.0.0", "org.test:shared:1.0.0::jar");
+        module.addArtifact(createArtifact("org.test:module:1.0.0::jar"));
+        final DbModule other = createModule("other", "1.0.0", "org.test:other:1.0.0::jar");
+
+        final CompressedDependencyGraph graph = loadGraph(module, other);
+
+        // the shared artifact moves to the other module
+        final DbModule newOther = createModule("other", "1.0.0", "org.test:other:1.0.0::jar");
+        newOther.addArtifact(createArtifact("org.test:shared:1.0.0::jar"));
+        graph.update(newOther);
+        assertEquals(other.getId(), graph.getModuleId("org.test:shared:1.0.0::jar"));
+
+        graph.remove(module.getId());
+        assertNull(graph.getModuleId("org.test:module:1.0.0::jar"));
+        assertEquals(other.getId(), graph.getModuleId("org.test:shared:1.0.0::jar"));
+        assertEquals(other.getId(), graph.getModuleId("org.test:other:1.0.0::jar"));
+
+        // a module removed twice does not release anything more
+        graph.remove(module.getId());
+        assertEquals(other.getId(), graph.getModuleId("org.test:shared:1.0.0::jar"));
+    }
+
+    @Test
+    public void theUpdatesAreMergedInTheCompressedArrays(){
+        final List<DbModule> modules = new ArrayList<DbModule>();
+        for(int i = 0; i < 10; i++){
+            modules.add(createModule("module" + i, "1.0.0", "org.test:module" + i + ":1.0.0::jar"));
+        }
+        final CompressedDependencyGraph graph = loadGraph(modules.toArray(new DbModule[modules.size()]));
+
+        // enough updates to trigger several compactions
+        for(int i = 0; i < 1000; i++){
+            final DbModule module = createModule("new" + i, "1.0.0", "org.test:new" + i + ":1.0.0::jar");
+            module.addDependency("org.test:module" + (i % 10) + ":1.0.0::jar", Scope.COMPILE);
+            module.addDependency("org.test:new" + (i / 2) + ":1.0.0::jar", Scope.RUNTIME);
+            graph.update(module);
+        }
+
+        assertEquals(2000, graph.getEdgeCount());
+        for(int i = 0; i < 1000; i++){
+            final List<DbDependency> dependencies = graph.getDependencies(DbModule.generateID("new" + i, "1.0.0"));
+            assertEquals(2, dependencies.size());
+            assertEquals("org.test:module" + (i % 10) + ":1.0.0::jar", dependencies.get(0).getTarget());
+            assertEquals("org.test:new" + (i / 2) + ":1.0.0::jar", dependencies.get(1).getTarget());
+        }
+    }
+
+    @Test
+    public void theTraversalsGiveTheSameResultsWithTheLoadedGraph(){
+        final List<DependencyCase> testCases = Arrays.asList(
+                new TC02_ModuleWithOneArtifactAndDependencyOfEachType(),
+                new TC03_ModuleWithOneSubmoduleAndDependencyOfEachType(),
+                new TC05_ModuleWithOneArtifactAndThirdParty(),
+                new TC06_ModuleWithOneArtifactWithTransitiveDependencies(),
+                new TC07_ModuleWithOneArtifactWithLoopDependencies());
+
+        for(DependencyCase testCase: testCases){
+            final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+            repositoryHandler.loadTestCase(testCase);
+            final String moduleId = testCase.dbModulesToLoad().get(0).getId();
+            final CoreServices services = GrapesTestUtils.getServices(repositoryHandler);
+
+            final List<String> dependencies = getDependencies(services, moduleId);
+            final List<String> graph = getGraph(services, moduleId);
+
+            services.getDependencyGraph().load();
+            assertEquals(dependencies, getDependencies(services, moduleId));
+            assertEquals(graph, getGraph(services, moduleId));
+        }
+    }
+
+    private List<String> getDependencies(final CoreServices services, final String moduleId) {
+        final List<String> dependencies = new ArrayList<String>();
+        for(Dependency dependency: new DependencyHandler(services).getModuleDependencies(moduleId, getFilters())){
+            dependencies.add(dependency.getSourceName() + ":" + dependency.getSourceVersion() + " -> "
+                    + dependency.getTarget().getGavc() + " " + dependency.getScope());
+        }
+        return dependencies;
+    }
+
+    private List<String> getGraph(final CoreServices services, final String moduleId) {
+        final AbstractGraph graph = new GraphsHandler(services, getFilters()).getModuleGraph(moduleId);
+
+        final List<String> elements = new ArrayList<String>();
+        for(GraphElement element: graph.getElements()){
+            elements.add(element.getValue() + ":" + element.getVersion() + ":" + element.isRoot());
+        }
+        for(GraphDependency dependency: graph.getDependencies()){
+            elements.add(dependency.getSource() + " -> " + dependency.getTarget() + " " + dependency.getType());
+        }
+        return elements;
+    }
+
+    private FiltersHolder getFilters() {
+        final FiltersHolder filters = new FiltersHolder();
+        filters.getScopeHandler().setScopeComp(true);
+        filters.getScopeHandler().setScopePro(true);
+        filters.getScopeHandler().setScopeRun(true);
+        filters.getScopeHandler().setScopeTest(true);
+        filters.getDecorator().setShowThirdparty(true);
+        filters.getDepthHandler().setFullRecursive(true);
+        return filters;
+    }
+
+    private CompressedDependencyGraph loadGraph(final DbModule... modules) {
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        when(repositoryHandler.getAllModules()).thenReturn(Arrays.asList(modules));
+
+        final CompressedDependencyGraph graph = new CompressedDependencyGraph(repositoryHandler);
+        graph.load();
+        assertTrue(graph.isLoaded());
+
+        return graph;
+    }
+
+    private DbModule createModule(final String name, final String version, final String gavc) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion(version);
+        module.addArtifact(createArtifact(gavc));
+
+        return module;
+    }
+
+    private DbArtifact createArtifact(final String gavc) {
+        final DbArtifact artifact = new DbArtifact();
+        final String[] coordinates = gavc.split(":");
+        artifact.setGroupId(coordinates[0]);
+        artifact.setArtifactId(coordinates[1]);
+        artifact.setVersion(coordinates[2]);
+        artifact.setExtension(coordinates[4]);
+
+        return artifact;
+    }
+}
@@ -0,0 +1,242 @@
+package org.axway.grapes.server.core.graphs;
+
+import com.google.common.base.Function;
+import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.config.TraversalConfig;
+import org.axway.grapes.server.core.CoreServices;
+import org.axway.grapes.server.core.DependencyHandler;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.reports.DependencyReport;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TraversalExecutorTest {
+
+    private static final int NB_MODULES = 200;
+
+    @Test
+    public void theResultsAreInTheOrderOfTheElements() throws Exception {
+        final TraversalExecutor executor = new TraversalExecutor()
+                .configure(getConfig(4, 3));
+        executor.start();
+
+        try{
+            assertTrue(executor.isParallel());
+
+            final List<Integer> elements = new ArrayList<Integer>();
+            for(int i = 0; i < 1000; i++){
+                elements.add(i);
+            }
+
+            final List<String> results = executor.transform(elements, new Function<Integer, String>() {
+                @Override
+                public String apply(final Integer element) {
+                    return String.valueOf(element * 2);
+                }
+            });
+
+            assertEquals(1000, results.size());
+            for(int i = 0; i < 1000; i++){
+                assertEquals(String.valueOf(i * 2), results.get(i));
+            }
+        }
+        finally {
+            executor.stop();
+        }
+
+        assertFalse(executor.isParallel());
+    }
+
+    @Test
+    public void theErrorsAreRethrown() throws Exception {
+        final TraversalExecutor executor = new TraversalExecutor()
+                .configure(getConfig(2, 1));
+        executor.start();
+
+        final List<String> elements = new ArrayList<String>();
+        elements.add("ok");
+        elements.add("ko");
+
+        try{
+            executor.transform(elements, new Function<String, String>() {
+                @Override
+                public String apply(final String element) {
+                    if("ko".equals(element)){
+                        throw new IllegalArgumentException(element);
+                    }
+                    return element;
+                }
+            });
+            fail("The error should have been rethrown");
+        }
+        catch (IllegalArgumentException e){
+            assertEquals("ko", e.getMessage());
+        }
+        finally {
+            executor.stop();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void theNestedTransformationsDoNotStarveThePool() throws Exception {
+        final TraversalExecutor executor = new TraversalExecutor()
+                .configure(getConfig(2, 1));
+        executor.start();
+
+        try{
+            final List<Integer> elements = new ArrayList<Integer>();
+            for(int i = 0; i < 10; i++){
+                elements.add(i);
+            }
+
+            final List<Integer> results = executor.transform(elements, new Function<Integer, Integer>() {
+                @Override
+                public Integer apply(final Integer element) {
+                    int sum = 0;
+                    for(Integer nested: executor.transform(elements, new Function<Integer, Integer>() {
+                        @Override
+                        public Integer apply(final Integer nestedElement) {
+                            return element * nestedElement;
+                        }
+                    })){
+                        sum += nested;
+                    }
+                    return sum;
+                }
+            });
+
+            for(int i = 0; i < 10; i++){
+                assertEquals(Integer.valueOf(i * 45), results.get(i));
+            }
+        }
+        finally {
+            executor.stop();
+        }
+    }
+
+    @Test
+    public void theParallelTraversalGivesTheSameResultsAsTheSequentialOne() throws Exception {
+        for(long seed = 0; seed < 3; seed++){
+            final CoreServices sequentialServices = GrapesTestUtils.getServices(generateGraph(seed));
+            final CoreServices parallelServices = GrapesTestUtils.getServices(generateGraph(seed));
+
+            final TraversalExecutor executor = parallelServices.getTraversalExecutor().configure(getConfig(4, 2));
+            executor.start();
+
+            try{
+                for(int i = 0; i < NB_MODULES; i += 50){
+                    final String moduleId = DbModule.generateID("module" + i, "1.0.0");
+
+                    assertEquals(getDependencies(sequentialServices, moduleId), getDependencies(parallelServices, moduleId));
+                    assertEquals(getReport(sequentialServices, moduleId), getReport(parallelServices, moduleId));
+                }
+            }
+            finally {
+                executor.stop();
+            }
+        }
+    }
+
+    /**
+     * Generates modules with one artifact each and random dependencies to the other modules and to third party artifacts
+     */
+    private TestingRepositoryHandler generateGraph(final long seed) {
+        final Random random = new Random(seed);
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        organization.getCorporateGroupIdPrefixes().add(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        repositoryHandler.store(organization);
+
+        for(int i = 0; i < NB_MODULES; i++){
+            final DbModule module = new DbModule();
+            module.setName("module" + i);
+            module.setVersion("1.0.0");
+            module.setOrganization(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+
+            final DbArtifact artifact = createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifact" + i, "1.0.0");
+            module.addArtifact(artifact);
+            repositoryHandler.store(artifact);
+
+            for(int j = random.nextInt(5); j > 0; j--){
+                final int target = random.nextInt(NB_MODULES);
+                module.addDependency(createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifact" + target, "1.0.0").getGavc(),
+                        Scope.values()[random.nextInt(Scope.values().length)]);
+            }
+            for(int j = random.nextInt(3); j > 0; j--){
+                final DbArtifact thirdParty = createArtifact("org.thirdparty", "lib" + random.nextInt(50), "2." + random.nextInt(3));
+                thirdParty.setDoNotUse(random.nextBoolean());
+                repositoryHandler.store(thirdParty);
+                module.addDependency(thirdParty.getGavc(), Scope.COMPILE);
+            }
+
+            repositoryHandler.store(module);
+        }
+
+        return repositoryHandler;
+    }
+
+    private List<String> getDependencies(final CoreServices services, final String moduleId) {
+        final List<String> dependencies = new ArrayList<String>();
+        for(Dependency dependency: new DependencyHandler(services).getModuleDependencies(moduleId, getFilters())){
+            dependencies.add(toString(dependency));
+        }
+        return dependencies;
+    }
+
+    private List<String> getReport(final CoreServices services, final String moduleId) {
+        final DependencyReport report = new DependencyHandler(services).getDependencyReport(moduleId, getFilters());
+
+        final List<String> entries = new ArrayList<String>();
+        for(Dependency dependency: report.getDependencies()){
+            entries.add(toString(dependency) + " " + report.getLastVersion(dependency.getTarget())
+                    + " " + report.shouldNotBeUsed(dependency.getTarget().getGavc()));
+        }
+        return entries;
+    }
+
+    private String toString(final Dependency dependency) {
+        return dependency.getSourceName() + ":" + dependency.getSourceVersion() + " -> "
+                + dependency.getTarget().getGavc() + " " + dependency.getScope();
+    }
+
+    private FiltersHolder getFilters() {
+        final FiltersHolder filters = new FiltersHolder();
+        filters.getScopeHandler().setScopeComp(true);
+        filters.getScopeHandler().setScopePro(true);
+        filters.getScopeHandler().setScopeRun(true);
+        filters.getScopeHandler().setScopeTest(true);
+        filters.getDecorator().setShowThirdparty(true);
+        filters.getDepthHandler().setFullRecursive(true);
+        return filters;
+    }
+
+    private TraversalConfig getConfig(final int parallelism, final int batchSize) {
+        final TraversalConfig config = new TraversalConfig();
+        config.setParallelism(parallelism);
+        config.setBatchSize(batchSize);
+        return config;
+    }
+
+    private DbArtifact createArtifact(final String groupId, final String artifactId, final String version) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId(groupId);
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion(version);
+        artifact.setType("jar");
+        artifact.setExtension("jar");
+        return artifact;
+    }
+}
@@ -0,0 +1,242 @@
+package org.axway.grapes.server.core.ingestion;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.config.IngestionConfig;
+import org.axway.grapes.server.core.IngestionHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.*;
+
+public class IngestionQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private IngestionConfig config;
+    private IngestionHandler ingestionHandler;
+    private IngestionQueue queue;
+
+    @Before
+    public void setUp() {
+        config = new IngestionConfig();
+        config.setAsync(true);
+        config.setJournalDirectory(folder.getRoot().getAbsolutePath());
+        ingestionHandler = mock(IngestionHandler.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if(queue != null){
+            queue.stop();
+        }
+    }
+
+    @Test
+    public void queuedModulesAreStored() throws Exception {
+        queue = new IngestionQueue(config, ingestionHandler);
+        queue.start();
+
+        final IngestionTicket ticket = queue.submit(createModule("module", "1.0.0", "GPL"));
+        assertNotNull(ticket);
+        assertEquals("module:1.0.0", ticket.getModuleId());
+
+        waitFor(ticket);
+        assertEquals(IngestionTicket.Status.DONE, ticket.getStatus());
+        assertSame(ticket, queue.getTicket(ticket.getId()));
+        verify(ingestionHandler, times(1)).ingest(anyCollectionOf(Module.class));
+
+        // the journal entry is removed once the module is stored
+        assertEquals(0, folder.getRoot().listFiles().length);
+        assertEquals(0, queue.getDepth());
+        assertEquals(0, queue.getLag());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void postsOfTheSameModuleAreCoalesced() throws Exception {
+        queue = new IngestionQueue(config, ingestionHandler);
+
+        final IngestionTicket ticket1 = queue.submit(createModule("module", "1.0.0", "GPL"));
+        final IngestionTicket ticket2 = queue.submit(createModule("module", "1.0.0", "MIT"));
+        final IngestionTicket ticket3 = queue.submit(createModule("other", "1.0.0", "MIT"));
+        assertEquals(2, queue.getDepth());
+        assertTrue(queue.getLag() >= 0);
+
+        queue.start();
+        waitFor(ticket1);
+        waitFor(ticket2);
+        waitFor(ticket3);
+        assertEquals(IngestionTicket.Status.DONE, ticket1.getStatus());
+        assertEquals(IngestionTicket.Status.DONE, ticket2.getStatus());
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(ingestionHandler, times(1)).ingest(captor.capture());
+        final List<Module> modules = (List<Module>) captor.getValue();
+        assertEquals(2, modules.size());
+
+        // the licenses of the replaced post are kept
+        final Artifact artifact = modules.get(0).getArtifacts().iterator().next();
+        assertTrue(artifact.getLicenses().contains("GPL"));
+        assertTrue(artifact.getLicenses().contains("MIT"));
+        // both posts produce the same artifact
+        verify(ingestionHandler, never()).storeArtifacts(anyCollectionOf(Artifact.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void theArtifactsOfTheReplacedPostsAreStored() throws Exception {
+        queue = new IngestionQueue(config, ingestionHandler);
+
+        final Module firstPost = createModule("module", "1.0.0", "GPL");
+        final Artifact droppedArtifact = DataModelFactory.createArtifact("org.test", "dropped", "1.0.0", "", "jar", "jar");
+        droppedArtifact.addLicense("GPL");
+        firstPost.addArtifact(droppedArtifact);
+        queue.submit(firstPost);
+
+        final Module secondPost = createModule("module", "1.0.0", "MIT");
+        final Artifact otherDroppedArtifact = DataModelFactory.createArtifact("org.test", "dropped", "1.0.0", "", "jar", "jar");
+        otherDroppedArtifact.addLicense("MIT");
+        secondPost.addArtifact(otherDroppedArtifact);
+        queue.submit(secondPost);
+
+        final IngestionTicket ticket = queue.submit(createModule("module", "1.0.0", "BSD"));
+        queue.start();
+        waitFor(ticket);
+        assertEquals(IngestionTicket.Status.DONE, ticket.getStatus());
+
+        final ArgumentCaptor<Collection> modulesCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(ingestionHandler, times(1)).ingest(modulesCaptor.capture());
+        final Module module = (Module) modulesCaptor.getValue().iterator().next();
+        assertEquals(1, module.getArtifacts().size());
+        assertEquals(3, module.getArtifacts().iterator().next().getLicenses().size());
+
+        // the artifact that only the replaced posts produce is stored with the licenses of both posts
+        final ArgumentCaptor<Collection> artifactsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(ingestionHandler, times(1)).storeArtifacts(artifactsCaptor.capture());
+        final List<Artifact> artifacts = new ArrayList<Artifact>(artifactsCaptor.getValue());
+        assertEquals(1, artifacts.size());
+        assertEquals(droppedArtifact.getGavc(), artifacts.get(0).getGavc());
+        assertTrue(artifacts.get(0).getLicenses().contains("GPL"));
+        assertTrue(artifacts.get(0).getLicenses().contains("MIT"));
+    }
+
+    @Test
+    public void postsAreRejectedWhenTheQueueIsFull() throws Exception {
+        config.setCapacity(1);
+        queue = new IngestionQueue(config, ingestionHandler);
+
+        assertNotNull(queue.submit(createModule("module", "1.0.0", "GPL")));
+        assertNull(queue.submit(createModule("other", "1.0.0", "GPL")));
+        // a module that is already queued is coalesced
+        assertNotNull(queue.submit(createModule("module", "1.0.0", "MIT")));
+        assertEquals(1, queue.getDepth());
+    }
+
+    @Test
+    public void journaledModulesAreStoredAfterARestart() throws Exception {
+        final IngestionQueue previousQueue = new IngestionQueue(config, ingestionHandler);
+        final IngestionTicket ticket = previousQueue.submit(createModule("module", "1.0.0", "GPL"));
+        previousQueue.stop();
+
+        queue = new IngestionQueue(config, ingestionHandler);
+        queue.start();
+
+        final IngestionTicket reloaded = queue.getTicket(ticket.getId());
+        assertNotNull(reloaded);
+        waitFor(reloaded);
+        assertEquals(IngestionTicket.Status.DONE, reloaded.getStatus());
+        verify(ingestionHandler, times(1)).ingest(anyCollectionOf(Module.class));
+        assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void failuresAreReportedInTheTicket() throws Exception {
+        doThrow(new IllegalStateException("database down")).when(ingestionHandler).ingest(anyCollectionOf(Module.class));
+        config.setMaxRetries(2);
+        config.setRetryDelay(10);
+        queue = new IngestionQueue(config, ingestionHandler);
+        queue.start();
+
+        final IngestionTicket ticket = queue.submit(createModule("module", "1.0.0", "GPL"));
+        waitFor(ticket);
+
+        assertEquals(IngestionTicket.Status.FAILED, ticket.getStatus());
+        assertEquals("database down", ticket.getError());
+        assertTrue(ticket.getCompleted() >= ticket.getSubmitted());
+        // the first store and its retries, each of them as a batch then alone
+        verify(ingestionHandler, times(6)).ingest(anyCollectionOf(Module.class));
+
+        // the module stays in the journal for the next start
+        assertEquals(1, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void failedStoresAreRetried() throws Exception {
+        doThrow(new IllegalStateException("database down"))
+                .doThrow(new IllegalStateException("database down"))
+                .doNothing()
+                .when(ingestionHandler).ingest(anyCollectionOf(Module.class));
+        config.setRetryDelay(10);
+        queue = new IngestionQueue(config, ingestionHandler);
+        queue.start();
+
+        final IngestionTicket ticket = queue.submit(createModule("module", "1.0.0", "GPL"));
+        waitFor(ticket);
+
+        assertEquals(IngestionTicket.Status.DONE, ticket.getStatus());
+        verify(ingestionHandler, times(3)).ingest(anyCollectionOf(Module.class));
+        assertEquals(0, folder.getRoot().listFiles().length);
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void failedModulesAreStoredAfterARestart() throws Exception {
+        final IngestionHandler failingHandler = mock(IngestionHandler.class);
+        doThrow(new IllegalStateException("database down")).when(failingHandler).ingest(anyCollectionOf(Module.class));
+        config.setMaxRetries(0);
+        final IngestionQueue previousQueue = new IngestionQueue(config, failingHandler);
+        previousQueue.start();
+        final IngestionTicket ticket = previousQueue.submit(createModule("module", "1.0.0", "GPL"));
+        waitFor(ticket);
+        previousQueue.stop();
+        assertEquals(IngestionTicket.Status.FAILED, ticket.getStatus());
+
+        queue = new IngestionQueue(config, ingestionHandler);
+        queue.start();
+
+        final IngestionTicket reloaded = queue.getTicket(ticket.getId());
+        assertNotNull(reloaded);
+        waitFor(reloaded);
+        assertEquals(IngestionTicket.Status.DONE, reloaded.getStatus());
+        verify(ingestionHandler, times(1)).ingest(anyCollectionOf(Module.class));
+        assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    private Module createModule(final String name, final String version, final String license) {
+        final Module module = DataModelFactory.createModule(name, version);
+        final Artifact artifact = DataModelFactory.createArtifact("org.test", name, version, "", "jar", "jar");
+        artifact.addLicense(license);
+        module.addArtifact(artifact);
+        return module;
+    }
+
+    private void waitFor(final IngestionTicket ticket) throws InterruptedException {
+        final long timeout = System.currentTimeMillis() + 10000;
+        while(ticket.getCompleted() == 0 && System.currentTimeMillis() < timeout){
+            Thread.sleep(10);
+        }
+    }
+}
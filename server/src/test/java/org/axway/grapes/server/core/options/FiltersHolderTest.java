@@ -1,5 +1,7 @@
 package org.axway.grapes.server.core.options;
 
+import com.sun.jersey.core.util.MultivaluedMapImpl;
+import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.Scope;
 import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.core.options.filters.ApprovedFilter;
@@ -10,10 +12,10 @@ import org.axway.grapes.server.db.datamodel.DbLicense;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.junit.Test;
 
+import javax.ws.rs.core.MultivaluedMap;
 import java.net.UnknownHostException;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class FiltersHolderTest {
 
@@ -107,4 +109,34 @@ public class FiltersHolderTest {
         assertTrue(filters.getDepthHandler().shouldGoDeeper(20));
 
     }
+
+    @Test
+    public void theRequestsWithTheSameFiltersShareTheirPlan(){
+        final MultivaluedMap<String, String> params = new MultivaluedMapImpl();
+        params.add(ServerAPI.GROUPID_PARAM, "org.test");
+        params.add(ServerAPI.PROMOTED_PARAM, "true");
+        params.add(ServerAPI.SCOPE_TEST_PARAM, "true");
+
+        final MultivaluedMap<String, String> sameFilters = new MultivaluedMapImpl();
+        sameFilters.add(ServerAPI.PROMOTED_PARAM, "true");
+        sameFilters.add(ServerAPI.GROUPID_PARAM, "org.test");
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.init(params);
+        final FiltersHolder otherFilters = new FiltersHolder();
+        otherFilters.init(sameFilters);
+
+        assertSame(filters.getPlan(), otherFilters.getPlan());
+        assertEquals(2, filters.getPlan().getFilters().size());
+        assertTrue(filters.getScopeHandler().getScopeTest());
+        assertFalse(otherFilters.getScopeHandler().getScopeTest());
+
+        // a filter added to a request does not change the shared plan
+        otherFilters.addFilter(new ApprovedFilter(true));
+        assertNotSame(filters.getPlan(), otherFilters.getPlan());
+        assertEquals(2, filters.getPlan().getFilters().size());
+        assertEquals(3, otherFilters.getPlan().getFilters().size());
+
+        assertSame(FiltersPlan.EMPTY, new FiltersHolder().getPlan());
+    }
 }
@@ -1,5 +1,6 @@
 package org.axway.grapes.server.core.options.filters;
 
+import com.mongodb.BasicDBObject;
 import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbDependency;
@@ -7,7 +8,10 @@ import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import static junit.framework.TestCase.*;
 
@@ -149,7 +153,43 @@ public class CorporateFilterTest {
         assertNotNull(params);
         assertEquals(1, params.size());
         assertEquals(DbArtifact.GROUPID_DB_FIELD, params.keySet().iterator().next());
-        assertEquals(GrapesTestUtils.CORPORATE_GROUPID_4TEST + "*|my.corporate.gid*", params.values().iterator().next().toString());
+
+        // one anchored regexp per prefix
+        final List<Pattern> regExps = filter.getMongoRegExps();
+        assertEquals(new BasicDBObject("$in", regExps).toString(), params.values().iterator().next().toString());
+        assertEquals(2, regExps.size());
+        assertEquals("^" + GrapesTestUtils.CORPORATE_GROUPID_4TEST.replace(".", "\\."), regExps.get(0).pattern());
+        assertEquals("^my\\.corporate\\.gid", regExps.get(1).pattern());
+
+        assertTrue(regExps.get(1).matcher("my.corporate.gid.module").find());
+        assertFalse(regExps.get(1).matcher("my.corporate.gi").find());
+        assertTrue(regExps.get(1).matcher("my.corporate.gid").find());
+        assertFalse(regExps.get(1).matcher("org.my.corporate.gid").find());
+        assertFalse(regExps.get(1).matcher("myXcorporateXgid").find());
+    }
+
+    @Test
+    public void theCorporateGroupIdsAreMatchedAsPrefixes(){
+        final DbOrganization organization = new DbOrganization();
+        organization.setName("testOrganization");
+        organization.getCorporateGroupIdPrefixes().add("com.company");
+        organization.getCorporateGroupIdPrefixes().add("com.company.product.");
+        organization.getCorporateGroupIdPrefixes().add("org.other");
+        final CorporateFilter filter = new CorporateFilter(organization);
+
+        final DbDependency dependency = new DbDependency();
+        for(String target: new String[]{"com.company:a:1::jar", "com.companyx:a:1::jar", "com.company.product.x:a:1::jar", "org.other.lib:a:1::jar"}){
+            dependency.setTarget(target);
+            assertTrue(target, filter.filter(dependency));
+        }
+        for(String target: new String[]{"com.compan:a:1::jar", "org.othe:a:1::jar", "net.company:a:1::jar", ""}){
+            dependency.setTarget(target);
+            assertFalse(target, filter.filter(dependency));
+        }
+
+        // the organizations that have the same prefixes share their matcher
+        assertSame(GroupIdPrefixMatcher.of(organization.getCorporateGroupIdPrefixes()),
+                GroupIdPrefixMatcher.of(new ArrayList<String>(organization.getCorporateGroupIdPrefixes())));
     }
 
 
@@ -5,12 +5,17 @@ import org.axway.grapes.commons.datamodel.Artifact;
 import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Dependency;
 import org.axway.grapes.commons.datamodel.Scope;
+import com.yammer.dropwizard.views.freemarker.FreemarkerViewRenderer;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class DependencyReportViewTest {
 
@@ -37,4 +42,49 @@ public class DependencyReportViewTest {
         assertEquals("1.0.0", version);
     }
 
+    @Test
+    public void sourcesAreSortedByName(){
+        final Artifact target = DataModelFactory.createArtifact("groupId", "artifactId", "0.1.2", "", "", "");
+        final DependencyReport view = new DependencyReport("test");
+        view.addDependency(createDependency(target, Scope.COMPILE, "moduleC", "1"), "1.0.0");
+        view.addDependency(createDependency(target, Scope.COMPILE, "moduleA", "1"), "1.0.0");
+        view.addDependency(createDependency(target, Scope.TEST, "moduleB", "1"), "1.0.0");
+        view.addDependency(createDependency(target, Scope.COMPILE, "moduleA", "1"), "1.0.0");
+
+        final List<Dependency> sources = view.getDependencies(target, "0.1.2");
+        assertEquals(3, sources.size());
+        assertEquals("moduleA", sources.get(0).getSourceName());
+        assertEquals("moduleB", sources.get(1).getSourceName());
+        assertEquals("moduleC", sources.get(2).getSourceName());
+        assertEquals(3, view.getNbEntry(target));
+        assertEquals(0, view.getDependencies(target, "9.9.9").size());
+    }
+
+    @Test
+    public void renderABigReport() throws IOException {
+        final DependencyReport view = new DependencyReport("test");
+        for(int i = 0; i < 1000; i++){
+            final Artifact target = DataModelFactory.createArtifact("groupId", "artifact" + i, "1.0." + i, "", "", "");
+            for(int j = 0; j < 10; j++){
+                view.addDependency(createDependency(target, Scope.COMPILE, "module" + (9 - j), "1.0.0"), "2.0.0");
+            }
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final long start = System.currentTimeMillis();
+        new FreemarkerViewRenderer().render(view, Locale.ENGLISH, output);
+        final long renderingTime = System.currentTimeMillis() - start;
+
+        assertEquals(10000, view.getDependencies().size());
+        assertTrue(output.toString("UTF-8").contains("module9 (1.0.0)"));
+        assertTrue("Rendering took " + renderingTime + "ms", renderingTime < 10000);
+    }
+
+    private Dependency createDependency(final Artifact target, final Scope scope, final String sourceName, final String sourceVersion) {
+        final Dependency dependency = DataModelFactory.createDependency(target, scope);
+        dependency.setSourceName(sourceName);
+        dependency.setSourceVersion(sourceVersion);
+        return dependency;
+    }
+
 }
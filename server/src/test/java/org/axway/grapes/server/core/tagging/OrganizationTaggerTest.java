@@ -0,0 +1,103 @@
+package org.axway.grapes.server.core.tagging;
+
+import org.axway.grapes.server.config.TaggingConfig;
+import org.axway.grapes.server.core.concurrent.SingleFlight;
+import org.axway.grapes.server.core.graphs.ClosureCache;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrganizationTaggerTest {
+
+    @Test
+    public void theModulesOfTheAddedGroupIdAreTaggedByBatch(){
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+        final TaggingConfig config = new TaggingConfig();
+        config.setBatchSize(2);
+        final OrganizationTagger tagger = new OrganizationTagger(repositoryHandler, new ClosureCache(new SingleFlight())).configure(config);
+
+        for(int i = 0; i < 5; i++){
+            repositoryHandler.store(createModule("module" + i, "com.company.module" + i));
+        }
+        repositoryHandler.store(createModule("other", "org.company.other"));
+
+        final DbOrganization organization = createOrganization("company", "com.company");
+        final TaggingJob job = tagger.addCorporateGroupId("com.company", organization);
+
+        assertEquals(TaggingJob.Status.DONE, job.getStatus());
+        assertEquals(5, job.getTotal());
+        assertEquals(5, job.getUpdated());
+        assertEquals("company", repositoryHandler.getModule(DbModule.generateID("module0", "1.0.0")).getOrganization());
+        assertFalse("company".equals(repositoryHandler.getModule(DbModule.generateID("other", "1.0.0")).getOrganization()));
+
+        assertEquals(1, tagger.getJobs("company").size());
+        assertSame(job, tagger.getJobs("company").get(0));
+        assertTrue(tagger.getJobs("unknown").isEmpty());
+    }
+
+    @Test
+    public void theModulesStillMatchedByTheOrganizationAreNotUntagged(){
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+        final OrganizationTagger tagger = new OrganizationTagger(repositoryHandler, new ClosureCache(new SingleFlight()));
+
+        final DbModule product = createModule("product", "com.company.product");
+        product.setOrganization("company");
+        final DbModule lib = createModule("lib", "com.company.lib");
+        lib.setOrganization("company");
+        repositoryHandler.store(product);
+        repositoryHandler.store(lib);
+
+        // com.company.product stays covered by com.company.product, com.company.lib is not covered any more
+        final DbOrganization organization = createOrganization("company", "com.company.product");
+        final TaggingJob job = tagger.removeCorporateGroupId("com.company", organization);
+
+        assertEquals(TaggingJob.Status.DONE, job.getStatus());
+        assertEquals(1, job.getUpdated());
+        assertEquals("company", repositoryHandler.getModule(product.getId()).getOrganization());
+        assertEquals("", repositoryHandler.getModule(lib.getId()).getOrganization());
+    }
+
+    @Test
+    public void theJobsRunInBackgroundOnceTheTaggerIsStarted() throws Exception {
+        final TestingRepositoryHandler repositoryHandler = new TestingRepositoryHandler();
+        final OrganizationTagger tagger = new OrganizationTagger(repositoryHandler, new ClosureCache(new SingleFlight()));
+        repositoryHandler.store(createModule("module", "com.company.module"));
+
+        tagger.start();
+        final TaggingJob job;
+        try{
+            job = tagger.addCorporateGroupId("com.company", createOrganization("company", "com.company"));
+        }
+        finally {
+            tagger.stop();
+        }
+
+        assertEquals(TaggingJob.Status.DONE, job.getStatus());
+        assertEquals(1, job.getUpdated());
+    }
+
+    private DbOrganization createOrganization(final String name, final String corporateGroupId) {
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(name);
+        organization.getCorporateGroupIdPrefixes().add(corporateGroupId);
+        return organization;
+    }
+
+    private DbModule createModule(final String name, final String groupId) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId(groupId);
+        artifact.setArtifactId(name);
+        artifact.setVersion("1.0.0");
+        artifact.setExtension("jar");
+
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion("1.0.0");
+        module.addArtifact(artifact);
+        return module;
+    }
+}
@@ -2,6 +2,10 @@ package org.axway.grapes.server.core.version;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class VersionTest {
@@ -246,4 +250,27 @@ public class VersionTest {
 		assertEquals(-1, version2.compare(version3));
 	}
 
+	@Test
+	public void parsedVersionsAreShared() throws NotHandledVersionException {
+		final Version version = Version.valueOf("1.2.3-4");
+		assertSame(version, Version.valueOf("1.2.3-4"));
+		assertEquals("1.2.3-4", version.toString());
+	}
+
+	@Test
+	public void comparatorUsesTheFallbackForIncomparableVersions() throws NotHandledVersionException {
+		final List<Version> versions = new ArrayList<Version>();
+		versions.add(new Version("1.0.0-2-1"));
+		versions.add(new Version("1.0.0-3"));
+		versions.add(new Version("1.0.0-1-1"));
+		versions.add(new Version("0.9"));
+
+		Collections.sort(versions, new VersionComparator());
+
+		assertEquals("0.9", versions.get(0).toString());
+		assertEquals("1.0.0-3", versions.get(1).toString());
+		assertEquals("1.0.0-1-1", versions.get(2).toString());
+		assertEquals("1.0.0-2-1", versions.get(3).toString());
+	}
+
 }
@@ -3,13 +3,18 @@ package org.axway.grapes.server.db;
 import org.axway.grapes.commons.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class DataUtilsTest {
 
@@ -140,4 +145,114 @@ public class DataUtilsTest {
         assertEquals("test", DataUtils.getGroupId(gavc2));
     }
 
+    @Test
+    public void sortArtifacts(){
+        final Artifact artifact1 = DataModelFactory.createArtifact("gr1","art1","1","","","");
+        final Artifact artifact2 = DataModelFactory.createArtifact("gr2","art1","1","","","");
+        final Artifact artifact3 = DataModelFactory.createArtifact("gr1","art2","1","","","");
+
+        final List<Artifact> artifacts = new ArrayList<Artifact>();
+        artifacts.add(artifact2);
+        artifacts.add(artifact3);
+        artifacts.add(artifact1);
+
+        DataUtils.sort(artifacts);
+
+        assertEquals(artifact1, artifacts.get(0));
+        assertEquals(artifact3, artifacts.get(1));
+        assertEquals(artifact2, artifacts.get(2));
+    }
+
+    @Test
+    public void sortDependenciesIsStable(){
+        final Artifact target = DataModelFactory.createArtifact("gr1","art1","1","","","");
+        final Dependency dependency1 = DataModelFactory.createDependency(target, Scope.COMPILE);
+        dependency1.setSourceName("b");
+        final Dependency dependency2 = DataModelFactory.createDependency(target, Scope.TEST);
+        dependency2.setSourceName("a");
+        final Dependency dependency3 = DataModelFactory.createDependency(target, Scope.COMPILE);
+        dependency3.setSourceName("a");
+
+        final List<Dependency> dependencies = new ArrayList<Dependency>();
+        dependencies.add(dependency1);
+        dependencies.add(dependency2);
+        dependencies.add(dependency3);
+
+        DataUtils.sortBySource(dependencies);
+
+        assertSame(dependency2, dependencies.get(0));
+        assertSame(dependency3, dependencies.get(1));
+        assertSame(dependency1, dependencies.get(2));
+    }
+
+    @Test
+    public void contentHashDoesNotDependOnTheOrder(){
+        final Module module1 = createModuleToHash("GPL", "MIT");
+        final Module module2 = createModuleToHash("MIT", "GPL");
+
+        assertEquals(DataUtils.getContentHash(module1), DataUtils.getContentHash(module2));
+    }
+
+    @Test
+    public void contentHashChangesWithTheContent(){
+        final Module module = createModuleToHash("GPL");
+        final String hash = DataUtils.getContentHash(module);
+
+        final Module newLicense = createModuleToHash("GPL", "MIT");
+        assertFalse(hash.equals(DataUtils.getContentHash(newLicense)));
+
+        final Module newDependency = createModuleToHash("GPL");
+        newDependency.addDependency(DataModelFactory.createDependency(DataModelFactory.createArtifact("gr3","art3","1","","",""), Scope.TEST));
+        assertFalse(hash.equals(DataUtils.getContentHash(newDependency)));
+
+        final Module newScope = createModuleToHash("GPL");
+        newScope.getDependencies().clear();
+        newScope.addDependency(DataModelFactory.createDependency(DataModelFactory.createArtifact("gr2","art2","1","","",""), Scope.RUNTIME));
+        assertFalse(hash.equals(DataUtils.getContentHash(newScope)));
+
+        final Module newSubmodule = createModuleToHash("GPL");
+        newSubmodule.addSubmodule(DataModelFactory.createModule("sub", "1"));
+        assertFalse(hash.equals(DataUtils.getContentHash(newSubmodule)));
+    }
+
+    @Test
+    public void getLatestVersion() {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("com.axway.tests");
+        artifact.setArtifactId("artifact");
+        artifact.setClassifier("win");
+        artifact.setExtension("jar");
+
+        final List<String> versions = new ArrayList<String>();
+        versions.add("1.0.0-1");
+        versions.add("2.0.0-1");
+        versions.add("3.0.0-SNAPSHOT");
+
+        final DbLatestVersion latestVersion = DataUtils.getLatestVersion(artifact, versions);
+        assertEquals("com.axway.tests:artifact:win:jar", latestVersion.getCoordinates());
+        assertEquals("2.0.0-1", latestVersion.getLastRelease());
+        assertEquals("3.0.0-SNAPSHOT", latestVersion.getLastVersion());
+
+        versions.add("not-a-version");
+        final DbLatestVersion fallback = DataUtils.getLatestVersion(artifact, versions);
+        assertNull(fallback.getLastRelease());
+        assertEquals("not-a-version", fallback.getLastVersion());
+
+        final DbLatestVersion empty = DataUtils.getLatestVersion(artifact, new ArrayList<String>());
+        assertNull(empty.getLastRelease());
+        assertNull(empty.getLastVersion());
+    }
+
+    private Module createModuleToHash(final String... licenses){
+        final Module module = DataModelFactory.createModule("module", "1");
+        final Artifact artifact = DataModelFactory.createArtifact("gr1","art1","1","","","");
+        for(String license: licenses){
+            artifact.addLicense(license);
+        }
+        module.addArtifact(artifact);
+        module.addArtifact(DataModelFactory.createArtifact("gr1","art4","1","","",""));
+        module.addDependency(DataModelFactory.createDependency(DataModelFactory.createArtifact("gr2","art2","1","","",""), Scope.COMPILE));
+
+        return module;
+    }
 }
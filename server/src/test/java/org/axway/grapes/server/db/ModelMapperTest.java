@@ -5,9 +5,14 @@ import org.axway.grapes.commons.datamodel.*;
 import org.axway.grapes.server.db.datamodel.*;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
 
 public class ModelMapperTest {
 
@@ -239,6 +244,37 @@ public class ModelMapperTest {
 
     }
 
+    @Test
+    public void getModulesResolvesTheArtifactsOnce(){
+        final DbArtifact dbArtifact = new DbArtifact();
+        dbArtifact.setGroupId("com.my.company");
+        dbArtifact.setArtifactId("artifact");
+        dbArtifact.setVersion("1.0.0");
+
+        final DbModule dbModule1 = new DbModule();
+        dbModule1.setName("module1");
+        dbModule1.setVersion("1.0.0");
+        dbModule1.addDependency(dbArtifact.getGavc(), Scope.COMPILE);
+
+        final DbModule dbModule2 = new DbModule();
+        dbModule2.setName("module2");
+        dbModule2.setVersion("1.0.0");
+        dbModule2.addDependency(dbArtifact.getGavc(), Scope.TEST);
+
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(Collections.singletonList(dbArtifact));
+
+        final ModelMapper modelMapper = new ModelMapper(repositoryHandler);
+        final List<Module> modules = modelMapper.getModules(Arrays.asList(dbModule1, dbModule2));
+
+        assertEquals(2, modules.size());
+        assertEquals(dbModule1.getName(), modules.get(0).getName());
+        assertEquals(dbModule2.getName(), modules.get(1).getName());
+        assertEquals(Scope.TEST, modules.get(1).getDependencies().iterator().next().getScope());
+        verify(repositoryHandler, times(1)).getArtifacts(anyCollectionOf(String.class));
+        verify(repositoryHandler, never()).getArtifact(anyString());
+    }
+
     @Test
     public void getDbOrganizationFromOrganization(){
         final Organization organization = DataModelFactory.createOrganization("test");
@@ -0,0 +1,127 @@
+package org.axway.grapes.server.db;
+
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.*;
+
+public class RequestScopedRepositoryHandlerTest {
+
+    @Test
+    public void theReadsAreNotCachedOutOfARequest(){
+        final RepositoryHandler delegate = mock(RepositoryHandler.class);
+        final RequestScopedRepositoryHandler repositoryHandler = new RequestScopedRepositoryHandler(delegate);
+
+        repositoryHandler.getArtifact("gavc");
+        repositoryHandler.getArtifact("gavc");
+        verify(delegate, times(2)).getArtifact("gavc");
+
+        assertEquals(0, repositoryHandler.endRequest());
+    }
+
+    @Test
+    public void theReadsOfARequestAreDeduplicated(){
+        final RepositoryHandler delegate = mock(RepositoryHandler.class);
+        final DbArtifact artifact = createArtifact("artifact");
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1.0.0");
+        module.addArtifact(artifact);
+        when(delegate.getArtifact(artifact.getGavc())).thenReturn(artifact);
+        when(delegate.getModule(module.getId())).thenReturn(module);
+        when(delegate.getRootModuleOf(artifact.getGavc())).thenReturn(module);
+
+        final RequestScopedRepositoryHandler repositoryHandler = new RequestScopedRepositoryHandler(delegate);
+        repositoryHandler.beginRequest();
+
+        assertSame(artifact, repositoryHandler.getArtifact(artifact.getGavc()));
+        assertSame(artifact, repositoryHandler.getArtifact(artifact.getGavc()));
+        assertSame(module, repositoryHandler.getModule(module.getId()));
+        assertSame(module, repositoryHandler.getModule(module.getId()));
+        assertNull(repositoryHandler.getModule("unknown"));
+        assertNull(repositoryHandler.getModule("unknown"));
+
+        // the module of an artifact is found in its root module
+        assertSame(module, repositoryHandler.getRootModuleOf(artifact.getGavc()));
+        assertSame(module, repositoryHandler.getModuleOf(artifact.getGavc()));
+
+        verify(delegate, times(1)).getArtifact(artifact.getGavc());
+        verify(delegate, times(1)).getModule(module.getId());
+        verify(delegate, times(1)).getModule("unknown");
+        verify(delegate, times(1)).getRootModuleOf(artifact.getGavc());
+        verify(delegate, never()).getModuleOf(anyString());
+
+        assertEquals(4, repositoryHandler.endRequest());
+
+        // the next request reads the database again
+        repositoryHandler.beginRequest();
+        repositoryHandler.getArtifact(artifact.getGavc());
+        verify(delegate, times(2)).getArtifact(artifact.getGavc());
+        assertEquals(0, repositoryHandler.endRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void onlyTheMissingArtifactsAreRead(){
+        final RepositoryHandler delegate = mock(RepositoryHandler.class);
+        final DbArtifact artifact1 = createArtifact("artifact1");
+        final DbArtifact artifact2 = createArtifact("artifact2");
+        when(delegate.getArtifact(artifact1.getGavc())).thenReturn(artifact1);
+        when(delegate.getArtifacts(anyCollectionOf(String.class))).thenReturn(Collections.singletonList(artifact2));
+
+        final RequestScopedRepositoryHandler repositoryHandler = new RequestScopedRepositoryHandler(delegate);
+        repositoryHandler.beginRequest();
+
+        repositoryHandler.getArtifact(artifact1.getGavc());
+        final List<DbArtifact> artifacts = repositoryHandler.getArtifacts(Arrays.asList(artifact1.getGavc(), artifact2.getGavc(), "unknown"));
+        assertEquals(Arrays.asList(artifact1, artifact2), artifacts);
+        final ArgumentCaptor<Collection> read = ArgumentCaptor.forClass(Collection.class);
+        verify(delegate).getArtifacts(read.capture());
+        assertEquals(Arrays.asList(artifact2.getGavc(), "unknown"), new ArrayList<String>(read.getValue()));
+
+        // all of them are known now, even the missing one
+        assertEquals(Arrays.asList(artifact1, artifact2), repositoryHandler.getArtifacts(Arrays.asList(artifact1.getGavc(), artifact2.getGavc(), "unknown")));
+        assertNull(repositoryHandler.getArtifact("unknown"));
+        verify(delegate, times(1)).getArtifacts(anyCollectionOf(String.class));
+        verify(delegate, never()).getArtifact("unknown");
+
+        assertEquals(2, repositoryHandler.endRequest());
+    }
+
+    @Test
+    public void theWritesEmptyTheIdentityMap(){
+        final RepositoryHandler delegate = mock(RepositoryHandler.class);
+        final DbArtifact artifact = createArtifact("artifact");
+        when(delegate.getArtifact(artifact.getGavc())).thenReturn(artifact);
+
+        final RequestScopedRepositoryHandler repositoryHandler = new RequestScopedRepositoryHandler(delegate);
+        repositoryHandler.beginRequest();
+
+        repositoryHandler.getArtifact(artifact.getGavc());
+        repositoryHandler.updateDoNotUse(artifact, true);
+        repositoryHandler.getArtifact(artifact.getGavc());
+
+        verify(delegate).updateDoNotUse(artifact, true);
+        verify(delegate, times(2)).getArtifact(artifact.getGavc());
+        assertEquals(0, repositoryHandler.endRequest());
+    }
+
+    private DbArtifact createArtifact(final String artifactId) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("org.test");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        artifact.setExtension("jar");
+        return artifact;
+    }
+}
@@ -0,0 +1,83 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.axway.grapes.server.db.mongo.IndexRegistry.IndexDefinition;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class IndexRegistryTest {
+
+    @Test
+    public void matchTheKeysInOrder() {
+        final IndexDefinition index = new IndexDefinition(DbCollections.DB_ARTIFACTS, "test_index",
+                DbArtifact.GROUPID_DB_FIELD, DbArtifact.ARTIFACTID_DB_FIELD);
+
+        final DB db = mock(DB.class);
+        final DBCollection collection = mock(DBCollection.class);
+        when(db.getCollection(DbCollections.DB_ARTIFACTS)).thenReturn(collection);
+
+        // The driver may return the direction as a double
+        when(collection.getIndexInfo()).thenReturn(Collections.<DBObject>singletonList(new BasicDBObject("key",
+                new BasicDBObject(DbArtifact.GROUPID_DB_FIELD, 1.0).append(DbArtifact.ARTIFACTID_DB_FIELD, 1.0))));
+        assertTrue(index.existsIn(db));
+
+        when(collection.getIndexInfo()).thenReturn(Collections.<DBObject>singletonList(new BasicDBObject("key",
+                new BasicDBObject(DbArtifact.ARTIFACTID_DB_FIELD, 1).append(DbArtifact.GROUPID_DB_FIELD, 1))));
+        assertFalse(index.existsIn(db));
+
+        when(collection.getIndexInfo()).thenReturn(Collections.<DBObject>singletonList(new BasicDBObject("key",
+                new BasicDBObject(DbArtifact.GROUPID_DB_FIELD, -1).append(DbArtifact.ARTIFACTID_DB_FIELD, 1))));
+        assertFalse(index.existsIn(db));
+    }
+
+    @Test
+    public void createOnlyTheMissingIndexes() {
+        final DB db = mock(DB.class);
+        final DBCollection collection = mock(DBCollection.class);
+        when(db.getCollection(anyString())).thenReturn(collection);
+
+        final IndexDefinition existing = IndexRegistry.INDEXES.get(0);
+        when(collection.getIndexInfo()).thenReturn(Collections.<DBObject>singletonList(new BasicDBObject("key", existing.getKeys())));
+
+        final List<IndexDefinition> created = IndexRegistry.ensureIndexes(db);
+
+        assertEquals(IndexRegistry.INDEXES.size() - 1, created.size());
+        assertFalse(created.contains(existing));
+        verify(collection, times(created.size())).ensureIndex(any(DBObject.class), any(DBObject.class));
+        verify(collection, never()).ensureIndex(eq(existing.getKeys()), any(DBObject.class));
+    }
+
+    @Test
+    public void theIndexesAreNamedAndBuiltInTheBackground() {
+        final DB db = mock(DB.class);
+        final DBCollection collection = mock(DBCollection.class);
+        when(db.getCollection(anyString())).thenReturn(collection);
+        when(collection.getIndexInfo()).thenReturn(Collections.<DBObject>emptyList());
+
+        IndexRegistry.ensureIndexes(db);
+
+        final Set<String> names = new HashSet<String>();
+        for(IndexDefinition index: IndexRegistry.INDEXES){
+            assertTrue(names.add(index.getName()));
+            verify(collection).ensureIndex(index.getKeys(),
+                    new BasicDBObject("name", index.getName()).append("background", true));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MongoDatastoreTest {
+
+    @Test
+    public void clientOptionsComeFromTheConfiguration(){
+        final DataBaseConfig config = getConfig("secondaryPreferred", "MAJORITY");
+
+        final MongoClientOptions options = MongoDatastore.getClientOptions(config);
+        assertEquals(50, options.getConnectionsPerHost());
+        assertEquals(2, options.getThreadsAllowedToBlockForConnectionMultiplier());
+        assertEquals(3000, options.getMaxWaitTime());
+        assertEquals(1000, options.getConnectTimeout());
+        assertEquals(2000, options.getSocketTimeout());
+        assertEquals(ReadPreference.secondaryPreferred(), options.getReadPreference());
+        assertEquals(WriteConcern.MAJORITY, options.getWriteConcern());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownWriteConcernIsRejected(){
+        MongoDatastore.getClientOptions(getConfig("primary", "NOT_A_WRITE_CONCERN"));
+    }
+
+    private DataBaseConfig getConfig(final String readPreference, final String writeConcern) {
+        final DataBaseConfig config = mock(DataBaseConfig.class);
+        when(config.getConnectionsPerHost()).thenReturn(50);
+        when(config.getThreadsAllowedToBlockForConnectionMultiplier()).thenReturn(2);
+        when(config.getMaxWaitTime()).thenReturn(3000);
+        when(config.getConnectTimeout()).thenReturn(1000);
+        when(config.getSocketTimeout()).thenReturn(2000);
+        when(config.getReadPreference()).thenReturn(readPreference);
+        when(config.getWriteConcern()).thenReturn(writeConcern);
+        return config;
+    }
+}
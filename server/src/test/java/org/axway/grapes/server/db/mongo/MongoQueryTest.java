@@ -0,0 +1,60 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.jongo.marshall.jackson.JacksonMapper;
+import org.jongo.query.BsonQueryFactory;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MongoQueryTest {
+
+    @Test
+    public void buildQueries() {
+        assertEquals(new BasicDBObject(), MongoQuery.query());
+        assertEquals(new BasicDBObject(DbCollections.DEFAULT_ID, "gavc"), MongoQuery.byId("gavc"));
+        assertEquals(new BasicDBObject(DbCollections.DEFAULT_ID, new BasicDBObject("$in", Arrays.asList("gavc1", "gavc2"))),
+                MongoQuery.byIds(Arrays.asList("gavc1", "gavc2")));
+
+        final Map<String, Object> fields = new LinkedHashMap<String, Object>();
+        fields.put(DbArtifact.GROUPID_DB_FIELD, "org.test");
+        fields.put(DbArtifact.PROMOTION_DB_FIELD, true);
+        assertEquals(new BasicDBObject(DbArtifact.GROUPID_DB_FIELD, "org.test").append(DbArtifact.PROMOTION_DB_FIELD, true),
+                MongoQuery.where(fields));
+
+        assertEquals(new BasicDBObject("users", new BasicDBObject("$size", 0)), MongoQuery.query().size("users", 0));
+    }
+
+    @Test
+    public void valuesAreBoundWithoutParsing() {
+        final BsonQueryFactory queryFactory = new BsonQueryFactory(new JacksonMapper.Builder().build().getMarshaller());
+
+        // Quotes and regexp metacharacters used to break the concatenated queries
+        final MongoQuery query = MongoQuery.byId("it's a \"gavc\" {$ne: 1}")
+                .in(DbArtifact.VERSION_DB_FIELD, Collections.singletonList("1.0.0"));
+        final DBObject bound = queryFactory.createQuery(MongoQuery.TEMPLATE, query).toDBObject();
+
+        assertEquals("it's a \"gavc\" {$ne: 1}", bound.get(DbCollections.DEFAULT_ID));
+        assertEquals(query, bound);
+    }
+
+    @Test
+    public void patternsAreSentAsRegularExpressions() {
+        final BsonQueryFactory queryFactory = new BsonQueryFactory(new JacksonMapper.Builder().build().getMarshaller());
+        final MongoQuery query = MongoQuery.query().is(DbArtifact.GROUPID_DB_FIELD, Pattern.compile("org.test*"));
+        final DBObject bound = queryFactory.createQuery(MongoQuery.TEMPLATE, query).toDBObject();
+
+        assertTrue(bound.get(DbArtifact.GROUPID_DB_FIELD) instanceof Pattern);
+        assertEquals("org.test*", bound.get(DbArtifact.GROUPID_DB_FIELD).toString());
+    }
+}
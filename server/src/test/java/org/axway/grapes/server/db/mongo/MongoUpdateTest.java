@@ -0,0 +1,93 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.jongo.marshall.jackson.JacksonMapper;
+import org.jongo.query.BsonQueryFactory;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MongoUpdateTest {
+
+    @Test
+    public void buildOperators() {
+        assertEquals(new BasicDBObject("$set", new BasicDBObject("promoted", true).append("organization", "org")),
+                MongoUpdate.update().set("promoted", true).set("organization", "org"));
+        assertEquals(new BasicDBObject("$addToSet", new BasicDBObject("licenses", new BasicDBObject("$each", Arrays.asList("GPL", "MIT")))),
+                MongoUpdate.update().addToSet("licenses", Arrays.asList("GPL", "MIT")));
+        assertEquals(new BasicDBObject("$pull", new BasicDBObject("licenses", "GPL")),
+                MongoUpdate.update().pull("licenses", "GPL"));
+    }
+
+    @Test
+    public void emptyMergedFieldsAreOnlyInitializedOnInsert() {
+        final MongoUpdate update = MongoUpdate.update()
+                .addToSet("licenses", Collections.emptyList())
+                .setEntries("buildInfo", Collections.<String, String>emptyMap());
+
+        assertEquals(new BasicDBObject("$setOnInsert",
+                new BasicDBObject("licenses", Collections.emptyList()).append("buildInfo", new BasicDBObject())), update);
+    }
+
+    @Test
+    public void mapEntriesAreSetOneByOne() {
+        final Map<String, String> buildInfo = new HashMap<String, String>();
+        buildInfo.put("job", "grapes");
+
+        final DBObject set = (DBObject) MongoUpdate.update().setEntries("buildInfo", buildInfo).get("$set");
+        assertEquals("grapes", set.get("buildInfo.job"));
+        assertEquals(1, set.keySet().size());
+    }
+
+    @Test
+    public void setAllTheFieldsOfAnEntity() {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("org.test");
+        artifact.setArtifactId("test");
+        artifact.setVersion("1.0.0");
+        artifact.addLicense("GPL");
+
+        final MongoUpdate update = MongoUpdate.update()
+                .setAll(artifact, DbArtifact.LICENCES_DB_FIELD)
+                .addToSet(DbArtifact.LICENCES_DB_FIELD, artifact.getLicenses());
+
+        final DBObject set = (DBObject) update.get("$set");
+        assertEquals("org.test", set.get(DbArtifact.GROUPID_DB_FIELD));
+        assertEquals("1.0.0", set.get(DbArtifact.VERSION_DB_FIELD));
+        // the ID cannot be modified and the licenses are merged with $addToSet
+        assertFalse(set.containsField(DbCollections.DEFAULT_ID));
+        assertFalse(set.containsField(DbArtifact.LICENCES_DB_FIELD));
+        assertTrue(((DBObject) update.get("$addToSet")).containsField(DbArtifact.LICENCES_DB_FIELD));
+    }
+
+    @Test
+    public void updatesAreBoundWithoutParsing() {
+        final BsonQueryFactory queryFactory = new BsonQueryFactory(new JacksonMapper.Builder().build().getMarshaller());
+
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1.0.0");
+        module.getBuildInfo().put("url", "http://host/job/\"quoted\"");
+
+        final MongoUpdate update = MongoUpdate.update()
+                .setAll(module, DbModule.BUILD_INFO_DB_FIELD)
+                .setEntries(DbModule.BUILD_INFO_DB_FIELD, module.getBuildInfo());
+        final DBObject bound = queryFactory.createQuery(MongoQuery.TEMPLATE, update).toDBObject();
+
+        final DBObject set = (DBObject) bound.get("$set");
+        assertEquals("http://host/job/\"quoted\"", set.get("buildInfo.url"));
+        assertNull(set.get(DbModule.BUILD_INFO_DB_FIELD));
+    }
+}
@@ -0,0 +1,223 @@
+package org.axway.grapes.server.db.mongo;
+
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test of the MongodbHandler write path.
+ *
+ * <p>It needs a running MongoDB, set GRAPES_TEST_MONGO_HOST (host or host:port) to run it.
+ * The test uses its own database and drops it at the end.</p>
+ */
+public class MongodbHandlerConcurrencyTest {
+
+    private static final String MONGO_HOST = System.getenv("GRAPES_TEST_MONGO_HOST");
+    private static final String DATABASE = "grapes-concurrency-test";
+    private static final int THREADS = 16;
+    private static final int POSTS_PER_THREAD = 20;
+
+    private MongoDatastore datastore;
+    private MongodbHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(MONGO_HOST != null && !MONGO_HOST.isEmpty());
+
+        final String[] address = MONGO_HOST.split(":");
+        final DataBaseConfig config = mock(DataBaseConfig.class);
+        when(config.getHost()).thenReturn(address[0]);
+        when(config.getPort()).thenReturn(address.length > 1 ? Integer.parseInt(address[1]) : 27017);
+        when(config.getDatastore()).thenReturn(DATABASE);
+        when(config.getConnectionsPerHost()).thenReturn(THREADS);
+        when(config.getThreadsAllowedToBlockForConnectionMultiplier()).thenReturn(5);
+        when(config.getMaxWaitTime()).thenReturn(120000);
+        when(config.getConnectTimeout()).thenReturn(10000);
+        when(config.getSocketTimeout()).thenReturn(0);
+        when(config.getReadPreference()).thenReturn("primary");
+        when(config.getWriteConcern()).thenReturn("ACKNOWLEDGED");
+
+        datastore = new MongoDatastore(config);
+        datastore.getDb().dropDatabase();
+        handler = new MongodbHandler(datastore);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if(datastore != null){
+            datastore.getDb().dropDatabase();
+            datastore.stop();
+        }
+    }
+
+    @Test
+    public void concurrentPostsOfTheSameModuleDoNotLoseEntries() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Void>> results = new ArrayList<Future<Void>>();
+
+        for(int thread = 0; thread < THREADS; thread++){
+            final int threadId = thread;
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for(int post = 0; post < POSTS_PER_THREAD; post++){
+                        final String entry = threadId + "-" + post;
+
+                        final DbArtifact artifact = createArtifact();
+                        artifact.addLicense("license-" + entry);
+                        handler.store(artifact);
+
+                        final DbModule module = createModule();
+                        module.addArtifact(artifact);
+                        module.getBuildInfo().put("entry-" + entry, entry);
+                        handler.store(module);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        start.countDown();
+        for(Future<Void> result: results){
+            result.get();
+        }
+        executor.shutdown();
+
+        final DbArtifact artifact = handler.getArtifact(createArtifact().getGavc());
+        final DbModule module = handler.getModule(createModule().getId());
+
+        assertEquals(THREADS * POSTS_PER_THREAD, artifact.getLicenses().size());
+        assertEquals(THREADS * POSTS_PER_THREAD, module.getBuildInfo().size());
+        for(int thread = 0; thread < THREADS; thread++){
+            for(int post = 0; post < POSTS_PER_THREAD; post++){
+                final String entry = thread + "-" + post;
+                assertTrue(artifact.getLicenses().contains("license-" + entry));
+                assertEquals(entry, module.getBuildInfo().get("entry-" + entry));
+            }
+        }
+        assertEquals(module.getId(), handler.getModuleOf(artifact.getGavc()).getId());
+    }
+
+    @Test
+    public void concurrentPostsOfNewVersionsKeepTheLatestVersion() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Void>> results = new ArrayList<Future<Void>>();
+
+        for(int thread = 0; thread < THREADS; thread++){
+            final int threadId = thread;
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for(int post = 0; post < POSTS_PER_THREAD; post++){
+                        final DbArtifact artifact = createArtifact();
+                        artifact.setVersion("1." + threadId + "." + post);
+                        handler.store(artifact);
+                        // the reads race with the stores of the other threads
+                        handler.getLatestVersion(artifact);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        start.countDown();
+        for(Future<Void> result: results){
+            result.get();
+        }
+        executor.shutdown();
+
+        final String lastVersion = "1." + (THREADS - 1) + "." + (POSTS_PER_THREAD - 1);
+        assertEquals(lastVersion, handler.getLatestVersion(createArtifact()).getLastVersion());
+        // the entry saved in the database is up to date too
+        assertEquals(lastVersion, new MongodbHandler(datastore).getLatestVersion(createArtifact()).getLastVersion());
+    }
+
+    @Test
+    public void concurrentPostsOfModulesUsingTheSameArtifactsKeepTheirReverseDependencies() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Void>> results = new ArrayList<Future<Void>>();
+
+        for(int thread = 0; thread < THREADS; thread++){
+            final int threadId = thread;
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    start.await();
+                    for(int post = 0; post < POSTS_PER_THREAD; post++){
+                        final DbModule module = createModule();
+                        module.setName("user" + threadId);
+                        for(int dependency = 0; dependency < 5; dependency++){
+                            module.addDependency(getDependencyGavc(dependency), Scope.COMPILE);
+                        }
+                        // the last post drops the extra dependency, the entries are added and removed concurrently
+                        if(post < POSTS_PER_THREAD - 1){
+                            module.addDependency(getDependencyGavc(post % 2 == 0 ? 5 : 6), Scope.COMPILE);
+                        }
+                        handler.store(module);
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        start.countDown();
+        for(Future<Void> result: results){
+            result.get();
+        }
+        executor.shutdown();
+
+        final Map<String, List<DbModule>> ancestors = handler.getAncestorsOf(
+                Arrays.asList(getDependencyGavc(0), getDependencyGavc(4), getDependencyGavc(5), getDependencyGavc(6)), new FiltersHolder());
+        assertEquals(THREADS, ancestors.get(getDependencyGavc(0)).size());
+        assertEquals(THREADS, ancestors.get(getDependencyGavc(4)).size());
+        assertFalse(ancestors.containsKey(getDependencyGavc(5)));
+        assertFalse(ancestors.containsKey(getDependencyGavc(6)));
+    }
+
+    private String getDependencyGavc(final int index) {
+        return "org.axway.grapes.test:dependency" + index + ":1.0.0::jar";
+    }
+
+    private DbArtifact createArtifact() {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("org.axway.grapes.test");
+        artifact.setArtifactId("concurrency");
+        artifact.setVersion("1.0.0");
+        artifact.setExtension("jar");
+        return artifact;
+    }
+
+    private DbModule createModule() {
+        final DbModule module = new DbModule();
+        module.setName("concurrency");
+        module.setVersion("1.0.0");
+        return module;
+    }
+}
@@ -7,8 +7,7 @@ import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.materials.cases.DependencyCase;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Repository Handler
@@ -114,6 +113,22 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         artifacts.add(dbArtifact);
     }
 
+    @Override
+    public void store(final Collection<DbArtifact> dbArtifacts) {
+        for(DbArtifact dbArtifact: dbArtifacts){
+            store(dbArtifact);
+        }
+    }
+
+    @Override
+    public void storeIfNew(final Collection<DbArtifact> dbArtifacts) {
+        for(DbArtifact dbArtifact: dbArtifacts){
+            if(getArtifact(dbArtifact.getGavc()) == null){
+                store(dbArtifact);
+            }
+        }
+    }
+
     @Override
     public List<String> getGavcs(final FiltersHolder filters) {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
@@ -129,6 +144,20 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public DbLatestVersion getLatestVersion(final DbArtifact artifact) {
+        final List<String> versions = new ArrayList<String>();
+        final String id = DbLatestVersion.generateID(artifact);
+
+        for(DbArtifact dbArtifact: artifacts){
+            if(id.equals(DbLatestVersion.generateID(dbArtifact))){
+                versions.add(dbArtifact.getVersion());
+            }
+        }
+
+        return DataUtils.getLatestVersion(artifact, versions);
+    }
+
     @Override
     public DbArtifact getArtifact(final String gavc) {
         for(DbArtifact artifact: artifacts){
@@ -140,6 +169,18 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;
     }
 
+    @Override
+    public List<DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        final List<DbArtifact> results = new ArrayList<DbArtifact>();
+        for(DbArtifact artifact: artifacts){
+            if(gavcs.contains(artifact.getGavc())){
+                results.add(artifact);
+            }
+        }
+
+        return results;
+    }
+
     @Override
     public void deleteArtifact(final String gavc) {
         //To change body of implemented methods use File | Settings | File Templates.
@@ -165,6 +206,24 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public Map<String, List<DbModule>> getAncestorsOf(final Collection<String> gavcs, final FiltersHolder filters) {
+        final Map<String, List<DbModule>> ancestors = new HashMap<String, List<DbModule>>();
+
+        for(DbModule module: modules){
+            for(String gavc: gavcs){
+                if(module.getUses().contains(gavc)){
+                    if(!ancestors.containsKey(gavc)){
+                        ancestors.put(gavc, new ArrayList<DbModule>());
+                    }
+                    ancestors.get(gavc).add(module);
+                }
+            }
+        }
+
+        return ancestors;
+    }
+
     @Override
     public void store(final DbModule dbModule) {
         dbModule.updateHasAndUse();
@@ -197,6 +256,23 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public Iterable<DbModule> getAllModules() {
+        return modules;
+    }
+
+    @Override
+    public List<DbModule> getModules(final Collection<String> moduleIds) {
+        final List<DbModule> results = new ArrayList<DbModule>();
+        for(DbModule module: modules){
+            if(moduleIds.contains(module.getId())){
+                results.add(module);
+            }
+        }
+
+        return results;
+    }
+
     @Override
     public void deleteModule(final String moduleId) {
         //To change body of implemented methods use File | Settings | File Templates.
@@ -218,6 +294,19 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;
     }
 
+    @Override
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs) {
+        final Map<String, DbModule> results = new HashMap<String, DbModule>();
+        for(String gavc: gavcs){
+            final DbModule module = getRootModuleOf(gavc);
+            if(module != null){
+                results.put(gavc, module);
+            }
+        }
+
+        return results;
+    }
+
     @Override
     public DbModule getModuleOf(final String gavc) {
         for(DbModule module: modules){
@@ -267,13 +356,26 @@ public class TestingRepositoryHandler implements RepositoryHandler {
     }
 
     @Override
-    public void addModulesOrganization(String corporateGroupId, DbOrganization dbOrganization) {
-
+    public List<DbModule> getModulesByArtifactPrefix(String gavcPrefix) {
+        final List<DbModule> matchingModules = new ArrayList<DbModule>();
+        for(DbModule module: modules){
+            for(String gavc: DataUtils.getAllArtifacts(module)){
+                if(gavc.startsWith(gavcPrefix)){
+                    matchingModules.add(module);
+                    break;
+                }
+            }
+        }
+        return matchingModules;
     }
 
     @Override
-    public void removeModulesOrganization(String corporateGroupId, DbOrganization dbOrganization) {
-
+    public void setModulesOrganization(Collection<String> moduleIds, String organizationName) {
+        for(DbModule module: modules){
+            if(moduleIds.contains(module.getId())){
+                module.setOrganization(organizationName);
+            }
+        }
     }
 
     @Override
@@ -2,7 +2,11 @@ package org.axway.grapes.server.webapp.auth;
 
 import com.google.common.base.Optional;
 import com.yammer.dropwizard.auth.AuthenticationException;
+import com.yammer.dropwizard.auth.CachingAuthenticator;
 import com.yammer.dropwizard.auth.basic.BasicCredentials;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.MetricName;
 import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
@@ -13,6 +17,8 @@ import java.net.UnknownHostException;
 import java.util.List;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class GrapesAuthenticatorTest {
     
@@ -125,5 +131,40 @@ public class GrapesAuthenticatorTest {
 		assertNotNull(result);
 		assertFalse(result.isPresent());
 	}
-    
+
+    @Test
+    public void cachedAuthenticationLooksUpCredentialsOnce() throws AuthenticationException, UnknownHostException{
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        final CachingAuthenticator<BasicCredentials, DbCredential> authenticator =
+                GrapesAuthenticator.cached(new GrapesAuthenticator(repositoryHandler), "maximumSize=10, expireAfterAccess=10m");
+        final BasicCredentials credentials = new BasicCredentials(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST);
+
+        assertTrue(authenticator.authenticate(credentials).isPresent());
+        assertTrue(authenticator.authenticate(credentials).isPresent());
+        verify(repositoryHandler, times(1)).getCredential(GrapesTestUtils.USER_4TEST);
+        assertEquals(1, authenticator.stats().hitCount());
+        assertEquals(1, authenticator.stats().missCount());
+
+        authenticator.invalidateAll();
+        assertTrue(authenticator.authenticate(credentials).isPresent());
+        verify(repositoryHandler, times(2)).getCredential(GrapesTestUtils.USER_4TEST);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void theCacheMetricsFollowTheLastCachedAuthenticator() throws AuthenticationException, UnknownHostException{
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        final BasicCredentials credentials = new BasicCredentials(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST);
+
+        final CachingAuthenticator<BasicCredentials, DbCredential> first =
+                GrapesAuthenticator.cached(new GrapesAuthenticator(repositoryHandler), "maximumSize=10");
+        first.authenticate(credentials);
+        first.authenticate(credentials);
+        GrapesAuthenticator.cached(new GrapesAuthenticator(repositoryHandler), "maximumSize=10");
+
+        final Gauge<Long> hits = (Gauge<Long>) Metrics.defaultRegistry().allMetrics()
+                .get(new MetricName(GrapesAuthenticator.class, "cache-hit-count"));
+        assertEquals(Long.valueOf(0), hits.value());
+    }
+
 }
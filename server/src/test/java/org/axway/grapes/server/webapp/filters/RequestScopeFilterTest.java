@@ -0,0 +1,83 @@
+package org.axway.grapes.server.webapp.filters;
+
+import com.sun.jersey.core.header.OutBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.RequestScopedRepositoryHandler;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class RequestScopeFilterTest {
+
+    @Test
+    public void theAvoidedReadsAreSentInTheResponse() throws Exception {
+        final RepositoryHandler delegate = mock(RepositoryHandler.class);
+        final RequestScopedRepositoryHandler repositoryHandler = new RequestScopedRepositoryHandler(delegate);
+        final RequestScopeFilter filter = new RequestScopeFilter(repositoryHandler);
+
+        final ContainerResponse response = mock(ContainerResponse.class);
+        final OutBoundHeaders headers = new OutBoundHeaders();
+        when(response.getHttpHeaders()).thenReturn(headers);
+
+        final FilterChain chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                repositoryHandler.getOrganization("organization");
+                repositoryHandler.getOrganization("organization");
+                repositoryHandler.getOrganization("organization");
+                filter.filter(mock(ContainerRequest.class), response);
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        filter.doFilter(mock(ServletRequest.class), mock(ServletResponse.class), chain);
+
+        assertEquals(2, headers.getFirst(RequestScopeFilter.AVOIDED_READS_HEADER));
+        verify(delegate, times(1)).getOrganization("organization");
+
+        // the reads after the request are not cached any more
+        repositoryHandler.getOrganization("organization");
+        verify(delegate, times(2)).getOrganization("organization");
+    }
+
+    @Test
+    public void theIdentityMapIsDroppedWhenTheRequestFails() throws Exception {
+        final RepositoryHandler delegate = mock(RepositoryHandler.class);
+        final RequestScopedRepositoryHandler repositoryHandler = new RequestScopedRepositoryHandler(delegate);
+        final RequestScopeFilter filter = new RequestScopeFilter(repositoryHandler);
+
+        final FilterChain chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                repositoryHandler.getOrganization("organization");
+                throw new IllegalStateException("unmapped error");
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        try{
+            filter.doFilter(mock(ServletRequest.class), mock(ServletResponse.class), chain);
+            fail("The error of the request should be thrown");
+        }
+        catch (IllegalStateException e){
+            // expected
+        }
+
+        // the response filter did not run, the thread holds no identity map any more
+        repositoryHandler.getOrganization("organization");
+        verify(delegate, times(2)).getOrganization("organization");
+        assertEquals(0, repositoryHandler.getAvoidedReads());
+    }
+}
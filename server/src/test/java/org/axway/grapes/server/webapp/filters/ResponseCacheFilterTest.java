@@ -0,0 +1,194 @@
+package org.axway.grapes.server.webapp.filters;
+
+import org.axway.grapes.server.config.ResponseCacheConfig;
+import org.axway.grapes.server.db.ChangeTrackingRepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ResponseCacheFilterTest {
+
+    @Test
+    public void checkTheCachedPaths(){
+        assertTrue(ResponseCacheFilter.isCached("/module/name/1.0.0/dependencies"));
+        assertTrue(ResponseCacheFilter.isCached("/module/name/1.0.0/dependencies/report"));
+        assertTrue(ResponseCacheFilter.isCached("/module/name/1.0.0/licenses"));
+        assertTrue(ResponseCacheFilter.isCached("/module/name/1.0.0/promotion/report"));
+        assertTrue(ResponseCacheFilter.isCached("/sequoia/graph/name/1.0.0"));
+
+        assertFalse(ResponseCacheFilter.isCached("/module/name/1.0.0"));
+        assertFalse(ResponseCacheFilter.isCached("/module/name/1.0.0/promotion"));
+        assertFalse(ResponseCacheFilter.isCached("/sequoia/export/name/1.0.0"));
+    }
+
+    @Test
+    public void theResponsesAreCachedUntilTheRepositoryChanges() throws Exception {
+        final ChangeTrackingRepositoryHandler repositoryHandler = new ChangeTrackingRepositoryHandler(new TestingRepositoryHandler());
+        final ResponseCacheFilter filter = new ResponseCacheFilter(repositoryHandler, new ResponseCacheConfig());
+        final CountingChain chain = new CountingChain("report");
+
+        final MockedResponse first = new MockedResponse();
+        filter.doFilter(mockRequest("/module/name/1.0.0/dependencies", null), first.response, chain);
+        final MockedResponse second = new MockedResponse();
+        filter.doFilter(mockRequest("/module/name/1.0.0/dependencies", null), second.response, chain);
+
+        assertEquals(1, chain.calls);
+        assertEquals("report", first.getBody());
+        assertEquals("report", second.getBody());
+        verify(second.response).setContentType("application/json");
+
+        // any write makes the cached response stale
+        repositoryHandler.store(new DbLicense());
+        filter.doFilter(mockRequest("/module/name/1.0.0/dependencies", null), new MockedResponse().response, chain);
+        assertEquals(2, chain.calls);
+
+        // an other path is not cached
+        filter.doFilter(mockRequest("/module/name/1.0.0", null), new MockedResponse().response, chain);
+        filter.doFilter(mockRequest("/module/name/1.0.0", null), new MockedResponse().response, chain);
+        assertEquals(4, chain.calls);
+    }
+
+    @Test
+    public void theResponsesAreRecomputedAfterAMigration() throws Exception {
+        final ChangeTrackingRepositoryHandler repositoryHandler = new ChangeTrackingRepositoryHandler(new TestingRepositoryHandler());
+        final ResponseCacheFilter filter = new ResponseCacheFilter(repositoryHandler, new ResponseCacheConfig());
+        final CountingChain chain = new CountingChain("report");
+
+        filter.doFilter(mockRequest("/module/name/1.0.0/dependencies", null), new MockedResponse().response, chain);
+        filter.doFilter(mockRequest("/module/name/1.0.0/dependencies", null), new MockedResponse().response, chain);
+        assertEquals(1, chain.calls);
+
+        // the migration task writes to the database without the repository handler
+        repositoryHandler.externalChange();
+        filter.doFilter(mockRequest("/module/name/1.0.0/dependencies", null), new MockedResponse().response, chain);
+        assertEquals(2, chain.calls);
+    }
+
+    @Test
+    public void theUnchangedResponsesAreNotSentAgain() throws Exception {
+        final ChangeTrackingRepositoryHandler repositoryHandler = new ChangeTrackingRepositoryHandler(new TestingRepositoryHandler());
+        final ResponseCacheFilter filter = new ResponseCacheFilter(repositoryHandler, new ResponseCacheConfig());
+        final CountingChain chain = new CountingChain("report");
+
+        final MockedResponse first = new MockedResponse();
+        filter.doFilter(mockRequest("/sequoia/graph/name/1.0.0", null), first.response, chain);
+        final String etag = first.headers.get(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        verify(first.response).setDateHeader(eq(HttpHeaders.LAST_MODIFIED), anyLong());
+
+        final MockedResponse notModified = new MockedResponse();
+        filter.doFilter(mockRequest("/sequoia/graph/name/1.0.0", etag), notModified.response, chain);
+        verify(notModified.response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals("", notModified.getBody());
+        assertEquals(1, chain.calls);
+
+        // the report is computed again after a change, but its content did not change
+        repositoryHandler.store(new DbLicense());
+        final MockedResponse recomputed = new MockedResponse();
+        filter.doFilter(mockRequest("/sequoia/graph/name/1.0.0", "\"other\", " + etag), recomputed.response, chain);
+        verify(recomputed.response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals(2, chain.calls);
+    }
+
+    @Test
+    public void theErrorsAreNotCached() throws Exception {
+        final ChangeTrackingRepositoryHandler repositoryHandler = new ChangeTrackingRepositoryHandler(new TestingRepositoryHandler());
+        final ResponseCacheFilter filter = new ResponseCacheFilter(repositoryHandler, new ResponseCacheConfig());
+        final FilterChain chain = mock(FilterChain.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws IOException {
+                final HttpServletResponse response = (HttpServletResponse) invocation.getArguments()[1];
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                response.getOutputStream().write("not found".getBytes());
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        final MockedResponse first = new MockedResponse();
+        filter.doFilter(mockRequest("/module/name/1.0.0/licenses", null), first.response, chain);
+        filter.doFilter(mockRequest("/module/name/1.0.0/licenses", null), new MockedResponse().response, chain);
+
+        assertEquals("not found", first.getBody());
+        assertNull(first.headers.get(HttpHeaders.ETAG));
+        verify(chain, times(2)).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    private HttpServletRequest mockRequest(final String path, final String ifNoneMatch) {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn(path);
+        when(request.getContextPath()).thenReturn("");
+        when(request.getParameterMap()).thenReturn(Collections.singletonMap("scopeTest", new String[]{"true"}));
+        when(request.getHeader(HttpHeaders.ACCEPT)).thenReturn("application/json");
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(ifNoneMatch);
+        return request;
+    }
+
+    private static class MockedResponse {
+        private final HttpServletResponse response = mock(HttpServletResponse.class);
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final Map<String, String> headers = new HashMap<String, String>();
+
+        private MockedResponse() {
+            try {
+                when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+                    @Override
+                    public void write(final int b) {
+                        body.write(b);
+                    }
+                });
+            }
+            catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            when(response.getContentType()).thenReturn("application/json");
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(final InvocationOnMock invocation) {
+                    headers.put((String) invocation.getArguments()[0], (String) invocation.getArguments()[1]);
+                    return null;
+                }
+            }).when(response).setHeader(anyString(), anyString());
+        }
+
+        private String getBody() {
+            return body.toString();
+        }
+    }
+
+    private static class CountingChain implements FilterChain {
+        private final String body;
+        private int calls = 0;
+
+        private CountingChain(final String body) {
+            this.body = body;
+        }
+
+        @Override
+        public void doFilter(final ServletRequest request, final ServletResponse response) throws IOException {
+            calls++;
+            response.setContentType("application/json");
+            response.setContentLength(body.length());
+            response.getOutputStream().write(body.getBytes());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.axway.grapes.server.webapp.healthcheck;
 
+import com.mongodb.MongoClient;
+import com.mongodb.MongoException;
 import com.yammer.metrics.core.HealthCheck.Result;
-import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
 import org.junit.Test;
 
 import static org.junit.Assert.assertFalse;
@@ -17,11 +19,12 @@ public class DataBaseCheckTest {
     
     @Test
 	public void checkUnhealthy() {
-		DataBaseConfig dataBaseConfig = mock(DataBaseConfig.class);
-		when(dataBaseConfig.getHost()).thenReturn("localhost");
-		when(dataBaseConfig.getPort()).thenReturn(8074);
+		final MongoClient mongo = mock(MongoClient.class);
+		when(mongo.getVersion()).thenThrow(new MongoException("Connection refused"));
+		final MongoDatastore datastore = mock(MongoDatastore.class);
+		when(datastore.getMongo()).thenReturn(mongo);
 		
-		DataBaseCheck dbCheck = new DataBaseCheck(dataBaseConfig);
+		DataBaseCheck dbCheck = new DataBaseCheck(datastore);
 		Result result = dbCheck.check();
 		
 		assertNotNull(result);
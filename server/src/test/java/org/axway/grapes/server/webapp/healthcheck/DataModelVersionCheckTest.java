@@ -1,7 +1,8 @@
 package org.axway.grapes.server.webapp.healthcheck;
 
+import com.mongodb.MongoException;
 import com.yammer.metrics.core.HealthCheck.Result;
-import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
 import org.junit.Test;
 
 import static org.junit.Assert.assertFalse;
@@ -17,11 +18,10 @@ public class DataModelVersionCheckTest {
     
     @Test
 	public void checkUnhealthy() {
-		DataBaseConfig dataBaseConfig = mock(DataBaseConfig.class);
-		when(dataBaseConfig.getHost()).thenReturn("localhost");
-		when(dataBaseConfig.getPort()).thenReturn(8074);
+		final MongoDatastore datastore = mock(MongoDatastore.class);
+		when(datastore.getJongo()).thenThrow(new MongoException("Connection refused"));
 
-        DataModelVersionCheck dbCheck = new DataModelVersionCheck(dataBaseConfig);
+        DataModelVersionCheck dbCheck = new DataModelVersionCheck(datastore);
 		Result result = dbCheck.check();
 		
 		assertNotNull(result);
@@ -0,0 +1,68 @@
+package org.axway.grapes.server.webapp.healthcheck;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.yammer.metrics.core.HealthCheck.Result;
+import org.axway.grapes.server.db.mongo.IndexRegistry;
+import org.axway.grapes.server.db.mongo.IndexRegistry.IndexDefinition;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IndexCheckTest {
+
+    @Test
+    public void checkHealthyWhenAllTheIndexesExist() {
+        final DB db = mock(DB.class);
+        final DBCollection collection = mock(DBCollection.class);
+        when(db.getCollection(anyString())).thenReturn(collection);
+
+        final List<DBObject> indexInfo = new ArrayList<DBObject>();
+        for(IndexDefinition index: IndexRegistry.INDEXES){
+            indexInfo.add(new BasicDBObject("key", index.getKeys()));
+        }
+        when(collection.getIndexInfo()).thenReturn(indexInfo);
+
+        final MongoDatastore datastore = mock(MongoDatastore.class);
+        when(datastore.getDb()).thenReturn(db);
+
+        final Result result = new IndexCheck(datastore).check();
+        assertTrue(result.isHealthy());
+    }
+
+    @Test
+    public void checkUnhealthyWhenAnIndexIsMissing() {
+        final DB db = mock(DB.class);
+        final DBCollection collection = mock(DBCollection.class);
+        when(db.getCollection(anyString())).thenReturn(collection);
+        when(collection.getIndexInfo()).thenReturn(Collections.<DBObject>singletonList(new BasicDBObject("key", new BasicDBObject("_id", 1))));
+
+        final MongoDatastore datastore = mock(MongoDatastore.class);
+        when(datastore.getDb()).thenReturn(db);
+
+        final Result result = new IndexCheck(datastore).check();
+        assertFalse(result.isHealthy());
+        assertTrue(result.getMessage().contains("Missing indexes"));
+    }
+
+    @Test
+    public void checkUnhealthyWhenTheDatabaseIsNotReachable() {
+        final MongoDatastore datastore = mock(MongoDatastore.class);
+        when(datastore.getDb()).thenThrow(new MongoException("Connection refused"));
+
+        final Result result = new IndexCheck(datastore).check();
+        assertFalse(result.isHealthy());
+    }
+}
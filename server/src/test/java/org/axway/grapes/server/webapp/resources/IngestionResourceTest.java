@@ -0,0 +1,101 @@
+package org.axway.grapes.server.webapp.resources;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.WebResource;
+import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
+import com.yammer.dropwizard.auth.basic.BasicAuthProvider;
+import com.yammer.dropwizard.testing.ResourceTest;
+import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+import org.axway.grapes.server.core.ingestion.IngestionTicket;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbCredential;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.webapp.auth.GrapesAuthenticator;
+import org.eclipse.jetty.http.HttpHeaders;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class IngestionResourceTest extends ResourceTest {
+
+    private RepositoryHandler repositoryHandler;
+    private IngestionQueue ingestionQueue;
+
+    @Override
+    protected void setUpResources() throws Exception {
+        repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        ingestionQueue = mock(IngestionQueue.class);
+        final GrapesServerConfig config = mock(GrapesServerConfig.class);
+
+        addProvider(new BasicAuthProvider<DbCredential>(new GrapesAuthenticator(repositoryHandler), "test auth"));
+        addResource(new ModuleResource(GrapesTestUtils.getServices(repositoryHandler), config, ingestionQueue));
+        addResource(new IngestionResource(ingestionQueue));
+    }
+
+    @Test
+    public void postModuleIsQueued() throws Exception {
+        final IngestionTicket ticket = new IngestionTicket("ticket", "module:1.0.0", System.currentTimeMillis());
+        when(ingestionQueue.submit(any(Module.class))).thenReturn(ticket);
+
+        final ClientResponse response = postModule();
+        assertEquals(HttpStatus.ACCEPTED_202, response.getStatus());
+        assertEquals("ticket", response.getEntity(String.class));
+        assertTrue(response.getLocation().getPath().endsWith("/" + ServerAPI.INGESTION_RESOURCE + "/ticket"));
+
+        // the module is stored by the queue workers
+        verify(repositoryHandler, never()).store(any(DbModule.class));
+    }
+
+    @Test
+    public void postModuleWhenTheQueueIsFull() throws Exception {
+        when(ingestionQueue.submit(any(Module.class))).thenReturn(null);
+
+        final ClientResponse response = postModule();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE_503, response.getStatus());
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void getTicket() {
+        final IngestionTicket ticket = new IngestionTicket("ticket", "module:1.0.0", System.currentTimeMillis());
+        ticket.done();
+        when(ingestionQueue.getTicket("ticket")).thenReturn(ticket);
+
+        final WebResource resource = client().resource("/" + ServerAPI.INGESTION_RESOURCE + "/ticket");
+        final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final Map<?, ?> status = response.getEntity(Map.class);
+        assertEquals("module:1.0.0", status.get("moduleId"));
+        assertEquals("DONE", status.get("status"));
+    }
+
+    @Test
+    public void getUnknownTicket() {
+        final WebResource resource = client().resource("/" + ServerAPI.INGESTION_RESOURCE + "/unknown");
+        final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.NOT_FOUND_404, response.getStatus());
+    }
+
+    private ClientResponse postModule() {
+        final Module module = DataModelFactory.createModule("module", "1.0.0");
+        final Artifact artifact = DataModelFactory.createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifactId", "1.0.0", "", "jar", "jar");
+        module.addArtifact(artifact);
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE);
+        return resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, module);
+    }
+}
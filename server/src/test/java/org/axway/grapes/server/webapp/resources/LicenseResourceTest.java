@@ -42,7 +42,7 @@ public class LicenseResourceTest extends ResourceTest {
 		repositoryHandler = mock(RepositoryHandler.class);
 
         final RepositoryHandler repoHandler = GrapesTestUtils.getRepoHandlerMock();
-        LicenseResource resource = new LicenseResource(repositoryHandler, mock(GrapesServerConfig.class));
+        LicenseResource resource = new LicenseResource(GrapesTestUtils.getServices(repositoryHandler), mock(GrapesServerConfig.class));
         addProvider(new BasicAuthProvider<DbCredential>(new GrapesAuthenticator(repoHandler), "test auth"));
 		addProvider(ViewMessageBodyWriter.class);
 		addResource(resource);	
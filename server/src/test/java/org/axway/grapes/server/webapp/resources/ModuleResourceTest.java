@@ -46,7 +46,7 @@ public class ModuleResourceTest extends ResourceTest {
         repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
         final GrapesServerConfig config =mock(GrapesServerConfig.class);
         
-        final ModuleResource resource = new ModuleResource(repositoryHandler, config);
+        final ModuleResource resource = new ModuleResource(GrapesTestUtils.getServices(repositoryHandler), config);
         addProvider(new BasicAuthProvider<DbCredential>(new GrapesAuthenticator(repositoryHandler), "test auth"));
         addProvider(ViewMessageBodyWriter.class);
         addResource(resource);
@@ -80,6 +80,36 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals(GrapesTestUtils.ORGANIZATION_NAME_4TEST, captor.getValue().getOrganization());
     }
 
+    @Test
+    public void postModules() throws UnknownHostException, AuthenticationException {
+        final Module module1 = DataModelFactory.createModule("module1", "1.0.0-SNAPSHOT");
+        module1.addArtifact(DataModelFactory.createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifactId1", "version", "classifier", "type", "extension"));
+        final Module module2 = DataModelFactory.createModule("module2", "1.0.0-SNAPSHOT");
+        module2.addArtifact(DataModelFactory.createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifactId2", "version", "classifier", "type", "extension"));
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BATCH);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, Lists.newArrayList(module1, module2));
+        assertNotNull(response);
+        assertEquals(HttpStatus.CREATED_201, response.getStatus());
+
+        verify(repositoryHandler, times(2)).store((DbModule) anyObject());
+        verify(repositoryHandler, times(2)).store((DbArtifact) anyObject());
+    }
+
+    @Test
+    public void postModulesWithAMalFormedModule() throws UnknownHostException, AuthenticationException {
+        final Module module = DataModelFactory.createModule("module", "1.0.0-SNAPSHOT");
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BATCH);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, Lists.newArrayList(module, DataModelFactory.createModule(null, null)));
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
+
+        verify(repositoryHandler, never()).store((DbModule) anyObject());
+    }
+
     @Test
     public void postMalFormedModule() throws UnknownHostException, AuthenticationException {
         client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
@@ -39,7 +39,7 @@ public class OrganizationResourceTest extends ResourceTest {
         repositoryHandler = mock(RepositoryHandler.class);
 
         final RepositoryHandler repoHandler = GrapesTestUtils.getRepoHandlerMock();
-        final OrganizationResource resource = new OrganizationResource(repositoryHandler, mock(GrapesServerConfig.class));
+        final OrganizationResource resource = new OrganizationResource(GrapesTestUtils.getServices(repositoryHandler), mock(GrapesServerConfig.class));
         addProvider(new BasicAuthProvider<DbCredential>(new GrapesAuthenticator(repoHandler), "test auth"));
         addProvider(ViewMessageBodyWriter.class);
         addResource(resource);
@@ -40,7 +40,7 @@ public class ProductResourceTest extends ResourceTest {
     @Override
     protected void setUpResources() throws Exception {
         repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
-        final ProductResource resource = new ProductResource(repositoryHandler, mock(GrapesServerConfig.class));
+        final ProductResource resource = new ProductResource(GrapesTestUtils.getServices(repositoryHandler), mock(GrapesServerConfig.class));
         addProvider(new BasicAuthProvider<DbCredential>(new GrapesAuthenticator(repositoryHandler), "test auth"));
         addProvider(ViewMessageBodyWriter.class);
         addResource(resource);
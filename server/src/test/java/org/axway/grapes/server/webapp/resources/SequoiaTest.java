@@ -6,6 +6,7 @@ import com.sun.jersey.api.client.WebResource;
 import com.yammer.dropwizard.testing.ResourceTest;
 import com.yammer.dropwizard.views.ViewMessageBodyWriter;
 import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.config.GrapesServerConfig;
 import org.axway.grapes.server.core.graphs.AbstractGraph;
 import org.axway.grapes.server.core.graphs.ModuleGraph;
@@ -20,6 +21,7 @@ import java.net.UnknownHostException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -32,7 +34,7 @@ public class SequoiaTest extends ResourceTest {
     @Override
     protected void setUpResources() throws Exception {
         repositoryHandler = mock(RepositoryHandler.class);
-        Sequoia resource = new Sequoia(repositoryHandler, mock(GrapesServerConfig.class));
+        Sequoia resource = new Sequoia(GrapesTestUtils.getServices(repositoryHandler), mock(GrapesServerConfig.class));
         addProvider(ViewMessageBodyWriter.class);
         addResource(resource);
     }
@@ -49,6 +51,27 @@ public class SequoiaTest extends ResourceTest {
         assertNotNull(graph);
     }
 
+    @Test
+    public void exportModuleGraph() throws UnknownHostException {
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1");
+        when(repositoryHandler.getModule(anyString())).thenReturn(module);
+
+        WebResource resource = client().resource("/" + ServerAPI.SEQUOIA_RESOURCE + "/export/module/1")
+                .queryParam(ServerAPI.FORMAT_PARAM, "dot");
+        ClientResponse response = resource.get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("text/vnd.graphviz", response.getType().toString());
+        assertTrue(response.getEntity(String.class).startsWith("digraph \"module\""));
+
+        resource = client().resource("/" + ServerAPI.SEQUOIA_RESOURCE + "/export/module/1")
+                .queryParam(ServerAPI.FORMAT_PARAM, "png");
+        response = resource.get(ClientResponse.class);
+        assertEquals(HttpStatus.NOT_ACCEPTABLE_406, response.getStatus());
+    }
+
     @Test
     public void getTreeGraph() throws UnknownHostException {
         when(repositoryHandler.getModule(anyString())).thenReturn(new DbModule());
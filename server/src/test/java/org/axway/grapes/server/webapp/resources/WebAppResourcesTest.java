@@ -6,6 +6,7 @@ import com.sun.jersey.api.client.WebResource;
 import com.yammer.dropwizard.testing.ResourceTest;
 import com.yammer.dropwizard.views.ViewMessageBodyWriter;
 import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.config.CommunityConfig;
 import org.axway.grapes.server.config.GrapesServerConfig;
 import org.axway.grapes.server.db.RepositoryHandler;
@@ -32,7 +33,7 @@ public class WebAppResourcesTest extends ResourceTest {
     @Override
     protected void setUpResources() throws Exception {
         repositoryHandler = mock(RepositoryHandler.class);
-        WebAppResource resource = new WebAppResource(repositoryHandler, mock(GrapesServerConfig.class));
+        WebAppResource resource = new WebAppResource(GrapesTestUtils.getServices(repositoryHandler), mock(GrapesServerConfig.class));
         addProvider(ViewMessageBodyWriter.class);
         addResource(resource);
     }
@@ -55,7 +56,7 @@ public class WebAppResourcesTest extends ResourceTest {
         final GrapesServerConfig config = mock(GrapesServerConfig.class);
         when(config.getCommunityConfiguration()).thenReturn(communityConfiguration);
         final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
-        final WebAppResource resource = new WebAppResource(repoHandler, config);
+        final WebAppResource resource = new WebAppResource(GrapesTestUtils.getServices(repoHandler), config);
 
         assertEquals("issueTracker", resource.getIssueTrackerUrl());
         assertEquals("onlineHelp", resource.getOnlineDocumentation());
@@ -65,7 +66,7 @@ public class WebAppResourcesTest extends ResourceTest {
     public void checkEmptyConfiguration(){
         final GrapesServerConfig config = mock(GrapesServerConfig.class);
         final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
-        final WebAppResource resource = new WebAppResource(repoHandler, config);
+        final WebAppResource resource = new WebAppResource(GrapesTestUtils.getServices(repoHandler), config);
 
         assertNull(resource.getIssueTrackerUrl());
         assertNull(resource.getOnlineDocumentation());
@@ -1,8 +1,11 @@
 package org.axway.grapes.server.webapp.tasks;
 
 import com.google.common.collect.ImmutableMultimap;
+import com.yammer.dropwizard.auth.CachingAuthenticator;
+import com.yammer.dropwizard.auth.basic.BasicCredentials;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
 import org.junit.Test;
 
@@ -16,7 +19,8 @@ public class AddRoleTaskTest {
     @Test
     public void testAddRole(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        final AddRoleTask task = new AddRoleTask(repositoryHandler);
+        final CachingAuthenticator<BasicCredentials, DbCredential> authenticator = mock(CachingAuthenticator.class);
+        final AddRoleTask task = new AddRoleTask(repositoryHandler, authenticator);
 
         final ImmutableMultimap.Builder<String, String> builder = new ImmutableMultimap.Builder<String, String>();
         builder.put(ServerAPI.USER_PARAM, "user");
@@ -31,6 +35,7 @@ public class AddRoleTaskTest {
 
         assertNull(exception);
         verify(repositoryHandler, times(1)).addUserRole("user", AvailableRoles.DATA_UPDATER);
+        verify(authenticator, times(1)).invalidateAll();
 
     }
 }
@@ -3,6 +3,8 @@ package org.axway.grapes.server.webapp.tasks;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
 import com.yammer.dropwizard.auth.AuthenticationException;
+import com.yammer.dropwizard.auth.CachingAuthenticator;
+import com.yammer.dropwizard.auth.basic.BasicCredentials;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.axway.grapes.server.materials.TestingRepositoryHandler;
@@ -15,13 +17,15 @@ import java.net.UnknownHostException;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class AddUserTaskTest {
     @Test
 	public void testAddUser() throws UnknownHostException, AuthenticationException {
 		final TestingRepositoryHandler repoHandler = new TestingRepositoryHandler();
 		
-		final AddUserTask addUser = new AddUserTask(repoHandler);
+		final CachingAuthenticator<BasicCredentials, DbCredential> authenticator = mock(CachingAuthenticator.class);
+		final AddUserTask addUser = new AddUserTask(repoHandler, authenticator);
 		final ImmutableMultimap.Builder<String, String> builder = new Builder<String, String>();
 		builder.put(ServerAPI.USER_PARAM, "user");
 		builder.put(ServerAPI.PASSWORD_PARAM, "password");
@@ -38,6 +42,7 @@ public class AddUserTaskTest {
 		final DbCredential credential = repoHandler.getCredential("user");
 		assertEquals("user", credential.getUser());
 		assertEquals(GrapesAuthenticator.encrypt("password"), credential.getPassword());
+		verify(authenticator).invalidateAll();
 		
 	}
 }
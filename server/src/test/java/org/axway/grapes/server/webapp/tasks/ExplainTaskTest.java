@@ -0,0 +1,51 @@
+package org.axway.grapes.server.webapp.tasks;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.mongo.MongoDatastore;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExplainTaskTest {
+
+    @Test
+    public void theReverseDependenciesAreExplainedWithTheQueryOfTheHandler(){
+        final ExplainTask.Query query = ExplainTask.getQueries().get("buildReverseDependencies");
+
+        assertEquals(DbCollections.DB_MODULES, query.getCollection());
+        assertTrue(query.getFilter().keySet().isEmpty());
+        assertEquals(new BasicDBObject(DbModule.USE_DB_FIELD, 1), query.getProjection());
+    }
+
+    @Test
+    public void theQueriesAreExplainedWithTheirProjection(){
+        final DBCursor cursor = mock(DBCursor.class);
+        when(cursor.explain()).thenReturn(new BasicDBObject("cursor", "BasicCursor"));
+        final DBCollection collection = mock(DBCollection.class);
+        when(collection.find(any(BasicDBObject.class), any(BasicDBObject.class))).thenReturn(cursor);
+        final DB db = mock(DB.class);
+        when(db.getCollection(anyString())).thenReturn(collection);
+        final MongoDatastore datastore = mock(MongoDatastore.class);
+        when(datastore.getDb()).thenReturn(db);
+
+        final StringWriter output = new StringWriter();
+        new ExplainTask(datastore).execute(null, new PrintWriter(output));
+
+        verify(collection).find(new BasicDBObject(), new BasicDBObject(DbModule.USE_DB_FIELD, 1));
+        assertTrue(output.toString().contains("buildReverseDependencies: " + DbCollections.DB_MODULES));
+    }
+}
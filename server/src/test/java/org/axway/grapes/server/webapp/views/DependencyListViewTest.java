@@ -234,4 +234,21 @@ public class DependencyListViewTest {
 
     }
 
+    @Test
+    public void theDependenciesAreSortedBySourceName(){
+        final DependencyListView depList = new DependencyListView("test", Collections.EMPTY_LIST, new Decorator());
+
+        final Artifact artifact = DataModelFactory.createArtifact("com.my.company", "test", "1", null, "jar", "jar");
+        for(String source: Lists.newArrayList("module3", "module1", "module2")){
+            final Dependency dependency = DataModelFactory.createDependency(artifact, Scope.COMPILE);
+            dependency.setSourceName(source);
+            dependency.setSourceVersion("1");
+            depList.addDependency(dependency);
+        }
+
+        assertEquals("module1", depList.getDependencies().get(0).getSourceName());
+        assertEquals("module2", depList.getDependencies().get(1).getSourceName());
+        assertEquals("module3", depList.getDependencies().get(2).getSourceName());
+    }
+
 }
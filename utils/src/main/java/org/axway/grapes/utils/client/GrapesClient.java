@@ -151,13 +151,37 @@ public class GrapesClient {
         final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, module);
 
         client.destroy();
-        if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
+        // the module is queued (ACCEPTED) when the server runs in asynchronous ingestion mode
+        if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus() &&
+                ClientResponse.Status.ACCEPTED.getStatusCode() != response.getStatus()){
             final String message = "Failed to POST module";
             LOG.error(message + ". Http status: " + response.getStatus());
             throw new GrapesCommunicationException(message, response.getStatus());
         }
     }
 
+    /**
+     * Post several modules to the server in a single request
+     *
+     * @param modules
+     * @param user
+     * @param password
+     * @throws GrapesCommunicationException
+     * @throws javax.naming.AuthenticationException
+     */
+    public void postModules(final List<Module> modules, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
+        final Client client = getClient(user, password);
+        final WebResource resource = client.resource(serverURL).path(RequestUtils.getModuleBatchPath());
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, modules);
+
+        client.destroy();
+        if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
+            final String message = "Failed to POST modules";
+            LOG.error(message + ". Http status: " + response.getStatus());
+            throw new GrapesCommunicationException(message, response.getStatus());
+        }
+    }
+
     /**
      * Delete a module from Grapes server
      *
@@ -44,6 +44,14 @@ public final class RequestUtils {
         return path.toString();
     }
 
+    public static String getModuleBatchPath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(moduleResourcePath());
+        path.append(ServerAPI.BATCH);
+
+        return path.toString();
+    }
+
     public static String getAllModulesPath() {
         final StringBuilder path = new StringBuilder();
         path.append(moduleResourcePath());
@@ -96,6 +96,50 @@ public class GrapesClientTest {
         assertNull(exception);
     }
 
+    @Test
+    public void postModules() throws IOException, AuthenticationException{
+        final Module module1 = DataModelFactory.createModule("module1", "1.0.0-SNAPSHOT");
+        module1.addArtifact(DataModelFactory.createArtifact("com.axway.test", "artifact1", "1.0.0-SNAPSHOT", "win32",  "jar", ""));
+        final Module module2 = DataModelFactory.createModule("module2", "1.0.0-SNAPSHOT");
+        module2.addArtifact(DataModelFactory.createArtifact("com.axway.test", "artifact2", "1.0.0-SNAPSHOT", "win32",  "jar", ""));
+        final List<Module> modules = Lists.newArrayList(module1, module2);
+
+        stubFor(post(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BATCH))
+                .withRequestBody(equalTo(JsonUtils.serialize(modules)))
+                .willReturn(aResponse()
+                        .withStatus(Status.CREATED.getStatusCode())));
+
+        Exception exception = null;
+
+        try{
+            client.postModules(modules, "user", "password");
+
+        }catch (Exception e) {
+            exception = e;
+        }
+        assertNull(exception);
+    }
+
+    @Test
+    public void postModulesFailed() throws AuthenticationException{
+        final List<Module> modules = Lists.newArrayList(DataModelFactory.createModule("module1", "1.0.0-SNAPSHOT"));
+
+        stubFor(post(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BATCH))
+                .willReturn(aResponse()
+                        .withStatus(Status.BAD_REQUEST.getStatusCode())));
+
+        GrapesCommunicationException exception = null;
+
+        try{
+            client.postModules(modules, "user", "password");
+
+        }catch (GrapesCommunicationException e) {
+            exception = e;
+        }
+        assertNotNull(exception);
+        assertEquals(Status.BAD_REQUEST.getStatusCode(), exception.getHttpStatus());
+    }
+
     @Test
     public void postModuleAuthFailes() throws IOException, AuthenticationException{
         Module module1 = DataModelFactory.createModule("module", "1.0.0-SNAPSHOT");